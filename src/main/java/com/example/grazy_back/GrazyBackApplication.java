@@ -4,12 +4,17 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import jakarta.annotation.PostConstruct;
+import java.time.ZoneId;
 import java.util.TimeZone;
 
 @SpringBootApplication
 @EnableScheduling
 public class GrazyBackApplication 
 {
+	// Fuso dos negócios atendidos: datas de cobrança, meses de uso e horário dos jobs
+	public static final String FUSO_HORARIO = "America/Sao_Paulo";
+	public static final ZoneId ZONA = ZoneId.of(FUSO_HORARIO);
+
 	public static void main(String[] args)
 	{
 		SpringApplication.run(GrazyBackApplication.class, args);
@@ -18,6 +23,6 @@ public class GrazyBackApplication
 	@PostConstruct
 	public void init()
 	{
-		TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+		TimeZone.setDefault(TimeZone.getTimeZone(ZONA));
 	}
 }
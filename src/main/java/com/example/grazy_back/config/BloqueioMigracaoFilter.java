@@ -0,0 +1,86 @@
+package com.example.grazy_back.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.grazy_back.dto.ApiResposta;
+import com.example.grazy_back.security.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recusa com 503 as escritas de um tenant cujos dados estão sendo movidos para o schema
+ * dedicado (ProvisionamentoSchemaService). Leituras continuam no schema compartilhado até a troca.
+ * O bloqueio em memória (avisado pelo barramento) só adianta a recusa; a garantia é a barreira
+ * no banco (GuardaEscritaSchema), cuja recusa também vira 503 aqui.
+ * Roda depois do Spring Security (sem @Order) para enxergar o tenant do token.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BloqueioMigracaoFilter extends OncePerRequestFilter
+{
+    private static final String RETRY_AFTER_SEGUNDOS = "30";
+
+    private final RoteamentoSchema roteamento;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        return !roteamento.isHabilitado()
+            || HttpMethod.GET.matches(request.getMethod())
+            || HttpMethod.HEAD.matches(request.getMethod())
+            || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException
+    {
+        Long tenantId = TenantContext.getCurrentTenantId();
+
+        if (roteamento.isBloqueado(tenantId))
+        {
+            log.debug("[SCHEMA] Escrita do tenant {} recusada durante a migração: {} {}", tenantId, request.getMethod(), request.getRequestURI());
+            recusar(response);
+            return;
+        }
+
+        try
+        {
+            filterChain.doFilter(request, response);
+        }
+        catch (ServletException e)
+        {
+            // Roteamento deste nó estava desatualizado; já foi recarregado e a próxima tentativa vai para o schema dedicado
+            if (!(NestedExceptionUtils.getMostSpecificCause(e) instanceof GuardaEscritaSchema.TenantMovidoException) || response.isCommitted())
+                throw e;
+
+            recusar(response);
+        }
+    }
+
+    private void recusar(HttpServletResponse response) throws IOException
+    {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(),
+            ApiResposta.error("Manutenção em andamento. Tente novamente em alguns instantes."));
+    }
+}
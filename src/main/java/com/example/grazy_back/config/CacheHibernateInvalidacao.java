@@ -0,0 +1,137 @@
+package com.example.grazy_back.config;
+
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.grazy_back.service.BarramentoInvalidacaoService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Mantém o cache de segundo nível coerente entre nós.
+ * Depois do commit de uma alteração em entidade cacheada (Tenant, ConfiguracaoTenant, Servico,
+ * ConteudoSite), publica "hibernate:&lt;entidade&gt;" com o id; ao receber, cada nó remove a entidade,
+ * os natural ids dela e os resultados de consulta em cache (que podem incluí-la).
+ * UPDATE/DELETE em HQL não passa pelos listeners: quem usar chama publicarRegiao.
+ */
+@Component
+public class CacheHibernateInvalidacao implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener
+{
+    private static final Logger log = LoggerFactory.getLogger(CacheHibernateInvalidacao.class);
+
+    private static final String PREFIXO = "hibernate:";
+    private static final String REGIAO_INTEIRA = "*";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final BarramentoInvalidacaoService barramento;
+
+    public CacheHibernateInvalidacao(EntityManagerFactory entityManagerFactory, BarramentoInvalidacaoService barramento)
+    {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.barramento = barramento;
+    }
+
+    @PostConstruct
+    public void registrar()
+    {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.canWriteToCache())
+            {
+                barramento.assinar(PREFIXO + persister.getEntityName(), chave -> remover(persister, chave));
+                log.debug("[CACHE] Invalidação entre nós ativa para {}", persister.getEntityName());
+            }
+        });
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister)
+    {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event)
+    {
+        publicar(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event)
+    {
+        publicar(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event)
+    {
+        publicar(event.getPersister(), event.getId());
+    }
+
+    // Rollback: nada foi alterado, nada a avisar
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event)
+    {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event)
+    {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event)
+    {
+    }
+
+    /**
+     * Avisa os outros nós, depois do commit, que linhas da entidade mudaram por UPDATE/DELETE em massa.
+     * Neste nó o próprio Hibernate já descarta a região ao executar o comando.
+     */
+    public void publicarRegiao(Class<?> entidade)
+    {
+        barramento.publicar(PREFIXO + entidade.getName(), REGIAO_INTEIRA);
+    }
+
+    private void publicar(EntityPersister persister, Object id)
+    {
+        if (persister.canWriteToCache() && id != null)
+            barramento.publicarConfirmado(PREFIXO + persister.getEntityName(), id);
+    }
+
+    private void remover(EntityPersister persister, String chave)
+    {
+        CacheImplementor cache = sessionFactory.getCache();
+
+        // Com schema dedicado as chaves do cache levam o schema da sessão: descarta a região inteira
+        if (REGIAO_INTEIRA.equals(chave) || sessionFactory.getSessionFactoryOptions().isMultiTenancyEnabled())
+            cache.evictEntityData(persister.getEntityName());
+        else
+        {
+            Class<?> tipoId = persister.getIdentifierType().getReturnedClass();
+            cache.evictEntityData(persister.getEntityName(), Long.class.equals(tipoId) ? Long.valueOf(chave) : chave);
+        }
+
+        if (persister.hasNaturalIdCache())
+            cache.evictNaturalIdData(persister.getEntityName());
+
+        cache.evictDefaultQueryRegion();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.grazy_back.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL emitidos pelo Hibernate na thread atual.
+ * Só conta entre iniciar() e finalizar(); fora disso (jobs, workers) não faz nada.
+ */
+public class ContadorConsultas implements StatementInspector
+{
+    private static final ThreadLocal<int[]> CONTADOR = new ThreadLocal<>();
+
+    public static void iniciar()
+    {
+        CONTADOR.set(new int[1]);
+    }
+
+    /**
+     * Encerra a contagem da thread atual.
+     * @return quantidade de comandos executados desde iniciar()
+     */
+    public static int finalizar()
+    {
+        int[] contador = CONTADOR.get();
+        CONTADOR.remove();
+
+        return contador != null ? contador[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql)
+    {
+        int[] contador = CONTADOR.get();
+
+        if (contador != null)
+            contador[0]++;
+
+        return sql;
+    }
+}
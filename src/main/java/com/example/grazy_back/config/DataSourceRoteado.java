@@ -0,0 +1,304 @@
+package com.example.grazy_back.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.example.grazy_back.security.TenantContext;
+import com.example.grazy_back.service.MetricasService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Entrega conexões de réplica para transações somente leitura (@Transactional(readOnly = true),
+ * que inclui os métodos padrão dos repositórios) e do primário para todo o resto.
+ * Volta para o primário quando:
+ * - nenhuma réplica está disponível (atraso acima do limite, replicação parada ou sem conexão);
+ * - o request atual já gravou algo (lê o que acabou de escrever);
+ * - o tenant atual gravou há menos de app.datasource.replicas.fixar-primario-ms neste nó.
+ * Precisa ficar atrás de um LazyConnectionDataSourceProxy: o Hibernate pede a conexão ao abrir a
+ * transação, antes de o Spring marcar a transação como somente leitura.
+ */
+public class DataSourceRoteado extends AbstractDataSource
+{
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRoteado.class);
+
+    private static final String ATRIBUTO_GRAVOU = DataSourceRoteado.class.getName() + ".gravou";
+
+    private final DataSource primario;
+    private final List<Replica> replicas;
+    private final String consultaAtraso;
+    private final long atrasoMaximoSegundos;
+    private final long fixarPrimarioMs;
+    private final MetricasService metricas;
+
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final AtomicLong disponiveis;
+
+    // tenantId -> instante (ms) da última transação de escrita neste nó
+    private final Map<Long, Long> ultimaEscrita = new ConcurrentHashMap<>();
+
+    public DataSourceRoteado(DataSource primario,
+                             List<Replica> replicas,
+                             String consultaAtraso,
+                             long atrasoMaximoSegundos,
+                             long fixarPrimarioMs,
+                             MetricasService metricas)
+    {
+        this.primario = primario;
+        this.replicas = replicas;
+        this.consultaAtraso = consultaAtraso;
+        this.atrasoMaximoSegundos = atrasoMaximoSegundos;
+        this.fixarPrimarioMs = fixarPrimarioMs;
+        this.metricas = metricas;
+        this.disponiveis = metricas.gauge("grazy.datasource.replicas.disponiveis");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+        {
+            if (TransactionSynchronizationManager.isActualTransactionActive())
+                registrarEscrita();
+
+            return primario.getConnection();
+        }
+
+        if (fixadoNoPrimario())
+        {
+            metricas.incrementar("grazy.datasource.leituras", "destino", "primario", "motivo", "escrita-recente");
+            return primario.getConnection();
+        }
+
+        Replica replica = escolherReplica();
+
+        if (replica == null)
+        {
+            metricas.incrementar("grazy.datasource.leituras", "destino", "primario", "motivo", "sem-replica");
+            return primario.getConnection();
+        }
+
+        try
+        {
+            Connection conexao = replica.dataSource().getConnection();
+            metricas.incrementar("grazy.datasource.leituras", "destino", replica.nome(), "motivo", "somente-leitura");
+
+            return conexao;
+        }
+        catch (SQLException e)
+        {
+            marcar(replica, false, "sem conexão: " + e.getMessage());
+            metricas.incrementar("grazy.datasource.leituras", "destino", "primario", "motivo", "falha-replica");
+
+            return primario.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return primario.getConnection(username, password);
+    }
+
+    /**
+     * Confere a cada intervalo se cada réplica responde e se o atraso está dentro do limite.
+     * Sem consulta de atraso configurada (ex: H2 local), basta a conexão ser válida.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.verificacao-ms:5000}")
+    public void verificarReplicas()
+    {
+        for (Replica replica : replicas)
+        {
+            try (Connection conexao = replica.dataSource().getConnection())
+            {
+                if (consultaAtraso == null || consultaAtraso.isBlank())
+                {
+                    boolean valida = conexao.isValid(2);
+                    marcar(replica, valida, valida ? null : "conexão inválida");
+                    continue;
+                }
+
+                Long atraso = atrasoSegundos(conexao);
+
+                if (atraso == null)
+                    marcar(replica, false, "replicação parada");
+                else if (atraso > atrasoMaximoSegundos)
+                    marcar(replica, false, "atraso de " + atraso + "s");
+                else
+                    marcar(replica, true, null);
+            }
+            catch (SQLException e)
+            {
+                marcar(replica, false, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void fechar()
+    {
+        for (Replica replica : replicas)
+        {
+            if (replica.dataSource() instanceof AutoCloseable pool)
+            {
+                try
+                {
+                    pool.close();
+                }
+                catch (Exception e)
+                {
+                    log.warn("[REPLICA] Falha ao fechar pool da réplica {}: {}", replica.nome(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Atraso informado pela réplica (SHOW REPLICA STATUS). Servidor que não é réplica não
+     * devolve linha e conta como atraso zero; replicação parada devolve null.
+     */
+    private Long atrasoSegundos(Connection conexao) throws SQLException
+    {
+        try (Statement st = conexao.createStatement(); ResultSet rs = st.executeQuery(consultaAtraso))
+        {
+            if (!rs.next())
+                return 0L;
+
+            Object atraso;
+
+            try
+            {
+                atraso = rs.getObject("Seconds_Behind_Source");
+            }
+            catch (SQLException e)
+            {
+                // MySQL anterior a 8.0.22 (SHOW SLAVE STATUS)
+                atraso = rs.getObject("Seconds_Behind_Master");
+            }
+
+            return atraso instanceof Number numero ? numero.longValue() : null;
+        }
+    }
+
+    private Replica escolherReplica()
+    {
+        int total = replicas.size();
+
+        for (int i = 0; i < total; i++)
+        {
+            Replica replica = replicas.get(Math.floorMod(proxima.getAndIncrement(), total));
+
+            if (replica.isDisponivel())
+                return replica;
+        }
+
+        return null;
+    }
+
+    private void marcar(Replica replica, boolean disponivel, String motivo)
+    {
+        if (replica.isDisponivel() == disponivel)
+            return;
+
+        replica.setDisponivel(disponivel);
+        disponiveis.set(replicas.stream().filter(Replica::isDisponivel).count());
+
+        if (disponivel)
+            log.info("[REPLICA] Réplica {} disponível para leituras", replica.nome());
+        else
+            log.warn("[REPLICA] Réplica {} fora do roteamento ({}); leituras vão para o primário", replica.nome(), motivo);
+    }
+
+    private void registrarEscrita()
+    {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+
+        if (request != null)
+            request.setAttribute(ATRIBUTO_GRAVOU, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+
+        Long tenantId = TenantContext.getCurrentTenantId();
+
+        if (tenantId != null && fixarPrimarioMs > 0)
+            ultimaEscrita.put(tenantId, System.currentTimeMillis());
+    }
+
+    private boolean fixadoNoPrimario()
+    {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+
+        if (request != null && request.getAttribute(ATRIBUTO_GRAVOU, RequestAttributes.SCOPE_REQUEST) != null)
+            return true;
+
+        if (fixarPrimarioMs <= 0 || ultimaEscrita.isEmpty())
+            return false;
+
+        Long tenantId = TenantContext.getCurrentTenantId();
+
+        if (tenantId == null)
+            return false;
+
+        Long instante = ultimaEscrita.get(tenantId);
+
+        if (instante == null)
+            return false;
+
+        if (System.currentTimeMillis() - instante < fixarPrimarioMs)
+            return true;
+
+        ultimaEscrita.remove(tenantId, instante);
+        return false;
+    }
+
+    /**
+     * Pool de uma réplica; começa fora do roteamento até a primeira verificação.
+     */
+    public static class Replica
+    {
+        private final String nome;
+        private final DataSource dataSource;
+        private volatile boolean disponivel;
+
+        public Replica(String nome, DataSource dataSource)
+        {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+
+        public String nome()
+        {
+            return nome;
+        }
+
+        public DataSource dataSource()
+        {
+            return dataSource;
+        }
+
+        public boolean isDisponivel()
+        {
+            return disponivel;
+        }
+
+        void setDisponivel(boolean disponivel)
+        {
+            this.disponivel = disponivel;
+        }
+    }
+}
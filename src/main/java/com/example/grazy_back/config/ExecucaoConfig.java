@@ -0,0 +1,38 @@
+package com.example.grazy_back.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+import com.example.grazy_back.security.TenantContext;
+import com.example.grazy_back.service.MetricasService;
+
+/**
+ * Execução assíncrona compartilhada.
+ * O executor (applicationTaskExecutor) e o agendador são criados pelo Spring Boot conforme
+ * spring.threads.virtual.enabled e spring.task.*; aqui só ajustamos o contexto das tarefas.
+ */
+@Configuration
+public class ExecucaoConfig
+{
+    /**
+     * Leva o usuário autenticado (e com ele o tenant do JWT) e o tenant das métricas
+     * da thread que submeteu a tarefa para a thread que a executa.
+     */
+    @Bean
+    public TaskDecorator contextoTenantTaskDecorator(MetricasService metricas)
+    {
+        return tarefa -> {
+            Long tenantId = TenantContext.getCurrentTenantId();
+            Runnable comSeguranca = new DelegatingSecurityContextRunnable(tarefa);
+
+            return () -> {
+                try (MetricasService.Escopo escopo = metricas.escopoTenant(tenantId))
+                {
+                    comSeguranca.run();
+                }
+            };
+        };
+    }
+}
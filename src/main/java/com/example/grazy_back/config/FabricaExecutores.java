@@ -0,0 +1,56 @@
+package com.example.grazy_back.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cria os pools internos dos serviços (webhooks, fila de emails, reconciliação).
+ * Os pools continuam limitados (a concorrência contra APIs externas e SMTP é proposital),
+ * mas com spring.threads.virtual.enabled=true as threads passam a ser virtuais,
+ * então uma chamada bloqueada não segura uma thread do sistema operacional.
+ */
+@Component
+@Slf4j
+public class FabricaExecutores
+{
+    private final boolean threadsVirtuais;
+
+    public FabricaExecutores(@Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais)
+    {
+        this.threadsVirtuais = threadsVirtuais;
+        log.info("[EXECUTORES] Modo de execução: {}", threadsVirtuais ? "threads virtuais" : "threads de plataforma");
+    }
+
+    public boolean isThreadsVirtuais()
+    {
+        return threadsVirtuais;
+    }
+
+    /**
+     * Pool com fila ilimitada.
+     * O chamador é responsável pelo shutdown (@PreDestroy).
+     */
+    public ThreadPoolTaskExecutor criar(String prefixo, int threads)
+    {
+        return criar(prefixo, threads, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Pool com fila limitada: com a fila cheia, execute() lança TaskRejectedException.
+     * O chamador é responsável pelo shutdown (@PreDestroy).
+     */
+    public ThreadPoolTaskExecutor criar(String prefixo, int threads, int capacidadeFila)
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(capacidadeFila);
+        executor.setThreadNamePrefix(prefixo);
+        executor.setVirtualThreads(threadsVirtuais);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.grazy_back.config;
+
+import java.util.Objects;
+
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import com.example.grazy_back.security.FiltroTenant;
+import com.example.grazy_back.security.TenantContext;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Complemento do filtro de tenant para entidades no cache de segundo nível (ex: Servico).
+ * O Hibernate devolve a entidade do cache em findById sem aplicar o filtro; aqui o resultado
+ * é descartado se pertencer a outro tenant, como aconteceria na leitura do banco.
+ */
+@Component
+public class FiltroTenantCache implements LoadEventListener
+{
+    private static final String PROPRIEDADE = "tenantId";
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public FiltroTenantCache(EntityManagerFactory entityManagerFactory)
+    {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    @PostConstruct
+    public void registrar()
+    {
+        sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class)
+            .appendListeners(EventType.LOAD, this);
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType)
+    {
+        Object entidade = event.getResult();
+
+        if (entidade == null || event.isAssociationFetch() || !Hibernate.isInitialized(entidade))
+            return;
+
+        if (event.getSession().getEnabledFilter(FiltroTenant.NOME) == null)
+            return;
+
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(event.getEntityClassName());
+
+        if (!persister.canReadFromCache() || !persister.hasFilterForLoadByKey())
+            return;
+
+        Object tenantEntidade = persister.getPropertyValue(entidade, PROPRIEDADE);
+
+        if (!Objects.equals(tenantEntidade, TenantContext.getCurrentTenantId()))
+            event.setResult(null);
+    }
+}
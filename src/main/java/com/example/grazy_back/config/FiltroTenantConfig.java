@@ -0,0 +1,33 @@
+package com.example.grazy_back.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import com.example.grazy_back.security.FiltroTenant;
+
+/**
+ * Habilita o filtro de tenant em todo EntityManager criado pela aplicação
+ * (open-in-view, transações, REQUIRES_NEW, tarefas assíncronas com o contexto propagado).
+ * O tenant é lido no momento da criação: JWT do usuário ou host identificado pelo TenantFilter.
+ */
+@Configuration
+public class FiltroTenantConfig
+{
+    @Bean
+    public static BeanPostProcessor filtroTenantPostProcessor()
+    {
+        return new BeanPostProcessor()
+        {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName)
+            {
+                if (bean instanceof AbstractEntityManagerFactoryBean fabrica)
+                    fabrica.setEntityManagerInitializer(FiltroTenant::aplicar);
+
+                return bean;
+            }
+        };
+    }
+}
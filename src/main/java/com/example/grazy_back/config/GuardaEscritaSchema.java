@@ -0,0 +1,79 @@
+package com.example.grazy_back.config;
+
+import java.sql.SQLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+
+import com.example.grazy_back.security.TenantContext;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Barreira de escrita do schema dedicado, no banco (não depende do aviso do barramento chegar).
+ * Toda transação de escrita de um tenant roteado para o schema compartilhado começa lendo
+ * tenants.schema_dedicado com trava compartilhada (FOR SHARE), na mesma transação:
+ * - enquanto ProvisionamentoSchemaService move os dados, a linha do tenant está travada para
+ *   escrita e a transação espera o fim da movimentação;
+ * - depois do commit da movimentação a flag está ligada: a transação é recusada e o roteamento
+ *   deste nó é recarregado, em vez de gravar linhas no compartilhado que ninguém mais lê.
+ * Transações somente leitura não passam por aqui.
+ */
+public class GuardaEscritaSchema extends HibernateJpaDialect
+{
+    private static final Logger log = LoggerFactory.getLogger(GuardaEscritaSchema.class);
+
+    private static final String CONSULTA = "SELECT schema_dedicado FROM tenants WHERE id = ? FOR SHARE";
+
+    private final transient RoteamentoSchema roteamento;
+
+    public GuardaEscritaSchema(RoteamentoSchema roteamento)
+    {
+        this.roteamento = roteamento;
+    }
+
+    /**
+     * Escrita recusada porque o tenant já foi movido para o schema dedicado.
+     */
+    public static class TenantMovidoException extends CannotCreateTransactionException
+    {
+        public TenantMovidoException(String message)
+        {
+            super(message);
+        }
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+        throws PersistenceException, SQLException
+    {
+        Object dados = super.beginTransaction(entityManager, definition);
+
+        if (definition.isReadOnly())
+            return dados;
+
+        Long tenantId = TenantContext.getCurrentTenantId();
+
+        if (tenantId == null || !RoteamentoSchema.COMPARTILHADO.equals(roteamento.schemaAtual()))
+            return dados;
+
+        Object dedicado = entityManager.createNativeQuery(CONSULTA)
+            .setParameter(1, tenantId)
+            .getResultStream()
+            .findFirst()
+            .orElse(null);
+
+        if (Boolean.TRUE.equals(dedicado) || dedicado instanceof Number n && n.intValue() != 0)
+        {
+            log.warn("[SCHEMA] Escrita do tenant {} recusada: já está no schema dedicado, recarregando roteamento", tenantId);
+            roteamento.carregar();
+            throw new TenantMovidoException("Tenant " + tenantId + " foi movido para o schema dedicado");
+        }
+
+        return dados;
+    }
+}
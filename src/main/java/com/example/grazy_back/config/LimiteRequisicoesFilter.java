@@ -0,0 +1,170 @@
+package com.example.grazy_back.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.grazy_back.dto.ApiResposta;
+import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.service.LimitadorRequisicoes;
+import com.example.grazy_back.service.LimitadorRequisicoes.Limite;
+import com.example.grazy_back.service.MetricasService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limita a taxa de requisições da API antes que cheguem ao Spring Security e ao banco.
+ * Rotas públicas (login, webhook, conteúdo e imagens) têm limite por IP; toda requisição
+ * com tenant identificado pelo TenantFilter consome também do balde do tenant, com vazão
+ * definida pelo plano (PlanoEnum). Acima do limite responde 429 com Retry-After.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class LimiteRequisicoesFilter extends OncePerRequestFilter
+{
+    private final LimitadorRequisicoes limitador;
+    private final MetricasService metricas;
+    private final ObjectMapper objectMapper;
+
+    private final boolean habilitado;
+    private final Limite limiteAuth;
+    private final Limite limiteWebhook;
+    private final Limite limitePublico;
+    private final double fatorTenant;
+    private final int rajadaSegundosTenant;
+
+    public LimiteRequisicoesFilter(LimitadorRequisicoes limitador,
+                                   MetricasService metricas,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.limite-requisicoes.habilitado:true}") boolean habilitado,
+                                   @Value("${app.limite-requisicoes.auth.por-minuto:20}") double authPorMinuto,
+                                   @Value("${app.limite-requisicoes.auth.rajada:10}") int authRajada,
+                                   @Value("${app.limite-requisicoes.webhook.por-segundo:20}") double webhookPorSegundo,
+                                   @Value("${app.limite-requisicoes.webhook.rajada:100}") int webhookRajada,
+                                   @Value("${app.limite-requisicoes.publico.por-segundo:20}") double publicoPorSegundo,
+                                   @Value("${app.limite-requisicoes.publico.rajada:60}") int publicoRajada,
+                                   @Value("${app.limite-requisicoes.tenant.fator:1.0}") double fatorTenant,
+                                   @Value("${app.limite-requisicoes.tenant.rajada-segundos:5}") int rajadaSegundosTenant)
+    {
+        this.limitador = limitador;
+        this.metricas = metricas;
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+        this.limiteAuth = new Limite(authPorMinuto / 60.0, authRajada);
+        this.limiteWebhook = new Limite(webhookPorSegundo, webhookRajada);
+        this.limitePublico = new Limite(publicoPorSegundo, publicoRajada);
+        this.fatorTenant = fatorTenant;
+        this.rajadaSegundosTenant = rajadaSegundosTenant;
+
+        // Falha na subida em vez de em cada requisição com tenant (Limite recusa vazão zero)
+        if (!(fatorTenant > 0))
+            throw new IllegalArgumentException("app.limite-requisicoes.tenant.fator deve ser positivo: " + fatorTenant);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        return !habilitado || !request.getRequestURI().startsWith("/api/")
+            || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException
+    {
+        String categoria = categoria(request);
+
+        if (categoria != null)
+        {
+            Limite limite = switch (categoria)
+            {
+                case "auth" -> limiteAuth;
+                case "webhook" -> limiteWebhook;
+                default -> limitePublico;
+            };
+
+            // Atrás de proxy, o Tomcat (RemoteIpValve) já trocou o remoteAddr pelo primeiro salto
+            // não confiável do X-Forwarded-For, contado da direita: o cliente não escolhe a chave
+            long espera = limitador.consumir("ip:" + categoria + ":" + request.getRemoteAddr(), limite);
+
+            if (espera > 0)
+            {
+                recusar(response, espera, categoria, "ip");
+                return;
+            }
+        }
+
+        if (request.getAttribute("tenant") instanceof Tenant tenant && tenant.getPlano() != null)
+        {
+            double porSegundo = tenant.getPlano().getRequisicoesPorSegundo() * fatorTenant;
+            Limite limite = new Limite(porSegundo, (int) Math.ceil(porSegundo * rajadaSegundosTenant));
+
+            long espera = limitador.consumir("tenant:" + tenant.getId(), limite);
+
+            if (espera > 0)
+            {
+                recusar(response, espera, categoria != null ? categoria : "api", "tenant");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Grupo de limite por IP da rota, ou null para rotas limitadas só pelo tenant.
+     */
+    private String categoria(HttpServletRequest request)
+    {
+        String uri = request.getRequestURI();
+
+        // Só as rotas que verificam senha; refresh e validate entram como públicas
+        if (uri.startsWith("/api/auth/login"))
+            return "auth";
+
+        if (uri.startsWith("/api/auth/"))
+            return "publico";
+
+        if (uri.equals("/api/pagamentos/webhook"))
+            return "webhook";
+
+        if (HttpMethod.GET.matches(request.getMethod())
+            && (uri.startsWith("/api/conteudo/") || uri.startsWith("/api/images/")
+                || uri.startsWith("/api/servicos") || uri.startsWith("/api/config/")
+                || uri.startsWith("/api/tenant/publico/") || uri.equals("/api/tenant/info")))
+            return "publico";
+
+        return null;
+    }
+
+    private void recusar(HttpServletResponse response, long esperaNanos, String categoria, String escopo) throws IOException
+    {
+        long segundos = Math.max(1, (esperaNanos + 999_999_999L) / 1_000_000_000L);
+
+        metricas.incrementar("grazy.limite.recusadas", "categoria", categoria, "escopo", escopo);
+        log.debug("[LIMITE] Requisição recusada ({} por {}), tentar em {}s", categoria, escopo, segundos);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(),
+            ApiResposta.error("Muitas requisições. Tente novamente em " + segundos + "s."));
+    }
+}
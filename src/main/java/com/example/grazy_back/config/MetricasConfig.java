@@ -0,0 +1,68 @@
+package com.example.grazy_back.config;
+
+import java.io.IOException;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.grazy_back.service.MetricasService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Métricas que dependem da infraestrutura web/JPA: quantidade de comandos SQL por endpoint.
+ * Os demais medidores são registrados diretamente pelos serviços via MetricasService.
+ */
+@Configuration
+public class MetricasConfig
+{
+    @Bean
+    public HibernatePropertiesCustomizer contadorConsultasCustomizer()
+    {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorConsultas());
+    }
+
+    /**
+     * Registra "grazy.http.consultas" por padrão de URI (ex: /api/agendamento/{id}) e método.
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> consultasPorRequisicaoFilter(MetricasService metricas)
+    {
+        OncePerRequestFilter filtro = new OncePerRequestFilter()
+        {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException
+            {
+                ContadorConsultas.iniciar();
+
+                try
+                {
+                    filterChain.doFilter(request, response);
+                }
+                finally
+                {
+                    int consultas = ContadorConsultas.finalizar();
+                    Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+                    metricas.registrarValor("grazy.http.consultas", consultas,
+                        "uri", padrao != null ? padrao.toString() : "UNKNOWN",
+                        "method", request.getMethod());
+                }
+            }
+        };
+
+        FilterRegistrationBean<OncePerRequestFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.grazy_back.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.example.grazy_back.service.MetricasService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Réplicas de leitura, ligadas só com app.datasource.replicas.habilitado=true.
+ * O primário continua vindo de spring.datasource (e spring.datasource.hikari); cada URL em
+ * app.datasource.replicas.urls ganha um pool com as mesmas configurações, somente leitura.
+ * O DataSource da aplicação passa a ser DataSourceRoteado atrás de um LazyConnectionDataSourceProxy;
+ * o Flyway migra sempre o primário.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.habilitado", havingValue = "true")
+public class ReplicaLeituraConfig
+{
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLeituraConfig.class);
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties)
+    {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+
+        return dataSource;
+    }
+
+    @Bean
+    public DataSourceRoteado roteamentoLeitura(HikariDataSource dataSourcePrimario,
+                                               MetricasService metricas,
+                                               @Value("${app.datasource.replicas.urls:}") List<String> urls,
+                                               @Value("${app.datasource.replicas.username:}") String username,
+                                               @Value("${app.datasource.replicas.password:}") String password,
+                                               @Value("${app.datasource.replicas.consulta-atraso:SHOW REPLICA STATUS}") String consultaAtraso,
+                                               @Value("${app.datasource.replicas.atraso-maximo-segundos:5}") long atrasoMaximoSegundos,
+                                               @Value("${app.datasource.replicas.fixar-primario-ms:2000}") long fixarPrimarioMs)
+    {
+        List<DataSourceRoteado.Replica> replicas = new ArrayList<>();
+
+        for (String url : urls)
+        {
+            if (url.isBlank())
+                continue;
+
+            String nome = "replica-" + (replicas.size() + 1);
+
+            HikariConfig config = new HikariConfig();
+            dataSourcePrimario.copyStateTo(config);
+            config.setPoolName(nome);
+            config.setJdbcUrl(url.trim());
+            config.setReadOnly(true);
+            // Réplica fora do ar não impede a subida: as leituras ficam no primário
+            config.setInitializationFailTimeout(-1);
+
+            if (!username.isBlank())
+            {
+                config.setUsername(username);
+                config.setPassword(password);
+            }
+
+            replicas.add(new DataSourceRoteado.Replica(nome, new HikariDataSource(config)));
+        }
+
+        if (replicas.isEmpty())
+            log.warn("[REPLICA] app.datasource.replicas.habilitado=true sem URLs: todas as leituras vão para o primário");
+        else
+            log.info("[REPLICA] {} réplica(s) de leitura configurada(s)", replicas.size());
+
+        return new DataSourceRoteado(dataSourcePrimario, replicas, consultaAtraso, atrasoMaximoSegundos, fixarPrimarioMs, metricas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceRoteado roteamentoLeitura)
+    {
+        return new LazyConnectionDataSourceProxy(roteamentoLeitura);
+    }
+
+    /**
+     * Devolve a conexão ao fim de cada transação (o padrão do Spring a segura até fechar o
+     * EntityManager, que com open-in-view dura o request inteiro): cada transação escolhe de novo
+     * entre réplica e primário.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaLeituraCustomizer()
+    {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.grazy_back.config;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.grazy_back.security.TenantContext;
+
+/**
+ * Decide em qual schema do MySQL cada sessão do Hibernate trabalha.
+ * Tenants com schema dedicado (Tenant.schemaDedicado) usam o próprio Tenant.databaseSchema;
+ * os demais, o schema compartilhado. Jobs que varrem todos os tenants usam paraCadaSchema.
+ * Só tem efeito com app.tenancy.schema-dedicado.habilitado=true (SchemaTenantConfig).
+ */
+@Component
+public class RoteamentoSchema
+{
+    private static final Logger log = LoggerFactory.getLogger(RoteamentoSchema.class);
+
+    public static final String COMPARTILHADO = "compartilhado";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+
+    // tenantId -> schema dedicado
+    private final Map<Long, String> schemas = new ConcurrentHashMap<>();
+
+    // tenantId -> fim (System.nanoTime) do bloqueio de escrita enquanto os dados são movidos
+    private final Map<Long, Long> bloqueados = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> forcado = new ThreadLocal<>();
+
+    public RoteamentoSchema(DataSource dataSource, @Value("${app.tenancy.schema-dedicado.habilitado:false}") boolean habilitado)
+    {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado()
+    {
+        return habilitado;
+    }
+
+    /**
+     * Schema da sessão que está sendo aberta: o forçado pelo job, o do tenant atual ou o compartilhado.
+     */
+    public String schemaAtual()
+    {
+        String schema = forcado.get();
+
+        if (schema != null)
+            return schema;
+
+        return schemaDoTenant(TenantContext.getCurrentTenantId());
+    }
+
+    public String schemaDoTenant(Long tenantId)
+    {
+        return tenantId != null ? schemas.getOrDefault(tenantId, COMPARTILHADO) : COMPARTILHADO;
+    }
+
+    /**
+     * Relê da tabela tenants quais tenants têm schema dedicado (JDBC direto: é chamado
+     * também enquanto o Hibernate ainda não terminou de subir).
+     */
+    public void carregar()
+    {
+        if (!habilitado)
+            return;
+
+        Map<Long, String> atuais = new ConcurrentHashMap<>();
+
+        jdbcTemplate.query("select id, database_schema from tenants where schema_dedicado = true and database_schema is not null",
+            rs -> { atuais.put(rs.getLong(1), rs.getString(2)); });
+
+        schemas.keySet().retainAll(atuais.keySet());
+        schemas.putAll(atuais);
+        log.info("[SCHEMA] {} tenant(s) com schema dedicado", schemas.size());
+    }
+
+    public void registrar(Long tenantId, String schema)
+    {
+        schemas.put(tenantId, schema);
+    }
+
+    /**
+     * Recusa escritas do tenant (BloqueioMigracaoFilter) durante a movimentação para o schema dedicado.
+     * Expira sozinho se o nó que move os dados cair antes de liberar.
+     */
+    public void bloquear(Long tenantId, Duration duracaoMaxima)
+    {
+        bloqueados.put(tenantId, System.nanoTime() + duracaoMaxima.toNanos());
+    }
+
+    public void liberar(Long tenantId)
+    {
+        bloqueados.remove(tenantId);
+    }
+
+    public boolean isBloqueado(Long tenantId)
+    {
+        if (tenantId == null || bloqueados.isEmpty())
+            return false;
+
+        Long fim = bloqueados.get(tenantId);
+
+        if (fim == null)
+            return false;
+
+        if (System.nanoTime() - fim > 0)
+        {
+            bloqueados.remove(tenantId, fim);
+            return false;
+        }
+
+        return true;
+    }
+
+    public Set<String> schemasDedicados()
+    {
+        return new LinkedHashSet<>(schemas.values());
+    }
+
+    /**
+     * Executa com as sessões abertas no schema informado (jobs, provisionamento).
+     */
+    public <T> T executarNoSchema(String schema, Supplier<T> tarefa)
+    {
+        String anterior = forcado.get();
+        forcado.set(schema);
+
+        try
+        {
+            return tarefa.get();
+        }
+        finally
+        {
+            if (anterior != null)
+                forcado.set(anterior);
+            else
+                forcado.remove();
+        }
+    }
+
+    /**
+     * Executa a tarefa uma vez no schema compartilhado e uma vez em cada schema dedicado.
+     * @return soma dos resultados
+     */
+    public int paraCadaSchema(Supplier<Integer> tarefa)
+    {
+        int total = executarNoSchema(COMPARTILHADO, tarefa);
+
+        if (!habilitado)
+            return total;
+
+        for (String schema : schemasDedicados())
+        {
+            try
+            {
+                total += executarNoSchema(schema, tarefa);
+            }
+            catch (Exception e)
+            {
+                log.error("[SCHEMA] Falha ao executar no schema {}: {}", schema, e.getMessage());
+            }
+        }
+
+        return total;
+    }
+}
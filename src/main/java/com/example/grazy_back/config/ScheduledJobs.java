@@ -3,6 +3,8 @@ package com.example.grazy_back.config;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.example.grazy_back.GrazyBackApplication;
+import com.example.grazy_back.service.MetricasService;
 import com.example.grazy_back.service.TenantService;
 
 import lombok.RequiredArgsConstructor;
@@ -15,23 +17,21 @@ import lombok.extern.slf4j.Slf4j;
 public class ScheduledJobs 
 {
     private final TenantService tenantService;
+    private final MetricasService metricas;
 
     /**
      * Reseta os contadores de agendamentos mensais de todos os tenants.
      * Executado no primeiro dia de cada mês às 00:01.
      */
-    @Scheduled(cron = "0 1 0 1 * *")
+    @Scheduled(cron = "0 1 0 1 * *", zone = GrazyBackApplication.FUSO_HORARIO)
     public void resetarContadoresMensais() 
     {
         log.info("Executando job de reset de contadores mensais...");
-        try 
-        {
+
+        metricas.executarJob("reset-contadores-mensais", () -> {
             tenantService.resetarContadoresMensais();
             log.info("Contadores mensais resetados com sucesso");
-        } 
-        catch (Exception e) 
-        {
-            log.error("Erro ao resetar contadores mensais: {}", e.getMessage(), e);
-        }
+            return 0;
+        });
     }
 }
@@ -0,0 +1,174 @@
+package com.example.grazy_back.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Multi-tenancy por schema do Hibernate, ligada só com app.tenancy.schema-dedicado.habilitado=true.
+ * Cada sessão recebe o schema de RoteamentoSchema e a conexão troca de database (USE) ao ser
+ * entregue à sessão; ao ser devolvida, volta para o schema compartilhado.
+ * As transações de escrita passam pela barreira de GuardaEscritaSchema.
+ * Desligado, o Hibernate trabalha como antes, sem identificador de tenant nas sessões.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.tenancy.schema-dedicado.habilitado", havingValue = "true")
+public class SchemaTenantConfig
+{
+    @Bean
+    public HibernatePropertiesCustomizer schemaTenantCustomizer(DataSource dataSource, RoteamentoSchema roteamento)
+    {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, new ConexaoPorSchema(dataSource));
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new ResolvedorSchema(roteamento));
+        };
+    }
+
+    /**
+     * Mesmo gerenciador de transações do Spring Boot, com o dialeto que confere no banco se o
+     * tenant ainda está no schema compartilhado antes de cada transação de escrita.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(RoteamentoSchema roteamento,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers)
+    {
+        GuardaEscritaSchema dialeto = new GuardaEscritaSchema(roteamento);
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager()
+        {
+            @Override
+            public void afterPropertiesSet()
+            {
+                // O padrão copia o dialeto da EntityManagerFactory por cima do nosso
+                super.afterPropertiesSet();
+                setJpaDialect(dialeto);
+            }
+        };
+
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    static class ResolvedorSchema implements CurrentTenantIdentifierResolver<String>
+    {
+        private final RoteamentoSchema roteamento;
+
+        ResolvedorSchema(RoteamentoSchema roteamento)
+        {
+            this.roteamento = roteamento;
+        }
+
+        @Override
+        public String resolveCurrentTenantIdentifier()
+        {
+            return roteamento.schemaAtual();
+        }
+
+        @Override
+        public boolean validateExistingCurrentSessions()
+        {
+            return false;
+        }
+    }
+
+    static class ConexaoPorSchema implements MultiTenantConnectionProvider<String>
+    {
+        private final DataSource dataSource;
+        private volatile String schemaCompartilhado;
+
+        ConexaoPorSchema(DataSource dataSource)
+        {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public Connection getAnyConnection() throws SQLException
+        {
+            Connection conexao = dataSource.getConnection();
+
+            if (schemaCompartilhado == null)
+                schemaCompartilhado = conexao.getCatalog();
+
+            return conexao;
+        }
+
+        @Override
+        public void releaseAnyConnection(Connection conexao) throws SQLException
+        {
+            conexao.close();
+        }
+
+        @Override
+        public Connection getConnection(String schema) throws SQLException
+        {
+            Connection conexao = getAnyConnection();
+
+            if (!RoteamentoSchema.COMPARTILHADO.equals(schema))
+            {
+                try
+                {
+                    conexao.setCatalog(schema);
+                }
+                catch (SQLException e)
+                {
+                    conexao.close();
+                    throw e;
+                }
+            }
+
+            return conexao;
+        }
+
+        @Override
+        public void releaseConnection(String schema, Connection conexao) throws SQLException
+        {
+            try
+            {
+                if (!RoteamentoSchema.COMPARTILHADO.equals(schema) && schemaCompartilhado != null)
+                    conexao.setCatalog(schemaCompartilhado);
+            }
+            finally
+            {
+                conexao.close();
+            }
+        }
+
+        @Override
+        public boolean supportsAggressiveRelease()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isUnwrappableAs(Class<?> tipo)
+        {
+            return tipo.isInstance(this) || tipo.isInstance(dataSource);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T unwrap(Class<T> tipo)
+        {
+            if (tipo.isInstance(this))
+                return (T) this;
+
+            if (tipo.isInstance(dataSource))
+                return (T) dataSource;
+
+            throw new IllegalArgumentException("Tipo não suportado: " + tipo);
+        }
+    }
+}
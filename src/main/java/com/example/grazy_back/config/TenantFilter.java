@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.service.MetricasService;
 import com.example.grazy_back.service.TenantService;
 
 import jakarta.servlet.FilterChain;
@@ -31,6 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 public class TenantFilter extends OncePerRequestFilter
 {
     private final TenantService tenantService;
+    private final MetricasService metricas;
     
     @Value("${app.domain:grazybeauty.com.br}")
     private String appDomain;
@@ -50,7 +52,10 @@ public class TenantFilter extends OncePerRequestFilter
             // Remove porta se existir (ex: localhost:8080 -> localhost)
             host = host.split(":")[0];
             
+            long inicio = System.nanoTime();
             Optional<Tenant> tenant = identificarTenant(host);
+            metricas.registrarTempo("grazy.tenant.resolucao", System.nanoTime() - inicio,
+                "resultado", tenant.isPresent() ? "encontrado" : "nao_encontrado");
             
             if (tenant.isPresent())
             {
@@ -3,6 +3,7 @@ package com.example.grazy_back.controller;
 import java.util.List;
 import java.time.LocalDate;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -16,8 +17,12 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.grazy_back.DTO.AgendamentoRequest;
 import com.example.grazy_back.dto.ApiResposta;
 import com.example.grazy_back.dto.CancelamentoRequest;
+import com.example.grazy_back.dto.EstatisticaAgendamentosResponse;
 import com.example.grazy_back.model.Agendamento;
+import com.example.grazy_back.security.TenantContext;
 import com.example.grazy_back.service.AgendamentoService;
+import com.example.grazy_back.service.EstatisticaAgendamentosService;
+import com.example.grazy_back.service.MedicaoUsoService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,9 +38,12 @@ public class AgendamentoController
 {
     private final AgendamentoService service;
 
-    public AgendamentoController(AgendamentoService service)
+    private final EstatisticaAgendamentosService estatisticaService;
+
+    public AgendamentoController(AgendamentoService service, EstatisticaAgendamentosService estatisticaService)
     {
         this.service = service;
+        this.estatisticaService = estatisticaService;
     }
 
     @PostMapping
@@ -43,13 +51,21 @@ public class AgendamentoController
     @ApiResponses({
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Agendamento criado",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = com.example.grazy_back.model.Agendamento.class))),
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Dados inválidos ou IDs não encontrados", content = @Content)
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Dados inválidos ou IDs não encontrados", content = @Content),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Limite de agendamentos do plano atingido", content = @Content)
     })
     public ResponseEntity<ApiResposta<Agendamento>> criar(@RequestBody AgendamentoRequest req) 
     {
-        return service.criar(req)
-                .map(a -> ResponseEntity.ok(ApiResposta.of(a)))
-                .orElse(ResponseEntity.badRequest().body(ApiResposta.error("Dados inválidos ou IDs não encontrados")));
+        try
+        {
+            return service.criar(req)
+                    .map(a -> ResponseEntity.ok(ApiResposta.of(a)))
+                    .orElse(ResponseEntity.badRequest().body(ApiResposta.error("Dados inválidos ou IDs não encontrados")));
+        }
+        catch (MedicaoUsoService.LimiteExcedidoException e)
+        {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResposta.<Agendamento>error(e.getMessage()));
+        }
     }
 
     @GetMapping
@@ -86,6 +102,16 @@ public class AgendamentoController
         return ResponseEntity.ok(ApiResposta.of(total));
     }
 
+    @GetMapping("/estatistica/taxas")
+    @Operation(summary = "Taxas de finalização, cancelamento e falta",
+        description = "Últimos 7, 30 e 90 dias: no total e por serviço, dia da semana e hora do agendamento. "
+            + "Inclui cancelamentos a menos de 24h e faltas de quem recebeu ou não o lembrete, "
+            + "para calibrar a antecedência mínima e o horário dos lembretes.")
+    public ResponseEntity<ApiResposta<EstatisticaAgendamentosResponse>> taxas()
+    {
+        return ResponseEntity.ok(ApiResposta.of(estatisticaService.taxas(TenantContext.requireTenantId())));
+    }
+
     @PutMapping("/{id}/finalizar")
     @Operation(summary = "Finaliza um agendamento")
     public ResponseEntity<ApiResposta<Agendamento>> finalizar(@PathVariable Long id) 
@@ -105,6 +131,15 @@ public class AgendamentoController
                 .orElse(ResponseEntity.badRequest().body(ApiResposta.error("Não foi possível cancelar (ID inexistente ou já finalizado)")));
     }
 
+    @PutMapping("/{id}/nao-compareceu")
+    @Operation(summary = "Marca a falta do cliente", description = "Só para agendamentos pendentes")
+    public ResponseEntity<ApiResposta<Agendamento>> naoCompareceu(@PathVariable Long id)
+    {
+        return service.naoCompareceu(id)
+                .map(a -> ResponseEntity.ok(ApiResposta.of(a)))
+                .orElse(ResponseEntity.badRequest().body(ApiResposta.error("Não foi possível marcar a falta (ID inexistente, finalizado ou cancelado)")));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualiza um agendamento")
     public ResponseEntity<ApiResposta<Agendamento>> atualizar(@PathVariable Long id, @RequestBody AgendamentoRequest req)
@@ -4,13 +4,18 @@ import com.example.grazy_back.dto.ApiResposta;
 import com.example.grazy_back.dto.LoginRequest;
 import com.example.grazy_back.dto.LoginResponse;
 import com.example.grazy_back.dto.LoginResponseV2;
+import com.example.grazy_back.dto.RefreshTokenRequest;
 import com.example.grazy_back.dto.ValidationResponse;
 import com.example.grazy_back.security.JwtUtil;
 import com.example.grazy_back.service.AuthService;
 import com.example.grazy_back.service.TenantService;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -60,7 +65,8 @@ public class AuthController
     @Operation(summary = "Login V2", description = "Autentica usuário do sistema multi-tenant")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login realizado com sucesso"),
-        @ApiResponse(responseCode = "401", description = "Credenciais inválidas")
+        @ApiResponse(responseCode = "401", description = "Credenciais inválidas"),
+        @ApiResponse(responseCode = "503", description = "Muitos logins simultâneos; tente novamente")
     })
     public ResponseEntity<ApiResposta<LoginResponseV2>> loginV2(
             @RequestBody LoginRequest req,
@@ -115,6 +121,35 @@ public class AuthController
                 .body(new ApiResposta<>(false, null, "Credenciais inválidas, conta inativa ou tenant incorreto", java.time.Instant.now())));
     }
 
+    /**
+     * Renova o token de acesso do login V2. O refresh token enviado deixa de valer e
+     * um novo vem na resposta.
+     */
+    @PostMapping("/refresh")
+    @Operation(summary = "Renovar token", description = "Troca um refresh token por um novo token de acesso e um novo refresh token")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tokens renovados"),
+        @ApiResponse(responseCode = "401", description = "Refresh token inválido, expirado ou revogado")
+    })
+    public ResponseEntity<ApiResposta<LoginResponseV2>> refresh(@RequestBody RefreshTokenRequest req)
+    {
+        return authService.renovar(req.getRefreshToken())
+            .map(response -> ResponseEntity.ok(ApiResposta.of(response, "Token renovado")))
+            .orElse(ResponseEntity.status(401)
+                .body(new ApiResposta<>(false, null, "Sessão expirada. Faça login novamente.", java.time.Instant.now())));
+    }
+
+    /**
+     * Encerra a sessão: revoga o refresh token (e os gerados a partir do mesmo login).
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revoga o refresh token da sessão")
+    public ResponseEntity<ApiResposta<Void>> logout(@RequestBody RefreshTokenRequest req)
+    {
+        authService.encerrarSessao(req.getRefreshToken());
+        return ResponseEntity.ok(ApiResposta.of(null, "Sessão encerrada"));
+    }
+
     /**
      * Login original (compatibilidade com código antigo - admin fixo).
      */
@@ -124,7 +159,8 @@ public class AuthController
         @ApiResponse(responseCode = "200", description = "Login realizado com sucesso",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = LoginResponse.class))),
         @ApiResponse(responseCode = "400", description = "Requisição inválida (faltando usuário ou senha)", content = @Content),
-        @ApiResponse(responseCode = "401", description = "Credenciais inválidas", content = @Content)
+        @ApiResponse(responseCode = "401", description = "Credenciais inválidas", content = @Content),
+        @ApiResponse(responseCode = "503", description = "Muitos logins simultâneos; tente novamente", content = @Content)
     })
     public ResponseEntity<?> login(
             @RequestBody LoginRequest req,
@@ -152,11 +188,11 @@ public class AuthController
         }
         
         // Usuários normais: tenta autenticar via banco
-        var authResult = authService.autenticar(req.getUsername(), req.getSenha(), tenantIdFromHost);
+        var authResult = authService.autenticarLegado(req.getUsername(), req.getSenha(), tenantIdFromHost);
         if (authResult.isPresent()) 
         {
             log.info("[AUTH] Login de usuário do banco bem-sucedido: {}", req.getUsername());
-            return ResponseEntity.ok(new LoginResponse(authResult.get().getToken()));
+            return ResponseEntity.ok(new LoginResponse(authResult.get()));
         }
 
         log.warn("[AUTH] Falha no login para usuário: {} (Host: {}, TenantId: {})", 
@@ -233,4 +269,16 @@ public class AuthController
             return ResponseEntity.status(401).body(new ValidationResponse(false, "Token inválido ou expirado: " + e.getMessage(), null));
         }
     }
+
+    /**
+     * Pool de verificação de senha saturado (pico de logins): recusa rápido para o cliente tentar de novo.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ApiResposta<Void>> loginSaturado(TaskRejectedException e)
+    {
+        log.warn("[AUTH] Login recusado por saturação: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(ApiResposta.error("Muitos logins simultâneos. Tente novamente em instantes."));
+    }
 }
@@ -8,10 +8,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.grazy_back.DTO.ClienteRequestDTO;
 import com.example.grazy_back.dto.ApiResposta;
+import com.example.grazy_back.dto.ClienteBuscaItem;
+import com.example.grazy_back.dto.ClienteDuplicataItem;
+import com.example.grazy_back.dto.ClienteEstatisticaItem;
+import com.example.grazy_back.dto.MesclagemClientesRequest;
+import com.example.grazy_back.dto.Pagina;
 import com.example.grazy_back.model.Cliente;
 import com.example.grazy_back.service.ClienteService;
 
@@ -66,6 +72,24 @@ public class ClienteController
         return ResponseEntity.ok(ApiResposta.of(service.listarTodos()));
     }
 
+    @GetMapping("/busca")
+    @Operation(summary = "Busca clientes",
+        description = "Busca por começo do nome (uma ou mais palavras, sem diferenciar acentos), telefone em qualquer formato ou email. Resultados ranqueados e limitados",
+        parameters = {
+            @Parameter(name = "q", description = "Termo buscado", required = true),
+            @Parameter(name = "limite", description = "Máximo de resultados (padrão 20, máximo 50)")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Clientes encontrados",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ApiResposta.class)))
+        })
+    public ResponseEntity<ApiResposta<List<ClienteBuscaItem>>> buscar(@RequestParam("q") String termo,
+                                                                       @RequestParam(required = false) Integer limite) 
+    {
+        return ResponseEntity.ok(ApiResposta.of(service.buscar(termo, limite)));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualiza cliente",
         parameters = {
@@ -86,4 +110,124 @@ public class ClienteController
                 .map(u -> ResponseEntity.ok(ApiResposta.of(u)))
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @GetMapping("/estatisticas")
+    @Operation(summary = "Estatísticas dos clientes",
+        description = "Visitas, valor gasto, ticket médio, cadência, risco de churn e serviços preferidos de cada cliente, paginados",
+        parameters = {
+            @Parameter(name = "ordem", description = "valor (padrão), visitas ou recentes"),
+            @Parameter(name = "pagina", description = "Página, a partir de 0"),
+            @Parameter(name = "tamanho", description = "Itens por página (padrão 20, máximo 100)")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Página de estatísticas",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ApiResposta.class)))
+        })
+    public ResponseEntity<ApiResposta<Pagina<ClienteEstatisticaItem>>> listarEstatisticas(@RequestParam(required = false) String ordem,
+                                                                                          @RequestParam(required = false) Integer pagina,
+                                                                                          @RequestParam(required = false) Integer tamanho) 
+    {
+        return ResponseEntity.ok(ApiResposta.of(service.listarEstatisticas(ordem, pagina, tamanho)));
+    }
+
+    @GetMapping("/reativar")
+    @Operation(summary = "Clientes para reativar",
+        description = "Clientes sem visita há mais tempo do que o normal para eles, os mais atrasados primeiro",
+        parameters = {
+            @Parameter(name = "pagina", description = "Página, a partir de 0"),
+            @Parameter(name = "tamanho", description = "Itens por página (padrão 20, máximo 100)")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Página de clientes em risco",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ApiResposta.class)))
+        })
+    public ResponseEntity<ApiResposta<Pagina<ClienteEstatisticaItem>>> paraReativar(@RequestParam(required = false) Integer pagina,
+                                                                                    @RequestParam(required = false) Integer tamanho) 
+    {
+        return ResponseEntity.ok(ApiResposta.of(service.paraReativar(pagina, tamanho)));
+    }
+
+    @GetMapping("/{id}/estatisticas")
+    @Operation(summary = "Estatísticas de um cliente",
+        parameters = {
+            @Parameter(name = "id", description = "ID do cliente", required = true)
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Estatísticas do cliente",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ApiResposta.class))),
+            @ApiResponse(responseCode = "404", description = "Cliente não encontrado", content = @Content)
+        })
+    public ResponseEntity<ApiResposta<ClienteEstatisticaItem>> estatisticas(@PathVariable Long id) 
+    {
+        return service.estatisticas(id)
+                .map(e -> ResponseEntity.ok(ApiResposta.of(e)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/duplicatas")
+    @Operation(summary = "Lista clientes duplicados",
+        description = "Pares de clientes que parecem ser a mesma pessoa (mesmo telefone ou email e nome parecido), do mais provável para o menos",
+        parameters = {
+            @Parameter(name = "limite", description = "Máximo de sugestões (padrão 50, máximo 200)")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Sugestões pendentes",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ApiResposta.class)))
+        })
+    public ResponseEntity<ApiResposta<List<ClienteDuplicataItem>>> listarDuplicatas(@RequestParam(required = false) Integer limite) 
+    {
+        return ResponseEntity.ok(ApiResposta.of(service.listarDuplicatas(limite)));
+    }
+
+    @PostMapping("/duplicatas/{id}/ignorar")
+    @Operation(summary = "Ignora sugestão de duplicata",
+        description = "Marca o par como pessoas diferentes; ele não é sugerido de novo",
+        parameters = {
+            @Parameter(name = "id", description = "ID da sugestão", required = true)
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Sugestão ignorada",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ApiResposta.class))),
+            @ApiResponse(responseCode = "404", description = "Sugestão não encontrada", content = @Content)
+        })
+    public ResponseEntity<ApiResposta<Void>> ignorarDuplicata(@PathVariable Long id) 
+    {
+        if (!service.ignorarDuplicata(id))
+            return ResponseEntity.notFound().build();
+
+        return ResponseEntity.ok(ApiResposta.of(null, "Sugestão ignorada"));
+    }
+
+    @PostMapping("/{id}/mesclar")
+    @Operation(summary = "Mescla clientes duplicados",
+        description = "Passa os agendamentos dos duplicados para o cliente informado, completa os dados vazios dele e apaga os duplicados",
+        parameters = {
+            @Parameter(name = "id", description = "ID do cliente que permanece", required = true)
+        },
+        requestBody = @RequestBody(required = true,
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = MesclagemClientesRequest.class))),
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Clientes mesclados",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ApiResposta.class))),
+            @ApiResponse(responseCode = "400", description = "Cliente inexistente ou lista vazia", content = @Content)
+        })
+    public ResponseEntity<ApiResposta<Cliente>> mesclar(@PathVariable Long id, @org.springframework.web.bind.annotation.RequestBody MesclagemClientesRequest req) 
+    {
+        try 
+        {
+            Cliente principal = service.mesclar(id, req.getDuplicados() != null ? req.getDuplicados() : List.of());
+            return ResponseEntity.ok(ApiResposta.of(principal, "Clientes mesclados"));
+        } 
+        catch (IllegalArgumentException e) 
+        {
+            return ResponseEntity.badRequest().body(ApiResposta.error(e.getMessage()));
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.example.grazy_back.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.grazy_back.dto.ApiResposta;
 import com.example.grazy_back.dto.OnboardingRequest;
 import com.example.grazy_back.model.Usuario;
+import com.example.grazy_back.security.JwtAuthenticationToken;
 import com.example.grazy_back.service.AuthService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -45,10 +47,7 @@ public class OnboardingController
     {
         try 
         {
-            Usuario usuario = authService.buscarPorEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
-            
-            authService.processarOnboarding(usuario.getId(), request);
+            authService.processarOnboarding(usuarioLogado(userEmail), request);
             
             return ResponseEntity.ok(ApiResposta.of(null, "Onboarding completo! Seu sistema está pronto para uso."));
         } 
@@ -70,21 +69,13 @@ public class OnboardingController
     {
         try 
         {
-            Usuario usuario = authService.buscarPorEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
-
-            if (usuario.getTenant() == null) 
-            {
-                throw new IllegalArgumentException("Usuário não pertence a nenhum tenant");
-            }
-
             OnboardingRequest onboarding = OnboardingRequest.builder()
                 .corPrimaria(request.corPrimaria())
                 .corSecundaria(request.corSecundaria())
                 .build();
 
             // Salva apenas as cores, não completa o onboarding
-            authService.processarOnboarding(usuario.getId(), onboarding);
+            authService.processarOnboarding(usuarioLogado(userEmail), onboarding);
             
             return ResponseEntity.ok(ApiResposta.of(null, "Cores salvas com sucesso"));
         } 
@@ -106,19 +97,11 @@ public class OnboardingController
     {
         try 
         {
-            Usuario usuario = authService.buscarPorEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
-
-            if (usuario.getTenant() == null) 
-            {
-                throw new IllegalArgumentException("Usuário não pertence a nenhum tenant");
-            }
-
             OnboardingRequest onboarding = OnboardingRequest.builder()
                 .logoUrl(request.logoUrl())
                 .build();
 
-            authService.processarOnboarding(usuario.getId(), onboarding);
+            authService.processarOnboarding(usuarioLogado(userEmail), onboarding);
             
             return ResponseEntity.ok(ApiResposta.of(null, "Logo salva com sucesso"));
         } 
@@ -129,6 +112,23 @@ public class OnboardingController
         }
     }
 
+    /**
+     * ID do usuário logado: vem do token de acesso do login V2; tokens sem ele consultam o banco.
+     * Usuário sem tenant é rejeitado por processarOnboarding.
+     */
+    private Long usuarioLogado(String userEmail) 
+    {
+        if (SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken jwtAuth
+            && jwtAuth.getUsuarioId() != null) 
+        {
+            return jwtAuth.getUsuarioId();
+        }
+
+        return authService.buscarPorEmail(userEmail)
+            .map(Usuario::getId)
+            .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
+    }
+
     // Records para requests parciais
     record CoresRequest(String corPrimaria, String corSecundaria) {}
     record LogoRequest(String logoUrl) {}
@@ -18,9 +18,12 @@ import com.example.grazy_back.dto.PagamentoRequest;
 import com.example.grazy_back.dto.PagamentoResponse;
 import com.example.grazy_back.enums.StatusPagamentoEnum;
 import com.example.grazy_back.model.Pagamento;
+import com.example.grazy_back.model.PagamentoItem;
+import com.example.grazy_back.repository.PagamentoItemRepository;
 import com.example.grazy_back.repository.PagamentoRepository;
 import com.example.grazy_back.security.TenantContext;
 import com.example.grazy_back.service.MercadoPagoService;
+import com.example.grazy_back.service.WebhookInboxService;
 
 /**
  * Controller para gerenciamento de pagamentos
@@ -30,14 +33,20 @@ import com.example.grazy_back.service.MercadoPagoService;
 public class PagamentoController {
     
     private final PagamentoRepository pagamentoRepository;
+    private final PagamentoItemRepository pagamentoItemRepository;
     private final MercadoPagoService mercadoPagoService;
+    private final WebhookInboxService webhookInboxService;
     
     public PagamentoController(
         PagamentoRepository pagamentoRepository,
-        MercadoPagoService mercadoPagoService
+        PagamentoItemRepository pagamentoItemRepository,
+        MercadoPagoService mercadoPagoService,
+        WebhookInboxService webhookInboxService
     ) {
         this.pagamentoRepository = pagamentoRepository;
+        this.pagamentoItemRepository = pagamentoItemRepository;
         this.mercadoPagoService = mercadoPagoService;
+        this.webhookInboxService = webhookInboxService;
     }
     
     /**
@@ -119,12 +128,21 @@ public class PagamentoController {
                                        @RequestBody(required = false) Map<String, Object> payload) {
         
         // Mercado Pago pode enviar de duas formas: query params ou body
-        String paymentType = type != null ? type : (String) payload.get("type");
-        String paymentId = data_id != null ? data_id : 
-            (payload.get("data") != null ? 
-                ((Map<String, String>) payload.get("data")).get("id") : null);
+        String paymentType = type;
+        String paymentId = data_id;
+        
+        if (payload != null) {
+            if (paymentType == null && payload.get("type") != null) {
+                paymentType = String.valueOf(payload.get("type"));
+            }
+            
+            if (paymentId == null && payload.get("data") instanceof Map<?, ?> data && data.get("id") != null) {
+                paymentId = String.valueOf(data.get("id"));
+            }
+        }
         
-        mercadoPagoService.processarWebhook(paymentType, paymentId);
+        // Apenas persiste na caixa de entrada; a sincronização é assíncrona
+        webhookInboxService.registrar(paymentType, paymentId);
         
         return ResponseEntity.ok().build();
     }
@@ -144,4 +162,20 @@ public class PagamentoController {
         
         return ResponseEntity.ok(ApiResposta.of(pagamento));
     }
+    
+    /**
+     * Itens da cobrança: mensalidade do plano e excedentes do uso medido
+     */
+    @GetMapping("/{id}/itens")
+    public ResponseEntity<ApiResposta<List<PagamentoItem>>> itens(@PathVariable Long id) {
+        Long tenantId = TenantContext.getCurrentTenantId();
+        
+        Pagamento pagamento = pagamentoRepository.findById(id).orElse(null);
+        
+        if (pagamento == null || !pagamento.getTenantId().equals(tenantId)) {
+            return ResponseEntity.ok(ApiResposta.error("Pagamento não encontrado"));
+        }
+        
+        return ResponseEntity.ok(ApiResposta.of(pagamentoItemRepository.findByPagamentoIdOrderByIdAsc(id)));
+    }
 }
@@ -1,23 +1,39 @@
 package com.example.grazy_back.controller;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.grazy_back.dto.ApiResposta;
+import com.example.grazy_back.dto.CacheRegiaoEstatistica;
 import com.example.grazy_back.dto.CriarTenantRequest;
 import com.example.grazy_back.dto.DiaPagamentoRequest;
+import com.example.grazy_back.dto.Pagina;
+import com.example.grazy_back.dto.ReconciliacaoRelatorio;
 import com.example.grazy_back.dto.TenantResponse;
+import com.example.grazy_back.dto.UsoTenantResponse;
+import com.example.grazy_back.enums.PlanoEnum;
+import com.example.grazy_back.enums.StatusTenantEnum;
+import com.example.grazy_back.service.CacheSegundoNivelService;
+import com.example.grazy_back.service.MedicaoUsoService;
+import com.example.grazy_back.service.ProvisionamentoSchemaService;
+import com.example.grazy_back.service.PagamentoReconciliacaoService;
 import com.example.grazy_back.service.TenantService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -35,16 +51,46 @@ import lombok.RequiredArgsConstructor;
 public class SuperAdminController 
 {
     private final TenantService tenantService;
+    private final PagamentoReconciliacaoService pagamentoReconciliacaoService;
+    private final CacheSegundoNivelService cacheSegundoNivelService;
+    private final ProvisionamentoSchemaService provisionamentoSchemaService;
+    private final MedicaoUsoService medicaoUsoService;
 
     /**
-     * Lista todos os tenants cadastrados.
+     * Lista os tenants cadastrados, paginado e filtrável.
      */
     @GetMapping({"/api/admin/master/tenants", "/api/admin/tenants"})
-    @Operation(summary = "Lista todos os tenants", description = "Retorna lista de todos os clientes/negócios cadastrados")
-    public ResponseEntity<ApiResposta<List<TenantResponse>>> listarTenants() 
+    @Operation(summary = "Lista os tenants",
+        description = "Clientes/negócios cadastrados com o uso de cada um (agendamentos no mês, clientes, último login), paginados",
+        parameters = {
+            @Parameter(name = "plano", description = "Filtra pelo plano"),
+            @Parameter(name = "status", description = "Filtra pelo status"),
+            @Parameter(name = "busca", description = "Trecho do nome do negócio, subdomínio ou email do administrador"),
+            @Parameter(name = "incluirInativos", description = "Inclui tenants inativos (padrão false)"),
+            @Parameter(name = "ordem", description = "nome, criado (padrão), plano, status, agendamentos, clientes ou ultimoLogin"),
+            @Parameter(name = "direcao", description = "asc ou desc (padrão)"),
+            @Parameter(name = "pagina", description = "Página, a partir de 0"),
+            @Parameter(name = "tamanho", description = "Itens por página (padrão 50, máximo 200)")
+        })
+    public ResponseEntity<ApiResposta<Pagina<TenantResponse>>> listarTenants(
+            @RequestParam(required = false) String plano,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String busca,
+            @RequestParam(defaultValue = "false") boolean incluirInativos,
+            @RequestParam(required = false) String ordem,
+            @RequestParam(required = false) String direcao,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho) 
     {
-        List<TenantResponse> tenants = tenantService.listarTenants();
-        return ResponseEntity.ok(ApiResposta.of(tenants));
+        try 
+        {
+            return ResponseEntity.ok(ApiResposta.of(tenantService.listarTenants(
+                filtro(PlanoEnum.class, plano), filtro(StatusTenantEnum.class, status), busca, incluirInativos, ordem, direcao, pagina, tamanho)));
+        } 
+        catch (IllegalArgumentException e) 
+        {
+            return ResponseEntity.badRequest().body(ApiResposta.error(e.getMessage()));
+        }
     }
 
     /**
@@ -59,6 +105,37 @@ public class SuperAdminController
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Uso medido do tenant em um mês.
+     */
+    @GetMapping({"/api/admin/master/tenants/{id}/uso", "/api/admin/tenants/{id}/uso"})
+    @Operation(summary = "Uso do tenant no mês",
+        description = "Agendamentos, mensagens de WhatsApp, emails e bytes de imagens do mês, com os limites do plano")
+    public ResponseEntity<ApiResposta<UsoTenantResponse>> usoTenant(
+            @PathVariable Long id,
+            @Parameter(description = "Mês no formato YYYY-MM, padrão = atual") @RequestParam(required = false) String periodo) 
+    {
+        YearMonth mes;
+
+        try 
+        {
+            mes = periodo == null || periodo.isBlank() ? YearMonth.now() : YearMonth.parse(periodo.trim());
+        } 
+        catch (DateTimeParseException e) 
+        {
+            return ResponseEntity.badRequest().body(ApiResposta.error("Período inválido. Use formato YYYY-MM"));
+        }
+
+        try 
+        {
+            return ResponseEntity.ok(ApiResposta.of(medicaoUsoService.relatorio(id, mes)));
+        } 
+        catch (IllegalArgumentException e) 
+        {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Cria um novo tenant (Provisionamento).
      * Este é o formulário do "Passo 1" do plano:
@@ -133,6 +210,84 @@ public class SuperAdminController
         return ResponseEntity.ok(ApiResposta.of(null, "Configuração de pagamento atualizada com sucesso"));
     }
 
+    /**
+     * Último relatório da reconciliação de pagamentos com o Mercado Pago.
+     */
+    @GetMapping("/api/admin/master/pagamentos/reconciliacao")
+    @Operation(summary = "Relatório de reconciliação", description = "Retorna o resultado da última reconciliação de pagamentos com o Mercado Pago")
+    public ResponseEntity<ApiResposta<ReconciliacaoRelatorio>> ultimaReconciliacao() 
+    {
+        ReconciliacaoRelatorio relatorio = pagamentoReconciliacaoService.getUltimoRelatorio();
+
+        if (relatorio == null)
+            return ResponseEntity.ok(ApiResposta.of(null, "Nenhuma reconciliação executada ainda"));
+
+        return ResponseEntity.ok(ApiResposta.of(relatorio));
+    }
+
+    /**
+     * Executa a reconciliação de pagamentos imediatamente.
+     */
+    @PostMapping("/api/admin/master/pagamentos/reconciliacao")
+    @Operation(summary = "Executa reconciliação", description = "Consulta o Mercado Pago e corrige pagamentos não finalizados")
+    public ResponseEntity<ApiResposta<ReconciliacaoRelatorio>> reconciliarPagamentos() 
+    {
+        return pagamentoReconciliacaoService.reconciliar()
+            .map(relatorio -> ResponseEntity.ok(ApiResposta.of(relatorio, "Reconciliação concluída")))
+            .orElse(ResponseEntity.ok(ApiResposta.error("Já existe uma reconciliação em andamento")));
+    }
+
+    /**
+     * Estatísticas do cache de segundo nível deste nó, por região.
+     */
+    @GetMapping("/api/admin/master/cache")
+    @Operation(summary = "Estatísticas do cache", description = "Acertos, falhas e elementos de cada região do cache de segundo nível")
+    public ResponseEntity<ApiResposta<List<CacheRegiaoEstatistica>>> estatisticasCache() 
+    {
+        return ResponseEntity.ok(ApiResposta.of(cacheSegundoNivelService.estatisticas()));
+    }
+
+    /**
+     * Esvazia o cache de segundo nível deste nó.
+     */
+    @DeleteMapping("/api/admin/master/cache")
+    @Operation(summary = "Limpa o cache", description = "Esvazia todas as regiões do cache de segundo nível deste nó")
+    public ResponseEntity<ApiResposta<Void>> limparCache() 
+    {
+        cacheSegundoNivelService.limpar();
+        return ResponseEntity.ok(ApiResposta.of(null, "Cache esvaziado"));
+    }
+
+    /**
+     * Move os dados do tenant para um schema dedicado (Tenant.databaseSchema).
+     */
+    @PostMapping("/api/admin/master/tenants/{id}/schema-dedicado")
+    @Operation(summary = "Provisiona schema dedicado", description = "Cria o schema do tenant e move agendamentos, clientes, serviços e financeiro para ele")
+    public ResponseEntity<ApiResposta<Void>> provisionarSchemaDedicado(@PathVariable Long id) 
+    {
+        try 
+        {
+            provisionamentoSchemaService.provisionar(id);
+            return ResponseEntity.ok(ApiResposta.of(null, "Schema dedicado provisionado"));
+        } 
+        catch (IllegalArgumentException | IllegalStateException e) 
+        {
+            return ResponseEntity.badRequest().body(ApiResposta.error(e.getMessage()));
+        }
+    }
+
     // Record para request de suspensão
     record SuspenderRequest(String motivo) {}
+
+    private static <E extends Enum<E>> E filtro(Class<E> tipo, String valor)
+    {
+        if (valor == null || valor.isBlank())
+            return null;
+
+        for (E constante : tipo.getEnumConstants())
+            if (constante.name().equalsIgnoreCase(valor.trim()))
+                return constante;
+
+        throw new IllegalArgumentException("Valor inválido: " + valor + ". Use " + Arrays.toString(tipo.getEnumConstants()));
+    }
 }
@@ -0,0 +1,72 @@
+package com.example.grazy_back.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.grazy_back.dto.ApiResposta;
+import com.example.grazy_back.dto.TemplateMensagemRequest;
+import com.example.grazy_back.dto.TemplateMensagemResponse;
+import com.example.grazy_back.enums.TipoTemplateEnum;
+import com.example.grazy_back.security.TenantContext;
+import com.example.grazy_back.service.TemplateMensagemService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Personalização dos templates de mensagem do tenant (lembretes, confirmações, etc).
+ */
+@RestController
+@RequestMapping("/api/templates")
+@Tag(name = "Templates de mensagem", description = "Personalização das mensagens enviadas aos clientes")
+@RequiredArgsConstructor
+public class TemplateMensagemController 
+{
+    private final TemplateMensagemService templateMensagemService;
+
+    @GetMapping
+    @Operation(summary = "Lista templates", description = "Retorna os templates personalizáveis com o conteúdo em uso e as variáveis disponíveis")
+    public ResponseEntity<ApiResposta<List<TemplateMensagemResponse>>> listar() 
+    {
+        Long tenantId = TenantContext.requireTenantId();
+        return ResponseEntity.ok(ApiResposta.of(templateMensagemService.listar(tenantId)));
+    }
+
+    @PutMapping("/{tipo}")
+    @Operation(summary = "Personaliza template", description = "Salva o conteúdo do template para o tenant. Variáveis usam a sintaxe {{nome}}")
+    public ResponseEntity<ApiResposta<TemplateMensagemResponse>> salvar(
+            @PathVariable TipoTemplateEnum tipo,
+            @Valid @RequestBody TemplateMensagemRequest request) 
+    {
+        Long tenantId = TenantContext.requireTenantId();
+
+        try 
+        {
+            TemplateMensagemResponse response = templateMensagemService.salvar(tenantId, tipo, request.getConteudo());
+            return ResponseEntity.ok(ApiResposta.of(response, "Template salvo com sucesso"));
+        } 
+        catch (IllegalArgumentException e) 
+        {
+            return ResponseEntity.badRequest().body(ApiResposta.error(e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{tipo}")
+    @Operation(summary = "Restaura template padrão", description = "Remove a personalização e volta a usar o texto padrão")
+    public ResponseEntity<ApiResposta<Void>> restaurarPadrao(@PathVariable TipoTemplateEnum tipo) 
+    {
+        Long tenantId = TenantContext.requireTenantId();
+        templateMensagemService.restaurarPadrao(tenantId, tipo);
+        return ResponseEntity.ok(ApiResposta.of(null, "Template restaurado para o padrão"));
+    }
+}
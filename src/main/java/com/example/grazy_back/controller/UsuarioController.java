@@ -11,6 +11,9 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.grazy_back.dto.ApiResposta;
 import com.example.grazy_back.repository.UsuarioRepository;
 import com.example.grazy_back.security.JwtAuthenticationToken;
+import com.example.grazy_back.service.RefreshTokenService;
+
+import io.jsonwebtoken.Claims;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -30,6 +33,7 @@ public class UsuarioController
 {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Retorna dados do usuário logado.
@@ -47,6 +51,30 @@ public class UsuarioController
         }
 
         String email = auth.getName();
+
+        // Token de acesso do login V2 já traz os dados; durante o primeiro acesso/onboarding
+        // eles mudam a cada passo, então nesse caso consulta o banco
+        if (auth instanceof JwtAuthenticationToken jwtAuth && jwtAuth.getUsuarioId() != null)
+        {
+            Claims claims = jwtAuth.getClaims();
+
+            if (!Boolean.TRUE.equals(claims.get("primeiroAcesso", Boolean.class))
+                && Boolean.TRUE.equals(claims.get("onboardingCompleto", Boolean.class)))
+            {
+                UsuarioResponse response = new UsuarioResponse();
+                response.setId(jwtAuth.getUsuarioId());
+                response.setNome(claims.get("nome", String.class));
+                response.setEmail(email);
+                response.setTelefone(claims.get("telefone", String.class));
+                response.setRole(jwtAuth.getRole());
+                response.setPrimeiroAcesso(false);
+                response.setTenantId(jwtAuth.getTenantId());
+                response.setTenantNome(claims.get("tenantNome", String.class));
+                response.setTenantSubdominio(claims.get("tenantSubdominio", String.class));
+
+                return ResponseEntity.ok(ApiResposta.of(response));
+            }
+        }
         
         // Busca usuário no banco
         return usuarioRepository.findByEmail(email)
@@ -201,6 +229,9 @@ public class UsuarioController
                 usuario.setSenha(passwordEncoder.encode(request.getNovaSenha()));
                 usuario.setPrimeiroAcesso(false); // Marca que já alterou a senha
                 usuarioRepository.save(usuario);
+
+                // Sessões abertas com a senha antiga não renovam mais
+                refreshTokenService.revogarPorUsuario(usuario.getId());
                 
                 return ResponseEntity.ok(ApiResposta.of("Senha alterada com sucesso"));
             })
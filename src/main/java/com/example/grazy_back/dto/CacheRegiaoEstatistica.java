@@ -0,0 +1,23 @@
+package com.example.grazy_back.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estatísticas de uma região do cache de segundo nível do Hibernate, neste nó.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheRegiaoEstatistica
+{
+    private String regiao;
+    private long acertos;
+    private long falhas;
+    private long insercoes;
+    private Long elementosEmMemoria; // null quando o provedor não informa
+    private double taxaAcerto;
+}
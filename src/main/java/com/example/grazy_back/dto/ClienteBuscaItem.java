@@ -0,0 +1,11 @@
+package com.example.grazy_back.dto;
+
+/**
+ * Cliente encontrado pela busca (e projeção usada para montar o índice de busca).
+ */
+public record ClienteBuscaItem(
+    Long id,
+    String nome,
+    String telefone,
+    String email
+) {}
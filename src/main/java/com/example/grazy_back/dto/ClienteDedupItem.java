@@ -0,0 +1,14 @@
+package com.example.grazy_back.dto;
+
+/**
+ * Projeção do cliente usada na deduplicação: só os campos comparados.
+ */
+public record ClienteDedupItem(
+    Long id,
+    Long tenantId,
+    String nome,
+    String telefone,
+    String email,
+    String chaveTelefone,
+    String chaveEmail
+) {}
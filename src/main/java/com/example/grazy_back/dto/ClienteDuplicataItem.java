@@ -0,0 +1,12 @@
+package com.example.grazy_back.dto;
+
+/**
+ * Sugestão de duplicata para o tenant decidir: mesclar ou ignorar.
+ */
+public record ClienteDuplicataItem(
+    Long id,
+    double pontuacao,
+    String motivo,
+    ClienteBuscaItem cliente,
+    ClienteBuscaItem duplicado
+) {}
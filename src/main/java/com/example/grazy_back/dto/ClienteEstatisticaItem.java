@@ -0,0 +1,23 @@
+package com.example.grazy_back.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Estatísticas de um cliente. riscoChurn = dias sem visita / cadência (intervalo médio entre
+ * visitas, ou a cadência padrão para quem veio uma vez só): acima de 1, está atrasado.
+ */
+public record ClienteEstatisticaItem(
+    Long clienteId,
+    String nome,
+    String telefone,
+    int visitas,
+    double valorTotal,
+    double ticketMedio,
+    LocalDateTime primeiraVisita,
+    LocalDateTime ultimaVisita,
+    Double cadenciaDias,
+    long diasSemVisita,
+    double riscoChurn,
+    List<ServicoFrequenteItem> servicosPreferidos
+) {}
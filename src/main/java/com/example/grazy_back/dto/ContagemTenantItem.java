@@ -0,0 +1,9 @@
+package com.example.grazy_back.dto;
+
+/**
+ * Quantidade de registros de um tenant (resumo de uso).
+ */
+public record ContagemTenantItem(
+    Long tenantId,
+    long quantidade
+) {}
@@ -0,0 +1,17 @@
+package com.example.grazy_back.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Taxas de finalização, cancelamento e falta dos últimos 7, 30 e 90 dias (até a data de
+ * referência, inclusive), no total e por serviço, dia da semana e hora do agendamento.
+ */
+public record EstatisticaAgendamentosResponse(
+    LocalDate ate,
+    Map<String, TaxasAgendamentoItem> geral,
+    List<GrupoTaxasAgendamentoItem> porServico,
+    List<GrupoTaxasAgendamentoItem> porDiaSemana,
+    List<GrupoTaxasAgendamentoItem> porHora
+) {}
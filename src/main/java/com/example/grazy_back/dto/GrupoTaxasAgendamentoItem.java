@@ -0,0 +1,12 @@
+package com.example.grazy_back.dto;
+
+import java.util.Map;
+
+/**
+ * Taxas de um recorte (serviço, dia da semana ou hora) por janela ("7d", "30d", "90d").
+ */
+public record GrupoTaxasAgendamentoItem(
+    String chave,
+    String nome,
+    Map<String, TaxasAgendamentoItem> janelas
+) {}
@@ -19,6 +19,7 @@ import com.example.grazy_back.enums.RoleEnum;
 public class LoginResponseV2 
 {
     private String token;
+    private String refreshToken;
     private Long usuarioId;
     private String nome;
     private String email;
@@ -0,0 +1,11 @@
+package com.example.grazy_back.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class MesclagemClientesRequest
+{
+    private List<Long> duplicados; // Clientes absorvidos pelo principal e apagados
+}
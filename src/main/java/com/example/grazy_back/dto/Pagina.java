@@ -0,0 +1,14 @@
+package com.example.grazy_back.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem. Sem total de registros (evita um COUNT por página);
+ * temMais indica se existe a próxima.
+ */
+public record Pagina<T>(
+    List<T> itens,
+    int pagina,
+    int tamanho,
+    boolean temMais
+) {}
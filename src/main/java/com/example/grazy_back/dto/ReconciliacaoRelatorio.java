@@ -0,0 +1,29 @@
+package com.example.grazy_back.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de uma execução da reconciliação de pagamentos com o Mercado Pago.
+ * "transicoes" conta quantos pagamentos divergiam, por transição (ex: PENDENTE->APROVADO).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliacaoRelatorio
+{
+    private Instant iniciadoEm;
+    private Instant finalizadoEm;
+    private long duracaoMs;
+    private int verificados;
+    private int atualizados;
+    private int semPagamentoNoMercadoPago;
+    private int erros;
+    private Map<String, Integer> transicoes;
+}
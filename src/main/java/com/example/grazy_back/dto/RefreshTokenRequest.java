@@ -0,0 +1,9 @@
+package com.example.grazy_back.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest
+{
+    private String refreshToken;
+}
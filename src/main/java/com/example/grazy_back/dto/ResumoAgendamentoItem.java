@@ -0,0 +1,17 @@
+package com.example.grazy_back.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.grazy_back.enums.StatusAgendamentoEnum;
+
+/**
+ * Linha do resumo diário, já com o email do admin do tenant (projeção usada no stream do resumo).
+ */
+public record ResumoAgendamentoItem(
+    Long tenantId,
+    String emailAdmin,
+    LocalDateTime dataHora,
+    String cliente,
+    String servico,
+    StatusAgendamentoEnum status
+) {}
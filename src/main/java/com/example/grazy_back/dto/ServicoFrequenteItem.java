@@ -0,0 +1,15 @@
+package com.example.grazy_back.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Serviço feito por um cliente, com quantas vezes e quanto rendeu.
+ */
+public record ServicoFrequenteItem(
+    Long clienteId,
+    Long servicoId,
+    String nome,
+    int visitas,
+    double valorTotal,
+    LocalDateTime ultimaVisita
+) {}
@@ -0,0 +1,20 @@
+package com.example.grazy_back.dto;
+
+/**
+ * Contagens e taxas de uma janela. As taxas são sobre os resolvidos (finalizados + cancelados
+ * + faltas); pendentes não entram. Taxas sem base (nenhum resolvido) vêm nulas.
+ * A falta com e sem lembrete compara quem recebeu o lembrete com quem não recebeu.
+ */
+public record TaxasAgendamentoItem(
+    int agendados,
+    int finalizados,
+    int cancelados,
+    int canceladosEmCima,
+    int naoCompareceu,
+    Double taxaFinalizacao,
+    Double taxaCancelamento,
+    Double taxaCancelamentoEmCima,
+    Double taxaNaoComparecimento,
+    Double taxaNaoComparecimentoComLembrete,
+    Double taxaNaoComparecimentoSemLembrete
+) {}
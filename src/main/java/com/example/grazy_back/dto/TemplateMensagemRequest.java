@@ -0,0 +1,11 @@
+package com.example.grazy_back.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class TemplateMensagemRequest 
+{
+    @NotBlank(message = "Conteúdo é obrigatório")
+    private String conteudo;
+}
@@ -0,0 +1,23 @@
+package com.example.grazy_back.dto;
+
+import java.util.List;
+
+import com.example.grazy_back.enums.TipoTemplateEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TemplateMensagemResponse 
+{
+    private TipoTemplateEnum tipo;
+    private String descricao;
+    private List<String> variaveis;
+    private String conteudo;
+    private boolean personalizado; // false = usando o texto padrão
+}
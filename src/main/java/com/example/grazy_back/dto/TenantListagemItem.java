@@ -0,0 +1,39 @@
+package com.example.grazy_back.dto;
+
+import java.time.Instant;
+
+import com.example.grazy_back.enums.PlanoEnum;
+import com.example.grazy_back.enums.StatusTenantEnum;
+
+/**
+ * Linha da listagem de tenants do super admin: tenant, configuração visual, administrador e
+ * resumo de uso, lidos em uma única consulta (TenantRepository.listar).
+ */
+public record TenantListagemItem(
+    Long id,
+    String nomeNegocio,
+    String subdominio,
+    String dominioCustomizado,
+    String emailAdmin,
+    String nomeAdmin,
+    String telefoneAdmin,
+    PlanoEnum plano,
+    StatusTenantEnum status,
+    boolean ativo,
+    boolean onboardingCompleto,
+    Integer agendamentosNoMes,
+    Integer limiteAgendamentosMes,
+    Instant criadoEm,
+    Instant atualizadoEm,
+    Instant suspensaoEm,
+    String motivoSuspensao,
+    String corPrimaria,
+    String logoUrl,
+    Integer diaPagamento,
+    Boolean enviarCobrancaWhatsapp,
+    Boolean enviarCobrancaEmail,
+    Integer clientes,
+    Integer usuarios,
+    Instant ultimoLogin,
+    Instant usoAtualizadoEm
+) {}
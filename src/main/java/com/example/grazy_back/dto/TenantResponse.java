@@ -47,4 +47,10 @@ public class TenantResponse
     private Integer diaPagamento;
     private Boolean enviarCobrancaWhatsapp;
     private Boolean enviarCobrancaEmail;
+
+    // Uso (resumo recalculado periodicamente; nulo até o primeiro cálculo)
+    private Integer clientes;
+    private Integer usuarios;
+    private Instant ultimoLogin;
+    private Instant usoAtualizadoEm;
 }
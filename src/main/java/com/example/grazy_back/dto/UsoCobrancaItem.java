@@ -0,0 +1,8 @@
+package com.example.grazy_back.dto;
+
+import com.example.grazy_back.enums.MetricaUsoEnum;
+
+/**
+ * Uso de uma métrica no mês por um tenant com cobrança no dia (UsoTenantRepository.streamParaCobranca).
+ */
+public record UsoCobrancaItem(Long tenantId, MetricaUsoEnum metrica, long quantidade) {}
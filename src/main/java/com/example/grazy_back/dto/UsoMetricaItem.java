@@ -0,0 +1,13 @@
+package com.example.grazy_back.dto;
+
+import com.example.grazy_back.enums.MetricaUsoEnum;
+
+/**
+ * Uso de uma métrica no mês. Limite nulo = a métrica não tem limite no plano; -1 = ilimitado.
+ */
+public record UsoMetricaItem(
+    MetricaUsoEnum metrica,
+    String descricao,
+    long quantidade,
+    Long limite
+) {}
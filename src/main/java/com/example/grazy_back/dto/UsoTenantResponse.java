@@ -0,0 +1,16 @@
+package com.example.grazy_back.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import com.example.grazy_back.enums.PlanoEnum;
+
+/**
+ * Uso medido de um tenant no mês (MedicaoUsoService), com os limites do plano.
+ */
+public record UsoTenantResponse(
+    Long tenantId,
+    YearMonth periodo,
+    PlanoEnum plano,
+    List<UsoMetricaItem> metricas
+) {}
@@ -0,0 +1,12 @@
+package com.example.grazy_back.dto;
+
+import java.time.Instant;
+
+/**
+ * Usuários de um tenant e o login mais recente entre eles (resumo de uso).
+ */
+public record UsuariosTenantItem(
+    Long tenantId,
+    long usuarios,
+    Instant ultimoLogin
+) {}
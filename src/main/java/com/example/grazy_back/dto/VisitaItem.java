@@ -0,0 +1,17 @@
+package com.example.grazy_back.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Agendamento finalizado ainda não somado nas estatísticas do cliente.
+ */
+public record VisitaItem(
+    Long id,
+    Long tenantId,
+    Long clienteId,
+    Long servicoId,
+    Double preco,
+    LocalDateTime dataHora,
+    Instant finalizedAt
+) {}
@@ -0,0 +1,24 @@
+package com.example.grazy_back.enums;
+
+/**
+ * O que é medido no uso de cada tenant (MedicaoUsoService), somado por mês.
+ */
+public enum MetricaUsoEnum 
+{
+    AGENDAMENTOS("Agendamentos criados"),
+    MENSAGENS_WHATSAPP("Mensagens de WhatsApp enviadas"),
+    EMAILS("Emails enviados"),
+    IMAGENS_BYTES("Bytes de imagens enviadas");
+
+    private final String descricao;
+
+    MetricaUsoEnum(String descricao) 
+    {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() 
+    {
+        return descricao;
+    }
+}
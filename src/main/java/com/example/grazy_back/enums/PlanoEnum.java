@@ -2,23 +2,38 @@ package com.example.grazy_back.enums;
 
 /**
  * Planos disponíveis para tenants.
+ * As franquias são o uso mensal incluído na mensalidade; o que passar é cobrado como
+ * excedente (FaturamentoService). Agendamentos são exceção: o limite mensal é rígido e
+ * nunca vira excedente.
  */
 public enum PlanoEnum 
 {
-    GRATUITO("Gratuito", 0, 50),
-    BASICO("Básico", 4990, 200),    // R$ 49,90
-    PRO("Pro", 9990, 500),          // R$ 99,90
-    ENTERPRISE("Enterprise", 19990, -1); // -1 = ilimitado
+    //          nome, preço, agendamentos/mês, req/s, WhatsApp/mês, emails/mês, imagens MB/mês
+    GRATUITO("Gratuito", 0, 50, 5, 100, 200, 100),
+    BASICO("Básico", 4990, 200, 20, 1000, 2000, 1024),    // R$ 49,90
+    PRO("Pro", 9990, 500, 50, 3000, 5000, 5120),          // R$ 99,90
+    ENTERPRISE("Enterprise", 19990, -1, 100, -1, -1, -1); // -1 = ilimitado
+
+    private static final long BYTES_POR_MB = 1024L * 1024L;
 
     private final String nome;
     private final int precoCentavos;
     private final int limiteAgendamentosMes;
+    private final int requisicoesPorSegundo;
+    private final int franquiaMensagensWhatsapp;
+    private final int franquiaEmails;
+    private final int franquiaImagensMb;
 
-    PlanoEnum(String nome, int precoCentavos, int limiteAgendamentosMes) 
+    PlanoEnum(String nome, int precoCentavos, int limiteAgendamentosMes, int requisicoesPorSegundo,
+              int franquiaMensagensWhatsapp, int franquiaEmails, int franquiaImagensMb) 
     {
         this.nome = nome;
         this.precoCentavos = precoCentavos;
         this.limiteAgendamentosMes = limiteAgendamentosMes;
+        this.requisicoesPorSegundo = requisicoesPorSegundo;
+        this.franquiaMensagensWhatsapp = franquiaMensagensWhatsapp;
+        this.franquiaEmails = franquiaEmails;
+        this.franquiaImagensMb = franquiaImagensMb;
     }
 
     public String getNome() 
@@ -36,6 +51,28 @@ public enum PlanoEnum
         return limiteAgendamentosMes;
     }
 
+    /**
+     * Vazão sustentada da API para o tenant (LimiteRequisicoesFilter).
+     */
+    public int getRequisicoesPorSegundo() 
+    {
+        return requisicoesPorSegundo;
+    }
+
+    /**
+     * Uso mensal incluído no plano, na unidade da métrica (imagens em bytes); -1 = ilimitado.
+     */
+    public long franquia(MetricaUsoEnum metrica) 
+    {
+        return switch (metrica) 
+        {
+            case AGENDAMENTOS -> limiteAgendamentosMes;
+            case MENSAGENS_WHATSAPP -> franquiaMensagensWhatsapp;
+            case EMAILS -> franquiaEmails;
+            case IMAGENS_BYTES -> franquiaImagensMb < 0 ? -1 : franquiaImagensMb * BYTES_POR_MB;
+        };
+    }
+
     public boolean temDominioCustomizado() 
     {
         return this == PRO || this == ENTERPRISE;
@@ -4,5 +4,6 @@ public enum StatusAgendamentoEnum
 {
     PENDENTE,
     FINALIZADO,
-    CANCELADO
+    CANCELADO,
+    NAO_COMPARECEU
 }
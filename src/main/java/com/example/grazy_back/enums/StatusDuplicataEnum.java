@@ -0,0 +1,11 @@
+package com.example.grazy_back.enums;
+
+/**
+ * Situação de um par de clientes apontado como duplicado
+ */
+public enum StatusDuplicataEnum 
+{
+    PENDENTE,      // Aguardando decisão do tenant
+    MESCLADA,      // Clientes mesclados em um só
+    IGNORADA       // Tenant confirmou que são pessoas diferentes
+}
@@ -0,0 +1,12 @@
+package com.example.grazy_back.enums;
+
+/**
+ * Status de um email na fila de envio
+ */
+public enum StatusEmailEnum 
+{
+    PENDENTE,   // Aguardando envio (ou nova tentativa)
+    ENVIANDO,   // Reivindicado por um worker
+    ENVIADO,    // Entregue ao servidor SMTP
+    ERRO        // Esgotou as tentativas
+}
@@ -23,4 +23,49 @@ public enum StatusPagamentoEnum
     {
         return descricao;
     }
+
+    /**
+     * Indica se o status é definitivo (não volta para PENDENTE/EM_PROCESSAMENTO).
+     */
+    public boolean isFinal()
+    {
+        return this == APROVADO || this == REJEITADO || this == CANCELADO || this == REEMBOLSADO;
+    }
+
+    /**
+     * Verifica se a transição para o novo status é permitida.
+     * Notificações fora de ordem do Mercado Pago não podem fazer um pagamento regredir.
+     */
+    public boolean podeTransicionarPara(StatusPagamentoEnum novo)
+    {
+        if (novo == null || novo == this)
+            return false;
+
+        return switch (this)
+        {
+            case PENDENTE, EM_PROCESSAMENTO -> true;
+            case APROVADO -> novo == REEMBOLSADO;
+            case REJEITADO, CANCELADO -> novo == APROVADO || novo == EM_PROCESSAMENTO; // nova tentativa na mesma preferência
+            case REEMBOLSADO -> false;
+        };
+    }
+
+    /**
+     * Converte o status retornado pela API do Mercado Pago.
+     */
+    public static StatusPagamentoEnum fromMercadoPago(String status)
+    {
+        if (status == null)
+            return PENDENTE;
+
+        return switch (status)
+        {
+            case "approved" -> APROVADO;
+            case "rejected" -> REJEITADO;
+            case "cancelled" -> CANCELADO;
+            case "refunded", "charged_back" -> REEMBOLSADO;
+            case "in_process", "in_mediation", "authorized" -> EM_PROCESSAMENTO;
+            default -> PENDENTE;
+        };
+    }
 }
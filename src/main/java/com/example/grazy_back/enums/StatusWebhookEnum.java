@@ -0,0 +1,12 @@
+package com.example.grazy_back.enums;
+
+/**
+ * Status de processamento de uma notificação recebida via webhook
+ */
+public enum StatusWebhookEnum 
+{
+    PENDENTE,      // Aguardando um worker
+    PROCESSANDO,   // Reivindicado por um worker
+    PROCESSADO,    // Pagamento sincronizado com sucesso
+    ERRO           // Esgotou as tentativas
+}
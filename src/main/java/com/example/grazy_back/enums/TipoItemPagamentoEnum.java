@@ -0,0 +1,10 @@
+package com.example.grazy_back.enums;
+
+/**
+ * Tipos de item de uma cobrança.
+ */
+public enum TipoItemPagamentoEnum 
+{
+    PLANO,      // Mensalidade do plano
+    EXCEDENTE   // Uso medido além da franquia do plano
+}
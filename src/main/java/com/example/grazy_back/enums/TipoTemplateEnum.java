@@ -0,0 +1,65 @@
+package com.example.grazy_back.enums;
+
+import java.util.List;
+
+/**
+ * Templates de mensagem personalizáveis.
+ * O texto padrão fica em resources/mensagens/{arquivo}; variáveis usam a sintaxe {{nome}}.
+ */
+public enum TipoTemplateEnum 
+{
+    LEMBRETE_ASSUNTO("Assunto do email de lembrete", "lembrete_assunto.txt", true,
+        "servico", "dataHora"),
+    LEMBRETE_CORPO("Corpo do email de lembrete", "lembrete_corpo.txt", true,
+        "nome", "servico", "dataHora"),
+    AGENDAMENTO_CONFIRMADO("WhatsApp de confirmação de agendamento", "agendamento_confirmado.txt", true,
+        "nome", "servico", "dataHora", "linhaValor"),
+    AGENDAMENTO_CANCELADO("WhatsApp de cancelamento de agendamento", "agendamento_cancelado.txt", true,
+        "nome", "servico", "dataHora", "linhaMotivo"),
+    RESUMO_ASSUNTO("Assunto do resumo diário", "resumo_assunto.txt", true,
+        "data"),
+
+    // Mensagens da plataforma (enviadas pelo Super Admin, não personalizáveis por tenant)
+    COBRANCA_WHATSAPP("WhatsApp de cobrança da mensalidade", "cobranca_whatsapp.txt", false,
+        "nome", "negocio", "referencia", "valor", "vencimento", "link"),
+    COBRANCA_EMAIL_ASSUNTO("Assunto do email de cobrança", "cobranca_email_assunto.txt", false,
+        "negocio"),
+    COBRANCA_EMAIL_CORPO("Corpo (HTML) do email de cobrança", "cobranca_email_corpo.html", false,
+        "nome", "negocio", "valor", "vencimento", "link", "ano"),
+    BOAS_VINDAS_ASSUNTO("Assunto do email de boas-vindas", "boas_vindas_assunto.txt", false),
+    BOAS_VINDAS_CORPO("Corpo (HTML) do email de boas-vindas", "boas_vindas_corpo.html", false,
+        "nome", "url", "email", "senha");
+
+    private final String descricao;
+    private final String arquivo;
+    private final boolean personalizavel;
+    private final List<String> variaveis;
+
+    TipoTemplateEnum(String descricao, String arquivo, boolean personalizavel, String... variaveis) 
+    {
+        this.descricao = descricao;
+        this.arquivo = arquivo;
+        this.personalizavel = personalizavel;
+        this.variaveis = List.of(variaveis);
+    }
+
+    public String getDescricao() 
+    {
+        return descricao;
+    }
+
+    public String getArquivo() 
+    {
+        return arquivo;
+    }
+
+    public boolean isPersonalizavel() 
+    {
+        return personalizavel;
+    }
+
+    public List<String> getVariaveis() 
+    {
+        return variaveis;
+    }
+}
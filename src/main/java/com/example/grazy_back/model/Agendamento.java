@@ -3,7 +3,11 @@ package com.example.grazy_back.model;
 import java.time.Instant;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Filter;
+
 import com.example.grazy_back.enums.StatusAgendamentoEnum;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.example.grazy_back.security.FiltroTenant;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -12,11 +16,15 @@ import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(indexes = @Index(name = "idx_agendamento_tenant_data", columnList = "tenant_id, data_hora"))
 @Data
 public class Agendamento
 {
@@ -50,4 +58,17 @@ public class Agendamento
     private String cancelReason;
     private boolean notificado = false;
     private Instant notificadoEm;
+
+    // Worker que reivindicou o envio do lembrete (NotificacaoAgendadaService) e quando
+    @JsonIgnore
+    @Column(name = "lote_lembrete", length = 36)
+    private String loteLembrete;
+
+    @JsonIgnore
+    private Instant reivindicadoEm;
+
+    // Quando a visita foi somada nas estatísticas do cliente (EstatisticaClientesService)
+    @JsonIgnore
+    @Column(name = "contabilizado_em")
+    private Instant contabilizadoEm;
 }
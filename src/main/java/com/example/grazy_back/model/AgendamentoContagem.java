@@ -0,0 +1,72 @@
+package com.example.grazy_back.model;
+
+import java.time.LocalDate;
+
+import org.hibernate.annotations.Filter;
+
+import com.example.grazy_back.security.FiltroTenant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Contagem dos agendamentos de um tenant em uma hora de um dia, por serviço. Cada mudança de
+ * status soma um delta na linha do horário do agendamento (EstatisticaAgendamentosService).
+ */
+@Data
+@Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(
+    name = "agendamento_contagem",
+    uniqueConstraints = @UniqueConstraint(name = "uk_agendamento_contagem", columnNames = {"tenant_id", "dia", "hora", "servico_id"}),
+    indexes = @Index(name = "idx_agendamento_contagem_dia", columnList = "dia")
+)
+public class AgendamentoContagem
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    // 0-23, horário local do agendamento
+    @Column(nullable = false)
+    private int hora;
+
+    @Column(name = "servico_id", nullable = false)
+    private Long servicoId;
+
+    @Column(nullable = false)
+    private int agendados;
+
+    @Column(nullable = false)
+    private int finalizados;
+
+    @Column(nullable = false)
+    private int cancelados;
+
+    // Cancelados a menos de 24h do horário
+    @Column(name = "cancelados_em_cima", nullable = false)
+    private int canceladosEmCima;
+
+    @Column(name = "nao_compareceu", nullable = false)
+    private int naoCompareceu;
+
+    // Finalizados ou faltas que tinham recebido o lembrete
+    @Column(nullable = false)
+    private int lembrados;
+
+    @Column(name = "nao_compareceu_lembrados", nullable = false)
+    private int naoCompareceuLembrados;
+}
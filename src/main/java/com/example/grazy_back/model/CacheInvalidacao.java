@@ -0,0 +1,44 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro de invalidação de cache publicado por um nó para os demais
+ * (transporte padrão do barramento de invalidação). Os registros são apagados após algumas horas.
+ */
+@Data
+@Entity
+@Table(name = "cache_invalidacoes", indexes = @Index(name = "idx_cache_invalidacao_criado", columnList = "criado_em"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheInvalidacao 
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 150)
+    private String cache;
+
+    @Column(nullable = false, length = 150)
+    private String chave;
+
+    @Column(nullable = false, length = 100)
+    private String origem;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+}
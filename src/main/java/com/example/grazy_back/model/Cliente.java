@@ -1,13 +1,34 @@
 package com.example.grazy_back.model;
 
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.hibernate.annotations.Filter;
+
+import com.example.grazy_back.security.FiltroTenant;
+import com.example.grazy_back.service.TelefoneUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(indexes = {
+    @Index(name = "idx_cliente_tenant", columnList = "tenant_id"),
+    @Index(name = "idx_cliente_chave_telefone", columnList = "tenant_id, chave_telefone"),
+    @Index(name = "idx_cliente_chave_email", columnList = "tenant_id, chave_email"),
+    @Index(name = "idx_cliente_dedup_pendente", columnList = "dedup_em, id")
+})
 @Data
 public class Cliente
 {
@@ -22,4 +43,41 @@ public class Cliente
     private String telefone;
     private String email;
     private String obs;
-}
\ No newline at end of file
+
+    // Chaves de bloqueio da deduplicação (DeduplicacaoClientesService), mantidas a cada gravação
+    @JsonIgnore
+    @Column(name = "chave_telefone", length = 20)
+    private String chaveTelefone;
+
+    @JsonIgnore
+    @Column(name = "chave_email")
+    private String chaveEmail;
+
+    // Nulo = ainda não comparado com os outros clientes do tenant
+    @JsonIgnore
+    @Column(name = "dedup_em")
+    private Instant dedupEm;
+
+    @PrePersist
+    @PreUpdate
+    void atualizarChaves()
+    {
+        String telefoneChave = TelefoneUtil.chave(telefone);
+        String emailChave = chaveEmail(email);
+
+        // Telefone ou email mudou: volta para a fila de comparação
+        if (!Objects.equals(telefoneChave, chaveTelefone) || !Objects.equals(emailChave, chaveEmail))
+            dedupEm = null;
+
+        chaveTelefone = telefoneChave;
+        chaveEmail = emailChave;
+    }
+
+    /**
+     * Email sem espaços nas pontas e em minúsculas, ou null se vazio.
+     */
+    public static String chaveEmail(String email)
+    {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Filter;
+
+import com.example.grazy_back.enums.StatusDuplicataEnum;
+import com.example.grazy_back.security.FiltroTenant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Par de clientes do mesmo tenant que parecem ser a mesma pessoa, apontado pela
+ * deduplicação. O par é guardado em ordem (clienteId < duplicadoId) para não repetir.
+ */
+@Data
+@Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(
+    name = "cliente_duplicata",
+    uniqueConstraints = @UniqueConstraint(name = "uk_cliente_duplicata_par", columnNames = {"cliente_id", "duplicado_id"}),
+    indexes = {
+        @Index(name = "idx_cliente_duplicata_tenant_status", columnList = "tenant_id, status"),
+        @Index(name = "idx_cliente_duplicata_duplicado", columnList = "duplicado_id")
+    }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClienteDuplicata
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    @Column(name = "duplicado_id", nullable = false)
+    private Long duplicadoId;
+
+    @Column(nullable = false)
+    private double pontuacao; // 0 a 1
+
+    @Column(length = 60)
+    private String motivo; // Campos que bateram: "telefone,email,nome"
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "varchar(20)")
+    private StatusDuplicataEnum status;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+
+    @Column(name = "resolvido_em")
+    private Instant resolvidoEm;
+}
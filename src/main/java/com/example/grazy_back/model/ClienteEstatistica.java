@@ -0,0 +1,60 @@
+package com.example.grazy_back.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Filter;
+
+import com.example.grazy_back.security.FiltroTenant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Resumo das visitas de um cliente (agendamentos finalizados), somado a cada finalização
+ * em vez de recalculado a partir do histórico.
+ */
+@Data
+@Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(
+    name = "cliente_estatistica",
+    indexes = {
+        @Index(name = "idx_cliente_estatistica_valor", columnList = "tenant_id, valor_total"),
+        @Index(name = "idx_cliente_estatistica_visitas", columnList = "tenant_id, visitas"),
+        @Index(name = "idx_cliente_estatistica_ultima", columnList = "tenant_id, ultima_visita"),
+        @Index(name = "idx_cliente_estatistica_risco", columnList = "tenant_id, risco_em")
+    }
+)
+public class ClienteEstatistica
+{
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Column(nullable = false)
+    private int visitas;
+
+    @Column(name = "valor_total", nullable = false)
+    private double valorTotal;
+
+    @Column(name = "primeira_visita")
+    private LocalDateTime primeiraVisita;
+
+    @Column(name = "ultima_visita")
+    private LocalDateTime ultimaVisita;
+
+    // Intervalo médio entre visitas; nulo com uma visita só
+    @Column(name = "cadencia_dias")
+    private Double cadenciaDias;
+
+    // A partir de quando o cliente está sumido além do normal para ele
+    @Column(name = "risco_em")
+    private LocalDateTime riscoEm;
+}
@@ -0,0 +1,51 @@
+package com.example.grazy_back.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Filter;
+
+import com.example.grazy_back.security.FiltroTenant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Visitas de um cliente por serviço, para os serviços preferidos de cada cliente.
+ */
+@Data
+@Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(
+    name = "cliente_servico_estatistica",
+    uniqueConstraints = @UniqueConstraint(name = "uk_cliente_servico_estatistica", columnNames = {"cliente_id", "servico_id"})
+)
+public class ClienteServicoEstatistica
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    @Column(name = "servico_id", nullable = false)
+    private Long servicoId;
+
+    @Column(nullable = false)
+    private int visitas;
+
+    @Column(name = "valor_total", nullable = false)
+    private double valorTotal;
+
+    @Column(name = "ultima_visita")
+    private LocalDateTime ultimaVisita;
+}
@@ -15,5 +15,5 @@ public class ConfiguracaoNotificacao
     private Map<String, String> plataformas;
     // Resumo diário dos agendamentos
     private boolean resumoAtivo;       // habilita envio de resumo diário
-    private String resumoEmail;        // email destino do resumo (se vazio tenta plataformas.get("EMAIL"))
+    private String resumoEmail;        // não utilizado: o resumo vai para o email do admin de cada tenant
 }
@@ -1,5 +1,8 @@
 package com.example.grazy_back.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -18,6 +21,7 @@ import lombok.Builder;
  * Aplicadas no frontend para personalização white-label.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "configuracao-tenant")
 @Table(name = "configuracao_tenants")
 @Data
 @NoArgsConstructor
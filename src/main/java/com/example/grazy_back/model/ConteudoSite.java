@@ -1,5 +1,8 @@
 package com.example.grazy_back.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -16,6 +19,7 @@ import lombok.NoArgsConstructor;
  * Inclui seções Hero, About e outras configurações de conteúdo.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "conteudo-site")
 @Table(name = "conteudo_sites")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,86 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+
+import com.example.grazy_back.enums.StatusEmailEnum;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Email persistido na fila de envio.
+ * Sobrevive a reinícios da aplicação e é enviado em lote pelos workers do EmailFilaService.
+ */
+@Data
+@Entity
+@Table(
+    name = "email_fila",
+    indexes = @Index(name = "idx_email_fila_status_proxima", columnList = "status, proxima_tentativa")
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailPendente 
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id")
+    private Long tenantId; // null para emails da plataforma
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String destinatarios; // Separados por vírgula
+
+    @Column(columnDefinition = "TEXT")
+    private String cc;
+
+    @Column(columnDefinition = "TEXT")
+    private String bcc;
+
+    @Column(nullable = false, length = 500)
+    private String assunto;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String corpo;
+
+    @Builder.Default
+    private boolean html = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatusEmailEnum status = StatusEmailEnum.PENDENTE;
+
+    @Builder.Default
+    private Integer tentativas = 0;
+
+    @Column(length = 36)
+    private String lote; // Token do worker que reivindicou o email
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+
+    @Column(name = "atualizado_em")
+    private Instant atualizadoEm;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    private Instant proximaTentativa;
+
+    @Column(name = "enviado_em")
+    private Instant enviadoEm;
+
+    @Column(name = "ultimo_erro", columnDefinition = "TEXT")
+    private String ultimoErro;
+}
@@ -2,15 +2,26 @@ package com.example.grazy_back.model;
 
 import java.time.Instant;
 
+import org.hibernate.annotations.Filter;
+
+import com.example.grazy_back.security.FiltroTenant;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import lombok.Data;
 
 @Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(indexes = {
+    @Index(name = "idx_image_tenant_servico", columnList = "tenant_id, for_servico"),
+    @Index(name = "idx_image_stored_filename", columnList = "stored_filename")
+})
 @Data
 public class ImageMetadata 
 {
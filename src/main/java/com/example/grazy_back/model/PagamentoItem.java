@@ -0,0 +1,59 @@
+package com.example.grazy_back.model;
+
+import java.math.BigDecimal;
+
+import com.example.grazy_back.enums.MetricaUsoEnum;
+import com.example.grazy_back.enums.TipoItemPagamentoEnum;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Item de uma cobrança: a mensalidade do plano ou o excedente de uma métrica de uso.
+ * valor = quantidade x valorUnitario.
+ */
+@Data
+@Entity
+@Table(name = "pagamento_itens", indexes = @Index(name = "idx_pagamento_itens_pagamento", columnList = "pagamento_id"))
+public class PagamentoItem
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pagamento_id", nullable = false)
+    private Long pagamentoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "varchar(20)")
+    private TipoItemPagamentoEnum tipo;
+
+    // Só nos excedentes
+    @Enumerated(EnumType.STRING)
+    @Column(columnDefinition = "varchar(30)")
+    private MetricaUsoEnum metrica;
+
+    // Mês do uso cobrado (aaaamm), só nos excedentes
+    @Column(name = "periodo_uso")
+    private Integer periodoUso;
+
+    @Column(nullable = false)
+    private String descricao;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    @Column(name = "valor_unitario", nullable = false, precision = 12, scale = 2)
+    private BigDecimal valorUnitario;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal valor;
+}
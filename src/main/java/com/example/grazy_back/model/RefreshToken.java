@@ -0,0 +1,60 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Refresh token emitido no login. Só o SHA-256 do token é gravado.
+ * Cada uso gera um novo token da mesma família e marca o anterior como usado; um token
+ * usado que aparece de novo indica vazamento e revoga a família inteira.
+ */
+@Data
+@Entity
+@Table(
+    name = "refresh_tokens",
+    indexes = {
+        @Index(name = "idx_refresh_tokens_familia", columnList = "familia"),
+        @Index(name = "idx_refresh_tokens_usuario", columnList = "usuario_id")
+    }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false, length = 36)
+    private String familia; // Mesma para todos os tokens gerados a partir de um login
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private Instant expiraEm;
+
+    @Column(name = "usado_em")
+    private Instant usadoEm;
+
+    @Column(name = "revogado_em")
+    private Instant revogadoEm;
+}
@@ -1,13 +1,24 @@
 package com.example.grazy_back.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
+
+import com.example.grazy_back.security.FiltroTenant;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(indexes = @Index(name = "idx_servico_tenant_ativo", columnList = "tenant_id, ativo"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "servico")
 @Data
 public class Servico
 {
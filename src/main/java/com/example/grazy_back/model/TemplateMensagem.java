@@ -0,0 +1,52 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+
+import com.example.grazy_back.enums.TipoTemplateEnum;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Template de mensagem personalizado por um tenant.
+ * Quando não existe registro, é usado o texto padrão do TipoTemplateEnum.
+ */
+@Data
+@Entity
+@Table(
+    name = "templates_mensagem",
+    uniqueConstraints = @UniqueConstraint(name = "uk_template_tenant_tipo", columnNames = {"tenant_id", "tipo"})
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TemplateMensagem 
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private TipoTemplateEnum tipo;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String conteudo;
+
+    @Column(name = "atualizado_em")
+    private Instant atualizadoEm;
+}
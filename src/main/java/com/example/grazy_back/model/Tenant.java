@@ -2,6 +2,11 @@ package com.example.grazy_back.model;
 
 import java.time.Instant;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -19,8 +24,14 @@ import com.example.grazy_back.enums.PlanoEnum;
 import com.example.grazy_back.enums.StatusTenantEnum;
 
 
+/**
+ * Lido em praticamente toda requisição (TenantFilter, login, configuração pública),
+ * por isso fica no cache de segundo nível, inclusive a busca por subdomínio (natural id).
+ */
 @Entity
 @Table(name = "tenants")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tenant")
+@NaturalIdCache(region = "tenant-natural-id")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +45,7 @@ public class Tenant
     @Column(nullable = false)
     private String nomeNegocio;
 
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String subdominio;
 
@@ -81,6 +93,10 @@ public class Tenant
     private String logoUrl;
 
     private String databaseSchema;
+
+    // Dados de agendamento/cliente/serviço em databaseSchema em vez do schema compartilhado
+    @Builder.Default
+    private Boolean schemaDedicado = false;
     
     // Configurações de cobrança
     private Integer diaPagamento; // Dia do mês para cobrar (1-31)
@@ -0,0 +1,38 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Uso de um tenant (agendamentos do mês, clientes, usuários, último login), recalculado
+ * periodicamente pelo TenantResumoUsoService para a listagem do super admin.
+ */
+@Data
+@Entity
+@Table(name = "tenant_resumo_uso")
+public class TenantResumoUso
+{
+    @Id
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Column(name = "agendamentos_no_mes", nullable = false)
+    private int agendamentosNoMes;
+
+    @Column(nullable = false)
+    private int clientes;
+
+    @Column(nullable = false)
+    private int usuarios;
+
+    @Column(name = "ultimo_login")
+    private Instant ultimoLogin;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private Instant atualizadoEm;
+}
@@ -2,7 +2,10 @@ package com.example.grazy_back.model;
 
 import java.util.Date;
 
+import org.hibernate.annotations.Filter;
+
 import com.example.grazy_back.enums.TipoTransacaoEnum;
+import com.example.grazy_back.security.FiltroTenant;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -11,6 +14,8 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 /**
@@ -19,6 +24,8 @@ import lombok.Data;
 
 @Data
 @Entity
+@Filter(name = FiltroTenant.NOME)
+@Table(indexes = @Index(name = "idx_transacao_tenant_tipo", columnList = "tenant_id, tipo"))
 public class TransacaoFinanceira 
 {
     @Id
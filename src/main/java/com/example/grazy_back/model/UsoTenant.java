@@ -0,0 +1,57 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+import java.time.YearMonth;
+
+import com.example.grazy_back.enums.MetricaUsoEnum;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Uso de uma métrica por um tenant em um mês, somado em lote pelo MedicaoUsoService.
+ */
+@Data
+@Entity
+@Table(
+    name = "uso_tenant",
+    uniqueConstraints = @UniqueConstraint(name = "uk_uso_tenant", columnNames = {"tenant_id", "periodo", "metrica"}),
+    indexes = @Index(name = "idx_uso_tenant_periodo", columnList = "periodo, metrica")
+)
+public class UsoTenant
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    // aaaamm, ex: 202610
+    @Column(nullable = false)
+    private int periodo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "varchar(30)")
+    private MetricaUsoEnum metrica;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private Instant atualizadoEm;
+
+    public static int periodo(YearMonth mes)
+    {
+        return mes.getYear() * 100 + mes.getMonthValue();
+    }
+}
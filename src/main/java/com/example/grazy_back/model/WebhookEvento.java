@@ -0,0 +1,72 @@
+package com.example.grazy_back.model;
+
+import java.time.Instant;
+
+import com.example.grazy_back.enums.StatusWebhookEnum;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Caixa de entrada dos webhooks do Mercado Pago.
+ * Cada par (tipo, dataId) existe uma única vez: notificações repetidas
+ * reabrem o mesmo registro em vez de gerar trabalho duplicado.
+ */
+@Data
+@Entity
+@Table(
+    name = "webhook_eventos",
+    uniqueConstraints = @UniqueConstraint(name = "uk_webhook_tipo_data_id", columnNames = {"tipo", "data_id"})
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEvento 
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String tipo;
+
+    @Column(name = "data_id", nullable = false, length = 100)
+    private String dataId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatusWebhookEnum status = StatusWebhookEnum.PENDENTE;
+
+    @Builder.Default
+    private Integer tentativas = 0;
+
+    @Builder.Default
+    private Integer duplicatas = 0; // Notificações coalescidas neste registro
+
+    @Column(name = "recebido_em", nullable = false)
+    private Instant recebidoEm;
+
+    @Column(name = "atualizado_em")
+    private Instant atualizadoEm;
+
+    @Column(name = "proxima_tentativa")
+    private Instant proximaTentativa;
+
+    @Column(name = "processado_em")
+    private Instant processadoEm;
+
+    @Column(name = "ultimo_erro", columnDefinition = "TEXT")
+    private String ultimoErro;
+}
@@ -0,0 +1,17 @@
+/**
+ * Entidades JPA.
+ * As entidades com tenant_id marcadas com @Filter(name = FiltroTenant.NOME) só enxergam
+ * registros do tenant atual, inclusive em findById.
+ */
+@FilterDef(
+    name = FiltroTenant.NOME,
+    parameters = @ParamDef(name = FiltroTenant.PARAMETRO, type = Long.class),
+    defaultCondition = "tenant_id = :" + FiltroTenant.PARAMETRO,
+    applyToLoadByKey = true
+)
+package com.example.grazy_back.model;
+
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+
+import com.example.grazy_back.security.FiltroTenant;
@@ -0,0 +1,50 @@
+package com.example.grazy_back.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.grazy_back.model.AgendamentoContagem;
+
+@Repository
+public interface AgendamentoContagemRepository extends JpaRepository<AgendamentoContagem, Long>
+{
+    /**
+     * Soma os deltas na contagem do horário, criando a linha na primeira vez. Um único comando
+     * atômico: mudanças simultâneas no mesmo horário não se perdem.
+     */
+    @Modifying
+    @Query(value = """
+        insert into agendamento_contagem
+            (tenant_id, dia, hora, servico_id, agendados, finalizados, cancelados, cancelados_em_cima,
+             nao_compareceu, lembrados, nao_compareceu_lembrados)
+        values (:tenantId, :dia, :hora, :servicoId, :agendados, :finalizados, :cancelados, :canceladosEmCima,
+                :naoCompareceu, :lembrados, :naoCompareceuLembrados)
+        on duplicate key update
+            agendados = agendados + :agendados,
+            finalizados = finalizados + :finalizados,
+            cancelados = cancelados + :cancelados,
+            cancelados_em_cima = cancelados_em_cima + :canceladosEmCima,
+            nao_compareceu = nao_compareceu + :naoCompareceu,
+            lembrados = lembrados + :lembrados,
+            nao_compareceu_lembrados = nao_compareceu_lembrados + :naoCompareceuLembrados
+        """, nativeQuery = true)
+    int somar(@Param("tenantId") Long tenantId, @Param("dia") LocalDate dia, @Param("hora") int hora,
+              @Param("servicoId") Long servicoId, @Param("agendados") int agendados,
+              @Param("finalizados") int finalizados, @Param("cancelados") int cancelados,
+              @Param("canceladosEmCima") int canceladosEmCima, @Param("naoCompareceu") int naoCompareceu,
+              @Param("lembrados") int lembrados, @Param("naoCompareceuLembrados") int naoCompareceuLembrados);
+
+    List<AgendamentoContagem> findByTenantIdAndDiaBetween(Long tenantId, LocalDate inicio, LocalDate fim);
+
+    @Modifying
+    @Transactional
+    @Query("delete from AgendamentoContagem c where c.dia < :limite")
+    int removerAnteriores(@Param("limite") LocalDate limite);
+}
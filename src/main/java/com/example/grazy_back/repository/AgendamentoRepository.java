@@ -1,11 +1,27 @@
 package com.example.grazy_back.repository;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.grazy_back.dto.ResumoAgendamentoItem;
+import com.example.grazy_back.dto.VisitaItem;
 import com.example.grazy_back.model.Agendamento;
+import com.example.grazy_back.model.Cliente;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import com.example.grazy_back.enums.StatusAgendamentoEnum;
 
 public interface AgendamentoRepository extends JpaRepository<Agendamento, Long> 
@@ -16,11 +32,106 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
 	List<Agendamento> findByStatusAndDataHoraBetweenOrderByDataHoraAsc(StatusAgendamentoEnum status, LocalDateTime inicio, LocalDateTime fim);
 	List<Agendamento> findByStatusAndNotificadoFalseAndDataHoraBetweenOrderByDataHoraAsc(StatusAgendamentoEnum status, LocalDateTime inicio, LocalDateTime fim);
 
+    /**
+     * Reivindica até :quantidade lembretes pendentes da janela para o lote informado.
+     * O UPDATE ... LIMIT trava só as linhas que pega; workers concorrentes (threads ou nós)
+     * recebem lotes disjuntos. Reivindicações mais antigas que :expirado (worker que caiu)
+     * podem ser retomadas.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        update agendamento
+           set lote_lembrete = :lote, reivindicado_em = :agora
+         where status = :status and notificado = false
+           and data_hora between :inicio and :fim
+           and (lote_lembrete is null or reivindicado_em < :expirado)
+         order by data_hora
+         limit :quantidade
+        """, nativeQuery = true)
+    int reivindicarLembretes(@Param("lote") String lote, @Param("agora") Instant agora, @Param("status") String status,
+                             @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim,
+                             @Param("expirado") Instant expirado, @Param("quantidade") int quantidade);
+
+    List<Agendamento> findByLoteLembreteAndNotificadoFalse(String loteLembrete);
+
+    /**
+     * Marca os lembretes do lote como enviados em um único UPDATE.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Agendamento a set a.notificado = true, a.notificadoEm = :em where a.loteLembrete = :lote and a.id in :ids")
+    int marcarNotificados(@Param("lote") String lote, @Param("ids") Collection<Long> ids, @Param("em") Instant em);
+
+    /**
+     * Carrega o agendamento travado até o fim da transação: mudanças simultâneas de status
+     * passam uma de cada vez, cada uma vendo o estado deixado pela anterior.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Agendamento a where a.id = :id")
+    Optional<Agendamento> travar(@Param("id") Long id);
+
+    /**
+     * Mesclagem de clientes: passa os agendamentos dos duplicados para o principal em um único UPDATE.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Agendamento a set a.usuario = :principal where a.usuario.id in :duplicados and a.tenantId = :tenantId")
+    int transferirCliente(@Param("principal") Cliente principal, @Param("duplicados") Collection<Long> duplicados,
+                          @Param("tenantId") Long tenantId);
+
+    /**
+     * Finaliza só se ainda não estiver finalizado: de duas finalizações simultâneas, apenas uma
+     * recebe 1 (e lança a receita e a visita). A visita já sai contabilizada.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update Agendamento a
+           set a.status = com.example.grazy_back.enums.StatusAgendamentoEnum.FINALIZADO,
+               a.finalizedAt = :agora, a.contabilizadoEm = :agora
+         where a.id = :id and a.status <> com.example.grazy_back.enums.StatusAgendamentoEnum.FINALIZADO
+        """)
+    int finalizar(@Param("id") Long id, @Param("agora") Instant agora);
+
+    /**
+     * Finalizados que ainda não entraram nas estatísticas dos clientes (anteriores a elas), por id.
+     */
+    @Query("""
+        select new com.example.grazy_back.dto.VisitaItem(a.id, a.tenantId, a.usuario.id, s.id, s.preco, a.dataHora, a.finalizedAt)
+          from Agendamento a
+          left join a.servico s
+         where a.status = com.example.grazy_back.enums.StatusAgendamentoEnum.FINALIZADO
+           and a.contabilizadoEm is null and a.id > :depoisDe
+         order by a.id
+        """)
+    List<VisitaItem> visitasNaoContabilizadas(@Param("depoisDe") Long depoisDe, Pageable pagina);
+
+    @Modifying
+    @Transactional
+    @Query("update Agendamento a set a.contabilizadoEm = :agora where a.id in :ids and a.contabilizadoEm is null")
+    int marcarContabilizados(@Param("ids") Collection<Long> ids, @Param("agora") Instant agora);
+
     boolean existsByServicoId(Long servicoId);
-    
+
     // Métodos filtrados por tenant
-    List<Agendamento> findByTenantId(Long tenantId);
-    List<Agendamento> findByTenantIdAndDataHoraBetweenOrderByDataHoraAsc(Long tenantId, LocalDateTime inicio, LocalDateTime fim);
     List<Agendamento> findByTenantIdAndStatusAndDataHoraBetweenOrderByDataHoraAsc(Long tenantId, StatusAgendamentoEnum status, LocalDateTime inicio, LocalDateTime fim);
-    long countByTenantIdAndDataHoraBetween(Long tenantId, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Agendamentos do período de todos os tenants ativos, agrupados por tenant (ordenados por tenant_id e data/hora).
+     * Deve ser consumido dentro de uma transação; o fetch size MIN_VALUE faz o driver MySQL
+     * entregar as linhas uma a uma em vez de carregar o resultado inteiro em memória.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("""
+        select new com.example.grazy_back.dto.ResumoAgendamentoItem(a.tenantId, t.emailAdmin, a.dataHora, u.nome, s.nome, a.status)
+          from Agendamento a
+          join Tenant t on t.id = a.tenantId
+          left join a.usuario u
+          left join a.servico s
+         where a.dataHora >= :inicio and a.dataHora < :fim
+           and t.ativo = true
+         order by a.tenantId asc, a.dataHora asc
+        """)
+    Stream<ResumoAgendamentoItem> streamResumoPorTenant(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 }
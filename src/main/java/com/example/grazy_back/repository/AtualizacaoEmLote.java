@@ -0,0 +1,85 @@
+package com.example.grazy_back.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * Grava um valor diferente por linha com um único UPDATE ... CASE por lote, em vez de um
+ * UPDATE por entidade, e só na coluna informada. Sendo HQL, o Hibernate descarta sozinho as
+ * entradas do cache de segundo nível da entidade neste nó e aplica o filtro de tenant
+ * habilitado na sessão (entidades com @Filter só têm as linhas do tenant atual alteradas).
+ */
+final class AtualizacaoEmLote
+{
+    // Mantém o comando e a quantidade de parâmetros em um tamanho razoável para o MySQL
+    private static final int TAMANHO_LOTE = 500;
+
+    private AtualizacaoEmLote() {}
+
+    /**
+     * Grava a posição de cada item na lista ordenada.
+     * @param chavesOrdenadas chaves na ordem desejada; repetidas ficam com a primeira posição
+     * @return quantidade de linhas atualizadas
+     */
+    static int ordem(EntityManager entityManager, String entidade, String atributoChave, String atributoOrdem,
+                     List<?> chavesOrdenadas)
+    {
+        Map<Object, Object> posicoes = new LinkedHashMap<>();
+
+        for (Object chave : chavesOrdenadas)
+        {
+            if (chave != null)
+                posicoes.putIfAbsent(chave, posicoes.size());
+        }
+
+        return valores(entityManager, entidade, atributoChave, atributoOrdem, posicoes);
+    }
+
+    /**
+     * @param entidade nome da entidade no HQL
+     * @param atributoChave atributo que identifica a linha (id, nome do arquivo...)
+     * @param atributoValor atributo que recebe o valor
+     * @param valores chave -> novo valor
+     * @return quantidade de linhas atualizadas
+     */
+    static int valores(EntityManager entityManager, String entidade, String atributoChave, String atributoValor,
+                       Map<?, ?> valores)
+    {
+        List<Map.Entry<?, ?>> itens = new ArrayList<>(valores.entrySet());
+        int atualizados = 0;
+
+        for (int inicio = 0; inicio < itens.size(); inicio += TAMANHO_LOTE)
+        {
+            List<Map.Entry<?, ?>> lote = itens.subList(inicio, Math.min(inicio + TAMANHO_LOTE, itens.size()));
+            StringBuilder hql = new StringBuilder(64 + lote.size() * 24)
+                .append("update ").append(entidade).append(" e set e.").append(atributoValor)
+                .append(" = case e.").append(atributoChave);
+
+            for (int i = 0; i < lote.size(); i++)
+                hql.append(" when :c").append(i).append(" then :v").append(i);
+
+            hql.append(" else e.").append(atributoValor).append(" end where e.").append(atributoChave).append(" in :chaves");
+
+            Query query = entityManager.createQuery(hql.toString());
+            List<Object> chaves = new ArrayList<>(lote.size());
+
+            for (int i = 0; i < lote.size(); i++)
+            {
+                query.setParameter("c" + i, lote.get(i).getKey());
+                query.setParameter("v" + i, lote.get(i).getValue());
+                chaves.add(lote.get(i).getKey());
+            }
+
+            query.setParameter("chaves", chaves);
+
+            atualizados += query.executeUpdate();
+        }
+
+        return atualizados;
+    }
+}
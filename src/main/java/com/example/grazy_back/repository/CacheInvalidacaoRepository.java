@@ -0,0 +1,28 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.grazy_back.model.CacheInvalidacao;
+
+@Repository
+public interface CacheInvalidacaoRepository extends JpaRepository<CacheInvalidacao, Long> 
+{
+    List<CacheInvalidacao> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select coalesce(max(c.id), 0) from CacheInvalidacao c")
+    Long findUltimoId();
+
+    @Modifying
+    @Transactional
+    @Query("delete from CacheInvalidacao c where c.criadoEm < :limite")
+    int apagarAnteriores(@Param("limite") Instant limite);
+}
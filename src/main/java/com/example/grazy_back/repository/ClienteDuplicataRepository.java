@@ -0,0 +1,51 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.grazy_back.enums.StatusDuplicataEnum;
+import com.example.grazy_back.model.ClienteDuplicata;
+
+@Repository
+public interface ClienteDuplicataRepository extends JpaRepository<ClienteDuplicata, Long>
+{
+    /**
+     * Pares que envolvem algum dos clientes, em qualquer status.
+     */
+    @Query("select d from ClienteDuplicata d where d.clienteId in :ids or d.duplicadoId in :ids")
+    List<ClienteDuplicata> envolvendo(@Param("ids") Collection<Long> ids);
+
+    @Query("select d from ClienteDuplicata d where d.tenantId = :tenantId and d.status = :status order by d.pontuacao desc, d.id")
+    List<ClienteDuplicata> listarPorStatus(@Param("tenantId") Long tenantId, @Param("status") StatusDuplicataEnum status, Pageable pagina);
+
+    /**
+     * Fecha os pares pendentes entre o principal e os clientes mesclados nele.
+     */
+    @Modifying
+    @Query("""
+        update ClienteDuplicata d
+           set d.status = com.example.grazy_back.enums.StatusDuplicataEnum.MESCLADA, d.resolvidoEm = :agora
+         where d.status = com.example.grazy_back.enums.StatusDuplicataEnum.PENDENTE
+           and d.clienteId in :ids and d.duplicadoId in :ids
+        """)
+    int marcarMescladas(@Param("ids") Collection<Long> ids, @Param("agora") Instant agora);
+
+    /**
+     * Descarta os pares pendentes dos clientes (o job recalcula os que ainda valerem).
+     */
+    @Modifying
+    @Query("""
+        delete from ClienteDuplicata d
+         where d.status = com.example.grazy_back.enums.StatusDuplicataEnum.PENDENTE
+           and (d.clienteId in :ids or d.duplicadoId in :ids)
+        """)
+    int removerPendentes(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,42 @@
+package com.example.grazy_back.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.grazy_back.model.ClienteEstatistica;
+
+@Repository
+public interface ClienteEstatisticaRepository extends JpaRepository<ClienteEstatistica, Long>
+{
+    /**
+     * Soma visitas ao resumo do cliente, criando a linha na primeira. Um único comando
+     * atômico: finalizações simultâneas do mesmo cliente não se perdem.
+     */
+    @Modifying
+    @Query(value = """
+        insert into cliente_estatistica (cliente_id, tenant_id, visitas, valor_total, primeira_visita, ultima_visita)
+        values (:clienteId, :tenantId, :visitas, :valor, :primeira, :ultima)
+        on duplicate key update
+            visitas = visitas + :visitas,
+            valor_total = valor_total + :valor,
+            primeira_visita = least(coalesce(primeira_visita, :primeira), :primeira),
+            ultima_visita = greatest(coalesce(ultima_visita, :ultima), :ultima)
+        """, nativeQuery = true)
+    int somarVisitas(@Param("clienteId") Long clienteId, @Param("tenantId") Long tenantId,
+                     @Param("visitas") int visitas, @Param("valor") double valor,
+                     @Param("primeira") LocalDateTime primeira, @Param("ultima") LocalDateTime ultima);
+
+    Slice<ClienteEstatistica> findByTenantId(Long tenantId, Pageable pageable);
+
+    /**
+     * Clientes que passaram do ponto de risco, os sumidos há mais tempo primeiro.
+     */
+    Slice<ClienteEstatistica> findByTenantIdAndRiscoEmLessThanEqualOrderByRiscoEmAsc(Long tenantId, LocalDateTime agora, Pageable pageable);
+}
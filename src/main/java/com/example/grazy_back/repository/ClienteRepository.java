@@ -1,11 +1,67 @@
 package com.example.grazy_back.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.grazy_back.dto.ClienteBuscaItem;
+import com.example.grazy_back.dto.ClienteDedupItem;
+import com.example.grazy_back.dto.ContagemTenantItem;
 import com.example.grazy_back.model.Cliente;
 
-public interface ClienteRepository extends JpaRepository<Cliente, Long> 
+public interface ClienteRepository extends JpaRepository<Cliente, Long>, ClienteRepositoryCustom 
 {
-    List<Cliente> findByTenantId(Long tenantId);
+    /**
+     * Só as colunas do índice de busca, sem carregar as entidades.
+     */
+    @Query("select new com.example.grazy_back.dto.ClienteBuscaItem(c.id, c.nome, c.telefone, c.email) from Cliente c where c.tenantId = :tenantId")
+    List<ClienteBuscaItem> listarParaBusca(@Param("tenantId") Long tenantId);
+
+    @Query("select new com.example.grazy_back.dto.ClienteBuscaItem(c.id, c.nome, c.telefone, c.email) from Cliente c where c.id = :id and c.tenantId = :tenantId")
+    Optional<ClienteBuscaItem> buscarParaBusca(@Param("id") Long id, @Param("tenantId") Long tenantId);
+
+    /**
+     * Próxima página de clientes ainda não comparados (dedup_em nulo), em ordem de id.
+     */
+    @Query("""
+        select new com.example.grazy_back.dto.ClienteDedupItem(c.id, c.tenantId, c.nome, c.telefone, c.email, c.chaveTelefone, c.chaveEmail)
+          from Cliente c
+         where c.dedupEm is null and c.id > :depoisDe
+         order by c.id
+        """)
+    List<ClienteDedupItem> pendentesDedup(@Param("depoisDe") Long depoisDe, Pageable pagina);
+
+    /**
+     * Candidatos a duplicata: clientes do tenant com alguma das chaves de telefone.
+     */
+    @Query("""
+        select new com.example.grazy_back.dto.ClienteDedupItem(c.id, c.tenantId, c.nome, c.telefone, c.email, c.chaveTelefone, c.chaveEmail)
+          from Cliente c
+         where c.tenantId = :tenantId and c.chaveTelefone in :chaves
+        """)
+    List<ClienteDedupItem> porChavesTelefone(@Param("tenantId") Long tenantId, @Param("chaves") Collection<String> chaves);
+
+    @Query("""
+        select new com.example.grazy_back.dto.ClienteDedupItem(c.id, c.tenantId, c.nome, c.telefone, c.email, c.chaveTelefone, c.chaveEmail)
+          from Cliente c
+         where c.tenantId = :tenantId and c.chaveEmail in :chaves
+        """)
+    List<ClienteDedupItem> porChavesEmail(@Param("tenantId") Long tenantId, @Param("chaves") Collection<String> chaves);
+
+    @Query("select new com.example.grazy_back.dto.ClienteBuscaItem(c.id, c.nome, c.telefone, c.email) from Cliente c where c.id in :ids and c.tenantId = :tenantId")
+    List<ClienteBuscaItem> buscarParaBusca(@Param("ids") Collection<Long> ids, @Param("tenantId") Long tenantId);
+
+    @Query("select new com.example.grazy_back.dto.ContagemTenantItem(c.tenantId, count(c)) from Cliente c where c.tenantId is not null group by c.tenantId")
+    List<ContagemTenantItem> contarPorTenant();
+
+    @Modifying
+    @Query("update Cliente c set c.dedupEm = :agora where c.id in :ids and c.dedupEm is null")
+    int marcarComparados(@Param("ids") Collection<Long> ids, @Param("agora") Instant agora);
 }
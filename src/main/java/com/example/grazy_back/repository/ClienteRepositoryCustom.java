@@ -0,0 +1,17 @@
+package com.example.grazy_back.repository;
+
+import java.util.Map;
+
+/**
+ * Escritas em lote de Cliente que não são derivadas pelo Spring Data.
+ */
+public interface ClienteRepositoryCustom
+{
+    /**
+     * Grava as chaves de deduplicação calculadas pelo job, só nas colunas das chaves.
+     * @param telefones id do cliente -> chave do telefone
+     * @param emails id do cliente -> chave do email
+     * @return quantidade de colunas atualizadas
+     */
+    int gravarChaves(Map<Long, String> telefones, Map<Long, String> emails);
+}
@@ -0,0 +1,22 @@
+package com.example.grazy_back.repository;
+
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class ClienteRepositoryCustomImpl implements ClienteRepositoryCustom
+{
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int gravarChaves(Map<Long, String> telefones, Map<Long, String> emails)
+    {
+        return AtualizacaoEmLote.valores(entityManager, "Cliente", "id", "chaveTelefone", telefones)
+            + AtualizacaoEmLote.valores(entityManager, "Cliente", "id", "chaveEmail", emails);
+    }
+}
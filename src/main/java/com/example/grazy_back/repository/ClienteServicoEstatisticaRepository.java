@@ -0,0 +1,48 @@
+package com.example.grazy_back.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.grazy_back.dto.ServicoFrequenteItem;
+import com.example.grazy_back.model.ClienteServicoEstatistica;
+
+@Repository
+public interface ClienteServicoEstatisticaRepository extends JpaRepository<ClienteServicoEstatistica, Long>
+{
+    @Modifying
+    @Query(value = """
+        insert into cliente_servico_estatistica (tenant_id, cliente_id, servico_id, visitas, valor_total, ultima_visita)
+        values (:tenantId, :clienteId, :servicoId, :visitas, :valor, :ultima)
+        on duplicate key update
+            visitas = visitas + :visitas,
+            valor_total = valor_total + :valor,
+            ultima_visita = greatest(coalesce(ultima_visita, :ultima), :ultima)
+        """, nativeQuery = true)
+    int somarVisitas(@Param("tenantId") Long tenantId, @Param("clienteId") Long clienteId, @Param("servicoId") Long servicoId,
+                     @Param("visitas") int visitas, @Param("valor") double valor, @Param("ultima") LocalDateTime ultima);
+
+    /**
+     * Serviços dos clientes, do mais feito para o menos feito em cada cliente.
+     */
+    @Query("""
+        select new com.example.grazy_back.dto.ServicoFrequenteItem(e.clienteId, e.servicoId, s.nome, e.visitas, e.valorTotal, e.ultimaVisita)
+          from ClienteServicoEstatistica e
+          left join Servico s on s.id = e.servicoId
+         where e.clienteId in :clientes
+         order by e.clienteId, e.visitas desc, e.valorTotal desc
+        """)
+    List<ServicoFrequenteItem> porClientes(@Param("clientes") Collection<Long> clientes);
+
+    List<ClienteServicoEstatistica> findByClienteIdIn(Collection<Long> clientes);
+
+    @Modifying
+    @Query("delete from ClienteServicoEstatistica e where e.clienteId in :clientes")
+    int removerPorClientes(@Param("clientes") Collection<Long> clientes);
+}
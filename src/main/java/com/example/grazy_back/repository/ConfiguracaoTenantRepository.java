@@ -3,15 +3,24 @@ package com.example.grazy_back.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.grazy_back.model.ConfiguracaoTenant;
 import com.example.grazy_back.model.Tenant;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ConfiguracaoTenantRepository extends JpaRepository<ConfiguracaoTenant, Long> 
 {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<ConfiguracaoTenant> findByTenant(Tenant tenant);
     
-    Optional<ConfiguracaoTenant> findByTenantId(Long tenantId);
+    // Filtra pela coluna tenant_id (índice único); o nome derivado filtrava pelo join com tenants
+    @Query("select c from ConfiguracaoTenant c where c.tenant.id = :tenantId")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Optional<ConfiguracaoTenant> findByTenantId(@Param("tenantId") Long tenantId);
 }
@@ -3,10 +3,13 @@ package com.example.grazy_back.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.example.grazy_back.model.ConteudoSite;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository para ConteudoSite.
  * Gerencia o conteúdo do site (landing page) de cada tenant.
@@ -17,6 +20,7 @@ public interface ConteudoSiteRepository extends JpaRepository<ConteudoSite, Long
     /**
      * Busca conteúdo do site pelo tenant ID.
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<ConteudoSite> findByTenantId(Long tenantId);
 
     /**
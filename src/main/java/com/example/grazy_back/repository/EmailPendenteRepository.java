@@ -0,0 +1,102 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.grazy_back.enums.StatusEmailEnum;
+import com.example.grazy_back.model.EmailPendente;
+
+@Repository
+public interface EmailPendenteRepository extends JpaRepository<EmailPendente, Long> 
+{
+    /**
+     * IDs prontos para envio, do mais antigo para o mais novo.
+     */
+    @Query("select e.id from EmailPendente e where e.status = :status and e.proximaTentativa <= :agora order by e.id asc")
+    List<Long> findIdsProntos(@Param("status") StatusEmailEnum status, @Param("agora") Instant agora, Pageable pageable);
+
+    List<EmailPendente> findByLoteAndStatus(String lote, StatusEmailEnum status);
+
+    long countByStatus(StatusEmailEnum status);
+
+    /**
+     * Reivindica os emails para um worker. Só pega os que ainda estão PENDENTE,
+     * então workers concorrentes nunca enviam o mesmo email.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update EmailPendente e
+           set e.status = com.example.grazy_back.enums.StatusEmailEnum.ENVIANDO,
+               e.lote = :lote,
+               e.atualizadoEm = :agora
+         where e.id in :ids and e.status = com.example.grazy_back.enums.StatusEmailEnum.PENDENTE
+        """)
+    int reivindicar(@Param("ids") Collection<Long> ids, @Param("lote") String lote, @Param("agora") Instant agora);
+
+    /**
+     * Marca como enviados e descarta o corpo: ele pode ter dados sensíveis (ex: senha provisória
+     * do email de boas-vindas) e não é mais necessário depois da entrega.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update EmailPendente e
+           set e.status = com.example.grazy_back.enums.StatusEmailEnum.ENVIADO,
+               e.enviadoEm = :agora,
+               e.atualizadoEm = :agora,
+               e.ultimoErro = null,
+               e.corpo = ''
+         where e.id in :ids and e.status = com.example.grazy_back.enums.StatusEmailEnum.ENVIANDO
+        """)
+    int marcarEnviados(@Param("ids") Collection<Long> ids, @Param("agora") Instant agora);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        update EmailPendente e
+           set e.status = :status,
+               e.tentativas = e.tentativas + 1,
+               e.proximaTentativa = :proximaTentativa,
+               e.atualizadoEm = :agora,
+               e.ultimoErro = :erro
+         where e.id = :id and e.status = com.example.grazy_back.enums.StatusEmailEnum.ENVIANDO
+        """)
+    int registrarFalha(@Param("id") Long id, @Param("status") StatusEmailEnum status,
+                       @Param("proximaTentativa") Instant proximaTentativa, @Param("agora") Instant agora,
+                       @Param("erro") String erro);
+
+    /**
+     * Devolve para a fila emails presos em ENVIANDO (ex: queda do nó no meio do envio).
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update EmailPendente e
+           set e.status = com.example.grazy_back.enums.StatusEmailEnum.PENDENTE,
+               e.atualizadoEm = :agora
+         where e.status = com.example.grazy_back.enums.StatusEmailEnum.ENVIANDO and e.atualizadoEm < :limite
+        """)
+    int liberarTravados(@Param("limite") Instant limite, @Param("agora") Instant agora);
+
+    /**
+     * Apaga emails já finalizados (enviados ou descartados) antes do limite.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        delete from EmailPendente e
+         where e.status in (com.example.grazy_back.enums.StatusEmailEnum.ENVIADO, com.example.grazy_back.enums.StatusEmailEnum.ERRO)
+           and e.atualizadoEm < :limite
+        """)
+    int apagarFinalizados(@Param("limite") Instant limite);
+}
@@ -6,14 +6,13 @@ import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.example.grazy_back.model.ImageMetadata;
 
-public interface ImageMetadataRepository extends JpaRepository<ImageMetadata, Long> 
+public interface ImageMetadataRepository extends JpaRepository<ImageMetadata, Long>, ImageMetadataRepositoryCustom 
 {
 	Optional<ImageMetadata> findByStoredFilename(String storedFilename);
+	List<ImageMetadata> findByStoredFilenameIn(List<String> storedFilenames);
 	List<ImageMetadata> findAllByForServicoFalse();
 	List<ImageMetadata> findByTenantId(Long tenantId);
-	List<ImageMetadata> findByTenantIdAndForServicoFalse(Long tenantId);
 	
 	// Para landing page
 	List<ImageMetadata> findAllByForServicoFalseAndExibirLandingTrueOrderByOrdemLandingAsc();
-	List<ImageMetadata> findByTenantIdAndForServicoFalseAndExibirLandingTrueOrderByOrdemLandingAsc(Long tenantId);
 }
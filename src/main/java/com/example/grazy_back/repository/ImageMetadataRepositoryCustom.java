@@ -0,0 +1,16 @@
+package com.example.grazy_back.repository;
+
+import java.util.List;
+
+/**
+ * Escritas em lote de ImageMetadata que não são derivadas pelo Spring Data.
+ */
+public interface ImageMetadataRepositoryCustom
+{
+    /**
+     * Grava a ordem na landing conforme a posição de cada arquivo na lista (UPDATE ... CASE).
+     * O filtro de tenant restringe o UPDATE às imagens do tenant atual.
+     * @return quantidade de imagens atualizadas
+     */
+    int atualizarOrdemLanding(List<String> storedFilenames);
+}
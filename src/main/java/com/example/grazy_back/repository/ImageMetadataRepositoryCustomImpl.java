@@ -0,0 +1,21 @@
+package com.example.grazy_back.repository;
+
+import java.util.List;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class ImageMetadataRepositoryCustomImpl implements ImageMetadataRepositoryCustom
+{
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int atualizarOrdemLanding(List<String> storedFilenames)
+    {
+        return AtualizacaoEmLote.ordem(entityManager, "ImageMetadata", "storedFilename", "ordemLanding", storedFilenames);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.grazy_back.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.grazy_back.model.PagamentoItem;
+
+@Repository
+public interface PagamentoItemRepository extends JpaRepository<PagamentoItem, Long>
+{
+    List<PagamentoItem> findByPagamentoIdOrderByIdAsc(Long pagamentoId);
+}
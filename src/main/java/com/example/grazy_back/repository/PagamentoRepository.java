@@ -1,11 +1,17 @@
 package com.example.grazy_back.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.grazy_back.enums.StatusPagamentoEnum;
 import com.example.grazy_back.model.Pagamento;
@@ -21,6 +27,10 @@ public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
         Long tenantId, Integer mesReferencia, Integer anoReferencia
     );
     
+    List<Pagamento> findByMesReferenciaAndAnoReferenciaAndTenantIdIn(
+        Integer mesReferencia, Integer anoReferencia, Collection<Long> tenantIds
+    );
+    
     List<Pagamento> findByStatusAndDataVencimentoBefore(
         StatusPagamentoEnum status, LocalDateTime dataVencimento
     );
@@ -30,4 +40,36 @@ public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
     );
     
     Optional<Pagamento> findByMercadoPagoId(String mercadoPagoId);
+    
+    /**
+     * Página de pagamentos ainda não finalizados, paginada por id (keyset) para a reconciliação.
+     */
+    @Query("select p from Pagamento p where p.status in :status and p.id > :ultimoId and p.dataCriacao < :criadoAntes order by p.id asc")
+    List<Pagamento> findParaReconciliar(
+        @Param("status") List<StatusPagamentoEnum> status,
+        @Param("ultimoId") Long ultimoId,
+        @Param("criadoAntes") LocalDateTime criadoAntes,
+        Pageable pageable
+    );
+    
+    /**
+     * Grava o status só se o pagamento ainda estiver no status lido: se um webhook mudou o
+     * pagamento no meio tempo, retorna 0 e a alteração dele prevalece.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update Pagamento p
+           set p.status = :novo,
+               p.mercadoPagoId = coalesce(:mercadoPagoId, p.mercadoPagoId),
+               p.dataPagamento = coalesce(p.dataPagamento, :dataPagamento)
+         where p.id = :id and p.status = :anterior
+        """)
+    int atualizarStatusSe(
+        @Param("id") Long id,
+        @Param("anterior") StatusPagamentoEnum anterior,
+        @Param("novo") StatusPagamentoEnum novo,
+        @Param("mercadoPagoId") String mercadoPagoId,
+        @Param("dataPagamento") LocalDateTime dataPagamento
+    );
 }
@@ -0,0 +1,47 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.grazy_back.model.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long>
+{
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marca o token como usado só se ainda estiver válido: de duas renovações simultâneas
+     * com o mesmo token, apenas uma recebe 1.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update RefreshToken r
+           set r.usadoEm = :agora
+         where r.id = :id and r.usadoEm is null and r.revogadoEm is null and r.expiraEm > :agora
+        """)
+    int marcarUsado(@Param("id") Long id, @Param("agora") Instant agora);
+
+    @Modifying
+    @Transactional
+    @Query("update RefreshToken r set r.revogadoEm = :agora where r.familia = :familia and r.revogadoEm is null")
+    int revogarFamilia(@Param("familia") String familia, @Param("agora") Instant agora);
+
+    @Modifying
+    @Transactional
+    @Query("update RefreshToken r set r.revogadoEm = :agora where r.usuarioId = :usuarioId and r.revogadoEm is null")
+    int revogarPorUsuario(@Param("usuarioId") Long usuarioId, @Param("agora") Instant agora);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken r where r.expiraEm < :limite")
+    int removerExpirados(@Param("limite") Instant limite);
+}
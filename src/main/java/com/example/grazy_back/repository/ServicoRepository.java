@@ -1,16 +1,27 @@
 package com.example.grazy_back.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 import com.example.grazy_back.model.Servico;
+
+import jakarta.persistence.QueryHint;
+
 import java.util.List;
 
 @Repository
-public interface ServicoRepository extends JpaRepository<Servico, Long> 
+public interface ServicoRepository extends JpaRepository<Servico, Long>, ServicoRepositoryCustom 
 {
 	List<Servico> findByAtivoTrue(Sort sort);
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	List<Servico> findByTenantId(Long tenantId);
+
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	List<Servico> findByTenantIdAndAtivoTrue(Long tenantId, Sort sort);
+
+	@Query("select max(s.ordem) from Servico s where s.tenantId = :tenantId")
+	Integer findMaxOrdemByTenantId(Long tenantId);
 }
\ No newline at end of file
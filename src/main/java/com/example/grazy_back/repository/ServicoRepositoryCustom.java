@@ -0,0 +1,16 @@
+package com.example.grazy_back.repository;
+
+import java.util.List;
+
+/**
+ * Escritas em lote de Servico que não são derivadas pelo Spring Data.
+ */
+public interface ServicoRepositoryCustom
+{
+    /**
+     * Grava a ordem dos serviços conforme a posição na lista (UPDATE ... CASE, sem carregar as entidades).
+     * O filtro de tenant restringe o UPDATE aos serviços do tenant atual.
+     * @return quantidade de serviços atualizados
+     */
+    int atualizarOrdem(List<Long> idsOrdenados);
+}
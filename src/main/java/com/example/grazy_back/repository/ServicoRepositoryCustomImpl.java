@@ -0,0 +1,21 @@
+package com.example.grazy_back.repository;
+
+import java.util.List;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class ServicoRepositoryCustomImpl implements ServicoRepositoryCustom
+{
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int atualizarOrdem(List<Long> idsOrdenados)
+    {
+        return AtualizacaoEmLote.ordem(entityManager, "Servico", "id", "ordem", idsOrdenados);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.grazy_back.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.grazy_back.enums.TipoTemplateEnum;
+import com.example.grazy_back.model.TemplateMensagem;
+
+@Repository
+public interface TemplateMensagemRepository extends JpaRepository<TemplateMensagem, Long> 
+{
+    List<TemplateMensagem> findByTenantId(Long tenantId);
+
+    Optional<TemplateMensagem> findByTenantIdAndTipo(Long tenantId, TipoTemplateEnum tipo);
+}
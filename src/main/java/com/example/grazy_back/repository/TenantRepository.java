@@ -3,17 +3,28 @@ package com.example.grazy_back.repository;
 import java.util.Optional;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.grazy_back.dto.TenantListagemItem;
 import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.enums.PlanoEnum;
 import com.example.grazy_back.enums.StatusTenantEnum;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface TenantRepository extends JpaRepository<Tenant, Long> 
+public interface TenantRepository extends JpaRepository<Tenant, Long>, TenantRepositoryCustom
 {
-    Optional<Tenant> findBySubdominio(String subdominio);
-    
+    // Consultado pelo TenantFilter em toda requisição; o cache guarda também o "não encontrado"
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Tenant> findByDominioCustomizado(String dominioCustomizado);
     
     Optional<Tenant> findByEmailAdmin(String emailAdmin);
@@ -27,6 +38,47 @@ public interface TenantRepository extends JpaRepository<Tenant, Long>
     List<Tenant> findByStatus(StatusTenantEnum status);
     
     List<Tenant> findByStatusAndAtivoTrue(StatusTenantEnum status);
+
+    // Cobrança diária: tenants com vencimento no intervalo de dias do mês
+    List<Tenant> findByStatusAndAtivoTrueAndDiaPagamentoBetweenOrderByIdAsc(StatusTenantEnum status, Integer diaInicio, Integer diaFim);
     
     List<Tenant> findByAtivoTrueOrderByCriadoEmDesc();
+
+    /**
+     * Listagem do super admin em uma consulta: configuração visual, administrador (o mais
+     * antigo) e resumo de uso entram por join. Ordenação pelos aliases (t, r).
+     * @param busca trecho em minúsculas já entre '%', ou null
+     */
+    @Query("""
+        select new com.example.grazy_back.dto.TenantListagemItem(
+               t.id, t.nomeNegocio, t.subdominio, t.dominioCustomizado, t.emailAdmin,
+               coalesce(u.nome, t.nomeAdmin), coalesce(u.telefone, t.telefoneAdmin),
+               t.plano, t.status, t.ativo, t.onboardingCompleto,
+               coalesce(r.agendamentosNoMes, t.agendamentosNoMes), t.limiteAgendamentosMes,
+               t.criadoEm, t.atualizadoEm, t.suspensaoEm, t.motivoSuspensao,
+               coalesce(c.corPrimaria, t.corPrimaria), coalesce(c.logoUrl, t.logoUrl),
+               t.diaPagamento, t.enviarCobrancaWhatsapp, t.enviarCobrancaEmail,
+               r.clientes, r.usuarios, r.ultimoLogin, r.atualizadoEm)
+          from Tenant t
+          left join ConfiguracaoTenant c on c.tenant = t
+          left join Usuario u on u.id = (select min(a.id) from Usuario a
+                                          where a.tenant = t and a.role = com.example.grazy_back.enums.RoleEnum.TENANT_ADMIN)
+          left join TenantResumoUso r on r.tenantId = t.id
+         where (:incluirInativos = true or t.ativo = true)
+           and (:plano is null or t.plano = :plano)
+           and (:status is null or t.status = :status)
+           and (:busca is null or lower(t.nomeNegocio) like :busca or lower(t.subdominio) like :busca
+                or lower(t.emailAdmin) like :busca)
+        """)
+    Slice<TenantListagemItem> listar(@Param("incluirInativos") boolean incluirInativos, @Param("plano") PlanoEnum plano, @Param("status") StatusTenantEnum status,
+                                     @Param("busca") String busca, Pageable pageable);
+
+    /**
+     * Zera o contador mensal de agendamentos dos tenants ativos em um único UPDATE.
+     * @return quantidade de tenants zerados
+     */
+    @Modifying
+    @Transactional
+    @Query("update Tenant t set t.agendamentosNoMes = 0 where t.ativo = true and (t.agendamentosNoMes is null or t.agendamentosNoMes <> 0)")
+    int zerarAgendamentosNoMes();
 }
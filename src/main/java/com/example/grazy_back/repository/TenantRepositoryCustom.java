@@ -0,0 +1,17 @@
+package com.example.grazy_back.repository;
+
+import java.util.Optional;
+
+import com.example.grazy_back.model.Tenant;
+
+/**
+ * Consultas de Tenant que não são derivadas pelo Spring Data.
+ */
+public interface TenantRepositoryCustom
+{
+    /**
+     * Busca pelo subdomínio (natural id): resolvido pelo cache de segundo nível,
+     * sem ir ao banco quando o tenant já está em cache.
+     */
+    Optional<Tenant> findBySubdominio(String subdominio);
+}
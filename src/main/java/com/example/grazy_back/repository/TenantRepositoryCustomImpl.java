@@ -0,0 +1,40 @@
+package com.example.grazy_back.repository;
+
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import com.example.grazy_back.model.Tenant;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+
+public class TenantRepositoryCustomImpl implements TenantRepositoryCustom
+{
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Optional<Tenant> findBySubdominio(String subdominio)
+    {
+        // Usa o EntityManager da transação/requisição quando existir
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+
+        if (entityManager != null)
+            return buscar(entityManager.unwrap(Session.class), subdominio);
+
+        // Fora de transação (ex: TenantFilter): sessão curta, que só pega conexão se o cache não tiver o tenant
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).openSession())
+        {
+            return buscar(session, subdominio);
+        }
+    }
+
+    private Optional<Tenant> buscar(Session session, String subdominio)
+    {
+        return session.bySimpleNaturalId(Tenant.class).loadOptional(subdominio);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.grazy_back.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.grazy_back.model.TenantResumoUso;
+
+@Repository
+public interface TenantResumoUsoRepository extends JpaRepository<TenantResumoUso, Long>
+{
+}
@@ -0,0 +1,59 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.grazy_back.dto.UsoCobrancaItem;
+import com.example.grazy_back.enums.MetricaUsoEnum;
+import com.example.grazy_back.model.UsoTenant;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface UsoTenantRepository extends JpaRepository<UsoTenant, Long>
+{
+    /**
+     * Soma a quantidade no uso do mês, criando a linha na primeira vez. Atômico: gravações
+     * de vários nós no mesmo tenant não se perdem.
+     */
+    @Modifying
+    @Query(value = """
+        insert into uso_tenant (tenant_id, periodo, metrica, quantidade, atualizado_em)
+        values (:tenantId, :periodo, :metrica, :quantidade, :agora)
+        on duplicate key update
+            quantidade = quantidade + :quantidade,
+            atualizado_em = :agora
+        """, nativeQuery = true)
+    int somar(@Param("tenantId") Long tenantId, @Param("periodo") int periodo, @Param("metrica") String metrica,
+              @Param("quantidade") long quantidade, @Param("agora") Instant agora);
+
+    List<UsoTenant> findByTenantIdAndPeriodo(Long tenantId, int periodo);
+
+    List<UsoTenant> findByPeriodoAndMetrica(int periodo, MetricaUsoEnum metrica);
+
+    /**
+     * Uso do mês dos tenants ativos com cobrança entre os dias informados, ordenado por tenant.
+     * Deve ser consumido dentro de uma transação; o fetch size MIN_VALUE faz o driver MySQL
+     * entregar as linhas uma a uma.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("""
+        select new com.example.grazy_back.dto.UsoCobrancaItem(u.tenantId, u.metrica, u.quantidade)
+          from UsoTenant u
+          join Tenant t on t.id = u.tenantId
+         where u.periodo = :periodo
+           and t.status = com.example.grazy_back.enums.StatusTenantEnum.ATIVO and t.ativo = true
+           and t.diaPagamento between :diaInicio and :diaFim
+         order by u.tenantId
+        """)
+    Stream<UsoCobrancaItem> streamParaCobranca(@Param("periodo") int periodo, @Param("diaInicio") int diaInicio,
+                                               @Param("diaFim") int diaFim);
+}
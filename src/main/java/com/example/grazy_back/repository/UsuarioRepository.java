@@ -4,14 +4,17 @@ import java.util.Optional;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.grazy_back.dto.UsuariosTenantItem;
 import com.example.grazy_back.model.Usuario;
 import com.example.grazy_back.model.Tenant;
 import com.example.grazy_back.enums.RoleEnum;
 
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> 
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryCustom 
 {
     Optional<Usuario> findByEmail(String email);
     
@@ -19,11 +22,19 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long>
     
     List<Usuario> findByTenant(Tenant tenant);
     
-    List<Usuario> findByTenantId(Long tenantId);
+    // Filtra pela coluna tenant_id (índice); o nome derivado filtrava pelo join com tenants
+    @Query("select u from Usuario u where u.tenant.id = :tenantId")
+    List<Usuario> findByTenantId(@Param("tenantId") Long tenantId);
     
     List<Usuario> findByRole(RoleEnum role);
     
     List<Usuario> findByTenantAndAtivoTrue(Tenant tenant);
+
+    // Administrador exibido para o tenant: o mais antigo
+    Optional<Usuario> findFirstByTenantIdAndRoleOrderByIdAsc(Long tenantId, RoleEnum role);
+
+    @Query("select new com.example.grazy_back.dto.UsuariosTenantItem(u.tenant.id, count(u), max(u.ultimoLogin)) from Usuario u where u.tenant is not null group by u.tenant.id")
+    List<UsuariosTenantItem> resumoPorTenant();
     
     Optional<Usuario> findByTokenRecuperacaoSenha(String token);
 }
@@ -0,0 +1,17 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Escritas em lote de Usuario que não são derivadas pelo Spring Data.
+ */
+public interface UsuarioRepositoryCustom
+{
+    /**
+     * Grava o último login de vários usuários com UPDATE ... CASE, só na coluna ultimo_login.
+     * @param logins id do usuário -> instante do login
+     * @return quantidade de usuários atualizados
+     */
+    int atualizarUltimoLogin(Map<Long, Instant> logins);
+}
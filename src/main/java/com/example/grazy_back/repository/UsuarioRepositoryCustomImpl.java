@@ -0,0 +1,22 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class UsuarioRepositoryCustomImpl implements UsuarioRepositoryCustom
+{
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int atualizarUltimoLogin(Map<Long, Instant> logins)
+    {
+        return AtualizacaoEmLote.valores(entityManager, "Usuario", "id", "ultimoLogin", logins);
+    }
+}
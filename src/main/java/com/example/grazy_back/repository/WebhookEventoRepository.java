@@ -0,0 +1,107 @@
+package com.example.grazy_back.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.grazy_back.enums.StatusWebhookEnum;
+import com.example.grazy_back.model.WebhookEvento;
+
+@Repository
+public interface WebhookEventoRepository extends JpaRepository<WebhookEvento, Long> 
+{
+    Optional<WebhookEvento> findByTipoAndDataId(String tipo, String dataId);
+
+    /**
+     * IDs prontos para processamento, do mais antigo para o mais novo.
+     */
+    @Query("select w.id from WebhookEvento w where w.status = :status and w.proximaTentativa <= :agora order by w.recebidoEm asc")
+    List<Long> findIdsProntos(@Param("status") StatusWebhookEnum status, @Param("agora") Instant agora, Pageable pageable);
+
+    /**
+     * Reabre um evento já existente quando o Mercado Pago envia a mesma notificação de novo.
+     * Se o evento ainda estiver pendente, apenas conta a duplicata (coalescência).
+     * As atribuições com CASE vêm antes de status porque o MySQL avalia o SET da esquerda para a direita.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update WebhookEvento w
+           set w.tentativas = case when w.status = com.example.grazy_back.enums.StatusWebhookEnum.PENDENTE then w.tentativas else 0 end,
+               w.proximaTentativa = case when w.status = com.example.grazy_back.enums.StatusWebhookEnum.PENDENTE then w.proximaTentativa else :agora end,
+               w.status = com.example.grazy_back.enums.StatusWebhookEnum.PENDENTE,
+               w.duplicatas = w.duplicatas + 1,
+               w.atualizadoEm = :agora
+         where w.tipo = :tipo and w.dataId = :dataId
+        """)
+    int reabrir(@Param("tipo") String tipo, @Param("dataId") String dataId, @Param("agora") Instant agora);
+
+    /**
+     * Reivindica o evento para um worker. Retorna 0 se outro worker já o pegou.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update WebhookEvento w
+           set w.status = com.example.grazy_back.enums.StatusWebhookEnum.PROCESSANDO,
+               w.atualizadoEm = :agora
+         where w.id = :id and w.status = com.example.grazy_back.enums.StatusWebhookEnum.PENDENTE
+        """)
+    int reivindicar(@Param("id") Long id, @Param("agora") Instant agora);
+
+    /**
+     * Conclui o processamento. Não altera o evento se ele foi reaberto durante o processamento,
+     * garantindo uma nova sincronização para a notificação que chegou nesse meio tempo.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update WebhookEvento w
+           set w.status = com.example.grazy_back.enums.StatusWebhookEnum.PROCESSADO,
+               w.processadoEm = :agora,
+               w.atualizadoEm = :agora,
+               w.ultimoErro = null
+         where w.id = :id and w.status = com.example.grazy_back.enums.StatusWebhookEnum.PROCESSANDO
+        """)
+    int concluir(@Param("id") Long id, @Param("agora") Instant agora);
+
+    /**
+     * Registra uma falha e agenda a próxima tentativa (ou marca ERRO).
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update WebhookEvento w
+           set w.status = :status,
+               w.tentativas = w.tentativas + 1,
+               w.proximaTentativa = :proximaTentativa,
+               w.atualizadoEm = :agora,
+               w.ultimoErro = :erro
+         where w.id = :id and w.status = com.example.grazy_back.enums.StatusWebhookEnum.PROCESSANDO
+        """)
+    int registrarFalha(@Param("id") Long id, @Param("status") StatusWebhookEnum status,
+                       @Param("proximaTentativa") Instant proximaTentativa, @Param("agora") Instant agora,
+                       @Param("erro") String erro);
+
+    /**
+     * Devolve para a fila eventos presos em PROCESSANDO (ex: queda do nó no meio do processamento).
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update WebhookEvento w
+           set w.status = com.example.grazy_back.enums.StatusWebhookEnum.PENDENTE,
+               w.proximaTentativa = :agora,
+               w.atualizadoEm = :agora
+         where w.status = com.example.grazy_back.enums.StatusWebhookEnum.PROCESSANDO and w.atualizadoEm < :limite
+        """)
+    int liberarTravados(@Param("limite") Instant limite, @Param("agora") Instant agora);
+}
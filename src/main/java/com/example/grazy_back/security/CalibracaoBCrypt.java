@@ -0,0 +1,44 @@
+package com.example.grazy_back.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Escolhe o custo do BCrypt para a máquina atual: o maior custo cujo hash fica dentro do tempo alvo.
+ * Mede só o custo mínimo (cada ponto a mais dobra o tempo) para não atrasar a subida.
+ */
+@Slf4j
+public final class CalibracaoBCrypt
+{
+    private static final String SENHA_TESTE = "calibracao-bcrypt";
+
+    private CalibracaoBCrypt() {}
+
+    /**
+     * @param alvoMs tempo desejado para um hash (e para cada verificação de login)
+     * @param minimo custo mínimo aceito, mesmo que a máquina seja lenta
+     * @param maximo custo máximo
+     */
+    public static int calibrar(long alvoMs, int minimo, int maximo)
+    {
+        String sal = BCrypt.gensalt(minimo);
+
+        // Aquecimento do JIT antes de medir
+        BCrypt.hashpw(SENHA_TESTE, sal);
+
+        long inicio = System.nanoTime();
+        BCrypt.hashpw(SENHA_TESTE, sal);
+        double medidoMs = (System.nanoTime() - inicio) / 1_000_000.0;
+
+        int custo = minimo;
+
+        while (custo < maximo && medidoMs * (1L << (custo + 1 - minimo)) <= alvoMs)
+            custo++;
+
+        log.info("[AUTH] BCrypt custo {} medido em {} ms; custo escolhido {} (~{} ms, alvo {} ms)",
+            minimo, Math.round(medidoMs), custo, Math.round(medidoMs * (1L << (custo - minimo))), alvoMs);
+
+        return custo;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.grazy_back.security;
+
+import org.hibernate.Session;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Filtro Hibernate que restringe as entidades de um tenant (tenant_id = :tenantId).
+ * Definido em model/package-info.java e habilitado em cada EntityManager aberto
+ * para um usuário ou host de tenant; super admin e jobs agendados não são filtrados.
+ */
+public final class FiltroTenant
+{
+    public static final String NOME = "tenantFilter";
+    public static final String PARAMETRO = "tenantId";
+
+    private FiltroTenant() {}
+
+    /**
+     * Habilita o filtro se houver tenant no contexto atual.
+     */
+    public static void aplicar(EntityManager entityManager)
+    {
+        Long tenantId = TenantContext.getCurrentTenantId();
+
+        if (tenantId == null || TenantContext.isSuperAdmin())
+            return;
+
+        entityManager.unwrap(Session.class)
+            .enableFilter(NOME)
+            .setParameter(PARAMETRO, tenantId);
+    }
+
+    /**
+     * Sem tenant identificado e sem super admin o filtro fica desligado, como nos jobs agendados.
+     * Endpoints públicos (host sem tenant) usam isto para não listar registros de todos os tenants.
+     */
+    public static boolean semEscopo()
+    {
+        return TenantContext.getCurrentTenantId() == null && !TenantContext.isSuperAdmin();
+    }
+}
@@ -5,6 +5,8 @@ import java.util.Collection;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 
+import io.jsonwebtoken.Claims;
+
 /**
  * Token de autenticação JWT com informações de role e tenant.
  */
@@ -13,14 +15,16 @@ public class JwtAuthenticationToken extends AbstractAuthenticationToken
     private final String username;
     private final String role;
     private final Long tenantId;
+    private final Claims claims;
 
     public JwtAuthenticationToken(String username, Collection<? extends GrantedAuthority> authorities, 
-                                  String role, Long tenantId) 
+                                  String role, Long tenantId, Claims claims) 
     {
         super(authorities);
         this.username = username;
         this.role = role;
         this.tenantId = tenantId;
+        this.claims = claims;
         setAuthenticated(true);
     }
 
@@ -51,6 +55,22 @@ public class JwtAuthenticationToken extends AbstractAuthenticationToken
         return tenantId;
     }
 
+    /**
+     * ID do usuário no banco. Só existe em tokens de acesso do login V2 (null no admin fixo e em tokens antigos).
+     */
+    public Long getUsuarioId() 
+    {
+        return claims != null ? JwtUtil.getLong(claims, "uid") : null;
+    }
+
+    /**
+     * Claims do token, para quem precisa dos dados do usuário sem ir ao banco.
+     */
+    public Claims getClaims() 
+    {
+        return claims;
+    }
+
     public boolean isSuperAdmin() 
     {
         return "SUPER_ADMIN".equals(role);
@@ -13,13 +13,19 @@ import java.util.List;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import com.example.grazy_back.service.MetricasService;
+
+import io.jsonwebtoken.Claims;
+
 public class JwtFilter extends OncePerRequestFilter 
 {
     private final JwtUtil jwtUtil;
+    private final MetricasService metricas;
 
-    public JwtFilter(JwtUtil jwtUtil) 
+    public JwtFilter(JwtUtil jwtUtil, MetricasService metricas) 
     {
         this.jwtUtil = jwtUtil;
+        this.metricas = metricas;
     }
 
     @Override
@@ -29,11 +35,18 @@ public class JwtFilter extends OncePerRequestFilter
         if (auth != null && auth.startsWith("Bearer ")) 
         {
             String token = auth.substring(7);
-            if (jwtUtil.validate(token))
+            long inicio = System.nanoTime();
+            // Uma única verificação de assinatura; as claims vão junto na autenticação
+            Claims claims = jwtUtil.parse(token);
+
+            metricas.registrarTempo("grazy.jwt.verificacao", System.nanoTime() - inicio,
+                "resultado", claims != null ? "valido" : "invalido");
+
+            if (claims != null)
             {
-                String username = jwtUtil.getUsername(token);
-                String role = jwtUtil.getRole(token);
-                Long tenantId = jwtUtil.getTenantId(token);
+                String username = claims.getSubject();
+                String role = claims.get("role", String.class);
+                Long tenantId = JwtUtil.getLong(claims, "tenantId");
                 
                 // Cria lista de authorities baseado na role
                 List<SimpleGrantedAuthority> authorities = new ArrayList<>();
@@ -47,7 +60,8 @@ public class JwtFilter extends OncePerRequestFilter
                     username, 
                     authorities, 
                     role, 
-                    tenantId
+                    tenantId,
+                    claims
                 );
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -13,6 +13,9 @@ import java.util.Base64;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.model.Usuario;
+
 @Component
 public class JwtUtil 
 {
@@ -22,6 +25,10 @@ public class JwtUtil
     @Value("${app.jwt.expiration-ms:3600000}")
     private long expirationMs;
 
+    // Tokens de acesso acompanhados de refresh token (login V2) vivem menos
+    @Value("${app.jwt.access-expiration-ms:900000}")
+    private long accessExpirationMs;
+
     private Key key() 
     {
         if (jwtSecret == null || jwtSecret.isBlank()) 
@@ -85,6 +92,41 @@ public class JwtUtil
         return builder.signWith(key(), SignatureAlgorithm.HS256).compact();
     }
 
+    /**
+     * Gera token de acesso curto com tudo que a interface precisa do usuário logado,
+     * para que /api/users/me e o onboarding não consultem o banco.
+     */
+    public String generateAccessToken(Usuario usuario) 
+    {
+        Date now = new Date();
+        Date expiry = new Date(now.getTime() + accessExpirationMs);
+        Tenant tenant = usuario.getTenant();
+
+        var builder = Jwts.builder()
+                .setSubject(usuario.getEmail())
+                .claim("role", usuario.getRole().name())
+                .claim("uid", usuario.getId())
+                .claim("nome", usuario.getNome())
+                .claim("primeiroAcesso", usuario.isPrimeiroAcesso())
+                .claim("onboardingCompleto", tenant == null || tenant.isOnboardingCompleto())
+                .setIssuedAt(now)
+                .setExpiration(expiry);
+
+        if (usuario.getTelefone() != null) 
+        {
+            builder.claim("telefone", usuario.getTelefone());
+        }
+
+        if (tenant != null) 
+        {
+            builder.claim("tenantId", tenant.getId())
+                .claim("tenantNome", tenant.getNomeNegocio())
+                .claim("tenantSubdominio", tenant.getSubdominio());
+        }
+
+        return builder.signWith(key(), SignatureAlgorithm.HS256).compact();
+    }
+
     public String getUsername(String token) 
     {
         return getClaims(token).getSubject();
@@ -98,14 +140,18 @@ public class JwtUtil
 
     public Long getTenantId(String token) 
     {
-        Claims claims = getClaims(token);
-        Object tenantIdObj = claims.get("tenantId");
-        if (tenantIdObj == null) return null;
-        if (tenantIdObj instanceof Number) 
+        return getLong(getClaims(token), "tenantId");
+    }
+
+    public static Long getLong(Claims claims, String nome) 
+    {
+        Object valor = claims.get(nome);
+        if (valor == null) return null;
+        if (valor instanceof Number) 
         {
-            return ((Number) tenantIdObj).longValue();
+            return ((Number) valor).longValue();
         }
-        return Long.valueOf(tenantIdObj.toString());
+        return Long.valueOf(valor.toString());
     }
 
     public Claims getClaims(String token) 
@@ -117,6 +163,22 @@ public class JwtUtil
                 .getBody();
     }
 
+    /**
+     * Valida e lê o token de uma vez.
+     * @return claims do token, ou null se inválido ou expirado
+     */
+    public Claims parse(String token)
+    {
+        try 
+        {
+            return getClaims(token);
+        } 
+        catch (Exception ex) 
+        {
+            return null;
+        }
+    }
+
     public boolean validate(String token)
     {
         try 
@@ -134,4 +196,9 @@ public class JwtUtil
     {
         return expirationMs;
     }
+
+    public long getAccessExpirationMs() 
+    {
+        return accessExpirationMs;
+    }
 }
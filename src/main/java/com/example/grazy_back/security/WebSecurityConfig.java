@@ -1,5 +1,6 @@
 package com.example.grazy_back.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -12,27 +13,45 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.example.grazy_back.service.MetricasService;
+
 @Configuration
 @EnableMethodSecurity(prePostEnabled = true)
 public class WebSecurityConfig 
 {
     private final JwtUtil jwtUtil;
+    private final MetricasService metricas;
 
-    public WebSecurityConfig(JwtUtil jwtUtil) 
+    public WebSecurityConfig(JwtUtil jwtUtil, MetricasService metricas) 
     {
         this.jwtUtil = jwtUtil;
+        this.metricas = metricas;
     }
 
+    /**
+     * BCrypt com custo calibrado na subida para app.auth.bcrypt.alvo-ms (ou fixo em app.auth.bcrypt.custo).
+     * Hashes com custo menor são refeitos no próximo login bem-sucedido (upgradeEncoding).
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() 
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.custo:0}") int custoFixo,
+                                           @Value("${app.auth.bcrypt.alvo-ms:250}") long alvoMs,
+                                           @Value("${app.auth.bcrypt.custo-minimo:10}") int custoMinimo,
+                                           @Value("${app.auth.bcrypt.custo-maximo:14}") int custoMaximo) 
     {
-        return new BCryptPasswordEncoder();
+        int custo = custoFixo > 0 ? custoFixo : CalibracaoBCrypt.calibrar(alvoMs, custoMinimo, custoMaximo);
+        metricas.gauge("grazy.auth.bcrypt.custo").set(custo);
+
+        return new BCryptPasswordEncoder(custo);
     }
 
+    /**
+     * @param portaGerenciamento management.server.port; quando definida, o actuator nessa porta
+     *                           (rede interna, scraper do Prometheus) não exige autenticação
+     */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception 
+    public SecurityFilterChain filterChain(HttpSecurity http, @Value("${management.server.port:-1}") int portaGerenciamento) throws Exception 
     {
-        JwtFilter jwtFilter = new JwtFilter(jwtUtil);
+        JwtFilter jwtFilter = new JwtFilter(jwtUtil, metricas);
 
         http.csrf(csrf -> csrf.disable())
                 .cors(Customizer.withDefaults())
@@ -56,12 +75,17 @@ public class WebSecurityConfig
                     .requestMatchers(HttpMethod.GET, "/api/tenant/publico/**").permitAll()
                     .requestMatchers(HttpMethod.GET, "/api/tenant/info").permitAll()
                     
-                    // Swagger e Actuator
+                    // Swagger e health checks
                     .requestMatchers(
-                        "/actuator/**",
+                        "/actuator/health/**",
+                        "/actuator/info",
                         "/v3/api-docs/**",
                         "/swagger-ui/**",
                         "/swagger-ui.html").permitAll()
+
+                    // Métricas: livres só na porta de gerenciamento; na porta pública, apenas SUPER_ADMIN
+                    .requestMatchers(request -> portaGerenciamento > 0 && request.getLocalPort() == portaGerenciamento).permitAll()
+                    .requestMatchers("/actuator/**").hasRole("SUPER_ADMIN")
                     
                     // Rotas do Super Admin (requer role SUPER_ADMIN)
                     .requestMatchers("/api/admin/**").hasRole("SUPER_ADMIN")
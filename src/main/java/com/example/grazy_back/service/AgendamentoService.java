@@ -11,7 +11,14 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.example.grazy_back.DTO.AgendamentoRequest;
 import com.example.grazy_back.enums.StatusAgendamentoEnum;
@@ -24,7 +31,9 @@ import com.example.grazy_back.repository.ServicoRepository;
 import com.example.grazy_back.repository.ClienteRepository;
 import com.example.grazy_back.repository.TransacaoFinanceiraRepository;
 import com.example.grazy_back.enums.TipoTransacaoEnum;
+import com.example.grazy_back.enums.TipoTemplateEnum;
 import com.example.grazy_back.security.TenantContext;
+import com.example.grazy_back.service.EstatisticaAgendamentosService.Estado;
 
 @Service
 public class AgendamentoService 
@@ -37,20 +46,36 @@ public class AgendamentoService
     private final ClienteRepository usuarioRepository;
     private final TransacaoFinanceiraRepository transacaoRepository;
     private final EvolutionApiService evolutionApiService;
+    private final TemplateMensagemService templateService;
+    private final EstatisticaClientesService estatisticaClientes;
+    private final EstatisticaAgendamentosService estatisticaAgendamentos;
+    private final MedicaoUsoService medicaoUso;
+    private final AsyncTaskExecutor taskExecutor;
 
     public AgendamentoService(AgendamentoRepository agendamentoRepository,
                               ServicoRepository servicoRepository,
                               ClienteRepository usuarioRepository,
                               TransacaoFinanceiraRepository transacaoRepository,
-                              EvolutionApiService evolutionApiService)
+                              EvolutionApiService evolutionApiService,
+                              TemplateMensagemService templateService,
+                              EstatisticaClientesService estatisticaClientes,
+                              EstatisticaAgendamentosService estatisticaAgendamentos,
+                              MedicaoUsoService medicaoUso,
+                              @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor)
     {
         this.agendamentoRepository = agendamentoRepository;
         this.servicoRepository = servicoRepository;
         this.usuarioRepository = usuarioRepository;
         this.transacaoRepository = transacaoRepository;
         this.evolutionApiService = evolutionApiService;
+        this.templateService = templateService;
+        this.estatisticaClientes = estatisticaClientes;
+        this.estatisticaAgendamentos = estatisticaAgendamentos;
+        this.medicaoUso = medicaoUso;
+        this.taskExecutor = taskExecutor;
     }
 
+    @Transactional
     public Optional<Agendamento> criar(AgendamentoRequest req)
     {
         if (req.getServicoId() == null || req.getUsuarioId() == null || req.getDataHora() == null) return Optional.empty();
@@ -69,14 +94,20 @@ public class AgendamentoService
             return Optional.empty();
         }
 
+        Long tenantId = TenantContext.getCurrentTenantId();
+
+        if (!medicaoUso.consumirAgendamento(tenantId))
+            throw new MedicaoUsoService.LimiteExcedidoException("Limite de agendamentos do plano atingido neste mês");
+
         Agendamento a = new Agendamento();
-        a.setTenantId(TenantContext.getCurrentTenantId());
+        a.setTenantId(tenantId);
         a.setServico(servicoOpt.get());
         a.setUsuario(usuarioOpt.get());
         a.setDataHora(dataHora);
         a.setObs(req.getObs());
 
         Agendamento salvo = agendamentoRepository.save(a);
+        estatisticaAgendamentos.registrarCriacao(salvo);
         
         // Enviar notificação WhatsApp de confirmação
         enviarNotificacaoAgendamentoCriado(salvo);
@@ -98,28 +129,20 @@ public class AgendamentoService
             }
             
             String dataFormatada = agendamento.getDataHora().format(DATE_FORMATTER);
-            String mensagem = String.format(
-                "✅ *Agendamento Confirmado!*\n\n" +
-                "Olá %s! Seu horário foi agendado com sucesso.\n\n" +
-                "📋 *Serviço:* %s\n" +
-                "📅 *Data:* %s\n" +
-                "%s\n\n" +
-                "Aguardamos você! 💜",
-                cliente.getNome(),
-                servico != null ? servico.getNome() : "Não especificado",
-                dataFormatada,
-                servico != null && servico.getPreco() != null 
-                    ? "💰 *Valor:* R$ " + String.format("%.2f", servico.getPreco())
-                    : ""
-            );
-            
-            evolutionApiService.sendTextMessage(
+            String mensagem = templateService.renderizar(
                 agendamento.getTenantId(),
-                cliente.getTelefone(),
-                mensagem
+                TipoTemplateEnum.AGENDAMENTO_CONFIRMADO,
+                TemplateCompilado.valores(
+                    "nome", cliente.getNome(),
+                    "servico", servico != null ? servico.getNome() : "Não especificado",
+                    "dataHora", dataFormatada,
+                    "linhaValor", servico != null && servico.getPreco() != null 
+                        ? "💰 *Valor:* R$ " + TemplateMensagemService.formatarValor(servico.getPreco())
+                        : ""
+                )
             );
             
-            log.info("[WHATSAPP] Notificação de agendamento enviada para {}", cliente.getTelefone());
+            enviarWhatsApp(agendamento.getTenantId(), cliente.getTelefone(), mensagem, "agendamento");
             
         } catch (Exception e) {
             log.error("[WHATSAPP] Erro ao enviar notificação de agendamento: {}", e.getMessage());
@@ -129,51 +152,36 @@ public class AgendamentoService
 
     public List<Agendamento> listar() 
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
-        
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            return agendamentoRepository.findAll();
-        }
-        
-        return agendamentoRepository.findByTenantId(tenantId);
+        return agendamentoRepository.findAll();
     }
 
     public List<Agendamento> listarPorDia(LocalDateTime inicioDia)
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
-        LocalDateTime fimDia = inicioDia.plusDays(1);
-        
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            return agendamentoRepository.findByDataHoraBetweenOrderByDataHoraAsc(inicioDia, fimDia);
-        }
-        
-        return agendamentoRepository.findByTenantIdAndDataHoraBetweenOrderByDataHoraAsc(tenantId, inicioDia, fimDia);
+        return agendamentoRepository.findByDataHoraBetweenOrderByDataHoraAsc(inicioDia, inicioDia.plusDays(1));
     }
 
     public long contarNoMes(int ano, int mes)
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
         LocalDateTime inicio = LocalDateTime.of(ano, mes, 1, 0, 0, 0);
-        LocalDateTime fim = inicio.plusMonths(1);
-        
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            return agendamentoRepository.countByDataHoraBetween(inicio, fim);
-        }
         
-        return agendamentoRepository.countByTenantIdAndDataHoraBetween(tenantId, inicio, fim);
+        return agendamentoRepository.countByDataHoraBetween(inicio, inicio.plusMonths(1));
     }
 
+    @Transactional
     public Optional<Agendamento> finalizar(Long id) 
     {
-        return agendamentoRepository.findById(id).map(a -> {
+        return agendamentoRepository.travar(id).map(a -> {
             if (a.getStatus() == StatusAgendamentoEnum.FINALIZADO) return a; // já finalizado
 
+            Estado antes = Estado.de(a);
+
+            // Finalização simultânea: só quem mudou o status lança a receita e a visita
+            Instant agora = Instant.now();
+            if (agendamentoRepository.finalizar(a.getId(), agora) == 0) return a;
+
             a.setStatus(StatusAgendamentoEnum.FINALIZADO);
-            a.setFinalizedAt(Instant.now());
-            Agendamento salvo = agendamentoRepository.save(a);
+            a.setFinalizedAt(agora);
+            a.setContabilizadoEm(agora);
 
             // Cria transação financeira de receita (valor do serviço) usando nome do cliente
             Servico servico = a.getServico();
@@ -190,17 +198,22 @@ public class AgendamentoService
                 transacaoRepository.save(t);
             }
 
-            return salvo;
+            estatisticaClientes.registrarVisita(a);
+            estatisticaAgendamentos.registrarMudanca(antes, a);
+            return a;
         });
     }
 
+    @Transactional
     public Optional<Agendamento> cancelar(Long id, String motivo)
     {
-        return agendamentoRepository.findById(id).flatMap(a -> {
-            if (a.getStatus() == StatusAgendamentoEnum.FINALIZADO) return Optional.empty();
+        return agendamentoRepository.travar(id).flatMap(a -> {
+            if (a.getStatus() == StatusAgendamentoEnum.FINALIZADO || a.getStatus() == StatusAgendamentoEnum.NAO_COMPARECEU)
+                return Optional.empty();
 
             if (a.getStatus() == StatusAgendamentoEnum.CANCELADO) return Optional.of(a);
 
+            Estado antes = Estado.de(a);
             a.setStatus(StatusAgendamentoEnum.CANCELADO);
             a.setCanceledAt(Instant.now());
 
@@ -208,6 +221,7 @@ public class AgendamentoService
                 a.setCancelReason(motivo);
 
             Agendamento salvo = agendamentoRepository.save(a);
+            estatisticaAgendamentos.registrarMudanca(antes, salvo);
             
             // Enviar notificação de cancelamento
             enviarNotificacaoAgendamentoCancelado(salvo, motivo);
@@ -216,6 +230,27 @@ public class AgendamentoService
         });
     }
     
+    /**
+     * Marca a falta do cliente em um agendamento pendente.
+     * @return vazio se não existe ou já foi finalizado ou cancelado
+     */
+    @Transactional
+    public Optional<Agendamento> naoCompareceu(Long id)
+    {
+        return agendamentoRepository.travar(id).flatMap(a -> {
+            if (a.getStatus() == StatusAgendamentoEnum.NAO_COMPARECEU) return Optional.of(a);
+
+            if (a.getStatus() != StatusAgendamentoEnum.PENDENTE) return Optional.empty();
+
+            Estado antes = Estado.de(a);
+            a.setStatus(StatusAgendamentoEnum.NAO_COMPARECEU);
+
+            Agendamento salvo = agendamentoRepository.save(a);
+            estatisticaAgendamentos.registrarMudanca(antes, salvo);
+            return Optional.of(salvo);
+        });
+    }
+    
     /**
      * Envia notificação via WhatsApp quando agendamento é cancelado
      */
@@ -230,75 +265,110 @@ public class AgendamentoService
             }
             
             String dataFormatada = agendamento.getDataHora().format(DATE_FORMATTER);
-            String mensagem = String.format(
-                "❌ *Agendamento Cancelado*\n\n" +
-                "Olá %s, infelizmente seu agendamento foi cancelado.\n\n" +
-                "📋 *Serviço:* %s\n" +
-                "📅 *Data:* %s\n" +
-                "%s\n\n" +
-                "Entre em contato conosco para reagendar.",
-                cliente.getNome(),
-                servico != null ? servico.getNome() : "Não especificado",
-                dataFormatada,
-                motivo != null && !motivo.isBlank() 
-                    ? "📝 *Motivo:* " + motivo
-                    : ""
-            );
-            
-            evolutionApiService.sendTextMessage(
+            String mensagem = templateService.renderizar(
                 agendamento.getTenantId(),
-                cliente.getTelefone(),
-                mensagem
+                TipoTemplateEnum.AGENDAMENTO_CANCELADO,
+                TemplateCompilado.valores(
+                    "nome", cliente.getNome(),
+                    "servico", servico != null ? servico.getNome() : "Não especificado",
+                    "dataHora", dataFormatada,
+                    "linhaMotivo", motivo != null && !motivo.isBlank() 
+                        ? "📝 *Motivo:* " + motivo
+                        : ""
+                )
             );
             
-            log.info("[WHATSAPP] Notificação de cancelamento enviada para {}", cliente.getTelefone());
+            enviarWhatsApp(agendamento.getTenantId(), cliente.getTelefone(), mensagem, "cancelamento");
             
         } catch (Exception e) {
             log.error("[WHATSAPP] Erro ao enviar notificação de cancelamento: {}", e.getMessage());
         }
     }
+    
+    /**
+     * A mensagem é montada na requisição; só a chamada à Evolution API vai para o executor
+     * compartilhado, para não segurar a resposta. Com o executor saturado, envia na própria thread.
+     * Dentro de uma transação, só depois do commit: um agendamento desfeito não é notificado.
+     */
+    private void enviarWhatsApp(Long tenantId, String telefone, String mensagem, String tipo) {
+        Runnable envio = () -> {
+            try {
+                evolutionApiService.sendTextMessage(tenantId, telefone, mensagem);
+                log.info("[WHATSAPP] Notificação de {} enviada para {}", tipo, telefone);
+            } catch (Exception e) {
+                log.error("[WHATSAPP] Erro ao enviar notificação de {}: {}", tipo, e.getMessage());
+            }
+        };
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    despachar(envio);
+                }
+            });
+        } else {
+            despachar(envio);
+        }
+    }
+
+    private void despachar(Runnable envio) {
+        try {
+            taskExecutor.execute(envio);
+        } catch (TaskRejectedException e) {
+            envio.run();
+        }
+    }
 
+    @Transactional
     public Optional<Agendamento> atualizar(Long id, AgendamentoRequest req)
     {
-        return agendamentoRepository.findById(id).flatMap(a -> {
+        // Valida tudo antes de mexer na entidade: dentro da transação, uma alteração
+        // parcial seria gravada no commit mesmo com a resposta de erro
+        Optional<Servico> servicoOpt = req.getServicoId() != null ? servicoRepository.findById(req.getServicoId()) : Optional.empty();
+        if (req.getServicoId() != null && servicoOpt.isEmpty()) return Optional.empty();
+
+        Optional<Cliente> usuarioOpt = req.getUsuarioId() != null ? usuarioRepository.findById(req.getUsuarioId()) : Optional.empty();
+        if (req.getUsuarioId() != null && usuarioOpt.isEmpty()) return Optional.empty();
+
+        LocalDateTime dataHora = null;
+
+        if (req.getDataHora() != null)
+        {
+            try 
+            {
+                dataHora = LocalDateTime.parse(req.getDataHora());
+            } 
+            catch (DateTimeParseException ex)
+            {
+                return Optional.empty();
+            }
+        }
+
+        LocalDateTime novaDataHora = dataHora;
+
+        return agendamentoRepository.travar(id).flatMap(a -> {
             
             if (a.getStatus() == StatusAgendamentoEnum.FINALIZADO)
                 return Optional.empty();
 
-            if (req.getServicoId() != null)
-            {
-                Optional<Servico> servicoOpt = servicoRepository.findById(req.getServicoId());
-                
-                if (servicoOpt.isEmpty()) 
-                    return Optional.empty();
+            Estado antes = Estado.de(a);
 
-                a.setServico(servicoOpt.get());
-            }
+            servicoOpt.ifPresent(a::setServico);
 
             // Atualiza usuário se informado
-            if (req.getUsuarioId() != null) 
-            {
-                Optional<Cliente> usuarioOpt = usuarioRepository.findById(req.getUsuarioId());
-                if (usuarioOpt.isEmpty()) return Optional.empty();
-                a.setUsuario(usuarioOpt.get());
-            }
+            usuarioOpt.ifPresent(a::setUsuario);
 
             // Atualiza data/hora se informada
-            if (req.getDataHora() != null) 
-            {
-                try 
-                {
-                    LocalDateTime dataHora = LocalDateTime.parse(req.getDataHora());
-                    a.setDataHora(dataHora);
-                } catch (DateTimeParseException ex) {
-                    return Optional.empty();
-                }
-            }
+            if (novaDataHora != null) 
+                a.setDataHora(novaDataHora);
 
             if (req.getObs() != null)
                 a.setObs(req.getObs());
 
-            return Optional.of(agendamentoRepository.save(a));
+            Agendamento salvo = agendamentoRepository.save(a);
+            estatisticaAgendamentos.registrarMudanca(antes, salvo);
+            return Optional.of(salvo);
         });
     }
 }
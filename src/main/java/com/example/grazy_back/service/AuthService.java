@@ -32,17 +32,65 @@ public class AuthService
     private final JwtUtil jwtUtil;
     private final TenantService tenantService;
     private final ServicoService servicoService;
+    private final VerificacaoSenhaService verificacaoSenha;
+    private final UltimoLoginService ultimoLoginService;
+    private final RefreshTokenService refreshTokenService;
 
     /**
-     * Autentica um usuário do sistema.
+     * Autentica um usuário do sistema e emite token de acesso + refresh token.
      * @param email Email do usuário
      * @param senha Senha do usuário
      * @param tenantIdFromHost ID do tenant identificado pelo Host (pode ser null)
+     * @throws org.springframework.core.task.TaskRejectedException quando o pool de verificação de senha está saturado
      */
     public Optional<LoginResponseV2> autenticar(String email, String senha, Long tenantIdFromHost) 
+    {
+        return verificarCredenciais(email, senha, tenantIdFromHost)
+            .map(usuario -> montarResposta(usuario, refreshTokenService.emitir(usuario.getId())));
+    }
+
+    /**
+     * Login legado: só o token JWT, com a validade longa de antes e sem refresh token.
+     */
+    public Optional<String> autenticarLegado(String email, String senha, Long tenantIdFromHost) 
+    {
+        return verificarCredenciais(email, senha, tenantIdFromHost)
+            .map(usuario -> jwtUtil.generateToken(usuario.getEmail(), usuario.getRole().name(), 
+                usuario.getTenant() != null ? usuario.getTenant().getId() : null));
+    }
+
+    /**
+     * Troca um refresh token válido por um par novo, sem verificar senha.
+     * Usuário ou tenant desativados perdem a sessão na próxima renovação.
+     */
+    public Optional<LoginResponseV2> renovar(String refreshToken) 
+    {
+        return refreshTokenService.rotacionar(refreshToken)
+            .flatMap(rotacao -> {
+                Optional<LoginResponseV2> resposta = usuarioRepository.findById(rotacao.usuarioId())
+                    .filter(Usuario::isAtivo)
+                    .filter(usuario -> usuario.getTenant() == null || usuario.getTenant().isAtivo())
+                    .map(usuario -> montarResposta(usuario, rotacao.token()));
+
+                if (resposta.isEmpty())
+                    refreshTokenService.revogar(rotacao.token());
+
+                return resposta;
+            });
+    }
+
+    /**
+     * Logout: revoga o refresh token e os demais gerados a partir do mesmo login.
+     */
+    public void encerrarSessao(String refreshToken) 
+    {
+        refreshTokenService.revogar(refreshToken);
+    }
+
+    private Optional<Usuario> verificarCredenciais(String email, String senha, Long tenantIdFromHost) 
     {
         return usuarioRepository.findByEmail(email)
-            .filter(usuario -> passwordEncoder.matches(senha, usuario.getSenha()))
+            .filter(usuario -> verificacaoSenha.confere(senha, usuario.getSenha()))
             .filter(Usuario::isAtivo)
             .filter(usuario -> {
                 // VALIDAÇÃO CRÍTICA: Verificar se o usuário pertence ao tenant correto
@@ -66,42 +114,54 @@ public class AuthService
                 // Se não há tenant do host (ex: localhost, admin master), permitir qualquer usuário
                 return true;
             })
-            .map(usuario -> {
+            .filter(usuario -> {
                 // Verifica se tenant está ativo (para não super admin)
                 if (usuario.getTenant() != null && !usuario.getTenant().isAtivo()) 
                 {
                     log.warn("Tentativa de login em tenant inativo: {}", email);
-                    return null;
+                    return false;
+                }
+                return true;
+            })
+            .map(usuario -> {
+                // Último login é gravado em lote pelo UltimoLoginService
+                ultimoLoginService.registrar(usuario.getId(), Instant.now());
+
+                // Hash gravado com custo menor que o atual: refaz agora que a senha em texto está disponível
+                if (verificacaoSenha.precisaAtualizar(usuario.getSenha()))
+                {
+                    usuario.setSenha(verificacaoSenha.gerarHash(senha));
+                    usuarioRepository.save(usuario);
+                    log.info("[AUTH] Hash de senha atualizado para o custo atual: {}", email);
                 }
 
-                // Atualiza último login
-                usuario.setUltimoLogin(Instant.now());
-                usuarioRepository.save(usuario);
-
-                // Gera token JWT com informações adicionais
-                String token = jwtUtil.generateToken(usuario.getEmail(), usuario.getRole().name(), 
-                    usuario.getTenant() != null ? usuario.getTenant().getId() : null);
-
-                Tenant tenant = usuario.getTenant();
-                
-                log.info("Login bem-sucedido: {} (tenant: {})", email, tenant != null ? tenant.getId() : "nenhum");
-                
-                return LoginResponseV2.builder()
-                    .token(token)
-                    .usuarioId(usuario.getId())
-                    .nome(usuario.getNome())
-                    .email(usuario.getEmail())
-                    .role(usuario.getRole())
-                    .tenantId(tenant != null ? tenant.getId() : null)
-                    .tenantNome(tenant != null ? tenant.getNomeNegocio() : null)
-                    .tenantSubdominio(tenant != null ? tenant.getSubdominio() : null)
-                    .primeiroAcesso(usuario.isPrimeiroAcesso())
-                    .onboardingCompleto(tenant != null ? tenant.isOnboardingCompleto() : true)
-                    .expiresAt(Instant.now().plusMillis(jwtUtil.getExpirationMs()))
-                    .build();
+                log.info("Login bem-sucedido: {} (tenant: {})", email, 
+                    usuario.getTenant() != null ? usuario.getTenant().getId() : "nenhum");
+
+                return usuario;
             });
     }
 
+    private LoginResponseV2 montarResposta(Usuario usuario, String refreshToken) 
+    {
+        Tenant tenant = usuario.getTenant();
+
+        return LoginResponseV2.builder()
+            .token(jwtUtil.generateAccessToken(usuario))
+            .refreshToken(refreshToken)
+            .usuarioId(usuario.getId())
+            .nome(usuario.getNome())
+            .email(usuario.getEmail())
+            .role(usuario.getRole())
+            .tenantId(tenant != null ? tenant.getId() : null)
+            .tenantNome(tenant != null ? tenant.getNomeNegocio() : null)
+            .tenantSubdominio(tenant != null ? tenant.getSubdominio() : null)
+            .primeiroAcesso(usuario.isPrimeiroAcesso())
+            .onboardingCompleto(tenant != null ? tenant.isOnboardingCompleto() : true)
+            .expiresAt(Instant.now().plusMillis(jwtUtil.getAccessExpirationMs()))
+            .build();
+    }
+
     /**
      * Processa o onboarding do primeiro acesso.
      */
@@ -144,9 +204,12 @@ public class AuthService
         }
 
         // 3. Atualiza senha se informada
-        if (request.getNovaSenha() != null && !request.getNovaSenha().isBlank()) 
+        if (request.getNovaSenha() != null && !request.getNovaSenha().isBlank())
         {
             usuario.setSenha(passwordEncoder.encode(request.getNovaSenha()));
+
+            // Sessões abertas com a senha provisória não renovam mais
+            refreshTokenService.revogarPorUsuario(usuarioId);
         }
 
         // 4. Marca primeiro acesso como concluído
@@ -176,6 +239,9 @@ public class AuthService
         usuario.setSenha(passwordEncoder.encode(novaSenha));
         usuario.setPrimeiroAcesso(false);
         usuarioRepository.save(usuario);
+
+        // Sessões abertas com a senha antiga não renovam mais
+        refreshTokenService.revogarPorUsuario(usuarioId);
         
         log.info("Senha alterada para usuário: {}", usuario.getEmail());
     }
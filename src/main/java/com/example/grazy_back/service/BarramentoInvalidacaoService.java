@@ -0,0 +1,157 @@
+package com.example.grazy_back.service;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.grazy_back.service.TransporteInvalidacao.Mensagem;
+
+/**
+ * Barramento de invalidação de caches entre nós.
+ * Cada cache em memória assina um nome ("templates", "hibernate:Tenant"...) e descarta a chave
+ * recebida; quem altera o dado publica a invalidação. As publicações feitas dentro de uma transação
+ * só saem depois do commit, agrupadas, e nunca são entregues de volta ao próprio nó.
+ */
+@Service
+public class BarramentoInvalidacaoService
+{
+    private static final Logger log = LoggerFactory.getLogger(BarramentoInvalidacaoService.class);
+
+    private final TransporteInvalidacao transporte;
+    private final MetricasService metricas;
+    private final String origem;
+
+    private final Map<String, List<Consumer<String>>> assinantes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Mensagem> pendentes = new ConcurrentLinkedQueue<>();
+
+    public BarramentoInvalidacaoService(TransporteInvalidacao transporte, MetricasService metricas)
+    {
+        this.transporte = transporte;
+        this.metricas = metricas;
+        this.origem = nomeHost() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+        transporte.iniciar(this::receber);
+        log.info("[CACHE] Barramento de invalidação iniciado ({}), nó {}", transporte.getClass().getSimpleName(), origem);
+    }
+
+    /**
+     * Registra a ação executada quando outro nó invalidar uma chave do cache.
+     */
+    public void assinar(String cache, Consumer<String> acao)
+    {
+        assinantes.computeIfAbsent(cache, c -> new CopyOnWriteArrayList<>()).add(acao);
+    }
+
+    /**
+     * Avisa os outros nós que a chave mudou. Dentro de uma transação, só depois do commit.
+     */
+    public void publicar(String cache, Object chave)
+    {
+        Mensagem mensagem = new Mensagem(cache, String.valueOf(chave), origem);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    pendentes.add(mensagem);
+                }
+            });
+        }
+        else
+            pendentes.add(mensagem);
+    }
+
+    /**
+     * Para quem já é chamado depois do commit (ex: listeners post-commit do Hibernate).
+     */
+    public void publicarConfirmado(String cache, Object chave)
+    {
+        pendentes.add(new Mensagem(cache, String.valueOf(chave), origem));
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidacao.envio-ms:500}")
+    public void enviarPendentes()
+    {
+        if (pendentes.isEmpty())
+            return;
+
+        // Várias alterações da mesma chave no intervalo viram uma mensagem só
+        Set<Mensagem> lote = new LinkedHashSet<>();
+        Mensagem m;
+
+        while ((m = pendentes.poll()) != null)
+            lote.add(m);
+
+        try
+        {
+            transporte.enviar(new ArrayList<>(lote));
+            metricas.incrementar("grazy.cache.invalidacoes", lote.size(), "direcao", "enviada");
+        }
+        catch (Exception e)
+        {
+            // Devolve para a fila; o TTL das regiões limita a defasagem se o transporte seguir fora
+            pendentes.addAll(lote);
+            log.warn("[CACHE] Falha ao enviar {} invalidação(ões): {}", lote.size(), e.getMessage());
+        }
+    }
+
+    void receber(Mensagem mensagem)
+    {
+        if (origem.equals(mensagem.origem()))
+            return;
+
+        List<Consumer<String>> acoes = assinantes.get(mensagem.cache());
+
+        if (acoes == null)
+            return;
+
+        for (Consumer<String> acao : acoes)
+        {
+            try
+            {
+                acao.accept(mensagem.chave());
+            }
+            catch (Exception e)
+            {
+                log.warn("[CACHE] Falha ao invalidar {} {}: {}", mensagem.cache(), mensagem.chave(), e.getMessage());
+            }
+        }
+
+        metricas.incrementar("grazy.cache.invalidacoes", "direcao", "recebida");
+    }
+
+    public String getOrigem()
+    {
+        return origem;
+    }
+
+    private static String nomeHost()
+    {
+        try
+        {
+            return InetAddress.getLocalHost().getHostName();
+        }
+        catch (Exception e)
+        {
+            return "no";
+        }
+    }
+}
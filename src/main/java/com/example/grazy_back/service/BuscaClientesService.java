@@ -0,0 +1,389 @@
+package com.example.grazy_back.service;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.config.RoteamentoSchema;
+import com.example.grazy_back.dto.ClienteBuscaItem;
+import com.example.grazy_back.model.Cliente;
+import com.example.grazy_back.repository.ClienteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Busca de clientes por prefixo do nome, telefone normalizado ou email, sem trazer a lista
+ * inteira para o navegador.
+ * Cada tenant tem um índice em memória (chaves ordenadas em um ConcurrentSkipListMap, onde a
+ * busca por prefixo é um intervalo), montado na primeira busca e atualizado a cada cliente
+ * criado ou alterado, neste nó ou em outro (via barramento de invalidação). Índices parados
+ * saem da memória e todo índice é remontado do banco de tempos em tempos.
+ */
+@Service
+@Slf4j
+public class BuscaClientesService
+{
+    public static final String CACHE_INVALIDACAO = "clientes";
+
+    private static final int LIMITE_PADRAO = 20;
+    private static final int LIMITE_MAXIMO = 50;
+
+    // Idade máxima de um índice: depois disso é remontado do banco na próxima busca
+    private static final long REMONTAGEM_NANOS = Duration.ofHours(6).toNanos();
+
+    // Prefixos muito curtos em tenants grandes: ranqueia só os primeiros candidatos
+    private static final int CANDIDATOS_MAXIMOS = 2000;
+
+    private static final char NOME = 'n';
+    private static final char TELEFONE = 't';
+    private static final char TELEFONE_FINAL = 'f'; // dígitos invertidos: prefixo = final do número
+    private static final char EMAIL = 'e';
+    private static final char SEPARADOR = '\u0000';
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    private static final Pattern TELEFONE_DIGITADO = Pattern.compile("[0-9()+.\\-\\s]+");
+
+    private final ClienteRepository clienteRepository;
+    private final BarramentoInvalidacaoService barramento;
+    private final MetricasService metricas;
+    private final RoteamentoSchema roteamento;
+    private final Cache<Long, Indice> indices;
+
+    public BuscaClientesService(ClienteRepository clienteRepository,
+                                BarramentoInvalidacaoService barramento,
+                                MetricasService metricas,
+                                RoteamentoSchema roteamento,
+                                @Value("${app.clientes.busca.max-clientes-em-memoria:500000}") long maxClientes)
+    {
+        this.clienteRepository = clienteRepository;
+        this.barramento = barramento;
+        this.metricas = metricas;
+        this.roteamento = roteamento;
+        // Sem expireAfterWrite: toda atualização conta como escrita e adiaria a remontagem (ver indice)
+        this.indices = Caffeine.newBuilder()
+            .maximumWeight(maxClientes)
+            .weigher((Long tenantId, Indice indice) -> Math.max(1, indice.clientes.size()))
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+        // chave = "tenantId:clienteId"
+        barramento.assinar(CACHE_INVALIDACAO, chave -> {
+            String[] partes = chave.split(":");
+            recarregar(Long.valueOf(partes[0]), Long.valueOf(partes[1]));
+        });
+    }
+
+    /**
+     * @param termo começo do nome (uma ou mais palavras), telefone (qualquer formato, começo com ou sem DDD, ou final do número) ou email
+     * @param limite quantidade máxima de resultados (até 50)
+     */
+    public List<ClienteBuscaItem> buscar(Long tenantId, String termo, Integer limite)
+    {
+        if (termo == null || termo.isBlank())
+            return List.of();
+
+        long inicio = System.nanoTime();
+        Indice indice = indice(tenantId);
+        int maximo = limite == null || limite <= 0 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+
+        String consulta = termo.trim();
+        String tipo;
+        List<ClienteBuscaItem> resultado;
+
+        if (consulta.contains("@"))
+        {
+            tipo = "email";
+            String email = consulta.toLowerCase(Locale.ROOT);
+            resultado = ranquear(indice, indice.candidatos(EMAIL, email), maximo,
+                entrada -> email.equals(entrada.email()) ? 0 : 1);
+        }
+        else if (TELEFONE_DIGITADO.matcher(consulta).matches() && consulta.replaceAll("[^0-9]", "").length() >= 3)
+        {
+            tipo = "telefone";
+            // "+55 11 9..." digitado pela metade: o código do país não faz parte do número indexado
+            String digitos = TelefoneUtil.normalizar(consulta.startsWith("+55") ? consulta.substring(3) : consulta);
+
+            // Começo do número (com ou sem DDD) ou final dele (ex: últimos 4 dígitos)
+            Set<Long> candidatos = indice.candidatos(TELEFONE, digitos);
+            candidatos.addAll(indice.candidatos(TELEFONE_FINAL, inverter(digitos)));
+
+            resultado = ranquear(indice, candidatos, maximo, entrada -> {
+                String telefone = entrada.telefone();
+                return digitos.equals(telefone) ? 0 : telefone != null && telefone.startsWith(digitos) ? 1 : 2;
+            });
+        }
+        else
+        {
+            tipo = "nome";
+            String nome = normalizarTexto(consulta);
+            String[] palavras = ESPACOS.split(nome);
+
+            // Varre pela palavra mais longa (menos candidatos); as outras filtram
+            String maisLonga = palavras[0];
+            for (String p : palavras)
+                if (p.length() > maisLonga.length())
+                    maisLonga = p;
+
+            Set<Long> candidatos = indice.candidatos(NOME, maisLonga);
+            candidatos.removeIf(id -> !contemPrefixos(indice.clientes.get(id), palavras));
+
+            resultado = ranquear(indice, candidatos, maximo, entrada -> {
+                String completo = entrada.nome();
+                return completo.equals(nome) ? 0 : completo.startsWith(nome) ? 1 : completo.startsWith(palavras[0]) ? 2 : 3;
+            });
+        }
+
+        metricas.registrarTempo("grazy.clientes.busca", System.nanoTime() - inicio, "tipo", tipo);
+        return resultado;
+    }
+
+    /**
+     * Atualiza o índice depois que o cliente foi gravado e avisa os outros nós.
+     */
+    public void registrar(Cliente cliente)
+    {
+        if (cliente.getTenantId() == null)
+            return;
+
+        ClienteBuscaItem item = new ClienteBuscaItem(cliente.getId(), cliente.getNome(), cliente.getTelefone(), cliente.getEmail());
+        atualizar(cliente.getTenantId(), indice -> indice.colocar(item));
+
+        barramento.publicar(CACHE_INVALIDACAO, cliente.getTenantId() + ":" + cliente.getId());
+    }
+
+    /**
+     * Tira do índice um cliente apagado (ex: mesclado em outro) e avisa os outros nós.
+     */
+    public void remover(Long tenantId, Long clienteId)
+    {
+        atualizar(tenantId, indice -> indice.remover(clienteId));
+
+        barramento.publicar(CACHE_INVALIDACAO, tenantId + ":" + clienteId);
+    }
+
+    /**
+     * Chamado pelo barramento, fora de requisição: sem TenantContext, a consulta precisa ser
+     * roteada para o schema do tenant (senão um cliente de schema dedicado "some" do índice).
+     */
+    private void recarregar(Long tenantId, Long clienteId)
+    {
+        // Sem checar antes se o índice existe: durante a montagem ele ainda não aparece no cache
+        Optional<ClienteBuscaItem> item = roteamento.executarNoSchema(roteamento.schemaDoTenant(tenantId),
+            () -> clienteRepository.buscarParaBusca(clienteId, tenantId));
+
+        atualizar(tenantId, indice -> item.ifPresentOrElse(indice::colocar, () -> indice.remover(clienteId)));
+    }
+
+    /**
+     * Aplica a alteração no índice do tenant, se houver um. Passa pelo mesmo lock do Caffeine que
+     * a montagem: se o índice está sendo montado, espera e aplica depois, em vez de perder a
+     * alteração que a leitura da montagem pode não ter visto.
+     */
+    private void atualizar(Long tenantId, Consumer<Indice> alteracao)
+    {
+        indices.asMap().computeIfPresent(tenantId, (id, indice) -> {
+            alteracao.accept(indice);
+            return indice;
+        });
+    }
+
+    /**
+     * Índice do tenant, montado na primeira busca e remontado do banco quando passa da idade máxima.
+     */
+    private Indice indice(Long tenantId)
+    {
+        Indice indice = indices.get(tenantId, this::montar);
+
+        if (System.nanoTime() - indice.montadoEm <= REMONTAGEM_NANOS)
+            return indice;
+
+        indices.asMap().remove(tenantId, indice);
+        return indices.get(tenantId, this::montar);
+    }
+
+    private Indice montar(Long tenantId)
+    {
+        long inicio = System.nanoTime();
+        Indice indice = new Indice();
+
+        for (ClienteBuscaItem item : clienteRepository.listarParaBusca(tenantId))
+            indice.colocar(item);
+
+        log.debug("[CLIENTES] Índice de busca do tenant {} montado: {} clientes em {} ms",
+            tenantId, indice.clientes.size(), (System.nanoTime() - inicio) / 1_000_000);
+
+        return indice;
+    }
+
+    private static List<ClienteBuscaItem> ranquear(Indice indice, Set<Long> ids, int maximo,
+                                                   ToIntFunction<Entrada> pontuacao)
+    {
+        List<Entrada> entradas = new ArrayList<>(ids.size());
+
+        for (Long id : ids)
+        {
+            Entrada entrada = indice.clientes.get(id);
+            if (entrada != null)
+                entradas.add(entrada);
+        }
+
+        entradas.sort(Comparator.comparingInt(pontuacao).thenComparing(Entrada::nome));
+
+        List<ClienteBuscaItem> itens = new ArrayList<>(Math.min(maximo, entradas.size()));
+
+        for (int i = 0; i < entradas.size() && i < maximo; i++)
+            itens.add(entradas.get(i).item());
+
+        return itens;
+    }
+
+    private static boolean contemPrefixos(Entrada entrada, String[] palavras)
+    {
+        if (entrada == null)
+            return false;
+
+        String[] tokens = ESPACOS.split(entrada.nome());
+
+        for (String palavra : palavras)
+        {
+            boolean achou = false;
+
+            for (String token : tokens)
+            {
+                if (token.startsWith(palavra))
+                {
+                    achou = true;
+                    break;
+                }
+            }
+
+            if (!achou)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Minúsculas, sem acentos e com espaços simples: "  José  da SILVA" -> "jose da silva".
+     */
+    static String normalizarTexto(String texto)
+    {
+        if (texto == null)
+            return "";
+
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private static String inverter(String texto)
+    {
+        return texto == null ? null : new StringBuilder(texto).reverse().toString();
+    }
+
+    /**
+     * Cliente com os campos já normalizados para comparação.
+     */
+    private record Entrada(ClienteBuscaItem item, String nome, String telefone, String email)
+    {
+        static Entrada de(ClienteBuscaItem item)
+        {
+            String email = item.email() == null || item.email().isBlank() ? null : item.email().trim().toLowerCase(Locale.ROOT);
+            return new Entrada(item, normalizarTexto(item.nome()), TelefoneUtil.normalizar(item.telefone()), email);
+        }
+    }
+
+    /**
+     * Índice de um tenant. Leituras sem lock; escritas (raras) serializadas.
+     * Cada chave é tipo + termo + separador + id, então um prefixo vira um intervalo do mapa.
+     */
+    private static final class Indice
+    {
+        final long montadoEm = System.nanoTime();
+        final Map<Long, Entrada> clientes = new ConcurrentHashMap<>();
+        final Map<Long, List<String>> chavesPorCliente = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<String, Long> chaves = new ConcurrentSkipListMap<>();
+
+        synchronized void colocar(ClienteBuscaItem item)
+        {
+            remover(item.id());
+
+            Entrada entrada = Entrada.de(item);
+            List<String> novas = new ArrayList<>();
+
+            for (String palavra : ESPACOS.split(entrada.nome()))
+                if (!palavra.isEmpty())
+                    novas.add(NOME + palavra + SEPARADOR + item.id());
+
+            String telefone = entrada.telefone();
+
+            if (telefone != null)
+            {
+                novas.add(TELEFONE + telefone + SEPARADOR + item.id());
+
+                novas.add(TELEFONE_FINAL + inverter(telefone) + SEPARADOR + item.id());
+
+                String local = TelefoneUtil.semDdd(telefone);
+                if (local != null)
+                    novas.add(TELEFONE + local + SEPARADOR + item.id());
+            }
+
+            if (entrada.email() != null)
+                novas.add(EMAIL + entrada.email() + SEPARADOR + item.id());
+
+            for (String chave : novas)
+                chaves.put(chave, item.id());
+
+            chavesPorCliente.put(item.id(), novas);
+            clientes.put(item.id(), entrada);
+        }
+
+        synchronized void remover(Long id)
+        {
+            List<String> antigas = chavesPorCliente.remove(id);
+
+            if (antigas != null)
+                antigas.forEach(chaves::remove);
+
+            clientes.remove(id);
+        }
+
+        Set<Long> candidatos(char tipo, String prefixo)
+        {
+            Set<Long> ids = new LinkedHashSet<>();
+
+            if (prefixo == null || prefixo.isEmpty())
+                return ids;
+
+            String inicio = tipo + prefixo;
+
+            for (Long id : chaves.subMap(inicio, true, inicio + Character.MAX_VALUE, false).values())
+            {
+                ids.add(id);
+
+                if (ids.size() >= CANDIDATOS_MAXIMOS)
+                    break;
+            }
+
+            return ids;
+        }
+    }
+}
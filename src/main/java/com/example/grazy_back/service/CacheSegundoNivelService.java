@@ -0,0 +1,72 @@
+package com.example.grazy_back.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.dto.CacheRegiaoEstatistica;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Consulta e limpeza do cache de segundo nível do Hibernate (regiões em application.conf).
+ * O cache é local de cada nó: alterações feitas em outro nó são removidas daqui pelo
+ * barramento de invalidação (CacheHibernateInvalidacao).
+ */
+@Service
+public class CacheSegundoNivelService
+{
+    private static final Logger log = LoggerFactory.getLogger(CacheSegundoNivelService.class);
+
+    private final SessionFactory sessionFactory;
+
+    public CacheSegundoNivelService(EntityManagerFactory entityManagerFactory)
+    {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Estatísticas de cada região desde o início da aplicação (ou da última limpeza de estatísticas).
+     */
+    public List<CacheRegiaoEstatistica> estatisticas()
+    {
+        Statistics stats = sessionFactory.getStatistics();
+        List<CacheRegiaoEstatistica> regioes = new ArrayList<>();
+
+        for (String regiao : stats.getSecondLevelCacheRegionNames())
+        {
+            CacheRegionStatistics r = stats.getCacheRegionStatistics(regiao);
+
+            if (r == null)
+                continue;
+
+            long consultas = r.getHitCount() + r.getMissCount();
+
+            regioes.add(CacheRegiaoEstatistica.builder()
+                .regiao(regiao)
+                .acertos(r.getHitCount())
+                .falhas(r.getMissCount())
+                .insercoes(r.getPutCount())
+                .elementosEmMemoria(r.getElementCountInMemory() >= 0 ? r.getElementCountInMemory() : null)
+                .taxaAcerto(consultas > 0 ? (double) r.getHitCount() / consultas : 0)
+                .build());
+        }
+
+        return regioes;
+    }
+
+    /**
+     * Esvazia todas as regiões deste nó (entidades, natural ids e consultas).
+     */
+    public void limpar()
+    {
+        sessionFactory.getCache().evictAllRegions();
+        log.info("[CACHE] Cache de segundo nível esvaziado");
+    }
+}
@@ -6,6 +6,10 @@ import java.util.Optional;
 import org.springframework.stereotype.Service;
 
 import com.example.grazy_back.DTO.ClienteRequestDTO;
+import com.example.grazy_back.dto.ClienteBuscaItem;
+import com.example.grazy_back.dto.ClienteDuplicataItem;
+import com.example.grazy_back.dto.ClienteEstatisticaItem;
+import com.example.grazy_back.dto.Pagina;
 import com.example.grazy_back.model.Cliente;
 import com.example.grazy_back.repository.ClienteRepository;
 import com.example.grazy_back.security.TenantContext;
@@ -14,10 +18,17 @@ import com.example.grazy_back.security.TenantContext;
 public class ClienteService 
 {
     private final ClienteRepository repository;
+    private final BuscaClientesService buscaClientes;
+    private final DeduplicacaoClientesService deduplicacao;
+    private final EstatisticaClientesService estatisticas;
 
-    public ClienteService(ClienteRepository repository) 
+    public ClienteService(ClienteRepository repository, BuscaClientesService buscaClientes,
+                          DeduplicacaoClientesService deduplicacao, EstatisticaClientesService estatisticas) 
     {
         this.repository = repository;
+        this.buscaClientes = buscaClientes;
+        this.deduplicacao = deduplicacao;
+        this.estatisticas = estatisticas;
     }
 
     public Cliente criar(ClienteRequestDTO req) 
@@ -28,37 +39,89 @@ public class ClienteService
         u.setTelefone(req.getTelefone());
         u.setEmail(req.getEmail());
         u.setObs(req.getObs());
-        return repository.save(u);
+
+        Cliente salvo = repository.save(u);
+        buscaClientes.registrar(salvo);
+        return salvo;
     }
 
     public List<Cliente> listarTodos()
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
-        
-        // SUPER_ADMIN vê todos, tenant vê apenas os seus
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            return repository.findAll();
-        }
-        
-        return repository.findByTenantId(tenantId);
+        return repository.findAll();
     }
 
     public Optional<Cliente> atualizar(Long id, ClienteRequestDTO req) 
     {
         return repository.findById(id).map(u -> {
-            // Verificar se cliente pertence ao tenant
-            Long tenantId = TenantContext.getCurrentTenantId();
-            if (tenantId != null && !tenantId.equals(u.getTenantId())) 
-            {
-                throw new IllegalStateException("Cliente não pertence ao seu tenant");
-            }
-            
             if (req.getNome() != null) u.setNome(req.getNome());
             if (req.getTelefone() != null) u.setTelefone(req.getTelefone());
             if (req.getEmail() != null) u.setEmail(req.getEmail());
             if (req.getObs() != null) u.setObs(req.getObs());
-            return repository.save(u);
+
+            // Nome também pesa na pontuação: volta para a fila da deduplicação
+            u.setDedupEm(null);
+
+            Cliente salvo = repository.save(u);
+            buscaClientes.registrar(salvo);
+            return salvo;
         });
     }
+
+    /**
+     * Busca no índice do tenant por começo do nome, telefone ou email, já ranqueada e limitada.
+     */
+    public List<ClienteBuscaItem> buscar(String termo, Integer limite)
+    {
+        return buscaClientes.buscar(TenantContext.requireTenantId(), termo, limite);
+    }
+
+    /**
+     * Sugestões de clientes duplicados encontradas pelo job de deduplicação.
+     */
+    public List<ClienteDuplicataItem> listarDuplicatas(Integer limite)
+    {
+        return deduplicacao.listarPendentes(TenantContext.requireTenantId(), limite);
+    }
+
+    public boolean ignorarDuplicata(Long duplicataId)
+    {
+        return deduplicacao.ignorar(TenantContext.requireTenantId(), duplicataId);
+    }
+
+    /**
+     * Mescla os duplicados no cliente principal e atualiza o índice de busca.
+     * @throws IllegalArgumentException se algum cliente não existe no tenant
+     */
+    public Cliente mesclar(Long principalId, List<Long> duplicados)
+    {
+        Long tenantId = TenantContext.requireTenantId();
+        Cliente principal = deduplicacao.mesclar(tenantId, principalId, duplicados);
+
+        for (Long id : duplicados)
+        {
+            if (id != null && !id.equals(principalId))
+                buscaClientes.remover(tenantId, id);
+        }
+
+        buscaClientes.registrar(principal);
+        return principal;
+    }
+
+    /**
+     * @param ordem "valor" (padrão), "visitas" ou "recentes"
+     */
+    public Pagina<ClienteEstatisticaItem> listarEstatisticas(String ordem, Integer pagina, Integer tamanho)
+    {
+        return estatisticas.listar(TenantContext.requireTenantId(), ordem, pagina, tamanho);
+    }
+
+    public Optional<ClienteEstatisticaItem> estatisticas(Long clienteId)
+    {
+        return estatisticas.detalhar(TenantContext.requireTenantId(), clienteId);
+    }
+
+    public Pagina<ClienteEstatisticaItem> paraReativar(Integer pagina, Integer tamanho)
+    {
+        return estatisticas.paraReativar(TenantContext.requireTenantId(), pagina, tamanho);
+    }
 }
@@ -3,124 +3,148 @@ package com.example.grazy_back.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.example.grazy_back.GrazyBackApplication;
 import com.example.grazy_back.dto.PagamentoResponse;
-import com.example.grazy_back.enums.PlanoEnum;
-import com.example.grazy_back.enums.StatusPagamentoEnum;
 import com.example.grazy_back.enums.StatusTenantEnum;
+import com.example.grazy_back.enums.TipoTemplateEnum;
 import com.example.grazy_back.model.Pagamento;
+import com.example.grazy_back.model.PagamentoItem;
 import com.example.grazy_back.model.Tenant;
 import com.example.grazy_back.repository.PagamentoRepository;
 import com.example.grazy_back.repository.TenantRepository;
 
 /**
- * Serviço de agendamento para envio automático de cobranças
+ * Serviço de agendamento para envio automático de cobranças.
+ * Os valores (mensalidade do plano + excedentes do uso medido) vêm do FaturamentoService.
  */
 @Service
 public class CobrancaSchedulerService {
     
     private static final Logger log = LoggerFactory.getLogger(CobrancaSchedulerService.class);
     
-    // Valores de planos (pode ser configurável no futuro)
-    private static final BigDecimal VALOR_BASICO = new BigDecimal("29.90");
-    private static final BigDecimal VALOR_PRO = new BigDecimal("59.90");
-    private static final BigDecimal VALOR_ENTERPRISE = new BigDecimal("99.90");
+    private static final DateTimeFormatter REFERENCIA_FORMATTER = DateTimeFormatter.ofPattern("MM/yyyy");
+    private static final DateTimeFormatter VENCIMENTO_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     
     private final TenantRepository tenantRepository;
     private final PagamentoRepository pagamentoRepository;
     private final MercadoPagoService mercadoPagoService;
+    private final FaturamentoService faturamentoService;
     private final WhatsappSenderService whatsappSenderService;
     private final EmailService emailService;
+    private final TemplateMensagemService templateService;
+    private final MetricasService metricas;
     
     public CobrancaSchedulerService(
         TenantRepository tenantRepository,
         PagamentoRepository pagamentoRepository,
         MercadoPagoService mercadoPagoService,
+        FaturamentoService faturamentoService,
         WhatsappSenderService whatsappSenderService,
-        EmailService emailService
+        EmailService emailService,
+        TemplateMensagemService templateService,
+        MetricasService metricas
     ) {
         this.tenantRepository = tenantRepository;
         this.pagamentoRepository = pagamentoRepository;
         this.mercadoPagoService = mercadoPagoService;
+        this.faturamentoService = faturamentoService;
         this.whatsappSenderService = whatsappSenderService;
         this.emailService = emailService;
+        this.templateService = templateService;
+        this.metricas = metricas;
     }
     
     /**
      * Roda todos os dias às 8h da manhã para verificar cobranças
      * Cron: segundos minutos horas dia mês dia-semana
      */
-    @Scheduled(cron = "0 0 8 * * *")
+    @Scheduled(cron = "0 0 8 * * *", zone = GrazyBackApplication.FUSO_HORARIO)
     public void processarCobrancasDiarias() {
+        metricas.executarJob("cobranca-diaria", this::processarCobrancas);
+    }
+    
+    /**
+     * @return quantidade de cobranças enviadas
+     */
+    private int processarCobrancas() {
         log.info("[SCHEDULER] Iniciando processamento de cobranças diárias");
         
-        LocalDate hoje = LocalDate.now();
+        LocalDate hoje = LocalDate.now(GrazyBackApplication.ZONA);
+        YearMonth referencia = YearMonth.from(hoje);
         int diaAtual = hoje.getDayOfMonth();
-        int mesAtual = hoje.getMonthValue();
-        int anoAtual = hoje.getYear();
         
-        // Busca todos os tenants ativos com dia de pagamento configurado
-        List<Tenant> tenants = tenantRepository.findByStatusAndAtivoTrue(StatusTenantEnum.ATIVO);
+        // No último dia do mês entram também os dias que o mês não tem (ex: 30 e 31 em fevereiro)
+        int diaFim = diaAtual == hoje.lengthOfMonth() ? 31 : diaAtual;
+        
+        // Só os tenants ativos que vencem hoje
+        List<Tenant> tenants = tenantRepository.findByStatusAndAtivoTrueAndDiaPagamentoBetweenOrderByIdAsc(
+            StatusTenantEnum.ATIVO, diaAtual, diaFim);
+        
+        if (tenants.isEmpty()) {
+            log.info("[SCHEDULER] Nenhum tenant com cobrança hoje");
+            return 0;
+        }
+        
+        // Cobranças já existentes do mês em uma consulta
+        Map<Long, Pagamento> existentes = pagamentoRepository.findByMesReferenciaAndAnoReferenciaAndTenantIdIn(
+                referencia.getMonthValue(), referencia.getYear(), tenants.stream().map(Tenant::getId).toList())
+            .stream()
+            .collect(Collectors.toMap(Pagamento::getTenantId, Function.identity(), (a, b) -> a.getId() < b.getId() ? a : b));
+        
+        // Mensalidade + excedentes do mês anterior, em uma passada sobre o uso medido
+        Map<Long, List<PagamentoItem>> faturas = faturamentoService.calcular(tenants, referencia, diaAtual, diaFim);
         
         int processados = 0;
         int enviados = 0;
         
         for (Tenant tenant : tenants) {
-            try {
-                // Verifica se tem dia de pagamento configurado
-                if (tenant.getDiaPagamento() == null) {
-                    continue;
-                }
-                
-                // Verifica se hoje é o dia de pagamento
-                if (tenant.getDiaPagamento() != diaAtual) {
-                    continue;
-                }
-                
+            try (MetricasService.Escopo escopo = metricas.escopoTenant(tenant.getId())) {
                 processados++;
                 
-                // Verifica se já existe pagamento para este mês
-                var pagamentoExistente = pagamentoRepository.findByTenantIdAndMesReferenciaAndAnoReferencia(
-                    tenant.getId(), 
-                    mesAtual, 
-                    anoAtual
-                );
+                Pagamento pagamento = existentes.get(tenant.getId());
                 
-                if (pagamentoExistente.isPresent()) {
-                    Pagamento pag = pagamentoExistente.get();
-                    
+                if (pagamento != null) {
                     // Se já foi enviado, pula
-                    if (pag.getEnviadoWhatsapp() && pag.getEnviadoEmail()) {
+                    if (pagamento.getEnviadoWhatsapp() && pagamento.getEnviadoEmail()) {
                         continue;
                     }
                     
                     // Se tem link mas não enviou, reenvia
-                    if (pag.getLinkPagamento() != null) {
-                        enviarNotificacoesCobranca(tenant, pag);
+                    if (pagamento.getLinkPagamento() != null) {
+                        enviarNotificacoesCobranca(tenant, pagamento);
                         enviados++;
                         continue;
                     }
+                    
+                    // Sem link: a preferência no Mercado Pago falhou antes; tenta de novo com a mesma cobrança
+                } else {
+                    List<PagamentoItem> itens = faturas.getOrDefault(tenant.getId(), List.of());
+                    BigDecimal total = FaturamentoService.total(itens);
+                    
+                    // Plano gratuito sem excedente: nada a cobrar
+                    if (total.signum() <= 0) {
+                        continue;
+                    }
+                    
+                    pagamento = faturamentoService.registrar(tenant.getId(), itens, referencia, 
+                        hoje.plusDays(5).atStartOfDay()); // Vencimento em 5 dias
+                    
+                    metricas.incrementar("grazy.cobranca.valor", total.doubleValue(), 
+                        "tipo", itens.size() > 1 ? "com-excedente" : "plano");
                 }
                 
-                // Cria novo pagamento
-                BigDecimal valor = obterValorPlano(tenant.getPlano());
-                
-                Pagamento pagamento = new Pagamento();
-                pagamento.setTenantId(tenant.getId());
-                pagamento.setValor(valor);
-                pagamento.setMesReferencia(mesAtual);
-                pagamento.setAnoReferencia(anoAtual);
-                pagamento.setStatus(StatusPagamentoEnum.PENDENTE);
-                pagamento.setDataVencimento(hoje.plusDays(5).atStartOfDay()); // Vencimento em 5 dias
-                
-                pagamento = pagamentoRepository.save(pagamento);
-                
                 // Cria preferência no Mercado Pago
                 PagamentoResponse response = mercadoPagoService.criarPreferenciaPagamento(pagamento);
                 
@@ -144,6 +168,8 @@ public class CobrancaSchedulerService {
         
         log.info("[SCHEDULER] Processamento concluído. Tenants processados: {}, Cobranças enviadas: {}", 
             processados, enviados);
+        
+        return enviados;
     }
     
     /**
@@ -163,8 +189,10 @@ public class CobrancaSchedulerService {
                     mensagem
                 );
                 enviadoWhatsapp = true;
+                metricas.incrementar("grazy.cobranca.notificacoes", "canal", "whatsapp", "resultado", MetricasService.SUCESSO);
                 log.info("[SCHEDULER] WhatsApp enviado para tenant {}", tenant.getId());
             } catch (Exception e) {
+                metricas.incrementar("grazy.cobranca.notificacoes", "canal", "whatsapp", "resultado", MetricasService.ERRO);
                 log.error("[SCHEDULER] Erro ao enviar WhatsApp para tenant {}: {}", 
                     tenant.getId(), e.getMessage());
             }
@@ -182,8 +210,10 @@ public class CobrancaSchedulerService {
                     pagamento.getLinkPagamento()
                 );
                 enviadoEmail = true;
-                log.info("[SCHEDULER] Email enviado para tenant {}", tenant.getId());
+                metricas.incrementar("grazy.cobranca.notificacoes", "canal", "email", "resultado", MetricasService.SUCESSO);
+                log.info("[SCHEDULER] Email de cobrança enfileirado para tenant {}", tenant.getId());
             } catch (Exception e) {
+                metricas.incrementar("grazy.cobranca.notificacoes", "canal", "email", "resultado", MetricasService.ERRO);
                 log.error("[SCHEDULER] Erro ao enviar email para tenant {}: {}", 
                     tenant.getId(), e.getMessage());
             }
@@ -204,35 +234,13 @@ public class CobrancaSchedulerService {
     private String montarMensagemCobranca(Tenant tenant, Pagamento pagamento) {
         String nome = tenant.getNomeAdmin() != null ? tenant.getNomeAdmin() : "Cliente";
         
-        return String.format(
-            "Olá %s! 👋\n\n" +
-            "Sua mensalidade do *%s* referente a *%02d/%d* está disponível.\n\n" +
-            "💰 *Valor:* R$ %.2f\n" +
-            "📅 *Vencimento:* %02d/%02d/%d\n\n" +
-            "Clique no link abaixo para pagar:\n%s\n\n" +
-            "Em caso de dúvidas, estamos à disposição! 😊",
-            nome,
-            tenant.getNomeNegocio(),
-            pagamento.getMesReferencia(),
-            pagamento.getAnoReferencia(),
-            pagamento.getValor(),
-            pagamento.getDataVencimento().getDayOfMonth(),
-            pagamento.getDataVencimento().getMonthValue(),
-            pagamento.getDataVencimento().getYear(),
-            pagamento.getLinkPagamento()
-        );
-    }
-    
-    /**
-     * Obtém o valor do plano
-     */
-    private BigDecimal obterValorPlano(PlanoEnum plano) {
-        if (plano == null) return VALOR_BASICO;
-        return switch (plano) {
-            case BASICO -> VALOR_BASICO;
-            case PRO -> VALOR_PRO;
-            case ENTERPRISE -> VALOR_ENTERPRISE;
-            default -> VALOR_BASICO;
-        };
+        return templateService.renderizar(null, TipoTemplateEnum.COBRANCA_WHATSAPP, TemplateCompilado.valores(
+            "nome", nome,
+            "negocio", tenant.getNomeNegocio(),
+            "referencia", YearMonth.of(pagamento.getAnoReferencia(), pagamento.getMesReferencia()).format(REFERENCIA_FORMATTER),
+            "valor", TemplateMensagemService.formatarValor(pagamento.getValor()),
+            "vencimento", pagamento.getDataVencimento().format(VENCIMENTO_FORMATTER),
+            "link", pagamento.getLinkPagamento()
+        ));
     }
 }
@@ -45,6 +45,7 @@ public class ConteudoService
     /**
      * Obtém conteúdo de um tenant específico (para landing page pública).
      */
+    @Transactional(readOnly = true)
     public Conteudo obterPorTenant(Long tenantId) 
     {
         return repository.findByTenantId(tenantId)
@@ -0,0 +1,456 @@
+package com.example.grazy_back.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.grazy_back.config.RoteamentoSchema;
+import com.example.grazy_back.dto.ClienteBuscaItem;
+import com.example.grazy_back.dto.ClienteDedupItem;
+import com.example.grazy_back.dto.ClienteDuplicataItem;
+import com.example.grazy_back.enums.StatusDuplicataEnum;
+import com.example.grazy_back.model.Cliente;
+import com.example.grazy_back.model.ClienteDuplicata;
+import com.example.grazy_back.repository.AgendamentoRepository;
+import com.example.grazy_back.repository.ClienteDuplicataRepository;
+import com.example.grazy_back.repository.ClienteRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Encontra clientes cadastrados mais de uma vez no mesmo tenant e mescla os duplicados.
+ * O job percorre em lotes só os clientes ainda não comparados (dedup_em nulo: novos ou com
+ * telefone/email alterado) e busca candidatos pelas chaves normalizadas de telefone e email,
+ * que são indexadas por tenant: nenhum passo lê a tabela inteira. Cada par candidato recebe
+ * uma pontuação (telefone, email e semelhança do nome) e os que passam do mínimo viram
+ * sugestões para o tenant mesclar ou ignorar.
+ */
+@Service
+@Slf4j
+public class DeduplicacaoClientesService
+{
+    private static final double PESO_TELEFONE = 0.5;
+    private static final double PESO_EMAIL = 0.4;
+    private static final double PESO_NOME = 0.3;
+
+    private static final int LIMITE_PADRAO = 50;
+    private static final int LIMITE_MAXIMO = 200;
+
+    private final ClienteRepository clienteRepository;
+    private final ClienteDuplicataRepository duplicataRepository;
+    private final AgendamentoRepository agendamentoRepository;
+    private final EstatisticaClientesService estatisticaClientes;
+    private final MetricasService metricas;
+    private final RoteamentoSchema roteamento;
+    private final TransactionTemplate novaTransacao;
+
+    @Value("${app.clientes.dedup.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.clientes.dedup.lote:500}")
+    private int tamanhoLote;
+
+    @Value("${app.clientes.dedup.lotes-por-execucao:20}")
+    private int lotesPorExecucao;
+
+    // Chave compartilhada por mais clientes que isso (telefone genérico, email da recepção) não bloqueia
+    @Value("${app.clientes.dedup.maximo-por-chave:20}")
+    private int maximoPorChave;
+
+    @Value("${app.clientes.dedup.pontuacao-minima:0.6}")
+    private double pontuacaoMinima;
+
+    public DeduplicacaoClientesService(ClienteRepository clienteRepository,
+                                       ClienteDuplicataRepository duplicataRepository,
+                                       AgendamentoRepository agendamentoRepository,
+                                       EstatisticaClientesService estatisticaClientes,
+                                       MetricasService metricas,
+                                       RoteamentoSchema roteamento,
+                                       PlatformTransactionManager transactionManager)
+    {
+        this.clienteRepository = clienteRepository;
+        this.duplicataRepository = duplicataRepository;
+        this.agendamentoRepository = agendamentoRepository;
+        this.estatisticaClientes = estatisticaClientes;
+        this.metricas = metricas;
+        this.roteamento = roteamento;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+    }
+
+    private record Par(Long clienteId, Long duplicadoId) {}
+
+    @Scheduled(fixedDelayString = "${app.clientes.dedup.intervalo-ms:60000}", initialDelay = 45_000)
+    public void processarPendentes()
+    {
+        if (habilitado)
+            metricas.executarJob("clientes-dedup", () -> roteamento.paraCadaSchema(this::processarSchema));
+    }
+
+    /**
+     * Até lotesPorExecucao lotes por rodada; o restante fica para a próxima.
+     * @return quantidade de clientes comparados
+     */
+    private int processarSchema()
+    {
+        int comparados = 0;
+        long depoisDe = 0;
+
+        for (int i = 0; i < lotesPorExecucao; i++)
+        {
+            List<ClienteDedupItem> lote = clienteRepository.pendentesDedup(depoisDe, PageRequest.of(0, tamanhoLote));
+
+            if (lote.isEmpty())
+                break;
+
+            try
+            {
+                novaTransacao.executeWithoutResult(status -> compararLote(lote));
+                comparados += lote.size();
+            }
+            catch (DataIntegrityViolationException e)
+            {
+                // Outro nó gravou o mesmo par ao mesmo tempo; o lote volta na próxima rodada
+                log.debug("[CLIENTES] Lote de deduplicação concorrente, repetindo depois: {}", e.getMessage());
+            }
+
+            depoisDe = lote.get(lote.size() - 1).id();
+        }
+
+        if (comparados > 0)
+            log.debug("[CLIENTES] {} cliente(s) comparados na deduplicação", comparados);
+
+        return comparados;
+    }
+
+    private void compararLote(List<ClienteDedupItem> lote)
+    {
+        Map<Long, String> telefones = new HashMap<>();
+        Map<Long, String> emails = new HashMap<>();
+        Map<Long, List<ClienteDedupItem>> porTenant = new LinkedHashMap<>();
+
+        // Clientes anteriores à deduplicação ainda não têm as chaves gravadas
+        for (ClienteDedupItem item : lote)
+        {
+            String telefone = TelefoneUtil.chave(item.telefone());
+            String email = Cliente.chaveEmail(item.email());
+
+            if (telefone != null && !telefone.equals(item.chaveTelefone()))
+                telefones.put(item.id(), telefone);
+
+            if (email != null && !email.equals(item.chaveEmail()))
+                emails.put(item.id(), email);
+
+            if (item.tenantId() != null)
+                porTenant.computeIfAbsent(item.tenantId(), t -> new ArrayList<>())
+                    .add(new ClienteDedupItem(item.id(), item.tenantId(), item.nome(), item.telefone(), item.email(), telefone, email));
+        }
+
+        if (!telefones.isEmpty() || !emails.isEmpty())
+            clienteRepository.gravarChaves(telefones, emails);
+
+        Map<Par, ClienteDuplicata> encontrados = new HashMap<>();
+        porTenant.forEach((tenantId, clientes) -> encontrarPares(tenantId, clientes, encontrados));
+
+        List<Long> ids = lote.stream().map(ClienteDedupItem::id).toList();
+        Map<Par, ClienteDuplicata> existentes = duplicataRepository.envolvendo(ids).stream()
+            .collect(Collectors.toMap(d -> new Par(d.getClienteId(), d.getDuplicadoId()), Function.identity()));
+
+        List<ClienteDuplicata> gravar = new ArrayList<>();
+        List<ClienteDuplicata> descartar = new ArrayList<>();
+
+        encontrados.forEach((par, novo) -> {
+            ClienteDuplicata atual = existentes.get(par);
+
+            if (atual == null)
+                gravar.add(novo);
+            else if (atual.getStatus() == StatusDuplicataEnum.PENDENTE)
+            {
+                atual.setPontuacao(novo.getPontuacao());
+                atual.setMotivo(novo.getMotivo());
+            }
+        });
+
+        // Sugestões que deixaram de valer (telefone ou email alterado depois)
+        existentes.forEach((par, atual) -> {
+            if (atual.getStatus() == StatusDuplicataEnum.PENDENTE && !encontrados.containsKey(par))
+                descartar.add(atual);
+        });
+
+        duplicataRepository.saveAll(gravar);
+        duplicataRepository.deleteAll(descartar);
+        clienteRepository.marcarComparados(ids, Instant.now());
+
+        metricas.incrementar("grazy.clientes.dedup.comparados", lote.size());
+
+        if (!gravar.isEmpty())
+            metricas.incrementar("grazy.clientes.dedup.pares", gravar.size());
+    }
+
+    /**
+     * Candidatos de cada cliente do lote: os do mesmo tenant com a mesma chave de telefone
+     * ou de email (duas consultas por índice para o lote inteiro).
+     */
+    private void encontrarPares(Long tenantId, List<ClienteDedupItem> clientes, Map<Par, ClienteDuplicata> encontrados)
+    {
+        Set<String> chavesTelefone = new HashSet<>();
+        Set<String> chavesEmail = new HashSet<>();
+
+        for (ClienteDedupItem c : clientes)
+        {
+            if (c.chaveTelefone() != null)
+                chavesTelefone.add(c.chaveTelefone());
+
+            if (c.chaveEmail() != null)
+                chavesEmail.add(c.chaveEmail());
+        }
+
+        Map<String, List<ClienteDedupItem>> porTelefone = chavesTelefone.isEmpty() ? Map.of()
+            : agrupar(clienteRepository.porChavesTelefone(tenantId, chavesTelefone), ClienteDedupItem::chaveTelefone);
+        Map<String, List<ClienteDedupItem>> porEmail = chavesEmail.isEmpty() ? Map.of()
+            : agrupar(clienteRepository.porChavesEmail(tenantId, chavesEmail), ClienteDedupItem::chaveEmail);
+
+        Instant agora = Instant.now();
+
+        for (ClienteDedupItem cliente : clientes)
+        {
+            Map<Long, ClienteDedupItem> candidatos = new LinkedHashMap<>();
+
+            for (ClienteDedupItem c : bloco(porTelefone, cliente.chaveTelefone()))
+                candidatos.put(c.id(), c);
+
+            for (ClienteDedupItem c : bloco(porEmail, cliente.chaveEmail()))
+                candidatos.put(c.id(), c);
+
+            candidatos.remove(cliente.id());
+
+            for (ClienteDedupItem outro : candidatos.values())
+            {
+                Par par = new Par(Math.min(cliente.id(), outro.id()), Math.max(cliente.id(), outro.id()));
+
+                if (encontrados.containsKey(par))
+                    continue;
+
+                StringJoiner motivo = new StringJoiner(",");
+                double pontuacao = pontuar(cliente, outro, motivo);
+
+                if (pontuacao >= pontuacaoMinima)
+                {
+                    encontrados.put(par, ClienteDuplicata.builder()
+                        .tenantId(tenantId)
+                        .clienteId(par.clienteId())
+                        .duplicadoId(par.duplicadoId())
+                        .pontuacao(pontuacao)
+                        .motivo(motivo.toString())
+                        .status(StatusDuplicataEnum.PENDENTE)
+                        .criadoEm(agora)
+                        .build());
+                }
+            }
+        }
+    }
+
+    private List<ClienteDedupItem> bloco(Map<String, List<ClienteDedupItem>> grupos, String chave)
+    {
+        List<ClienteDedupItem> bloco = chave == null ? null : grupos.get(chave);
+
+        if (bloco == null || bloco.size() > maximoPorChave)
+            return List.of();
+
+        return bloco;
+    }
+
+    private static Map<String, List<ClienteDedupItem>> agrupar(List<ClienteDedupItem> clientes, Function<ClienteDedupItem, String> chave)
+    {
+        return clientes.stream().collect(Collectors.groupingBy(chave));
+    }
+
+    /**
+     * Telefone 0,5 + email 0,4 + semelhança do nome (Jaccard das palavras) × 0,3, até 1.
+     * Só telefone ou só email precisam de um nome parecido para chegar ao mínimo padrão (0,6);
+     * pessoas da mesma família com o mesmo telefone não viram sugestão.
+     */
+    private static double pontuar(ClienteDedupItem a, ClienteDedupItem b, StringJoiner motivo)
+    {
+        double pontuacao = 0;
+
+        if (a.chaveTelefone() != null && a.chaveTelefone().equals(b.chaveTelefone()))
+        {
+            pontuacao += PESO_TELEFONE;
+            motivo.add("telefone");
+        }
+
+        if (a.chaveEmail() != null && a.chaveEmail().equals(b.chaveEmail()))
+        {
+            pontuacao += PESO_EMAIL;
+            motivo.add("email");
+        }
+
+        double nome = semelhancaNome(a.nome(), b.nome());
+
+        if (nome >= 0.5)
+            motivo.add("nome");
+
+        return Math.min(1.0, pontuacao + PESO_NOME * nome);
+    }
+
+    /**
+     * Jaccard das palavras do nome normalizado, ignorando as de até 2 letras ("da", "de").
+     */
+    private static double semelhancaNome(String a, String b)
+    {
+        Set<String> palavrasA = palavras(a);
+        Set<String> palavrasB = palavras(b);
+
+        if (palavrasA.isEmpty() || palavrasB.isEmpty())
+            return 0;
+
+        Set<String> comuns = new HashSet<>(palavrasA);
+        comuns.retainAll(palavrasB);
+
+        return (double) comuns.size() / (palavrasA.size() + palavrasB.size() - comuns.size());
+    }
+
+    private static Set<String> palavras(String nome)
+    {
+        Set<String> palavras = new HashSet<>();
+
+        for (String palavra : BuscaClientesService.normalizarTexto(nome).split(" "))
+            if (palavra.length() > 2)
+                palavras.add(palavra);
+
+        return palavras;
+    }
+
+    /**
+     * Sugestões pendentes do tenant, das mais prováveis para as menos.
+     */
+    public List<ClienteDuplicataItem> listarPendentes(Long tenantId, Integer limite)
+    {
+        int maximo = limite == null || limite <= 0 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+        List<ClienteDuplicata> pares = duplicataRepository.listarPorStatus(tenantId, StatusDuplicataEnum.PENDENTE, PageRequest.of(0, maximo));
+
+        if (pares.isEmpty())
+            return List.of();
+
+        Set<Long> ids = new HashSet<>();
+        pares.forEach(p -> { ids.add(p.getClienteId()); ids.add(p.getDuplicadoId()); });
+
+        Map<Long, ClienteBuscaItem> clientes = clienteRepository.buscarParaBusca(ids, tenantId).stream()
+            .collect(Collectors.toMap(ClienteBuscaItem::id, Function.identity()));
+
+        List<ClienteDuplicataItem> itens = new ArrayList<>(pares.size());
+
+        for (ClienteDuplicata par : pares)
+        {
+            ClienteBuscaItem cliente = clientes.get(par.getClienteId());
+            ClienteBuscaItem duplicado = clientes.get(par.getDuplicadoId());
+
+            if (cliente != null && duplicado != null)
+                itens.add(new ClienteDuplicataItem(par.getId(), par.getPontuacao(), par.getMotivo(), cliente, duplicado));
+        }
+
+        return itens;
+    }
+
+    /**
+     * Marca a sugestão como pessoas diferentes; o job não sugere o mesmo par de novo.
+     * @return false se a sugestão não existe no tenant
+     */
+    @Transactional
+    public boolean ignorar(Long tenantId, Long duplicataId)
+    {
+        ClienteDuplicata par = duplicataRepository.findById(duplicataId)
+            .filter(d -> tenantId.equals(d.getTenantId()))
+            .orElse(null);
+
+        if (par == null)
+            return false;
+
+        if (par.getStatus() == StatusDuplicataEnum.PENDENTE)
+        {
+            par.setStatus(StatusDuplicataEnum.IGNORADA);
+            par.setResolvidoEm(Instant.now());
+        }
+
+        return true;
+    }
+
+    /**
+     * Mescla os duplicados no principal: os agendamentos passam para o principal em um único
+     * UPDATE, as estatísticas dos duplicados são somadas nas dele, campos vazios do principal
+     * são completados com os dos duplicados e os duplicados são apagados. O principal volta
+     * para a fila do job, que recalcula as sugestões dele.
+     * @return o cliente principal atualizado
+     * @throws IllegalArgumentException se algum cliente não existe no tenant
+     */
+    @Transactional
+    public Cliente mesclar(Long tenantId, Long principalId, Collection<Long> duplicadosIds)
+    {
+        Set<Long> duplicados = new LinkedHashSet<>(duplicadosIds == null ? List.of() : duplicadosIds);
+        duplicados.remove(null);
+        duplicados.remove(principalId);
+
+        if (duplicados.isEmpty())
+            throw new IllegalArgumentException("Informe ao menos um cliente duplicado");
+
+        Cliente principal = clienteRepository.findById(principalId)
+            .filter(c -> tenantId.equals(c.getTenantId()))
+            .orElseThrow(() -> new IllegalArgumentException("Cliente não encontrado"));
+
+        List<Cliente> outros = clienteRepository.findAllById(duplicados);
+
+        if (outros.size() != duplicados.size() || outros.stream().anyMatch(c -> !tenantId.equals(c.getTenantId())))
+            throw new IllegalArgumentException("Cliente duplicado não encontrado");
+
+        for (Cliente outro : outros)
+        {
+            if (vazio(principal.getTelefone())) principal.setTelefone(outro.getTelefone());
+            if (vazio(principal.getEmail())) principal.setEmail(outro.getEmail());
+            if (vazio(principal.getObs())) principal.setObs(outro.getObs());
+            if (vazio(principal.getNome())) principal.setNome(outro.getNome());
+        }
+
+        principal.setDedupEm(null);
+        Cliente salvo = clienteRepository.saveAndFlush(principal);
+
+        Instant agora = Instant.now();
+        Set<Long> envolvidos = new HashSet<>(duplicados);
+        envolvidos.add(principalId);
+
+        int agendamentos = agendamentoRepository.transferirCliente(salvo, duplicados, tenantId);
+        estatisticaClientes.mesclar(tenantId, principalId, duplicados);
+        duplicataRepository.marcarMescladas(envolvidos, agora);
+        duplicataRepository.removerPendentes(duplicados);
+        clienteRepository.deleteAllByIdInBatch(duplicados);
+
+        metricas.incrementar("grazy.clientes.mesclados", duplicados.size());
+        log.info("[CLIENTES] {} cliente(s) mesclado(s) no cliente {} do tenant {} ({} agendamento(s) transferidos)",
+            duplicados.size(), principalId, tenantId, agendamentos);
+
+        return salvo;
+    }
+
+    private static boolean vazio(String valor)
+    {
+        return valor == null || valor.isBlank();
+    }
+}
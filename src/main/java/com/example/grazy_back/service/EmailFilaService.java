@@ -0,0 +1,313 @@
+package com.example.grazy_back.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.config.FabricaExecutores;
+import com.example.grazy_back.dto.EmailRequest;
+import com.example.grazy_back.enums.MetricaUsoEnum;
+import com.example.grazy_back.enums.StatusEmailEnum;
+import com.example.grazy_back.model.EmailPendente;
+import com.example.grazy_back.repository.EmailPendenteRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Worker da fila de emails.
+ * Cada worker reivindica um lote de emails e envia todos em uma única conexão SMTP
+ * (JavaMailSender.send(MimeMessage...) reaproveita o Transport para o lote inteiro).
+ * Falhas são reagendadas com backoff exponencial.
+ * O corpo é descartado assim que o email é entregue e os emails finalizados são apagados
+ * depois do período de retenção.
+ */
+@Service
+public class EmailFilaService
+{
+    private static final Logger log = LoggerFactory.getLogger(EmailFilaService.class);
+
+    private static final int TAMANHO_MAX_ERRO = 1000;
+    private static final Duration TIMEOUT_ENVIANDO = Duration.ofMinutes(10);
+
+    private final EmailPendenteRepository emailPendenteRepository;
+    private final EmailService emailService;
+    private final JavaMailSender mailSender;
+    private final MetricasService metricas;
+    private final MedicaoUsoService medicaoUso;
+    private final ThreadPoolTaskExecutor executor;
+    private final int workers;
+    private final AtomicBoolean emExecucao = new AtomicBoolean(false);
+
+    @Value("${app.mail.fila.lote:50}")
+    private int tamanhoLote;
+
+    @Value("${app.mail.fila.max-tentativas:6}")
+    private int maxTentativas;
+
+    @Value("${app.mail.fila.backoff-inicial-ms:30000}")
+    private long backoffInicialMs;
+
+    @Value("${app.mail.fila.retencao-dias:7}")
+    private long retencaoDias;
+
+    public EmailFilaService(
+        EmailPendenteRepository emailPendenteRepository,
+        EmailService emailService,
+        JavaMailSender mailSender,
+        MetricasService metricas,
+        MedicaoUsoService medicaoUso,
+        FabricaExecutores fabricaExecutores,
+        @Value("${app.mail.fila.workers:2}") int workers
+    )
+    {
+        this.emailPendenteRepository = emailPendenteRepository;
+        this.emailService = emailService;
+        this.mailSender = mailSender;
+        this.metricas = metricas;
+        this.medicaoUso = medicaoUso;
+        this.workers = workers;
+
+        this.executor = fabricaExecutores.criar("email-fila-", workers);
+    }
+
+    /**
+     * Drena a fila: cada worker processa lotes até não haver mais emails prontos.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.fila.poll-ms:2000}", initialDelay = 10_000)
+    public void processarFila()
+    {
+        if (!emExecucao.compareAndSet(false, true))
+            return;
+
+        try
+        {
+            metricas.executarJob("email-fila", this::drenarFila);
+        }
+        finally
+        {
+            emExecucao.set(false);
+        }
+    }
+
+    private int drenarFila()
+    {
+        Instant agora = Instant.now();
+        int liberados = emailPendenteRepository.liberarTravados(agora.minus(TIMEOUT_ENVIANDO), agora);
+
+        if (liberados > 0)
+            log.warn("[EMAIL] {} email(s) travado(s) devolvidos para a fila", liberados);
+
+        List<Future<Integer>> execucoes = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++)
+            execucoes.add(executor.submit(this::drenar));
+
+        int processados = 0;
+
+        for (Future<Integer> execucao : execucoes)
+        {
+            try
+            {
+                processados += execucao.get();
+            }
+            catch (Exception e)
+            {
+                log.error("[EMAIL] Erro no worker da fila: {}", e.getMessage(), e);
+            }
+        }
+
+        metricas.gauge("grazy.email.fila.pendentes").set(emailPendenteRepository.countByStatus(StatusEmailEnum.PENDENTE));
+
+        return processados;
+    }
+
+    private int drenar()
+    {
+        int total = 0;
+        int lote;
+
+        // continua enquanto houver emails prontos
+        while ((lote = enviarLote()) > 0)
+            total += lote;
+
+        return total;
+    }
+
+    /**
+     * Reivindica e envia um lote.
+     * @return quantidade de emails reivindicados (0 quando a fila está vazia)
+     */
+    int enviarLote()
+    {
+        Instant agora = Instant.now();
+        List<Long> ids = emailPendenteRepository.findIdsProntos(StatusEmailEnum.PENDENTE, agora, PageRequest.of(0, tamanhoLote));
+
+        if (ids.isEmpty())
+            return 0;
+
+        String lote = UUID.randomUUID().toString();
+
+        // Outro worker pode ter pego parte dos ids; seguimos apenas com os que reivindicamos
+        if (emailPendenteRepository.reivindicar(ids, lote, agora) == 0)
+            return ids.size();
+
+        List<EmailPendente> emails = emailPendenteRepository.findByLoteAndStatus(lote, StatusEmailEnum.ENVIANDO);
+        Map<MimeMessage, EmailPendente> porMensagem = new IdentityHashMap<>();
+        List<MimeMessage> mensagens = new ArrayList<>(emails.size());
+
+        for (EmailPendente email : emails)
+        {
+            try
+            {
+                MimeMessage mensagem = emailService.criarMensagem(toRequest(email));
+                porMensagem.put(mensagem, email);
+                mensagens.add(mensagem);
+            }
+            catch (Exception e)
+            {
+                // Mensagem inválida (ex: endereço mal formado): não adianta tentar de novo
+                falhar(email, e, true);
+            }
+        }
+
+        if (mensagens.isEmpty())
+            return emails.size();
+
+        Map<Object, Exception> falhas = new HashMap<>();
+        long inicioEnvio = System.nanoTime();
+        String resultadoEnvio = MetricasService.SUCESSO;
+
+        try
+        {
+            mailSender.send(mensagens.toArray(MimeMessage[]::new));
+        }
+        catch (MailSendException e)
+        {
+            // Mensagens que não estão no mapa de falhas foram entregues
+            falhas.putAll(e.getFailedMessages());
+            resultadoEnvio = "parcial";
+
+            if (falhas.isEmpty())
+            {
+                mensagens.forEach(m -> falhas.put(m, e));
+                resultadoEnvio = MetricasService.ERRO;
+            }
+        }
+        catch (Exception e)
+        {
+            // Falha de conexão/autenticação: o lote inteiro volta para a fila
+            mensagens.forEach(m -> falhas.put(m, e));
+            resultadoEnvio = MetricasService.ERRO;
+        }
+
+        metricas.registrarChamada("smtp", "enviar-lote", resultadoEnvio, System.nanoTime() - inicioEnvio);
+        metricas.registrarValor("grazy.email.lote.tamanho", mensagens.size());
+
+        List<Long> enviados = new ArrayList<>(mensagens.size());
+
+        for (MimeMessage mensagem : mensagens)
+        {
+            EmailPendente email = porMensagem.get(mensagem);
+            Exception erro = falhas.get(mensagem);
+
+            if (erro == null)
+            {
+                enviados.add(email.getId());
+                metricas.incrementar("grazy.email.enviados", "tenant", metricas.tenantTag(email.getTenantId()));
+                medicaoUso.registrar(email.getTenantId(), MetricaUsoEnum.EMAILS, 1);
+            }
+            else
+                falhar(email, erro, false);
+        }
+
+        if (!enviados.isEmpty())
+            emailPendenteRepository.marcarEnviados(enviados, Instant.now());
+
+        log.info("[EMAIL] Lote enviado: {} ok, {} com falha", enviados.size(), emails.size() - enviados.size());
+
+        return emails.size();
+    }
+
+    /**
+     * Apaga da fila os emails enviados ou descartados há mais de app.mail.fila.retencao-dias.
+     */
+    @Scheduled(cron = "0 37 3 * * *")
+    public void limpar()
+    {
+        int apagados = emailPendenteRepository.apagarFinalizados(Instant.now().minus(Duration.ofDays(retencaoDias)));
+
+        if (apagados > 0)
+            log.info("[EMAIL] {} email(s) finalizado(s) apagados da fila", apagados);
+    }
+
+    private void falhar(EmailPendente email, Exception erro, boolean definitivo)
+    {
+        int tentativas = email.getTentativas() + 1;
+        boolean esgotou = definitivo || tentativas >= maxTentativas;
+        StatusEmailEnum status = esgotou ? StatusEmailEnum.ERRO : StatusEmailEnum.PENDENTE;
+        Instant proxima = Instant.now().plusMillis(backoffInicialMs << Math.min(tentativas - 1, 16));
+
+        emailPendenteRepository.registrarFalha(email.getId(), status, proxima, Instant.now(), truncar(erro.getMessage()));
+        metricas.incrementar("grazy.email.falhas",
+            "tenant", metricas.tenantTag(email.getTenantId()),
+            "resultado", esgotou ? "descartado" : "reagendado");
+
+        if (esgotou)
+            log.error("[EMAIL] Email {} para {} descartado após {} tentativa(s): {}", email.getId(), email.getDestinatarios(), tentativas, erro.getMessage());
+        else
+            log.warn("[EMAIL] Falha ao enviar email {} (tentativa {}): {}", email.getId(), tentativas, erro.getMessage());
+    }
+
+    private EmailRequest toRequest(EmailPendente email)
+    {
+        EmailRequest req = new EmailRequest();
+        req.setTo(separar(email.getDestinatarios()));
+        req.setCc(separar(email.getCc()));
+        req.setBcc(separar(email.getBcc()));
+        req.setSubject(email.getAssunto());
+        req.setBody(email.getCorpo());
+        req.setHtml(email.isHtml());
+        return req;
+    }
+
+    private List<String> separar(String enderecos)
+    {
+        if (enderecos == null || enderecos.isBlank())
+            return null;
+
+        return Arrays.asList(enderecos.split(","));
+    }
+
+    private String truncar(String mensagem)
+    {
+        if (mensagem == null)
+            return null;
+
+        return mensagem.length() > TAMANHO_MAX_ERRO ? mensagem.substring(0, TAMANHO_MAX_ERRO) : mensagem;
+    }
+
+    @PreDestroy
+    public void encerrar()
+    {
+        executor.shutdown();
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.grazy_back.service;
 
 import com.example.grazy_back.dto.EmailRequest;
+import com.example.grazy_back.enums.TipoTemplateEnum;
+import com.example.grazy_back.model.EmailPendente;
+import com.example.grazy_back.repository.EmailPendenteRepository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
@@ -19,27 +24,83 @@ import jakarta.mail.internet.MimeMessage;
 @Service
 public class EmailService 
 {
+    private static final DateTimeFormatter DATA_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
     private final JavaMailSender mailSender;
+    private final EmailPendenteRepository emailPendenteRepository;
+    private final TemplateMensagemService templateService;
 
     @Value("${app.mail.from:}")
     private String fromAddress;
 
-    public EmailService(JavaMailSender mailSender) 
+    public EmailService(JavaMailSender mailSender, EmailPendenteRepository emailPendenteRepository,
+                        TemplateMensagemService templateService) 
     {
         this.mailSender = mailSender;
+        this.emailPendenteRepository = emailPendenteRepository;
+        this.templateService = templateService;
     }
 
+    /**
+     * Envia o email imediatamente (abre uma conexão SMTP por chamada).
+     * Para envios em background prefira {@link #enfileirar(EmailRequest)}.
+     */
     public void send(@NonNull EmailRequest req) throws MessagingException 
     {
-        if (req.getTo() == null || req.getTo().isEmpty())
-            throw new IllegalArgumentException("Lista de destinatários (to) é obrigatória");
+        validar(req);
+        mailSender.send(criarMensagem(req));
+    }
 
-        if (req.getSubject() == null)
-            throw new IllegalArgumentException("Subject é obrigatório");
+    /**
+     * Coloca o email na fila persistente. O envio é feito em lote pelo EmailFilaService,
+     * reaproveitando a conexão SMTP. Se chamado dentro de uma transação, o email só
+     * é enviado se ela for confirmada.
+     */
+    public EmailPendente enfileirar(@NonNull EmailRequest req)
+    {
+        return enfileirar(req, null);
+    }
 
-        if (req.getBody() == null)
-            throw new IllegalArgumentException("Body é obrigatório");
+    public EmailPendente enfileirar(@NonNull EmailRequest req, Long tenantId)
+    {
+        return emailPendenteRepository.save(criarPendente(req, tenantId));
+    }
 
+    /**
+     * Enfileira vários emails de uma vez (um único saveAll).
+     */
+    public List<EmailPendente> enfileirarTodos(@NonNull List<EmailPendente> emails)
+    {
+        return emailPendenteRepository.saveAll(emails);
+    }
+
+    /**
+     * Valida a requisição e monta o registro da fila, sem gravar.
+     */
+    public EmailPendente criarPendente(@NonNull EmailRequest req, Long tenantId)
+    {
+        validar(req);
+
+        Instant agora = Instant.now();
+        return EmailPendente.builder()
+            .tenantId(tenantId)
+            .destinatarios(juntar(req.getTo()))
+            .cc(juntar(req.getCc()))
+            .bcc(juntar(req.getBcc()))
+            .assunto(req.getSubject())
+            .corpo(req.getBody())
+            .html(req.isHtml())
+            .criadoEm(agora)
+            .atualizadoEm(agora)
+            .proximaTentativa(agora)
+            .build();
+    }
+
+    /**
+     * Monta a MimeMessage a partir da requisição (sem enviar).
+     */
+    public MimeMessage criarMensagem(@NonNull EmailRequest req) throws MessagingException
+    {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
 
@@ -57,11 +118,31 @@ public class EmailService
         helper.setSubject(req.getSubject());
         helper.setText(req.getBody(), req.isHtml());
 
-        mailSender.send(message);
+        return message;
+    }
+
+    private void validar(EmailRequest req)
+    {
+        if (req.getTo() == null || req.getTo().isEmpty())
+            throw new IllegalArgumentException("Lista de destinatários (to) é obrigatória");
+
+        if (req.getSubject() == null)
+            throw new IllegalArgumentException("Subject é obrigatório");
+
+        if (req.getBody() == null)
+            throw new IllegalArgumentException("Body é obrigatório");
+    }
+
+    private String juntar(List<String> enderecos)
+    {
+        if (enderecos == null || enderecos.isEmpty())
+            return null;
+
+        return String.join(",", enderecos);
     }
     
     /**
-     * Envia email de cobrança formatado
+     * Enfileira email de cobrança formatado
      */
     public void enviarEmailCobranca(
         String email, 
@@ -70,74 +151,23 @@ public class EmailService
         BigDecimal valor,
         LocalDate dataVencimento,
         String linkPagamento
-    ) throws MessagingException {
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        String dataFormatada = dataVencimento.format(formatter);
+    ) {
         
-        String html = String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <meta charset="UTF-8">
-                <style>
-                    body { font-family: Arial, sans-serif; background-color: #f4f4f4; margin: 0; padding: 20px; }
-                    .container { max-width: 600px; margin: 0 auto; background-color: white; border-radius: 8px; overflow: hidden; box-shadow: 0 2px 4px rgba(0,0,0,0.1); }
-                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; }
-                    .header h1 { margin: 0; font-size: 24px; }
-                    .content { padding: 30px; }
-                    .info-box { background-color: #f8f9fa; border-left: 4px solid #667eea; padding: 15px; margin: 20px 0; }
-                    .info-box strong { display: block; margin-bottom: 5px; color: #333; }
-                    .button { display: inline-block; background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; text-decoration: none; padding: 12px 30px; border-radius: 5px; margin: 20px 0; font-weight: bold; }
-                    .footer { background-color: #f8f9fa; padding: 20px; text-align: center; font-size: 12px; color: #666; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>💰 Mensalidade Disponível</h1>
-                    </div>
-                    <div class="content">
-                        <p>Olá <strong>%s</strong>,</p>
-                        <p>Sua mensalidade do <strong>%s</strong> está disponível para pagamento.</p>
-                        
-                        <div class="info-box">
-                            <strong>💵 Valor:</strong> R$ %.2f
-                            <br><br>
-                            <strong>📅 Vencimento:</strong> %s
-                        </div>
-                        
-                        <p style="text-align: center;">
-                            <a href="%s" class="button">Pagar Agora</a>
-                        </p>
-                        
-                        <p style="font-size: 14px; color: #666;">
-                            Clique no botão acima para ser redirecionado à página de pagamento segura do Mercado Pago.
-                        </p>
-                    </div>
-                    <div class="footer">
-                        <p>Este é um email automático. Em caso de dúvidas, entre em contato conosco.</p>
-                        <p>© %d %s - Todos os direitos reservados</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """,
-            nomeCliente,
-            nomeNegocio,
-            valor,
-            dataFormatada,
-            linkPagamento,
-            LocalDate.now().getYear(),
-            nomeNegocio
+        Map<String, Object> valores = TemplateCompilado.valores(
+            "nome", nomeCliente,
+            "negocio", nomeNegocio,
+            "valor", TemplateMensagemService.formatarValor(valor),
+            "vencimento", dataVencimento.format(DATA_FORMATTER),
+            "link", linkPagamento,
+            "ano", LocalDate.now().getYear()
         );
         
         EmailRequest emailRequest = new EmailRequest();
         emailRequest.setTo(List.of(email));
-        emailRequest.setSubject(String.format("Mensalidade %s - Pagamento Disponível", nomeNegocio));
-        emailRequest.setBody(html);
+        emailRequest.setSubject(templateService.renderizar(null, TipoTemplateEnum.COBRANCA_EMAIL_ASSUNTO, valores));
+        emailRequest.setBody(templateService.renderizar(null, TipoTemplateEnum.COBRANCA_EMAIL_CORPO, valores));
         emailRequest.setHtml(true);
         
-        send(emailRequest);
+        enfileirar(emailRequest);
     }
 }
@@ -0,0 +1,349 @@
+package com.example.grazy_back.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.grazy_back.config.RoteamentoSchema;
+import com.example.grazy_back.dto.EstatisticaAgendamentosResponse;
+import com.example.grazy_back.dto.GrupoTaxasAgendamentoItem;
+import com.example.grazy_back.dto.TaxasAgendamentoItem;
+import com.example.grazy_back.enums.StatusAgendamentoEnum;
+import com.example.grazy_back.model.Agendamento;
+import com.example.grazy_back.model.AgendamentoContagem;
+import com.example.grazy_back.model.Servico;
+import com.example.grazy_back.repository.AgendamentoContagemRepository;
+import com.example.grazy_back.repository.ServicoRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Taxas de finalização, cancelamento (inclusive em cima da hora) e falta por tenant, serviço,
+ * dia da semana e hora, para ajustar a antecedência mínima e o horário dos lembretes.
+ * Cada mudança de status soma um delta (estado novo - estado anterior) na contagem da hora
+ * do agendamento (agendamento_contagem), na mesma transação da mudança; as janelas de 7, 30
+ * e 90 dias somam só essas linhas, sem varrer os agendamentos.
+ */
+@Service
+@Slf4j
+public class EstatisticaAgendamentosService
+{
+    private static final int[] JANELAS_DIAS = {7, 30, 90};
+    private static final Duration EM_CIMA = Duration.ofHours(24);
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private final AgendamentoContagemRepository contagemRepository;
+    private final ServicoRepository servicoRepository;
+    private final MetricasService metricas;
+    private final RoteamentoSchema roteamento;
+
+    @Value("${app.agendamentos.estatisticas.retencao-dias:400}")
+    private int retencaoDias;
+
+    public EstatisticaAgendamentosService(AgendamentoContagemRepository contagemRepository,
+                                          ServicoRepository servicoRepository,
+                                          MetricasService metricas,
+                                          RoteamentoSchema roteamento)
+    {
+        this.contagemRepository = contagemRepository;
+        this.servicoRepository = servicoRepository;
+        this.metricas = metricas;
+        this.roteamento = roteamento;
+    }
+
+    /**
+     * O que da contagem depende do agendamento, copiado antes de uma mudança.
+     */
+    public record Estado(Long tenantId, LocalDateTime dataHora, Long servicoId,
+                         StatusAgendamentoEnum status, Instant canceladoEm, boolean notificado)
+    {
+        public static Estado de(Agendamento a)
+        {
+            return new Estado(a.getTenantId(), a.getDataHora(),
+                a.getServico() != null ? a.getServico().getId() : null,
+                a.getStatus(), a.getCanceledAt(), a.isNotificado());
+        }
+
+        boolean contavel()
+        {
+            return tenantId != null && dataHora != null && servicoId != null;
+        }
+
+        boolean mesmoHorario(Estado outro)
+        {
+            return tenantId.equals(outro.tenantId) && servicoId.equals(outro.servicoId)
+                && dataHora.toLocalDate().equals(outro.dataHora.toLocalDate())
+                && dataHora.getHour() == outro.dataHora.getHour();
+        }
+    }
+
+    /**
+     * Agendamento criado.
+     */
+    @Transactional
+    public void registrarCriacao(Agendamento agendamento)
+    {
+        registrarMudanca(null, agendamento);
+    }
+
+    /**
+     * Tira a contagem do estado anterior e soma a do atual. Deve rodar na mesma transação
+     * que gravou a mudança, com o agendamento travado (AgendamentoRepository.travar).
+     * @param antes estado antes da mudança, ou null para um agendamento novo
+     */
+    @Transactional
+    public void registrarMudanca(Estado antes, Agendamento agendamento)
+    {
+        Estado depois = Estado.de(agendamento);
+        Contagem delta = contagem(depois);
+
+        if (antes != null && antes.contavel())
+        {
+            if (depois.contavel() && antes.mesmoHorario(depois))
+            {
+                delta.subtrair(contagem(antes));
+            }
+            else
+            {
+                Contagem saida = new Contagem();
+                saida.subtrair(contagem(antes));
+                gravar(antes, saida);
+            }
+        }
+
+        if (depois.contavel())
+            gravar(depois, delta);
+    }
+
+    /**
+     * Taxas do tenant nas janelas de 7, 30 e 90 dias até hoje. Lê no máximo
+     * 90 dias × 24 horas × serviços linhas, qualquer que seja o volume de agendamentos.
+     */
+    public EstatisticaAgendamentosResponse taxas(Long tenantId)
+    {
+        LocalDate hoje = LocalDate.now();
+        int maiorJanela = JANELAS_DIAS[JANELAS_DIAS.length - 1];
+        List<AgendamentoContagem> linhas =
+            contagemRepository.findByTenantIdAndDiaBetween(tenantId, hoje.minusDays(maiorJanela - 1L), hoje);
+
+        Map<String, Contagem> geral = new LinkedHashMap<>();
+        Map<Long, Map<String, Contagem>> porServico = new HashMap<>();
+        Map<DayOfWeek, Map<String, Contagem>> porDiaSemana = new TreeMap<>();
+        Map<Integer, Map<String, Contagem>> porHora = new TreeMap<>();
+
+        for (AgendamentoContagem linha : linhas)
+        {
+            // Horário que ficou vazio depois de uma remarcação
+            if (linha.getAgendados() == 0)
+                continue;
+
+            long diasAtras = hoje.toEpochDay() - linha.getDia().toEpochDay();
+
+            for (int janela : JANELAS_DIAS)
+            {
+                if (diasAtras >= janela)
+                    continue;
+
+                String chave = janela + "d";
+                geral.computeIfAbsent(chave, k -> new Contagem()).somar(linha);
+                janelas(porServico, linha.getServicoId()).computeIfAbsent(chave, k -> new Contagem()).somar(linha);
+                janelas(porDiaSemana, linha.getDia().getDayOfWeek()).computeIfAbsent(chave, k -> new Contagem()).somar(linha);
+                janelas(porHora, linha.getHora()).computeIfAbsent(chave, k -> new Contagem()).somar(linha);
+            }
+        }
+
+        Map<Long, String> nomes = new HashMap<>();
+        for (Servico s : servicoRepository.findAllById(porServico.keySet()))
+            nomes.put(s.getId(), s.getNome());
+
+        List<GrupoTaxasAgendamentoItem> servicos = grupos(porServico, id -> String.valueOf(id), nomes::get);
+        servicos.sort((a, b) -> Integer.compare(agendados(b), agendados(a)));
+
+        return new EstatisticaAgendamentosResponse(
+            hoje,
+            taxas(geral),
+            servicos,
+            grupos(porDiaSemana, DayOfWeek::name, d -> d.getDisplayName(TextStyle.FULL, PT_BR)),
+            grupos(porHora, String::valueOf, h -> String.format("%02d:00", h)));
+    }
+
+    /**
+     * Apaga as contagens mais antigas que a retenção; as taxas só usam os últimos 90 dias.
+     */
+    @Scheduled(cron = "0 23 4 * * *")
+    public void limpar()
+    {
+        metricas.executarJob("agendamentos-contagem-limpeza", () -> roteamento.paraCadaSchema(() -> {
+            int apagadas = contagemRepository.removerAnteriores(LocalDate.now().minusDays(retencaoDias));
+
+            if (apagadas > 0)
+                log.debug("[AGENDAMENTOS] {} contagens antigas apagadas", apagadas);
+
+            return apagadas;
+        }));
+    }
+
+    private void gravar(Estado estado, Contagem c)
+    {
+        if (c.vazia())
+            return;
+
+        contagemRepository.somar(estado.tenantId(), estado.dataHora().toLocalDate(), estado.dataHora().getHour(),
+            estado.servicoId(), c.agendados, c.finalizados, c.cancelados, c.canceladosEmCima,
+            c.naoCompareceu, c.lembrados, c.naoCompareceuLembrados);
+    }
+
+    /**
+     * Quanto um agendamento neste estado soma na contagem do seu horário.
+     */
+    private static Contagem contagem(Estado e)
+    {
+        Contagem c = new Contagem();
+
+        if (!e.contavel())
+            return c;
+
+        c.agendados = 1;
+
+        switch (e.status())
+        {
+            case FINALIZADO ->
+            {
+                c.finalizados = 1;
+                c.lembrados = e.notificado() ? 1 : 0;
+            }
+            case CANCELADO ->
+            {
+                c.cancelados = 1;
+                c.canceladosEmCima = canceladoEmCima(e) ? 1 : 0;
+            }
+            case NAO_COMPARECEU ->
+            {
+                c.naoCompareceu = 1;
+                c.lembrados = e.notificado() ? 1 : 0;
+                c.naoCompareceuLembrados = c.lembrados;
+            }
+            default -> { }
+        }
+
+        return c;
+    }
+
+    private static boolean canceladoEmCima(Estado e)
+    {
+        if (e.canceladoEm() == null)
+            return false;
+
+        Instant horario = e.dataHora().atZone(ZoneId.systemDefault()).toInstant();
+        return !e.canceladoEm().isBefore(horario.minus(EM_CIMA));
+    }
+
+    private static <K> Map<String, Contagem> janelas(Map<K, Map<String, Contagem>> grupos, K chave)
+    {
+        return grupos.computeIfAbsent(chave, k -> new LinkedHashMap<>());
+    }
+
+    private static <K> List<GrupoTaxasAgendamentoItem> grupos(Map<K, Map<String, Contagem>> grupos,
+                                                              Function<K, String> chave, Function<K, String> nome)
+    {
+        List<GrupoTaxasAgendamentoItem> itens = new ArrayList<>(grupos.size());
+
+        grupos.forEach((k, janelas) -> itens.add(new GrupoTaxasAgendamentoItem(chave.apply(k), nome.apply(k), taxas(janelas))));
+
+        return itens;
+    }
+
+    private static Map<String, TaxasAgendamentoItem> taxas(Map<String, Contagem> janelas)
+    {
+        Map<String, TaxasAgendamentoItem> taxas = new LinkedHashMap<>();
+
+        for (int janela : JANELAS_DIAS)
+            taxas.put(janela + "d", janelas.getOrDefault(janela + "d", new Contagem()).taxas());
+
+        return taxas;
+    }
+
+    private static int agendados(GrupoTaxasAgendamentoItem grupo)
+    {
+        return grupo.janelas().values().stream().mapToInt(TaxasAgendamentoItem::agendados).max().orElse(0);
+    }
+
+    /**
+     * Contadores de uma linha de agendamento_contagem, usados como delta e como soma.
+     */
+    private static final class Contagem
+    {
+        int agendados;
+        int finalizados;
+        int cancelados;
+        int canceladosEmCima;
+        int naoCompareceu;
+        int lembrados;
+        int naoCompareceuLembrados;
+
+        void somar(AgendamentoContagem linha)
+        {
+            agendados += linha.getAgendados();
+            finalizados += linha.getFinalizados();
+            cancelados += linha.getCancelados();
+            canceladosEmCima += linha.getCanceladosEmCima();
+            naoCompareceu += linha.getNaoCompareceu();
+            lembrados += linha.getLembrados();
+            naoCompareceuLembrados += linha.getNaoCompareceuLembrados();
+        }
+
+        void subtrair(Contagem outra)
+        {
+            agendados -= outra.agendados;
+            finalizados -= outra.finalizados;
+            cancelados -= outra.cancelados;
+            canceladosEmCima -= outra.canceladosEmCima;
+            naoCompareceu -= outra.naoCompareceu;
+            lembrados -= outra.lembrados;
+            naoCompareceuLembrados -= outra.naoCompareceuLembrados;
+        }
+
+        boolean vazia()
+        {
+            return agendados == 0 && finalizados == 0 && cancelados == 0 && canceladosEmCima == 0
+                && naoCompareceu == 0 && lembrados == 0 && naoCompareceuLembrados == 0;
+        }
+
+        TaxasAgendamentoItem taxas()
+        {
+            int resolvidos = finalizados + cancelados + naoCompareceu;
+            int compareceriam = finalizados + naoCompareceu;
+
+            return new TaxasAgendamentoItem(
+                agendados, finalizados, cancelados, canceladosEmCima, naoCompareceu,
+                razao(finalizados, resolvidos),
+                razao(cancelados, resolvidos),
+                razao(canceladosEmCima, resolvidos),
+                razao(naoCompareceu, resolvidos),
+                razao(naoCompareceuLembrados, lembrados),
+                razao(naoCompareceu - naoCompareceuLembrados, compareceriam - lembrados));
+        }
+
+        private static Double razao(int parte, int total)
+        {
+            return total > 0 ? Math.round(parte * 10000.0 / total) / 10000.0 : null;
+        }
+    }
+}
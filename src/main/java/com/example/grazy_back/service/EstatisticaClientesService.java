@@ -0,0 +1,388 @@
+package com.example.grazy_back.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.grazy_back.config.RoteamentoSchema;
+import com.example.grazy_back.dto.ClienteBuscaItem;
+import com.example.grazy_back.dto.ClienteEstatisticaItem;
+import com.example.grazy_back.dto.Pagina;
+import com.example.grazy_back.dto.ServicoFrequenteItem;
+import com.example.grazy_back.dto.VisitaItem;
+import com.example.grazy_back.model.Agendamento;
+import com.example.grazy_back.model.ClienteEstatistica;
+import com.example.grazy_back.model.ClienteServicoEstatistica;
+import com.example.grazy_back.repository.AgendamentoRepository;
+import com.example.grazy_back.repository.ClienteEstatisticaRepository;
+import com.example.grazy_back.repository.ClienteRepository;
+import com.example.grazy_back.repository.ClienteServicoEstatisticaRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estatísticas de cada cliente: visitas, última visita, ticket médio, cadência, risco de
+ * churn e serviços preferidos. Cada agendamento finalizado soma uma visita no resumo do
+ * cliente (cliente_estatistica e cliente_servico_estatistica) na própria transação da
+ * finalização, com upsert atômico; nada é recalculado a partir do histórico. Os finalizados
+ * antes do resumo existir são somados em lotes pelo job.
+ */
+@Service
+@Slf4j
+public class EstatisticaClientesService
+{
+    private static final int TAMANHO_PADRAO = 20;
+    private static final int TAMANHO_MAXIMO = 100;
+    private static final int SERVICOS_POR_CLIENTE = 3;
+
+    // Visitas no mesmo dia ou quase não definem uma cadência realista
+    private static final double CADENCIA_MINIMA_DIAS = 7;
+
+    private final ClienteEstatisticaRepository estatisticaRepository;
+    private final ClienteServicoEstatisticaRepository servicoEstatisticaRepository;
+    private final AgendamentoRepository agendamentoRepository;
+    private final ClienteRepository clienteRepository;
+    private final MetricasService metricas;
+    private final RoteamentoSchema roteamento;
+    private final TransactionTemplate novaTransacao;
+
+    @Value("${app.clientes.estatisticas.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.clientes.estatisticas.lote:500}")
+    private int tamanhoLote;
+
+    @Value("${app.clientes.estatisticas.lotes-por-execucao:20}")
+    private int lotesPorExecucao;
+
+    // Em risco quando o tempo sem visita passa de fator × cadência
+    @Value("${app.clientes.estatisticas.fator-risco:1.5}")
+    private double fatorRisco;
+
+    // Cadência assumida para quem veio uma vez só
+    @Value("${app.clientes.estatisticas.cadencia-padrao-dias:30}")
+    private double cadenciaPadraoDias;
+
+    public EstatisticaClientesService(ClienteEstatisticaRepository estatisticaRepository,
+                                      ClienteServicoEstatisticaRepository servicoEstatisticaRepository,
+                                      AgendamentoRepository agendamentoRepository,
+                                      ClienteRepository clienteRepository,
+                                      MetricasService metricas,
+                                      RoteamentoSchema roteamento,
+                                      PlatformTransactionManager transactionManager)
+    {
+        this.estatisticaRepository = estatisticaRepository;
+        this.servicoEstatisticaRepository = servicoEstatisticaRepository;
+        this.agendamentoRepository = agendamentoRepository;
+        this.clienteRepository = clienteRepository;
+        this.metricas = metricas;
+        this.roteamento = roteamento;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Soma a visita de um agendamento que acabou de ser finalizado. Deve rodar na mesma
+     * transação que mudou o status (AgendamentoService.finalizar).
+     */
+    @Transactional
+    public void registrarVisita(Agendamento agendamento)
+    {
+        if (agendamento.getUsuario() == null)
+            return;
+
+        somar(List.of(new VisitaItem(
+            agendamento.getId(),
+            agendamento.getTenantId(),
+            agendamento.getUsuario().getId(),
+            agendamento.getServico() != null ? agendamento.getServico().getId() : null,
+            agendamento.getServico() != null ? agendamento.getServico().getPreco() : null,
+            agendamento.getDataHora(),
+            agendamento.getFinalizedAt())));
+    }
+
+    @Scheduled(fixedDelayString = "${app.clientes.estatisticas.intervalo-ms:300000}", initialDelay = 60_000)
+    public void contabilizarPendentes()
+    {
+        if (habilitado)
+            metricas.executarJob("clientes-estatisticas", () -> roteamento.paraCadaSchema(this::contabilizarSchema));
+    }
+
+    /**
+     * Soma os finalizados ainda não contabilizados, até lotesPorExecucao lotes por rodada.
+     * @return quantidade de visitas somadas
+     */
+    private int contabilizarSchema()
+    {
+        int somadas = 0;
+        long depoisDe = 0;
+
+        for (int i = 0; i < lotesPorExecucao; i++)
+        {
+            List<VisitaItem> lote = agendamentoRepository.visitasNaoContabilizadas(depoisDe, PageRequest.of(0, tamanhoLote));
+
+            if (lote.isEmpty())
+                break;
+
+            Integer resultado = novaTransacao.execute(status -> {
+                List<Long> ids = lote.stream().map(VisitaItem::id).toList();
+
+                // Só soma se marcou o lote inteiro; senão outro nó já está nele
+                if (agendamentoRepository.marcarContabilizados(ids, Instant.now()) != ids.size())
+                {
+                    status.setRollbackOnly();
+                    return 0;
+                }
+
+                somar(lote);
+                return lote.size();
+            });
+
+            somadas += resultado != null ? resultado : 0;
+            depoisDe = lote.get(lote.size() - 1).id();
+        }
+
+        if (somadas > 0)
+            log.info("[CLIENTES] {} visita(s) anteriores somadas nas estatísticas dos clientes", somadas);
+
+        return somadas;
+    }
+
+    /**
+     * Agrupa as visitas por cliente e por cliente + serviço: um upsert por grupo.
+     */
+    private void somar(List<VisitaItem> visitas)
+    {
+        Map<Long, Acumulado> porCliente = new LinkedHashMap<>();
+        Map<List<Long>, Acumulado> porServico = new LinkedHashMap<>();
+
+        for (VisitaItem v : visitas)
+        {
+            if (v.clienteId() == null || v.tenantId() == null)
+                continue;
+
+            LocalDateTime data = dataVisita(v);
+            double valor = v.preco() != null ? v.preco() : 0;
+
+            porCliente.computeIfAbsent(v.clienteId(), c -> new Acumulado(v.tenantId())).somar(valor, data);
+
+            if (v.servicoId() != null)
+                porServico.computeIfAbsent(List.of(v.clienteId(), v.servicoId()), c -> new Acumulado(v.tenantId())).somar(valor, data);
+        }
+
+        porCliente.forEach((clienteId, a) ->
+            estatisticaRepository.somarVisitas(clienteId, a.tenantId, a.visitas, a.valor, a.primeira, a.ultima));
+
+        porServico.forEach((chave, a) ->
+            servicoEstatisticaRepository.somarVisitas(a.tenantId, chave.get(0), chave.get(1), a.visitas, a.valor, a.ultima));
+
+        atualizarRisco(porCliente.keySet());
+        metricas.incrementar("grazy.clientes.estatisticas.visitas", visitas.size());
+    }
+
+    /**
+     * Mesclagem de clientes: soma os resumos dos duplicados no principal e apaga os deles.
+     * Chamado na transação da mesclagem, depois de os agendamentos mudarem de cliente.
+     */
+    @Transactional
+    public void mesclar(Long tenantId, Long principalId, Collection<Long> duplicados)
+    {
+        for (ClienteEstatistica e : estatisticaRepository.findAllById(duplicados))
+        {
+            if (e.getVisitas() > 0)
+                estatisticaRepository.somarVisitas(principalId, tenantId, e.getVisitas(), e.getValorTotal(),
+                    e.getPrimeiraVisita(), e.getUltimaVisita());
+        }
+
+        for (ClienteServicoEstatistica e : servicoEstatisticaRepository.findByClienteIdIn(duplicados))
+        {
+            if (e.getVisitas() > 0)
+                servicoEstatisticaRepository.somarVisitas(tenantId, principalId, e.getServicoId(), e.getVisitas(),
+                    e.getValorTotal(), e.getUltimaVisita());
+        }
+
+        servicoEstatisticaRepository.removerPorClientes(duplicados);
+        estatisticaRepository.deleteAllByIdInBatch(duplicados);
+        atualizarRisco(List.of(principalId));
+    }
+
+    /**
+     * Recalcula cadência e data de risco a partir do resumo já somado (sem ler agendamentos).
+     */
+    private void atualizarRisco(Collection<Long> clientes)
+    {
+        for (ClienteEstatistica e : estatisticaRepository.findAllById(clientes))
+        {
+            Double cadencia = null;
+
+            if (e.getVisitas() > 1 && e.getPrimeiraVisita() != null && e.getUltimaVisita() != null)
+            {
+                double dias = Duration.between(e.getPrimeiraVisita(), e.getUltimaVisita()).toMinutes() / 1440.0;
+                cadencia = Math.round(dias / (e.getVisitas() - 1) * 10) / 10.0;
+            }
+
+            e.setCadenciaDias(cadencia);
+            e.setRiscoEm(e.getUltimaVisita() == null ? null
+                : e.getUltimaVisita().plusMinutes(Math.round(cadenciaBase(cadencia) * fatorRisco * 1440)));
+        }
+    }
+
+    /**
+     * Clientes do tenant ordenados por valor gasto (padrão), visitas ou visita mais recente.
+     */
+    public Pagina<ClienteEstatisticaItem> listar(Long tenantId, String ordem, Integer pagina, Integer tamanho)
+    {
+        String campo = switch (ordem == null ? "" : ordem)
+        {
+            case "visitas" -> "visitas";
+            case "recentes" -> "ultimaVisita";
+            default -> "valorTotal";
+        };
+
+        PageRequest pedido = pedido(pagina, tamanho, Sort.by(Sort.Direction.DESC, campo).and(Sort.by("clienteId")));
+        return montarPagina(tenantId, estatisticaRepository.findByTenantId(tenantId, pedido));
+    }
+
+    /**
+     * Clientes a reativar: sumidos além de fator-risco × a cadência deles, os mais atrasados primeiro.
+     */
+    public Pagina<ClienteEstatisticaItem> paraReativar(Long tenantId, Integer pagina, Integer tamanho)
+    {
+        Slice<ClienteEstatistica> linhas = estatisticaRepository.findByTenantIdAndRiscoEmLessThanEqualOrderByRiscoEmAsc(
+            tenantId, LocalDateTime.now(), pedido(pagina, tamanho, Sort.unsorted()));
+
+        return montarPagina(tenantId, linhas);
+    }
+
+    /**
+     * Estatísticas de um cliente; zeradas se ele ainda não tem visita finalizada.
+     */
+    public Optional<ClienteEstatisticaItem> detalhar(Long tenantId, Long clienteId)
+    {
+        Optional<ClienteEstatistica> resumo = estatisticaRepository.findById(clienteId)
+            .filter(e -> tenantId.equals(e.getTenantId()));
+
+        if (resumo.isPresent())
+            return Optional.of(montar(tenantId, List.of(resumo.get())).get(0));
+
+        return clienteRepository.buscarParaBusca(clienteId, tenantId)
+            .map(c -> new ClienteEstatisticaItem(c.id(), c.nome(), c.telefone(), 0, 0, 0, null, null, null, 0, 0, List.of()));
+    }
+
+    private Pagina<ClienteEstatisticaItem> montarPagina(Long tenantId, Slice<ClienteEstatistica> linhas)
+    {
+        return new Pagina<>(montar(tenantId, linhas.getContent()), linhas.getNumber(), linhas.getSize(), linhas.hasNext());
+    }
+
+    private List<ClienteEstatisticaItem> montar(Long tenantId, List<ClienteEstatistica> linhas)
+    {
+        if (linhas.isEmpty())
+            return List.of();
+
+        List<Long> ids = linhas.stream().map(ClienteEstatistica::getClienteId).toList();
+
+        Map<Long, ClienteBuscaItem> clientes = clienteRepository.buscarParaBusca(ids, tenantId).stream()
+            .collect(Collectors.toMap(ClienteBuscaItem::id, Function.identity()));
+
+        Map<Long, List<ServicoFrequenteItem>> servicos = new HashMap<>();
+
+        for (ServicoFrequenteItem s : servicoEstatisticaRepository.porClientes(ids))
+        {
+            List<ServicoFrequenteItem> doCliente = servicos.computeIfAbsent(s.clienteId(), c -> new ArrayList<>());
+
+            if (doCliente.size() < SERVICOS_POR_CLIENTE)
+                doCliente.add(s);
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<ClienteEstatisticaItem> itens = new ArrayList<>(linhas.size());
+
+        for (ClienteEstatistica e : linhas)
+        {
+            ClienteBuscaItem cliente = clientes.get(e.getClienteId());
+            long diasSemVisita = e.getUltimaVisita() == null ? 0 : Math.max(0, ChronoUnit.DAYS.between(e.getUltimaVisita(), agora));
+            double ticket = e.getVisitas() > 0 ? e.getValorTotal() / e.getVisitas() : 0;
+            double risco = e.getUltimaVisita() == null ? 0 : diasSemVisita / cadenciaBase(e.getCadenciaDias());
+
+            itens.add(new ClienteEstatisticaItem(
+                e.getClienteId(),
+                cliente != null ? cliente.nome() : null,
+                cliente != null ? cliente.telefone() : null,
+                e.getVisitas(),
+                e.getValorTotal(),
+                Math.round(ticket * 100) / 100.0,
+                e.getPrimeiraVisita(),
+                e.getUltimaVisita(),
+                e.getCadenciaDias(),
+                diasSemVisita,
+                Math.round(risco * 100) / 100.0,
+                servicos.getOrDefault(e.getClienteId(), List.of())));
+        }
+
+        return itens;
+    }
+
+    private double cadenciaBase(Double cadencia)
+    {
+        return cadencia != null ? Math.max(cadencia, CADENCIA_MINIMA_DIAS) : cadenciaPadraoDias;
+    }
+
+    private static PageRequest pedido(Integer pagina, Integer tamanho, Sort ordem)
+    {
+        int t = tamanho == null || tamanho <= 0 ? TAMANHO_PADRAO : Math.min(tamanho, TAMANHO_MAXIMO);
+        return PageRequest.of(pagina == null || pagina < 0 ? 0 : pagina, t, ordem);
+    }
+
+    /**
+     * Data da visita: a marcada no agendamento (ou a da finalização, se faltar).
+     */
+    private static LocalDateTime dataVisita(VisitaItem v)
+    {
+        if (v.dataHora() != null)
+            return v.dataHora();
+
+        return LocalDateTime.ofInstant(v.finalizedAt() != null ? v.finalizedAt() : Instant.now(), ZoneId.systemDefault());
+    }
+
+    private static final class Acumulado
+    {
+        final Long tenantId;
+        int visitas;
+        double valor;
+        LocalDateTime primeira;
+        LocalDateTime ultima;
+
+        Acumulado(Long tenantId)
+        {
+            this.tenantId = tenantId;
+        }
+
+        void somar(double valor, LocalDateTime data)
+        {
+            this.visitas++;
+            this.valor += valor;
+            this.primeira = primeira == null || data.isBefore(primeira) ? data : primeira;
+            this.ultima = ultima == null || data.isAfter(ultima) ? data : ultima;
+        }
+    }
+}
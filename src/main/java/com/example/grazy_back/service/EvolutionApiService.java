@@ -2,6 +2,7 @@ package com.example.grazy_back.service;
 
 import com.example.grazy_back.dto.whatsapp.WhatsappConnectResponse;
 import com.example.grazy_back.dto.whatsapp.WhatsappStatusResponse;
+import com.example.grazy_back.enums.MetricaUsoEnum;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -29,16 +30,21 @@ public class EvolutionApiService {
     private final boolean enabled;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final MedicaoUsoService medicaoUso;
 
     public EvolutionApiService(
             @Value("${evolution.api.url:http://localhost:8080}") String apiUrl,
             @Value("${evolution.api.key:}") String apiKey,
-            @Value("${evolution.api.enabled:true}") boolean enabled) {
+            @Value("${evolution.api.enabled:true}") boolean enabled,
+            MetricasService metricasService,
+            MedicaoUsoService medicaoUso) {
         this.apiUrl = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
         this.apiKey = apiKey;
         this.enabled = enabled;
         this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(metricasService.interceptorHttp("evolution"));
         this.objectMapper = new ObjectMapper();
+        this.medicaoUso = medicaoUso;
         
         log.info("[EVOLUTION] Serviço inicializado - URL: {}, Enabled: {}", this.apiUrl, this.enabled);
     }
@@ -317,6 +323,7 @@ public class EvolutionApiService {
             
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, createHeaders());
             restTemplate.postForEntity(url, entity, String.class);
+            medicaoUso.registrar(tenantId, MetricaUsoEnum.MENSAGENS_WHATSAPP, 1);
             
             log.info("[EVOLUTION] Mensagem enviada para {} via instância {}", normalizedPhone, instanceName);
             return true;
@@ -331,19 +338,7 @@ public class EvolutionApiService {
      * Normaliza número de telefone para formato internacional
      */
     private String normalizePhoneNumber(String phone) {
-        String digits = phone.replaceAll("[^0-9]", "");
-        
-        // Remover 0 inicial se houver
-        if (digits.startsWith("0")) {
-            digits = digits.substring(1);
-        }
-        
-        // Adicionar código do Brasil se não tiver
-        if (digits.length() == 10 || digits.length() == 11) {
-            digits = "55" + digits;
-        }
-        
-        return digits;
+        return TelefoneUtil.internacional(phone);
     }
 
     /**
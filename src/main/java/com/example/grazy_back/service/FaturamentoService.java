@@ -0,0 +1,233 @@
+package com.example.grazy_back.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.grazy_back.dto.UsoCobrancaItem;
+import com.example.grazy_back.enums.MetricaUsoEnum;
+import com.example.grazy_back.enums.PlanoEnum;
+import com.example.grazy_back.enums.StatusPagamentoEnum;
+import com.example.grazy_back.enums.TipoItemPagamentoEnum;
+import com.example.grazy_back.model.Pagamento;
+import com.example.grazy_back.model.PagamentoItem;
+import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.model.UsoTenant;
+import com.example.grazy_back.repository.PagamentoItemRepository;
+import com.example.grazy_back.repository.PagamentoRepository;
+import com.example.grazy_back.repository.UsoTenantRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cálculo das cobranças mensais: a mensalidade do plano (PlanoEnum) mais o excedente do uso
+ * medido no mês anterior (uso_tenant) sobre a franquia do plano.
+ * Agendamentos não geram excedente: o limite do plano é rígido (MedicaoUsoService recusa o
+ * agendamento além dele), então uma diferença ali seria só atraso entre nós, não uso a cobrar.
+ * O uso dos tenants que vencem no dia é lido em uma única passada ordenada por tenant e
+ * agregado tenant a tenant; só os itens calculados ficam em memória.
+ */
+@Service
+@Slf4j
+public class FaturamentoService
+{
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+    private static final long BYTES_POR_MB = 1024L * 1024L;
+    private static final DateTimeFormatter MES = DateTimeFormatter.ofPattern("MM/yyyy");
+
+    private final UsoTenantRepository usoRepository;
+    private final PagamentoRepository pagamentoRepository;
+    private final PagamentoItemRepository itemRepository;
+    private final TransactionTemplate leitura;
+
+    // Preço de cada unidade além da franquia (imagens: por MB); métrica sem preço não é cobrada
+    private final Map<MetricaUsoEnum, Integer> precosExcedenteCentavos = new EnumMap<>(MetricaUsoEnum.class);
+
+    public FaturamentoService(UsoTenantRepository usoRepository,
+                              PagamentoRepository pagamentoRepository,
+                              PagamentoItemRepository itemRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.cobranca.excedente.whatsapp-centavos:8}") int whatsapp,
+                              @Value("${app.cobranca.excedente.email-centavos:1}") int email,
+                              @Value("${app.cobranca.excedente.imagem-mb-centavos:5}") int imagemMb)
+    {
+        this.usoRepository = usoRepository;
+        this.pagamentoRepository = pagamentoRepository;
+        this.itemRepository = itemRepository;
+
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+
+        precosExcedenteCentavos.put(MetricaUsoEnum.MENSAGENS_WHATSAPP, whatsapp);
+        precosExcedenteCentavos.put(MetricaUsoEnum.EMAILS, email);
+        precosExcedenteCentavos.put(MetricaUsoEnum.IMAGENS_BYTES, imagemMb);
+    }
+
+    /**
+     * Itens da cobrança do mês de referência de cada tenant (ainda não gravados).
+     * @param tenants tenants ativos com dia de pagamento entre diaInicio e diaFim
+     */
+    public Map<Long, List<PagamentoItem>> calcular(List<Tenant> tenants, YearMonth referencia, int diaInicio, int diaFim)
+    {
+        YearMonth mesUso = referencia.minusMonths(1);
+        Map<Long, Tenant> porId = tenants.stream().collect(Collectors.toMap(Tenant::getId, Function.identity()));
+        Map<Long, List<PagamentoItem>> faturas = new HashMap<>(tenants.size() * 2);
+
+        leitura.executeWithoutResult(status -> {
+            try (Stream<UsoCobrancaItem> usos = usoRepository.streamParaCobranca(UsoTenant.periodo(mesUso), diaInicio, diaFim))
+            {
+                agregar(usos.iterator(), porId, faturas, referencia, mesUso);
+            }
+        });
+
+        // Sem uso medido no mês: só a mensalidade
+        for (Tenant tenant : tenants)
+            faturas.computeIfAbsent(tenant.getId(), id -> itens(tenant, Map.of(), referencia, mesUso));
+
+        return faturas;
+    }
+
+    private void agregar(Iterator<UsoCobrancaItem> usos, Map<Long, Tenant> porId, Map<Long, List<PagamentoItem>> faturas,
+                         YearMonth referencia, YearMonth mesUso)
+    {
+        Long tenantAtual = null;
+        Map<MetricaUsoEnum, Long> uso = new EnumMap<>(MetricaUsoEnum.class);
+
+        while (usos.hasNext())
+        {
+            UsoCobrancaItem item = usos.next();
+
+            if (!item.tenantId().equals(tenantAtual))
+            {
+                fechar(tenantAtual, uso, porId, faturas, referencia, mesUso);
+                tenantAtual = item.tenantId();
+                uso.clear();
+            }
+
+            uso.merge(item.metrica(), item.quantidade(), Long::sum);
+        }
+
+        fechar(tenantAtual, uso, porId, faturas, referencia, mesUso);
+    }
+
+    private void fechar(Long tenantId, Map<MetricaUsoEnum, Long> uso, Map<Long, Tenant> porId,
+                        Map<Long, List<PagamentoItem>> faturas, YearMonth referencia, YearMonth mesUso)
+    {
+        // Tenant pode ter mudado de status ou de dia entre a lista e a leitura do uso
+        Tenant tenant = tenantId != null ? porId.get(tenantId) : null;
+
+        if (tenant != null)
+            faturas.put(tenantId, itens(tenant, uso, referencia, mesUso));
+    }
+
+    /**
+     * Mensalidade do plano e um item por métrica que passou da franquia.
+     */
+    List<PagamentoItem> itens(Tenant tenant, Map<MetricaUsoEnum, Long> uso, YearMonth referencia, YearMonth mesUso)
+    {
+        PlanoEnum plano = tenant.getPlano() != null ? tenant.getPlano() : PlanoEnum.BASICO;
+        List<PagamentoItem> itens = new ArrayList<>();
+
+        itens.add(item(TipoItemPagamentoEnum.PLANO, null, null,
+            "Plano " + plano.getNome() + " - " + referencia.format(MES), 1, plano.getPrecoCentavos()));
+
+        for (MetricaUsoEnum metrica : MetricaUsoEnum.values())
+        {
+            long quantidade = uso.getOrDefault(metrica, 0L);
+            long franquia = plano.franquia(metrica);
+            int precoCentavos = precosExcedenteCentavos.getOrDefault(metrica, 0);
+
+            if (franquia < 0 || precoCentavos <= 0 || quantidade <= franquia)
+                continue;
+
+            String descricao;
+            long unidades;
+
+            if (metrica == MetricaUsoEnum.IMAGENS_BYTES)
+            {
+                // MB iniciado conta inteiro
+                unidades = (quantidade - franquia + BYTES_POR_MB - 1) / BYTES_POR_MB;
+                descricao = String.format("Imagens além da franquia em %s: %d MB de %d MB",
+                    mesUso.format(MES), (quantidade + BYTES_POR_MB - 1) / BYTES_POR_MB, franquia / BYTES_POR_MB);
+            }
+            else
+            {
+                unidades = quantidade - franquia;
+                descricao = String.format("%s além da franquia em %s: %d de %d",
+                    metrica.getDescricao(), mesUso.format(MES), quantidade, franquia);
+            }
+
+            itens.add(item(TipoItemPagamentoEnum.EXCEDENTE, metrica, UsoTenant.periodo(mesUso), descricao, unidades, precoCentavos));
+        }
+
+        return itens;
+    }
+
+    /**
+     * Grava a cobrança com os itens; o valor é a soma deles.
+     */
+    @Transactional
+    public Pagamento registrar(Long tenantId, List<PagamentoItem> itens, YearMonth referencia, LocalDateTime vencimento)
+    {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setTenantId(tenantId);
+        pagamento.setValor(total(itens));
+        pagamento.setMesReferencia(referencia.getMonthValue());
+        pagamento.setAnoReferencia(referencia.getYear());
+        pagamento.setStatus(StatusPagamentoEnum.PENDENTE);
+        pagamento.setDataVencimento(vencimento);
+        pagamento.setDataCriacao(LocalDateTime.now());
+
+        pagamento = pagamentoRepository.save(pagamento);
+
+        for (PagamentoItem item : itens)
+            item.setPagamentoId(pagamento.getId());
+
+        itemRepository.saveAll(itens);
+
+        log.debug("[COBRANCA] Cobrança {} do tenant {}: {} item(ns), total {}", pagamento.getId(), tenantId, itens.size(), pagamento.getValor());
+        return pagamento;
+    }
+
+    public static BigDecimal total(List<PagamentoItem> itens)
+    {
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+
+        for (PagamentoItem item : itens)
+            total = total.add(item.getValor());
+
+        return total;
+    }
+
+    private static PagamentoItem item(TipoItemPagamentoEnum tipo, MetricaUsoEnum metrica, Integer periodoUso,
+                                      String descricao, long quantidade, int precoCentavos)
+    {
+        BigDecimal valorUnitario = BigDecimal.valueOf(precoCentavos).divide(CEM).setScale(2);
+
+        PagamentoItem item = new PagamentoItem();
+        item.setTipo(tipo);
+        item.setMetrica(metrica);
+        item.setPeriodoUso(periodoUso);
+        item.setDescricao(descricao);
+        item.setQuantidade(quantidade);
+        item.setValorUnitario(valorUnitario);
+        item.setValor(valorUnitario.multiply(BigDecimal.valueOf(quantidade)));
+        return item;
+    }
+}
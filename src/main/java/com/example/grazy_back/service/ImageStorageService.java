@@ -21,8 +21,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.grazy_back.enums.MetricaUsoEnum;
 import com.example.grazy_back.model.ImageMetadata;
 import com.example.grazy_back.repository.ImageMetadataRepository;
+import com.example.grazy_back.security.FiltroTenant;
 import com.example.grazy_back.security.TenantContext;
 
 @Service
@@ -31,13 +33,15 @@ public class ImageStorageService
 
     private final Path storageRoot;
     private final ImageMetadataRepository repo;
+    private final MedicaoUsoService medicaoUso;
     private final HttpClient httpClient = HttpClient.newBuilder()
             .followRedirects(HttpClient.Redirect.NORMAL)
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
     public ImageStorageService(@Value("${file.storage.location:uploads}") String storageLocation,
-            ImageMetadataRepository repo)
+            ImageMetadataRepository repo,
+            MedicaoUsoService medicaoUso)
     {
 
         Path candidate = Paths.get(storageLocation);
@@ -47,6 +51,7 @@ public class ImageStorageService
 
         this.storageRoot = candidate.toAbsolutePath().normalize();
         this.repo = repo;
+        this.medicaoUso = medicaoUso;
 
         try 
         {
@@ -79,7 +84,7 @@ public class ImageStorageService
         meta.setSize(file.getSize());
     meta.setForServico(Boolean.valueOf(forServico));
         meta.setCreatedAt(Instant.now());
-        return repo.save(meta);
+        return salvar(meta);
     }
 
     public ImageMetadata storeFromUrl(String urlString, boolean forServico) throws IOException, InterruptedException 
@@ -121,7 +126,17 @@ public class ImageStorageService
         meta.setSourceUrl(urlString);
     meta.setForServico(Boolean.valueOf(forServico));
         meta.setCreatedAt(Instant.now());
-        return repo.save(meta);
+        return salvar(meta);
+    }
+
+    private ImageMetadata salvar(ImageMetadata meta)
+    {
+        ImageMetadata salvo = repo.save(meta);
+
+        if (salvo.getSize() != null)
+            medicaoUso.registrar(salvo.getTenantId(), MetricaUsoEnum.IMAGENS_BYTES, salvo.getSize());
+
+        return salvo;
     }
 
     private void validateImage(String contentType)
@@ -163,42 +178,27 @@ public class ImageStorageService
 
     public List<String> listAllStoredFilenames() 
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
-        
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            return repo.findAllByForServicoFalse().stream()
-                .map(img -> img.getStoredFilename())
-                .collect(Collectors.toList());
-        }
-        
-        return repo.findByTenantIdAndForServicoFalse(tenantId).stream()
+        return listAllImages().stream()
             .map(img -> img.getStoredFilename())
             .collect(Collectors.toList());
     }
 
     public List<ImageMetadata> listAllImages() 
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
+        // Mantido: GET público em host sem tenant não tem filtro e listaria as imagens de todos
+        if (FiltroTenant.semEscopo())
+            return List.of();
         
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            return repo.findAllByForServicoFalse();
-        }
-        
-        return repo.findByTenantIdAndForServicoFalse(tenantId);
+        return repo.findAllByForServicoFalse();
     }
 
     public List<ImageMetadata> listLandingImages() 
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
+        // Mantido pelo mesmo motivo de listAllImages
+        if (FiltroTenant.semEscopo())
+            return List.of();
         
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            return repo.findAllByForServicoFalseAndExibirLandingTrueOrderByOrdemLandingAsc();
-        }
-        
-        return repo.findByTenantIdAndForServicoFalseAndExibirLandingTrueOrderByOrdemLandingAsc(tenantId);
+        return repo.findAllByForServicoFalseAndExibirLandingTrueOrderByOrdemLandingAsc();
     }
 
     public ImageMetadata updateMetadata(String storedFilename, java.util.Map<String, Object> body) 
@@ -237,14 +237,11 @@ public class ImageStorageService
 
     public void updateLandingOrder(List<String> storedFilenames) 
     {
-        for (int i = 0; i < storedFilenames.size(); i++) {
-            Optional<ImageMetadata> opt = repo.findByStoredFilename(storedFilenames.get(i));
-            if (opt.isPresent()) {
-                ImageMetadata meta = opt.get();
-                meta.setOrdemLanding(i);
-                repo.save(meta);
-            }
-        }
+        if (storedFilenames == null || storedFilenames.isEmpty())
+            return;
+
+        // Um UPDATE ... CASE; o filtro de tenant restringe às imagens do tenant
+        repo.atualizarOrdemLanding(storedFilenames);
     }
 
     public boolean deleteByStoredFilename(String storedFilename) throws IOException 
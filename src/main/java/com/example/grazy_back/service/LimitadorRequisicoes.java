@@ -0,0 +1,41 @@
+package com.example.grazy_back.service;
+
+/**
+ * Baldes de tokens do LimiteRequisicoesFilter, um por chave (IP ou tenant).
+ * Implementações: local (padrão, por nó) e redis (limite compartilhado pelo cluster).
+ * Escolhido por app.limite-requisicoes.backend.
+ */
+public interface LimitadorRequisicoes 
+{
+    /**
+     * Consome um token do balde da chave.
+     * @return 0 se liberado; senão, nanossegundos até haver token disponível
+     */
+    long consumir(String chave, Limite limite);
+
+    /**
+     * Vazão sustentada e tamanho da rajada aceita de uma vez.
+     */
+    record Limite(double porSegundo, int rajada) 
+    {
+        public Limite
+        {
+            // intervaloNanos divide pela vazão
+            if (!(porSegundo > 0) || Double.isInfinite(porSegundo))
+                throw new IllegalArgumentException("Vazão do limite de requisições deve ser positiva: " + porSegundo);
+        }
+
+        public long intervaloNanos()
+        {
+            return (long) (1_000_000_000L / porSegundo);
+        }
+
+        /**
+         * Quanto o balde pode "adiantar" além do instante atual: rajada - 1 intervalos.
+         */
+        public long toleranciaNanos()
+        {
+            return intervaloNanos() * (Math.max(rajada, 1) - 1);
+        }
+    }
+}
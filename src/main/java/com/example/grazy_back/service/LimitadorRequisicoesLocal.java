@@ -0,0 +1,52 @@
+package com.example.grazy_back.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Baldes em memória, por nó. Cada balde é um único AtomicLong com o instante teórico da
+ * próxima chegada (GCRA, equivalente a um balde de tokens): consumir é um compareAndSet,
+ * sem lock. O mapa é limitado em quantidade de chaves e descarta as ociosas, para que
+ * uma varredura com muitos IPs não esgote a memória.
+ */
+@Component
+@ConditionalOnProperty(name = "app.limite-requisicoes.backend", havingValue = "local", matchIfMissing = true)
+public class LimitadorRequisicoesLocal implements LimitadorRequisicoes 
+{
+    private final Cache<String, AtomicLong> baldes;
+
+    public LimitadorRequisicoesLocal(@Value("${app.limite-requisicoes.max-chaves:100000}") long maxChaves) 
+    {
+        this.baldes = Caffeine.newBuilder()
+            .maximumSize(maxChaves)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    }
+
+    @Override
+    public long consumir(String chave, Limite limite) 
+    {
+        long agora = System.nanoTime();
+        AtomicLong proximaChegada = baldes.get(chave, k -> new AtomicLong(agora));
+
+        while (true)
+        {
+            long atual = proximaChegada.get();
+            long base = Math.max(atual, agora);
+            long espera = base - agora - limite.toleranciaNanos();
+
+            if (espera > 0)
+                return espera;
+
+            if (proximaChegada.compareAndSet(atual, base + limite.intervaloNanos()))
+                return 0;
+        }
+    }
+}
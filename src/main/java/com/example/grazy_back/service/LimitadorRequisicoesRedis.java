@@ -0,0 +1,79 @@
+package com.example.grazy_back.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Baldes no Redis, compartilhados por todos os nós: o mesmo GCRA do limitador local em um
+ * script Lua (uma ida ao Redis por chave), com o relógio do próprio Redis.
+ * Se o Redis falhar, cai para os baldes locais em vez de bloquear ou liberar tudo.
+ */
+@Component
+@ConditionalOnProperty(name = "app.limite-requisicoes.backend", havingValue = "redis")
+public class LimitadorRequisicoesRedis implements LimitadorRequisicoes 
+{
+    private static final Logger log = LoggerFactory.getLogger(LimitadorRequisicoesRedis.class);
+
+    // Tempos em microssegundos; devolve a espera (0 = liberado)
+    private static final DefaultRedisScript<Long> SCRIPT = new DefaultRedisScript<>("""
+        local t = redis.call('TIME')
+        local agora = tonumber(t[1]) * 1000000 + tonumber(t[2])
+        local proxima = tonumber(redis.call('GET', KEYS[1]) or '0')
+        if proxima < agora then proxima = agora end
+        local espera = proxima - agora - tonumber(ARGV[2])
+        if espera > 0 then return espera end
+        local nova = proxima + tonumber(ARGV[1])
+        redis.call('SET', KEYS[1], string.format('%.0f', nova), 'PX', math.ceil((nova - agora) / 1000) + 1000)
+        return 0
+        """, Long.class);
+
+    private static final long AVISO_INTERVALO_MS = 60_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final LimitadorRequisicoesLocal local;
+    private final String prefixo;
+    private volatile long ultimoAviso;
+
+    public LimitadorRequisicoesRedis(
+        RedisConnectionFactory connectionFactory,
+        @Value("${app.limite-requisicoes.redis.prefixo:grazy:limite:}") String prefixo,
+        @Value("${app.limite-requisicoes.max-chaves:100000}") long maxChaves
+    )
+    {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.local = new LimitadorRequisicoesLocal(maxChaves);
+        this.prefixo = prefixo;
+    }
+
+    @Override
+    public long consumir(String chave, Limite limite) 
+    {
+        try
+        {
+            Long espera = redisTemplate.execute(SCRIPT, List.of(prefixo + chave),
+                String.valueOf(limite.intervaloNanos() / 1000), String.valueOf(limite.toleranciaNanos() / 1000));
+
+            return espera == null ? 0 : espera * 1000;
+        }
+        catch (Exception e)
+        {
+            long agora = System.currentTimeMillis();
+
+            if (agora - ultimoAviso > AVISO_INTERVALO_MS)
+            {
+                ultimoAviso = agora;
+                log.warn("[LIMITE] Redis indisponível, usando limites locais: {}", e.getMessage());
+            }
+
+            return local.consumir(chave, limite);
+        }
+    }
+}
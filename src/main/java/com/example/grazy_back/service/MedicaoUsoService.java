@@ -0,0 +1,330 @@
+package com.example.grazy_back.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.grazy_back.GrazyBackApplication;
+import com.example.grazy_back.dto.UsoMetricaItem;
+import com.example.grazy_back.dto.UsoTenantResponse;
+import com.example.grazy_back.enums.MetricaUsoEnum;
+import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.model.UsoTenant;
+import com.example.grazy_back.repository.TenantRepository;
+import com.example.grazy_back.repository.UsoTenantRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Medição do uso de cada tenant por mês (agendamentos, mensagens de WhatsApp, emails, bytes
+ * de imagens) e aplicação dos limites do plano.
+ * Os eventos só somam em um acumulador em memória (tenant, mês, métrica); de tempos em tempos
+ * tudo é gravado em uso_tenant com um upsert por acumulador. A verificação de limite é O(1):
+ * o total já gravado (em cache, lido uma vez por tenant e mês) mais o pendente deste nó.
+ * Entre nós o limite é aproximado: o que outro nó ainda não gravou só aparece depois da
+ * próxima gravação e da expiração do cache.
+ */
+@Service
+@Slf4j
+public class MedicaoUsoService
+{
+    private final UsoTenantRepository usoRepository;
+    private final TenantRepository tenantRepository;
+    private final MetricasService metricas;
+    private final TransactionTemplate novaTransacao;
+
+    // Ainda não gravado
+    private final Map<Chave, Long> pendentes = new ConcurrentHashMap<>();
+
+    // Total gravado em uso_tenant no mês, por tenant
+    private final Cache<Mes, Map<MetricaUsoEnum, AtomicLong>> gravados;
+
+    // Leitura do gravado (leitura) x gravação do lote até sair do pendente (escrita): uma leitura
+    // feita depois do commit e antes de o lote sair do pendente contaria o lote duas vezes
+    private final ReadWriteLock gravacao = new ReentrantReadWriteLock();
+
+    public MedicaoUsoService(UsoTenantRepository usoRepository,
+                             TenantRepository tenantRepository,
+                             MetricasService metricas,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.uso.cache-segundos:60}") long cacheSegundos)
+    {
+        this.usoRepository = usoRepository;
+        this.tenantRepository = tenantRepository;
+        this.metricas = metricas;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.gravados = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofSeconds(cacheSegundos))
+            .build();
+    }
+
+    private record Mes(Long tenantId, int periodo) {}
+
+    private record Chave(Long tenantId, int periodo, MetricaUsoEnum metrica) {}
+
+    /**
+     * Limite do plano atingido no mês.
+     */
+    public static class LimiteExcedidoException extends RuntimeException
+    {
+        public LimiteExcedidoException(String message)
+        {
+            super(message);
+        }
+    }
+
+    /**
+     * Registra um evento de uso no mês corrente.
+     */
+    public void registrar(Long tenantId, MetricaUsoEnum metrica, long quantidade)
+    {
+        if (tenantId == null || quantidade <= 0)
+            return;
+
+        pendentes.merge(new Chave(tenantId, periodoAtual(), metrica), quantidade, Long::sum);
+    }
+
+    /**
+     * Registra uma unidade se o uso do mês ainda não chegou ao limite. Dentro de uma transação,
+     * a unidade é devolvida se a transação for desfeita.
+     * @param limite limite do mês; negativo = ilimitado
+     * @return false se o limite já foi atingido (nada é registrado)
+     */
+    public boolean consumir(Long tenantId, MetricaUsoEnum metrica, long limite)
+    {
+        if (tenantId == null)
+            return true;
+
+        int periodo = periodoAtual();
+        Chave chave = new Chave(tenantId, periodo, metrica);
+
+        if (limite < 0)
+        {
+            pendentes.merge(chave, 1L, Long::sum);
+            devolverSeDesfeita(chave);
+            return true;
+        }
+
+        long jaGravado = gravado(tenantId, periodo, metrica);
+        boolean[] permitido = {false};
+
+        // compute é atômico por chave: duas reservas simultâneas não passam as duas do limite
+        pendentes.compute(chave, (k, pendente) -> {
+            long atual = pendente != null ? pendente : 0;
+
+            if (jaGravado + atual >= limite)
+                return pendente;
+
+            permitido[0] = true;
+            return atual + 1;
+        });
+
+        if (permitido[0])
+            devolverSeDesfeita(chave);
+        else
+            metricas.incrementar("grazy.uso.limite.recusados", "metrica", metrica.name());
+
+        return permitido[0];
+    }
+
+    /**
+     * Reserva feita dentro de uma transação que depois falhou (ex: erro ao gravar o agendamento)
+     * não pode gastar a franquia do tenant. Se a unidade já foi gravada, o pendente fica negativo
+     * e a próxima gravação desconta.
+     */
+    private void devolverSeDesfeita(Chave chave)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+        {
+            @Override
+            public void afterCompletion(int status)
+            {
+                if (status == STATUS_ROLLED_BACK)
+                    pendentes.merge(chave, -1L, (atual, menos) -> atual + menos == 0 ? null : atual + menos);
+            }
+        });
+    }
+
+    /**
+     * Reserva um agendamento dentro do limite mensal do plano do tenant.
+     * @return false se o tenant atingiu o limite do mês
+     */
+    public boolean consumirAgendamento(Long tenantId)
+    {
+        if (tenantId == null)
+            return true;
+
+        // Tenant vem do cache de segundo nível
+        Tenant tenant = tenantRepository.findById(tenantId).orElse(null);
+
+        if (tenant == null)
+            return true;
+
+        long limite = limiteAgendamentos(tenant);
+
+        if (consumir(tenantId, MetricaUsoEnum.AGENDAMENTOS, limite))
+            return true;
+
+        log.warn("[USO] Tenant {} atingiu o limite de {} agendamentos no mês", tenant.getSubdominio(), limite);
+        return false;
+    }
+
+    public static long limiteAgendamentos(Tenant tenant)
+    {
+        if (tenant.getLimiteAgendamentosMes() != null)
+            return tenant.getLimiteAgendamentosMes();
+
+        return tenant.getPlano() != null ? tenant.getPlano().getLimiteAgendamentosMes() : -1;
+    }
+
+    /**
+     * Uso do tenant no mês: o gravado mais o que este nó ainda não gravou.
+     */
+    public Map<MetricaUsoEnum, Long> usoDoPeriodo(Long tenantId, YearMonth mes)
+    {
+        int periodo = UsoTenant.periodo(mes);
+        Map<MetricaUsoEnum, Long> uso = new EnumMap<>(MetricaUsoEnum.class);
+
+        for (MetricaUsoEnum metrica : MetricaUsoEnum.values())
+            uso.put(metrica, 0L);
+
+        for (UsoTenant linha : usoRepository.findByTenantIdAndPeriodo(tenantId, periodo))
+            uso.merge(linha.getMetrica(), linha.getQuantidade(), Long::sum);
+
+        pendentes.forEach((chave, quantidade) -> {
+            if (chave.tenantId().equals(tenantId) && chave.periodo() == periodo)
+                uso.merge(chave.metrica(), quantidade, Long::sum);
+        });
+
+        return uso;
+    }
+
+    /**
+     * Uso do tenant no mês com os limites do plano, para o super admin.
+     */
+    public UsoTenantResponse relatorio(Long tenantId, YearMonth mes)
+    {
+        Tenant tenant = tenantRepository.findById(tenantId)
+            .orElseThrow(() -> new IllegalArgumentException("Tenant não encontrado: " + tenantId));
+
+        List<UsoMetricaItem> metricas = new ArrayList<>();
+
+        usoDoPeriodo(tenantId, mes).forEach((metrica, quantidade) -> metricas.add(new UsoMetricaItem(
+            metrica, metrica.getDescricao(), quantidade,
+            metrica == MetricaUsoEnum.AGENDAMENTOS ? limiteAgendamentos(tenant) : null)));
+
+        return new UsoTenantResponse(tenantId, mes, tenant.getPlano(), metricas);
+    }
+
+    @Scheduled(fixedDelayString = "${app.uso.gravacao-ms:10000}", initialDelay = 10_000)
+    public void gravarPendentes()
+    {
+        if (pendentes.isEmpty())
+            return;
+
+        Map<Chave, Long> lote = new HashMap<>(pendentes);
+        Instant agora = Instant.now();
+
+        // Nenhum gravado é lido do banco entre o commit e a saída do lote do pendente
+        gravacao.writeLock().lock();
+
+        try
+        {
+            try
+            {
+                novaTransacao.executeWithoutResult(status ->
+                    lote.forEach((chave, quantidade) ->
+                        usoRepository.somar(chave.tenantId(), chave.periodo(), chave.metrica().name(), quantidade, agora)));
+            }
+            catch (Exception e)
+            {
+                // Continua pendente para a próxima rodada
+                log.warn("[USO] Falha ao gravar uso de {} acumulador(es): {}", lote.size(), e.getMessage());
+                return;
+            }
+
+            lote.forEach((chave, quantidade) -> {
+                // Soma no gravado antes de tirar do pendente: no intervalo o uso aparece a mais, nunca a menos
+                Map<MetricaUsoEnum, AtomicLong> totais = gravados.getIfPresent(new Mes(chave.tenantId(), chave.periodo()));
+
+                if (totais != null)
+                    totais.computeIfAbsent(chave.metrica(), m -> new AtomicLong()).addAndGet(quantidade);
+
+                pendentes.computeIfPresent(chave, (k, pendente) -> pendente - quantidade == 0 ? null : pendente - quantidade);
+            });
+        }
+        finally
+        {
+            gravacao.writeLock().unlock();
+        }
+
+        metricas.incrementar("grazy.uso.gravados", lote.size());
+        log.debug("[USO] Uso de {} acumulador(es) gravado", lote.size());
+    }
+
+    @PreDestroy
+    public void encerrar()
+    {
+        gravarPendentes();
+    }
+
+    private long gravado(Long tenantId, int periodo, MetricaUsoEnum metrica)
+    {
+        Mes chave = new Mes(tenantId, periodo);
+        Map<MetricaUsoEnum, AtomicLong> totais = gravados.getIfPresent(chave);
+
+        if (totais == null)
+        {
+            // Leitura do banco só fora da janela de gravação (ver gravarPendentes)
+            gravacao.readLock().lock();
+
+            try
+            {
+                totais = gravados.get(chave, mes -> {
+                    Map<MetricaUsoEnum, AtomicLong> lidos = new ConcurrentHashMap<>();
+
+                    for (UsoTenant linha : usoRepository.findByTenantIdAndPeriodo(mes.tenantId(), mes.periodo()))
+                        lidos.put(linha.getMetrica(), new AtomicLong(linha.getQuantidade()));
+
+                    return lidos;
+                });
+            }
+            finally
+            {
+                gravacao.readLock().unlock();
+            }
+        }
+
+        AtomicLong total = totais.get(metrica);
+        return total != null ? total.get() : 0;
+    }
+
+    private static int periodoAtual()
+    {
+        return UsoTenant.periodo(YearMonth.now(GrazyBackApplication.ZONA));
+    }
+}
@@ -1,25 +1,33 @@
 package com.example.grazy_back.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import com.example.grazy_back.dto.PagamentoResponse;
 import com.example.grazy_back.enums.StatusPagamentoEnum;
 import com.example.grazy_back.model.Pagamento;
+import com.example.grazy_back.model.PagamentoItem;
 import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.repository.PagamentoItemRepository;
 import com.example.grazy_back.repository.PagamentoRepository;
 import com.example.grazy_back.repository.TenantRepository;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -35,8 +43,10 @@ public class MercadoPagoService {
     
     private final PagamentoRepository pagamentoRepository;
     private final TenantRepository tenantRepository;
+    private final PagamentoItemRepository pagamentoItemRepository;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transacao;
     
     @Value("${mercadopago.access.token:}")
     private String accessToken;
@@ -52,13 +62,37 @@ public class MercadoPagoService {
     
     public MercadoPagoService(
         PagamentoRepository pagamentoRepository,
-        TenantRepository tenantRepository
+        TenantRepository tenantRepository,
+        PagamentoItemRepository pagamentoItemRepository,
+        MetricasService metricasService,
+        RestTemplateBuilder restTemplateBuilder,
+        PlatformTransactionManager transactionManager,
+        @Value("${mercadopago.timeout.conexao-ms:5000}") long timeoutConexaoMs,
+        @Value("${mercadopago.timeout.leitura-ms:15000}") long timeoutLeituraMs
     ) 
     {
         this.pagamentoRepository = pagamentoRepository;
         this.tenantRepository = tenantRepository;
-        this.restTemplate = new RestTemplate();
+        this.pagamentoItemRepository = pagamentoItemRepository;
+
+        // Sem timeout uma chamada travada prende o scheduler/worker para sempre
+        this.restTemplate = restTemplateBuilder
+            .connectTimeout(Duration.ofMillis(timeoutConexaoMs))
+            .readTimeout(Duration.ofMillis(timeoutLeituraMs))
+            .additionalInterceptors(metricasService.interceptorHttp("mercadopago"))
+            .build();
         this.objectMapper = new ObjectMapper();
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+    
+    private static Map<String, Object> itemPreferencia(String titulo, BigDecimal valor)
+    {
+        Map<String, Object> item = new HashMap<>();
+        item.put("title", titulo);
+        item.put("quantity", 1);
+        item.put("unit_price", valor.doubleValue());
+        item.put("currency_id", "BRL");
+        return item;
     }
     
     /**
@@ -84,17 +118,25 @@ public class MercadoPagoService {
             // Monta o body da requisição
             Map<String, Object> preference = new HashMap<>();
             
-            // Items
-            Map<String, Object> item = new HashMap<>();
-            item.put("title", String.format("Mensalidade %s - %02d/%d", 
-                tenant.getNomeNegocio(), 
-                pagamento.getMesReferencia(), 
-                pagamento.getAnoReferencia()));
-            item.put("quantity", 1);
-            item.put("unit_price", pagamento.getValor().doubleValue());
-            item.put("currency_id", "BRL");
+            // Items: os da cobrança (mensalidade e excedentes) ou um item com o valor total
+            List<Map<String, Object>> items = new ArrayList<>();
+            
+            for (PagamentoItem itemCobranca : pagamentoItemRepository.findByPagamentoIdOrderByIdAsc(pagamento.getId()))
+            {
+                // Quantidade 1 com o valor do item: o total bate centavo a centavo com o da cobrança
+                if (itemCobranca.getValor().signum() > 0)
+                    items.add(itemPreferencia(itemCobranca.getDescricao(), itemCobranca.getValor()));
+            }
+            
+            if (items.isEmpty())
+            {
+                items.add(itemPreferencia(String.format("Mensalidade %s - %02d/%d", 
+                    tenant.getNomeNegocio(), 
+                    pagamento.getMesReferencia(), 
+                    pagamento.getAnoReferencia()), pagamento.getValor()));
+            }
             
-            preference.put("items", new Object[]{item});
+            preference.put("items", items);
             
             // Payer (dados do tenant)
             Map<String, Object> payer = new HashMap<>();
@@ -168,44 +210,38 @@ public class MercadoPagoService {
     }
     
     /**
-     * Processa notificação de webhook do Mercado Pago
+     * Busca o pagamento no Mercado Pago e aplica o status ao Pagamento local.
+     * Chamado pelos workers do webhook; falhas de comunicação são propagadas
+     * para que o evento seja reprocessado com backoff.
      */
-    public void processarWebhook(String type, String dataId) 
+    public void sincronizarPagamento(String mercadoPagoId) throws Exception
     {
-        try 
+        JsonNode payment = buscarPagamento(mercadoPagoId);
+
+        String status = payment.path("status").asText(null);
+        String externalReference = payment.hasNonNull("external_reference") ? 
+            payment.get("external_reference").asText() : null;
+        
+        if (externalReference == null || externalReference.isBlank()) 
         {
-            if (!"payment".equals(type)) 
-            {
-                log.info("[MERCADOPAGO] Webhook ignorado, tipo: {}", type);
-                return;
-            }
-            
-            // Busca informações do pagamento
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-            HttpEntity<Void> request = new HttpEntity<>(headers);
-            
-            String url = apiUrl + "/v1/payments/" + dataId;
-            ResponseEntity<String> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                request,
-                String.class
-            );
-            
-            JsonNode payment = objectMapper.readTree(response.getBody());
-            
-            String status = payment.get("status").asText();
-            String externalReference = payment.has("external_reference") ? 
-                payment.get("external_reference").asText() : null;
-            
-            if (externalReference == null) 
-            {
-                log.warn("[MERCADOPAGO] Webhook sem external_reference");
-                return;
-            }
-            
-            Long pagamentoId = Long.parseLong(externalReference);
+            log.warn("[MERCADOPAGO] Pagamento {} sem external_reference", mercadoPagoId);
+            return;
+        }
+        
+        Long pagamentoId;
+
+        try
+        {
+            pagamentoId = Long.parseLong(externalReference);
+        }
+        catch (NumberFormatException e)
+        {
+            log.warn("[MERCADOPAGO] external_reference inválida: {}", externalReference);
+            return;
+        }
+
+        // Leitura, transição e gravação na mesma transação; a chamada HTTP fica fora dela
+        transacao.executeWithoutResult(tx -> {
             Pagamento pagamento = pagamentoRepository.findById(pagamentoId).orElse(null);
             
             if (pagamento == null) 
@@ -214,40 +250,84 @@ public class MercadoPagoService {
                 return;
             }
             
-            // Atualiza status
-            pagamento.setMercadoPagoId(dataId);
-            
-            switch (status) 
+            if (aplicarStatus(pagamento, mercadoPagoId, StatusPagamentoEnum.fromMercadoPago(status)))
             {
-                case "approved":
-                    pagamento.setStatus(StatusPagamentoEnum.APROVADO);
-                    pagamento.setDataPagamento(LocalDateTime.now());
-                    break;
-                case "rejected":
-                    pagamento.setStatus(StatusPagamentoEnum.REJEITADO);
-                    break;
-                case "cancelled":
-                    pagamento.setStatus(StatusPagamentoEnum.CANCELADO);
-                    break;
-                case "refunded":
-                    pagamento.setStatus(StatusPagamentoEnum.REEMBOLSADO);
-                    break;
-                case "in_process":
-                    pagamento.setStatus(StatusPagamentoEnum.EM_PROCESSAMENTO);
-                    break;
-                default:
-                    pagamento.setStatus(StatusPagamentoEnum.PENDENTE);
+                pagamentoRepository.save(pagamento);
+                log.info("[MERCADOPAGO] Pagamento {} atualizado para status: {}", pagamentoId, status);
             }
-            
-            pagamentoRepository.save(pagamento);
-            
-            log.info("[MERCADOPAGO] Pagamento {} atualizado para status: {}", pagamentoId, status);
-            
-        }
-        catch (Exception e) 
-        {
-            log.error("[MERCADOPAGO] Erro ao processar webhook: {}", e.getMessage(), e);
-        }
+            else
+            {
+                log.debug("[MERCADOPAGO] Pagamento {} já estava em {} - nada a fazer", pagamentoId, pagamento.getStatus());
+            }
+        });
+    }
+
+    /**
+     * Aplica um status vindo do Mercado Pago ao pagamento de forma idempotente.
+     * @return true se o pagamento foi alterado e precisa ser salvo
+     */
+    public boolean aplicarStatus(Pagamento pagamento, String mercadoPagoId, StatusPagamentoEnum novoStatus)
+    {
+        StatusPagamentoEnum atual = pagamento.getStatus();
+
+        if (atual != null && !atual.podeTransicionarPara(novoStatus))
+            return false;
+
+        if (atual == null && novoStatus == null)
+            return false;
+
+        if (mercadoPagoId != null)
+            pagamento.setMercadoPagoId(mercadoPagoId);
+
+        pagamento.setStatus(novoStatus);
+
+        if (novoStatus == StatusPagamentoEnum.APROVADO && pagamento.getDataPagamento() == null)
+            pagamento.setDataPagamento(LocalDateTime.now());
+
+        return true;
+    }
+
+    /**
+     * Consulta um pagamento na API do Mercado Pago
+     */
+    private JsonNode buscarPagamento(String mercadoPagoId) throws Exception
+    {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        
+        String url = apiUrl + "/v1/payments/" + mercadoPagoId;
+        ResponseEntity<String> response = restTemplate.exchange(
+            url,
+            HttpMethod.GET,
+            request,
+            String.class
+        );
+        
+        return objectMapper.readTree(response.getBody());
+    }
+    
+    /**
+     * Busca os pagamentos do Mercado Pago vinculados a uma cobrança (external_reference),
+     * do mais recente para o mais antigo.
+     */
+    public List<JsonNode> buscarPagamentosPorReferencia(String externalReference) throws Exception
+    {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        
+        String url = apiUrl + "/v1/payments/search?sort=date_created&criteria=desc&external_reference=" + externalReference;
+        ResponseEntity<String> response = restTemplate.exchange(
+            url,
+            HttpMethod.GET,
+            request,
+            String.class
+        );
+        
+        List<JsonNode> resultados = new ArrayList<>();
+        objectMapper.readTree(response.getBody()).path("results").forEach(resultados::add);
+        return resultados;
     }
     
     /**
@@ -257,21 +337,7 @@ public class MercadoPagoService {
     {
         try 
         {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-            HttpEntity<Void> request = new HttpEntity<>(headers);
-            
-            String url = apiUrl + "/v1/payments/" + mercadoPagoId;
-            ResponseEntity<String> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                request,
-                String.class
-            );
-            
-            JsonNode payment = objectMapper.readTree(response.getBody());
-            return payment.get("status").asText();
-            
+            return buscarPagamento(mercadoPagoId).get("status").asText();
         } 
         catch (Exception e) 
         {
@@ -1,9 +1,14 @@
 package com.example.grazy_back.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 
+import com.example.grazy_back.enums.StatusAgendamentoEnum;
+import com.example.grazy_back.enums.TipoTemplateEnum;
 import com.example.grazy_back.model.Agendamento;
 import com.example.grazy_back.model.Cliente;
 
@@ -11,12 +16,21 @@ import com.example.grazy_back.model.Cliente;
 public class MessageBuilderService 
 {
     private static final DateTimeFormatter DATA_HORA_FMT = DateTimeFormatter.ofPattern("dd/MM HH:mm");
+    private static final DateTimeFormatter DATA_FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final TemplateMensagemService templateService;
+
+    public MessageBuilderService(TemplateMensagemService templateService)
+    {
+        this.templateService = templateService;
+    }
 
     public String assuntoLembreteAgendamento(Agendamento agendamento)
     {
         String servico = agendamento.getServico() != null ? agendamento.getServico().getNome() : "Serviço";
         String quando = agendamento.getDataHora() != null ? agendamento.getDataHora().format(DATA_HORA_FMT) : "";
-        return "Lembrete de agendamento - " + servico + (quando.isBlank() ? "" : " (" + quando + ")");
+        return templateService.renderizar(agendamento.getTenantId(), TipoTemplateEnum.LEMBRETE_ASSUNTO,
+            TemplateCompilado.valores("servico", servico, "dataHora", quando));
     }
 
     public String corpoLembreteAgendamentoTexto(Cliente usuario, Agendamento agendamento)
@@ -24,37 +38,76 @@ public class MessageBuilderService
         String nome = usuario != null && usuario.getNome() != null ? usuario.getNome() : "Cliente";
         String servico = agendamento.getServico() != null ? agendamento.getServico().getNome() : "serviço";
         String quando = agendamento.getDataHora() != null ? agendamento.getDataHora().format(DATA_HORA_FMT) : "data/hora";
-        return String.format("Olá %s, lembrete do seu agendamento de %s em %s.", nome, servico, quando);
+        return templateService.renderizar(agendamento.getTenantId(), TipoTemplateEnum.LEMBRETE_CORPO,
+            TemplateCompilado.valores("nome", nome, "servico", servico, "dataHora", quando));
+    }
+
+    public String assuntoResumoAgendamentos(Long tenantId, LocalDate dia)
+    {
+        return templateService.renderizar(tenantId, TipoTemplateEnum.RESUMO_ASSUNTO, TemplateCompilado.valores("data", dia.format(DATA_FMT)));
     }
 
-    public String assuntoResumoAgendamentos(java.time.LocalDate dia)
+    public String assuntoResumoAgendamentos(LocalDate dia)
     {
-        return "Resumo de agendamentos - " + dia.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        return assuntoResumoAgendamentos(null, dia);
     }
 
-    public String corpoResumoAgendamentos(java.util.List<Agendamento> lista, java.time.LocalDate dia)
+    public String corpoResumoAgendamentos(List<Agendamento> lista, LocalDate dia)
     {
         if (lista == null || lista.isEmpty())
-            return "Nenhum agendamento para o dia " + dia.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) + ".";
+            return "Nenhum agendamento para o dia " + dia.format(DATA_FMT) + ".";
 
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(64 + lista.size() * 64);
         sb.append("Resumo de agendamentos do dia ")
-          .append(dia.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")))
+          .append(dia.format(DATA_FMT))
           .append("\n\nTotal: ").append(lista.size()).append("\n\n");
 
         for (Agendamento a : lista)
-        {
-            String horario = a.getDataHora() != null ? a.getDataHora().format(DATA_HORA_FMT) : "--";
-            String cliente = a.getUsuario() != null ? a.getUsuario().getNome() : "(sem cliente)";
-            String servico = a.getServico() != null ? a.getServico().getNome() : "(sem serviço)";
-            sb.append(horario).append(" | ")
-              .append(cliente).append(" | ")
-              .append(servico);
-            if (a.getStatus() != null)
-                sb.append(" | ").append(a.getStatus());
-            sb.append('\n');
-        }
+            appendLinhaResumo(sb, a);
 
         return sb.toString();
     }
+
+    /**
+     * Acrescenta a linha de um agendamento ao resumo (horário | cliente | serviço | status).
+     */
+    public void appendLinhaResumo(StringBuilder sb, Agendamento a)
+    {
+        appendLinhaResumo(sb, a.getDataHora(),
+            a.getUsuario() != null ? a.getUsuario().getNome() : null,
+            a.getServico() != null ? a.getServico().getNome() : null,
+            a.getStatus());
+    }
+
+    public void appendLinhaResumo(StringBuilder sb, LocalDateTime dataHora, String cliente, String servico, StatusAgendamentoEnum status)
+    {
+        if (dataHora != null)
+            DATA_HORA_FMT.formatTo(dataHora, sb);
+        else
+            sb.append("--");
+
+        sb.append(" | ").append(cliente != null ? cliente : "(sem cliente)")
+          .append(" | ").append(servico != null ? servico : "(sem serviço)");
+
+        if (status != null)
+            sb.append(" | ").append(status);
+
+        sb.append('\n');
+    }
+
+    /**
+     * Monta o corpo do resumo a partir das linhas já acumuladas (mesmo formato de corpoResumoAgendamentos).
+     */
+    public String corpoResumoAgendamentos(StringBuilder linhas, int total, LocalDate dia)
+    {
+        if (total == 0)
+            return "Nenhum agendamento para o dia " + dia.format(DATA_FMT) + ".";
+
+        return new StringBuilder(linhas.length() + 64)
+            .append("Resumo de agendamentos do dia ")
+            .append(dia.format(DATA_FMT))
+            .append("\n\nTotal: ").append(total).append("\n\n")
+            .append(linhas)
+            .toString();
+    }
 }
@@ -0,0 +1,229 @@
+package com.example.grazy_back.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.security.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ponto único para registrar métricas de negócio e de integrações (Micrometer).
+ * Expostas em /actuator/prometheus (só para SUPER_ADMIN ou pela porta de gerenciamento).
+ *
+ * Convenções de tags:
+ * - tenant: id do tenant (ou "nenhum") só nos contadores e só com app.metricas.tag-tenant=true;
+ *   cada tenant é uma série nova, então fica desligado por padrão. Timers e histogramas
+ *   nunca levam o tenant.
+ * - resultado: sucesso | erro (e valores específicos quando fizer sentido).
+ */
+@Service
+@Slf4j
+public class MetricasService
+{
+    public static final String SUCESSO = "sucesso";
+    public static final String ERRO = "erro";
+
+    private static final String SEM_TENANT = "nenhum";
+
+    // Tenant do processamento em background (jobs não têm request/SecurityContext)
+    private static final ThreadLocal<Long> TENANT_ESCOPO = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final boolean tagTenant;
+    private final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+
+    public MetricasService(MeterRegistry registry, @Value("${app.metricas.tag-tenant:false}") boolean tagTenant)
+    {
+        this.registry = registry;
+        this.tagTenant = tagTenant;
+    }
+
+    public MeterRegistry getRegistry()
+    {
+        return registry;
+    }
+
+    /**
+     * Define o tenant usado nas tags enquanto o escopo estiver aberto (try-with-resources).
+     */
+    public Escopo escopoTenant(Long tenantId)
+    {
+        Long anterior = TENANT_ESCOPO.get();
+        TENANT_ESCOPO.set(tenantId);
+
+        return () -> {
+            if (anterior == null)
+                TENANT_ESCOPO.remove();
+            else
+                TENANT_ESCOPO.set(anterior);
+        };
+    }
+
+    /**
+     * Valor da tag tenant para a thread atual.
+     */
+    public String tenantTag()
+    {
+        return tenantTag(TENANT_ESCOPO.get() != null ? TENANT_ESCOPO.get() : TenantContext.getCurrentTenantId());
+    }
+
+    public String tenantTag(Long tenantId)
+    {
+        if (!tagTenant)
+            return "todos";
+
+        return tenantId != null ? tenantId.toString() : SEM_TENANT;
+    }
+
+    // ==================== INTEGRAÇÕES ====================
+
+    /**
+     * Registra uma chamada a um sistema externo (HTTP, SMTP...).
+     */
+    public void registrarChamada(String integracao, String operacao, String resultado, long duracaoNanos)
+    {
+        Timer.builder("grazy.integracao.chamadas")
+            .description("Chamadas a sistemas externos")
+            .tag("integracao", integracao)
+            .tag("operacao", operacao)
+            .tag("resultado", resultado)
+            .register(registry)
+            .record(duracaoNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Interceptor para RestTemplate que mede todas as requisições da integração.
+     * A operação é o caminho da URL com ids trocados por {id}, para manter a cardinalidade baixa.
+     */
+    public ClientHttpRequestInterceptor interceptorHttp(String integracao)
+    {
+        return (request, body, execution) -> {
+            long inicio = System.nanoTime();
+            String operacao = request.getMethod().name() + " " + normalizarCaminho(request.getURI().getPath());
+
+            try
+            {
+                var response = execution.execute(request, body);
+                String resultado = response.getStatusCode().isError()
+                    ? "http_" + response.getStatusCode().value()
+                    : SUCESSO;
+                registrarChamada(integracao, operacao, resultado, System.nanoTime() - inicio);
+                return response;
+            }
+            catch (IOException e)
+            {
+                registrarChamada(integracao, operacao, "io_erro", System.nanoTime() - inicio);
+                throw e;
+            }
+        };
+    }
+
+    static String normalizarCaminho(String caminho)
+    {
+        if (caminho == null || caminho.isEmpty())
+            return "/";
+
+        return caminho
+            .replaceAll("/tenant_\\d+", "/{instancia}")
+            .replaceAll("/[0-9a-fA-F-]{8,}(?=/|$)", "/{id}")
+            .replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    // ==================== JOBS ====================
+
+    /**
+     * Executa um job agendado medindo duração, itens processados e falhas.
+     * A tarefa retorna a quantidade de itens processados.
+     */
+    public void executarJob(String job, Callable<Integer> tarefa)
+    {
+        Timer.Sample amostra = Timer.start(registry);
+        String resultado = SUCESSO;
+
+        try
+        {
+            Integer itens = tarefa.call();
+
+            if (itens != null && itens > 0)
+                itensJob(job).record(itens);
+
+            gauge("grazy.job.ultimo.sucesso", "job", job).set(System.currentTimeMillis() / 1000);
+        }
+        catch (Exception e)
+        {
+            resultado = ERRO;
+            log.error("[METRICAS] Job {} falhou: {}", job, e.getMessage(), e);
+        }
+        finally
+        {
+            amostra.stop(Timer.builder("grazy.job.execucoes")
+                .description("Execuções de jobs agendados")
+                .tag("job", job)
+                .tag("resultado", resultado)
+                .register(registry));
+        }
+    }
+
+    private DistributionSummary itensJob(String job)
+    {
+        return DistributionSummary.builder("grazy.job.itens")
+            .description("Itens processados por execução de job")
+            .tag("job", job)
+            .register(registry);
+    }
+
+    // ==================== GENÉRICOS ====================
+
+    public void incrementar(String nome, String... tags)
+    {
+        Counter.builder(nome).tags(tags).register(registry).increment();
+    }
+
+    public void incrementar(String nome, double quantidade, String... tags)
+    {
+        Counter.builder(nome).tags(tags).register(registry).increment(quantidade);
+    }
+
+    public void registrarTempo(String nome, long duracaoNanos, String... tags)
+    {
+        Timer.builder(nome).tags(tags).register(registry).record(duracaoNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
+
+    public void registrarValor(String nome, double valor, String... tags)
+    {
+        DistributionSummary.builder(nome).tags(tags).register(registry).record(valor);
+    }
+
+    /**
+     * Gauge baseado em um AtomicLong mantido aqui; o chamador só atualiza o valor.
+     */
+    public AtomicLong gauge(String nome, String... tags)
+    {
+        String chave = nome + String.join(",", tags);
+
+        return gauges.computeIfAbsent(chave, k -> {
+            AtomicLong valor = new AtomicLong();
+            registry.gauge(nome, io.micrometer.core.instrument.Tags.of(tags), valor);
+            return valor;
+        });
+    }
+
+    @FunctionalInterface
+    public interface Escopo extends AutoCloseable
+    {
+        @Override
+        void close();
+    }
+}
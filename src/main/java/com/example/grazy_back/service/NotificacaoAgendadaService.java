@@ -1,28 +1,39 @@
 package com.example.grazy_back.service;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import com.example.grazy_back.config.FabricaExecutores;
+import com.example.grazy_back.config.RoteamentoSchema;
 import com.example.grazy_back.model.ConfiguracaoNotificacao;
 import com.example.grazy_back.model.Agendamento;
 import com.example.grazy_back.dto.EmailRequest;
 import com.example.grazy_back.enums.StatusAgendamentoEnum;
 import com.example.grazy_back.repository.AgendamentoRepository;
 
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class NotificacaoAgendadaService 
 {
     private static final Logger log = LoggerFactory.getLogger(NotificacaoAgendadaService.class);
 
+    private static final Duration TIMEOUT_REIVINDICACAO = Duration.ofMinutes(10);
+
     private final ConfiguracaoNotificacaoService configService;
     private final AtomicLong ultimaExecucaoEpochMillis = new AtomicLong(0L);
     private final AgendamentoRepository agendamentoRepository;
@@ -30,13 +41,24 @@ public class NotificacaoAgendadaService
     private final EvolutionApiService evolutionApiService;
     private final EmailService emailService;
     private final MessageBuilderService messageBuilder;
+    private final MetricasService metricas;
+    private final RoteamentoSchema roteamento;
+    private final ThreadPoolTaskExecutor executor;
+    private final int workers;
+
+    @Value("${app.notificacao.lembretes.lote:50}")
+    private int tamanhoLote;
 
     public NotificacaoAgendadaService(ConfiguracaoNotificacaoService configService,
                                       AgendamentoRepository agendamentoRepository,
                                       WhatsappSenderService whatsappSenderService,
                                       EvolutionApiService evolutionApiService,
                                       EmailService emailService,
-                                      MessageBuilderService messageBuilder)
+                                      MessageBuilderService messageBuilder,
+                                      MetricasService metricas,
+                                      RoteamentoSchema roteamento,
+                                      FabricaExecutores fabricaExecutores,
+                                      @Value("${app.notificacao.lembretes.workers:2}") int workers)
     {
         this.configService = configService;
         this.agendamentoRepository = agendamentoRepository;
@@ -44,6 +66,11 @@ public class NotificacaoAgendadaService
         this.evolutionApiService = evolutionApiService;
         this.emailService = emailService;
         this.messageBuilder = messageBuilder;
+        this.metricas = metricas;
+        this.roteamento = roteamento;
+        this.workers = workers;
+
+        this.executor = fabricaExecutores.criar("lembretes-", workers);
     }
 
     // Verifica a cada 1 minuto se já passou o período configurado para disparar notificações
@@ -79,125 +106,143 @@ public class NotificacaoAgendadaService
         }
 
         if (ultimaExecucaoEpochMillis.compareAndSet(anterior, agora))
-            executarVerificacao(cfg, plataformas);
+            metricas.executarJob("notificacao-lembretes", () -> roteamento.paraCadaSchema(() -> executarVerificacao(cfg, plataformas)));
     }
 
-    private void executarVerificacao(ConfiguracaoNotificacao cfg, Map<String, String> plataformas)
+    /**
+     * Dispara os workers na janela [agora, agora + período]. Cada um reivindica lotes até não
+     * sobrar lembrete pendente; nós diferentes fazem o mesmo sem enviar duas vezes.
+     * @return quantidade de agendamentos notificados
+     */
+    private int executarVerificacao(ConfiguracaoNotificacao cfg, Map<String, String> plataformas)
     {
-        log.info("[NOTIFICACAO] agendamento nos próximos {} min {}", LocalDateTime.now(), cfg.getPeriodoMinutos());
-
         LocalDateTime agora = LocalDateTime.now();
         LocalDateTime limite = agora.plusMinutes(cfg.getPeriodoMinutos());
 
-        log.info("[NOTIFICACAO] agendamento nos próximos {} min {}", limite, agora);
-
-
-        List<Agendamento> proximos = agendamentoRepository
-            .findByStatusAndNotificadoFalseAndDataHoraBetweenOrderByDataHoraAsc(StatusAgendamentoEnum.PENDENTE, agora, limite);
+        // Os workers rodam em outras threads: levam o schema da passada atual
+        String schema = roteamento.schemaAtual();
+        List<Future<Integer>> execucoes = new ArrayList<>(workers);
 
-        log.info("[NOTIFICACAO] agendamento nos próximos {} min {}, {}", proximos, limite, agora);
+        for (int i = 0; i < workers; i++)
+            execucoes.add(executor.submit(() -> roteamento.executarNoSchema(schema, () -> drenar(agora, limite, cfg, plataformas))));
 
+        int notificados = 0;
 
-        if (proximos.isEmpty())
+        for (Future<Integer> execucao : execucoes)
         {
-            log.info("[NOTIFICACAO] Nenhum agendamento nos próximos {} min", cfg.getPeriodoMinutos());
-            return;
+            try
+            {
+                notificados += execucao.get();
+            }
+            catch (Exception e)
+            {
+                log.error("[NOTIFICACAO] Erro no worker de lembretes: {}", e.getMessage(), e);
+            }
         }
 
-        log.info("[NOTIFICACAO] agendamento nos próximos {} min {}, {}", proximos, limite, agora);
+        if (notificados == 0)
+            log.info("[NOTIFICACAO] Nenhum agendamento nos próximos {} min", cfg.getPeriodoMinutos());
+        else
+            log.info("[NOTIFICACAO] {} lembrete(s) enviados para agendamentos até {}", notificados, limite);
 
-        for (Agendamento a : proximos) 
-        {
-            log.info("[NOTIFICACAO] agendamento nos próximos {} min", a);
+        return notificados;
+    }
 
-            for (String p : plataformas.keySet())
-            {
-                log.info("[NOTIFICACAO] Plataforma={} AgendamentoID={} Usuario={} Servico={} DataHora={} (dentro de ~{} min)",
-                        p,
-                        a.getId(),
-                        a.getUsuario() != null ? a.getUsuario().getNome() : "-",
-                        a.getServico() != null ? a.getServico().getNome() : "-",
-                        a.getDataHora(),
-                        cfg.getPeriodoMinutos());
-
-                if ("WHATSAPP".equalsIgnoreCase(p)) 
-                {
-                    enviarWhatsAppLembrete(a);
-                }
-                else if ("EMAIL".equalsIgnoreCase(p))
-                {
-                    try
-                    {
-                        var destinatarioCliente = a.getUsuario() != null ? a.getUsuario().getEmail() : null;
-                        var fallback = plataformas.get(p);
-
-                        String to = (destinatarioCliente != null && !destinatarioCliente.isBlank()) ? destinatarioCliente : fallback;
-
-                        if (to == null || to.isBlank())
-                        {
-                            log.warn("[EMAIL] Sem destinatário para agendamento {} (cliente/fallback vazios)", a.getId());
-                        }
-                        else
-                        {
-                            EmailRequest er = new EmailRequest();
-                            er.setTo(List.of(to));
-                            er.setSubject(messageBuilder.assuntoLembreteAgendamento(a));
-                            er.setBody(messageBuilder.corpoLembreteAgendamentoTexto(a.getUsuario(), a));
-                            er.setHtml(false);
-                            emailService.send(er);
-                            log.info("[EMAIL] Enviado lembrete para {} agendamento {}", to, a.getId());
-                        }
-                    }
-                    catch (Exception ex)
-                    {
-                        log.error("[EMAIL] Falha ao enviar lembrete do agendamento {}: {}", a.getId(), ex.getMessage());
-                    }
-                }
-            }
+    private int drenar(LocalDateTime inicio, LocalDateTime fim, ConfiguracaoNotificacao cfg, Map<String, String> plataformas)
+    {
+        int total = 0;
+        int lote;
 
-            a.setNotificado(true);
-            a.setNotificadoEm(Instant.now());
-        }
+        while ((lote = enviarLote(inicio, fim, cfg, plataformas)) > 0)
+            total += lote;
 
-        agendamentoRepository.saveAll(proximos);
+        return total;
     }
 
-    // Resumo diário dos agendamentos do dia (07:00). Pode ser ajustado depois via config.
-    @Scheduled(cron = "0 0 7 * * *", zone = "America/Sao_Paulo")
-    public void enviarResumoDiario()
+    /**
+     * Reivindica e envia um lote.
+     * @return quantidade de lembretes reivindicados (0 quando não há mais pendentes)
+     */
+    int enviarLote(LocalDateTime inicio, LocalDateTime fim, ConfiguracaoNotificacao cfg, Map<String, String> plataformas)
     {
-        ConfiguracaoNotificacao cfg = configService.obter();
-        if (cfg == null || !cfg.isResumoAtivo())
-            return;
+        String lote = UUID.randomUUID().toString();
+        Instant agora = Instant.now();
 
-        String destino = (cfg.getResumoEmail() != null && !cfg.getResumoEmail().isBlank())
-                ? cfg.getResumoEmail()
-                : (cfg.getPlataformas() != null ? cfg.getPlataformas().get("EMAIL") : null);
+        int reivindicados = agendamentoRepository.reivindicarLembretes(lote, agora, StatusAgendamentoEnum.PENDENTE.name(),
+            inicio, fim, agora.minus(TIMEOUT_REIVINDICACAO), tamanhoLote);
 
-        if (destino == null || destino.isBlank())
-        {
-            log.warn("[RESUMO] resumoAtivo=true mas nenhum email destino configurado (resumoEmail ou plataformas.EMAIL)");
-            return;
-        }
+        if (reivindicados == 0)
+            return 0;
 
-        LocalDate hoje = LocalDate.now();
-        LocalDateTime inicio = hoje.atStartOfDay();
-        LocalDateTime fim = inicio.plusDays(1);
-        List<Agendamento> doDia = agendamentoRepository.findByDataHoraBetweenOrderByDataHoraAsc(inicio, fim);
+        List<Agendamento> agendamentos = agendamentoRepository.findByLoteLembreteAndNotificadoFalse(lote);
+        List<Long> ids = new ArrayList<>(agendamentos.size());
 
-        try
+        for (Agendamento a : agendamentos) 
         {
-            EmailRequest req = new EmailRequest();
-            req.setTo(List.of(destino));
-            req.setSubject(messageBuilder.assuntoResumoAgendamentos(hoje));
-            req.setBody(messageBuilder.corpoResumoAgendamentos(doDia, hoje));
-            req.setHtml(false); // texto simples; pode evoluir para HTML
-            emailService.send(req);
-            log.info("[RESUMO] Enviado resumo diário para {} com {} agendamentos", destino, doDia.size());
+            try (MetricasService.Escopo escopo = metricas.escopoTenant(a.getTenantId()))
+            {
+                notificar(a, cfg, plataformas);
+            }
+
+            ids.add(a.getId());
         }
-        catch (Exception ex)
+
+        // Se o nó cair antes daqui, o lote volta a ser reivindicável depois de TIMEOUT_REIVINDICACAO
+        if (!ids.isEmpty())
+            agendamentoRepository.marcarNotificados(lote, ids, Instant.now());
+
+        return reivindicados;
+    }
+
+    private void notificar(Agendamento a, ConfiguracaoNotificacao cfg, Map<String, String> plataformas)
+    {
+        log.info("[NOTIFICACAO] agendamento nos próximos {} min", a);
+
+        for (String p : plataformas.keySet())
         {
-            log.error("[RESUMO] Falha ao enviar resumo diário para {}: {}", destino, ex.getMessage());
+            log.info("[NOTIFICACAO] Plataforma={} AgendamentoID={} Usuario={} Servico={} DataHora={} (dentro de ~{} min)",
+                    p,
+                    a.getId(),
+                    a.getUsuario() != null ? a.getUsuario().getNome() : "-",
+                    a.getServico() != null ? a.getServico().getNome() : "-",
+                    a.getDataHora(),
+                    cfg.getPeriodoMinutos());
+
+            if ("WHATSAPP".equalsIgnoreCase(p)) 
+            {
+                enviarWhatsAppLembrete(a);
+            }
+            else if ("EMAIL".equalsIgnoreCase(p))
+            {
+                try
+                {
+                    var destinatarioCliente = a.getUsuario() != null ? a.getUsuario().getEmail() : null;
+                    var fallback = plataformas.get(p);
+
+                    String to = (destinatarioCliente != null && !destinatarioCliente.isBlank()) ? destinatarioCliente : fallback;
+
+                    if (to == null || to.isBlank())
+                    {
+                        log.warn("[EMAIL] Sem destinatário para agendamento {} (cliente/fallback vazios)", a.getId());
+                    }
+                    else
+                    {
+                        EmailRequest er = new EmailRequest();
+                        er.setTo(List.of(to));
+                        er.setSubject(messageBuilder.assuntoLembreteAgendamento(a));
+                        er.setBody(messageBuilder.corpoLembreteAgendamentoTexto(a.getUsuario(), a));
+                        er.setHtml(false);
+                        emailService.enfileirar(er, a.getTenantId());
+                        metricas.incrementar("grazy.notificacao.lembretes", "canal", "email", "resultado", MetricasService.SUCESSO, "tenant", metricas.tenantTag());
+                        log.info("[EMAIL] Lembrete enfileirado para {} agendamento {}", to, a.getId());
+                    }
+                }
+                catch (Exception ex)
+                {
+                    metricas.incrementar("grazy.notificacao.lembretes", "canal", "email", "resultado", MetricasService.ERRO, "tenant", metricas.tenantTag());
+                    log.error("[EMAIL] Falha ao enviar lembrete do agendamento {}: {}", a.getId(), ex.getMessage());
+                }
+            }
         }
     }
 
@@ -227,6 +272,7 @@ public class NotificacaoAgendadaService
                 boolean enviado = evolutionApiService.sendTextMessage(tenantId, telefone, mensagem);
                 if (enviado)
                 {
+                    metricas.incrementar("grazy.notificacao.lembretes", "canal", "whatsapp-evolution", "resultado", MetricasService.SUCESSO, "tenant", metricas.tenantTag());
                     log.info("[WHATSAPP-EVOLUTION] Lembrete enviado para {} (agendamento {}, tenant {})", 
                              telefone, agendamento.getId(), tenantId);
                     return;
@@ -247,12 +293,20 @@ public class NotificacaoAgendadaService
         try
         {
             whatsappSenderService.enviar(cliente, agendamento);
+            metricas.incrementar("grazy.notificacao.lembretes", "canal", "whatsapp", "resultado", MetricasService.SUCESSO, "tenant", metricas.tenantTag());
             log.info("[WHATSAPP-FALLBACK] Lembrete enviado para {} (agendamento {})", telefone, agendamento.getId());
         }
         catch (Exception ex)
         {
+            metricas.incrementar("grazy.notificacao.lembretes", "canal", "whatsapp", "resultado", MetricasService.ERRO, "tenant", metricas.tenantTag());
             log.error("[WHATSAPP-FALLBACK] Falha ao enviar lembrete para {} (agendamento {}): {}", 
                       telefone, agendamento.getId(), ex.getMessage());
         }
     }
+
+    @PreDestroy
+    public void encerrar()
+    {
+        executor.shutdown();
+    }
 }
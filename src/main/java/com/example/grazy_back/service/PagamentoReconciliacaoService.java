@@ -0,0 +1,286 @@
+package com.example.grazy_back.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.config.FabricaExecutores;
+import com.example.grazy_back.dto.ReconciliacaoRelatorio;
+import com.example.grazy_back.enums.StatusPagamentoEnum;
+import com.example.grazy_back.model.Pagamento;
+import com.example.grazy_back.repository.PagamentoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reconciliação periódica dos pagamentos não finalizados com o Mercado Pago.
+ * Corrige pagamentos cujo webhook se perdeu (ex: ficaram PENDENTE para sempre).
+ */
+@Service
+public class PagamentoReconciliacaoService
+{
+    private static final Logger log = LoggerFactory.getLogger(PagamentoReconciliacaoService.class);
+
+    private static final List<StatusPagamentoEnum> STATUS_NAO_FINAIS =
+        List.of(StatusPagamentoEnum.PENDENTE, StatusPagamentoEnum.EM_PROCESSAMENTO);
+
+    private final PagamentoRepository pagamentoRepository;
+    private final MercadoPagoService mercadoPagoService;
+    private final MetricasService metricas;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean(false);
+    private final AtomicReference<ReconciliacaoRelatorio> ultimoRelatorio = new AtomicReference<>();
+
+    @Value("${mercadopago.reconciliacao.lote:50}")
+    private int tamanhoLote;
+
+    @Value("${mercadopago.reconciliacao.idade-minima-minutos:15}")
+    private long idadeMinimaMinutos;
+
+    public PagamentoReconciliacaoService(
+        PagamentoRepository pagamentoRepository,
+        MercadoPagoService mercadoPagoService,
+        MetricasService metricas,
+        FabricaExecutores fabricaExecutores,
+        @Value("${mercadopago.reconciliacao.concorrencia:4}") int concorrencia
+    )
+    {
+        this.pagamentoRepository = pagamentoRepository;
+        this.mercadoPagoService = mercadoPagoService;
+        this.metricas = metricas;
+
+        this.executor = fabricaExecutores.criar("mp-reconciliacao-", concorrencia);
+    }
+
+    /**
+     * Executa a reconciliação periodicamente (padrão: a cada 30 minutos).
+     */
+    @Scheduled(cron = "${mercadopago.reconciliacao.cron:0 */30 * * * *}")
+    public void reconciliarAgendado()
+    {
+        if (!mercadoPagoService.isConfigurado())
+            return;
+
+        metricas.executarJob("mp-reconciliacao", () -> reconciliar().map(ReconciliacaoRelatorio::getVerificados).orElse(0));
+    }
+
+    /**
+     * Percorre os pagamentos não finalizados em lotes, consulta o Mercado Pago com
+     * concorrência limitada e grava as divergências encontradas, sem sobrescrever webhooks
+     * processados durante a consulta.
+     * @return relatório da execução, ou empty se já houver uma execução em andamento
+     */
+    public Optional<ReconciliacaoRelatorio> reconciliar()
+    {
+        if (!emExecucao.compareAndSet(false, true))
+        {
+            log.info("[RECONCILIACAO] Já existe uma reconciliação em andamento");
+            return Optional.empty();
+        }
+
+        Instant inicio = Instant.now();
+        Map<String, Integer> transicoes = new TreeMap<>();
+        int verificados = 0;
+        int atualizados = 0;
+        int semPagamento = 0;
+        int erros = 0;
+
+        try
+        {
+            // Pagamentos muito recentes ainda estão no fluxo normal do checkout/webhook
+            LocalDateTime criadoAntes = LocalDateTime.now().minusMinutes(idadeMinimaMinutos);
+            Long ultimoId = 0L;
+
+            while (true)
+            {
+                List<Pagamento> lote = pagamentoRepository.findParaReconciliar(
+                    STATUS_NAO_FINAIS, ultimoId, criadoAntes, PageRequest.of(0, tamanhoLote));
+
+                if (lote.isEmpty())
+                    break;
+
+                ultimoId = lote.get(lote.size() - 1).getId();
+
+                List<CompletableFuture<Resultado>> consultas = new ArrayList<>(lote.size());
+
+                for (Pagamento pagamento : lote)
+                    consultas.add(CompletableFuture.supplyAsync(() -> consultar(pagamento), executor));
+
+                for (CompletableFuture<Resultado> consulta : consultas)
+                {
+                    Resultado resultado = consulta.join();
+                    verificados++;
+
+                    switch (resultado.tipo())
+                    {
+                        case ERRO -> erros++;
+                        case SEM_PAGAMENTO -> semPagamento++;
+                        case SEM_ALTERACAO -> { }
+                        case ALTERADO ->
+                        {
+                            if (gravar(resultado))
+                            {
+                                atualizados++;
+                                transicoes.merge(resultado.transicao(), 1, Integer::sum);
+                                metricas.incrementar("grazy.reconciliacao.divergencias", "transicao", resultado.transicao());
+                            }
+                        }
+                    }
+                }
+
+                if (lote.size() < tamanhoLote)
+                    break;
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("[RECONCILIACAO] Erro na reconciliação: {}", e.getMessage(), e);
+            erros++;
+        }
+        finally
+        {
+            emExecucao.set(false);
+        }
+
+        Instant fim = Instant.now();
+        ReconciliacaoRelatorio relatorio = ReconciliacaoRelatorio.builder()
+            .iniciadoEm(inicio)
+            .finalizadoEm(fim)
+            .duracaoMs(Duration.between(inicio, fim).toMillis())
+            .verificados(verificados)
+            .atualizados(atualizados)
+            .semPagamentoNoMercadoPago(semPagamento)
+            .erros(erros)
+            .transicoes(transicoes)
+            .build();
+
+        ultimoRelatorio.set(relatorio);
+        metricas.gauge("grazy.reconciliacao.ultima.erros").set(erros);
+
+        if (atualizados > 0 || erros > 0)
+            log.warn("[RECONCILIACAO] {} verificados, {} divergentes corrigidos, {} erros. Transições: {}", verificados, atualizados, erros, transicoes);
+        else
+            log.info("[RECONCILIACAO] {} verificados, nenhuma divergência", verificados);
+
+        return Optional.of(relatorio);
+    }
+
+    /**
+     * Último relatório gerado (null se a reconciliação ainda não rodou).
+     */
+    public ReconciliacaoRelatorio getUltimoRelatorio()
+    {
+        return ultimoRelatorio.get();
+    }
+
+    private Resultado consultar(Pagamento pagamento)
+    {
+        try
+        {
+            List<JsonNode> pagamentosMp = mercadoPagoService.buscarPagamentosPorReferencia(pagamento.getId().toString());
+
+            JsonNode escolhido = escolherMaisRelevante(pagamentosMp);
+
+            if (escolhido == null)
+                return new Resultado(TipoResultado.SEM_PAGAMENTO, pagamento, null, null);
+
+            StatusPagamentoEnum anterior = pagamento.getStatus();
+            StatusPagamentoEnum novo = StatusPagamentoEnum.fromMercadoPago(escolhido.path("status").asText(null));
+
+            if (!mercadoPagoService.aplicarStatus(pagamento, escolhido.path("id").asText(null), novo))
+                return new Resultado(TipoResultado.SEM_ALTERACAO, pagamento, anterior, null);
+
+            return new Resultado(TipoResultado.ALTERADO, pagamento, anterior, anterior + "->" + novo);
+        }
+        catch (Exception e)
+        {
+            log.warn("[RECONCILIACAO] Falha ao consultar pagamento {}: {}", pagamento.getId(), e.getMessage());
+            return new Resultado(TipoResultado.ERRO, pagamento, null, null);
+        }
+    }
+
+    /**
+     * Grava a divergência só se o pagamento continua no status lido no início do lote.
+     * A consulta ao Mercado Pago leva tempo; se um webhook chegou nesse intervalo, ele é
+     * mais recente e não é sobrescrito.
+     */
+    private boolean gravar(Resultado resultado)
+    {
+        Pagamento pagamento = resultado.pagamento();
+
+        int linhas = pagamentoRepository.atualizarStatusSe(pagamento.getId(), resultado.anterior(), pagamento.getStatus(),
+            pagamento.getMercadoPagoId(), pagamento.getDataPagamento());
+
+        if (linhas == 0)
+        {
+            log.info("[RECONCILIACAO] Pagamento {} mudou de status durante a reconciliação - mantido como está", pagamento.getId());
+            metricas.incrementar("grazy.reconciliacao.concorrentes");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Uma cobrança pode ter várias tentativas no Mercado Pago (ex: cartão recusado e depois PIX).
+     * Considera a tentativa de maior prioridade; em empate, a mais recente (a lista vem ordenada).
+     */
+    private JsonNode escolherMaisRelevante(List<JsonNode> pagamentosMp)
+    {
+        JsonNode escolhido = null;
+        int melhorPrioridade = Integer.MIN_VALUE;
+
+        for (JsonNode p : pagamentosMp)
+        {
+            int prioridade = prioridade(StatusPagamentoEnum.fromMercadoPago(p.path("status").asText(null)));
+
+            if (prioridade > melhorPrioridade)
+            {
+                escolhido = p;
+                melhorPrioridade = prioridade;
+            }
+        }
+
+        return escolhido;
+    }
+
+    private int prioridade(StatusPagamentoEnum status)
+    {
+        return switch (status)
+        {
+            case REEMBOLSADO -> 5;
+            case APROVADO -> 4;
+            case EM_PROCESSAMENTO -> 3;
+            case PENDENTE -> 2;
+            case REJEITADO, CANCELADO -> 1;
+        };
+    }
+
+    @PreDestroy
+    public void encerrar()
+    {
+        executor.shutdown();
+    }
+
+    private enum TipoResultado { ALTERADO, SEM_ALTERACAO, SEM_PAGAMENTO, ERRO }
+
+    private record Resultado(TipoResultado tipo, Pagamento pagamento, StatusPagamentoEnum anterior, String transicao) {}
+}
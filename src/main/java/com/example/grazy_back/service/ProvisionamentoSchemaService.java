@@ -0,0 +1,448 @@
+package com.example.grazy_back.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.grazy_back.config.CacheHibernateInvalidacao;
+import com.example.grazy_back.config.RoteamentoSchema;
+import com.example.grazy_back.enums.PlanoEnum;
+import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.repository.TenantRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cria e mantém os schemas dedicados de tenants (isolamento físico opcional).
+ * As tabelas com dados do tenant são movidas para o schema dele; as demais (tenants, usuários,
+ * pagamentos, filas) continuam no compartilhado e aparecem no schema dedicado como views,
+ * de modo que as mesmas entidades funcionam nos dois lados.
+ * A estrutura é criada com DDL do MySQL (confirmado na hora, fora de qualquer transação JPA);
+ * a movimentação dos dados e a troca de schema do tenant acontecem em uma única transação.
+ * As escritas do tenant são barradas no banco (GuardaEscritaSchema): a transação da movimentação
+ * trava a linha do tenant em tenants, que toda transação de escrita no compartilhado lê com
+ * FOR SHARE; o aviso pelo barramento só faz os outros nós recusarem antes de chegar ao banco.
+ */
+@Service
+public class ProvisionamentoSchemaService
+{
+    private static final Logger log = LoggerFactory.getLogger(ProvisionamentoSchemaService.class);
+
+    public static final String CACHE_INVALIDACAO = "tenant-schema";
+    public static final String CACHE_BLOQUEIO = "tenant-schema-bloqueio";
+
+    // Se o nó cair no meio da movimentação, os demais liberam o tenant depois disto
+    private static final Duration BLOQUEIO_MAXIMO = Duration.ofMinutes(10);
+
+    // Tabelas com tenant_id movidas para o schema dedicado (dependentes antes das referenciadas)
+    private static final List<String> TABELAS_TENANT = List.of(
+        "agendamento_contagem", "agendamento", "transacao_financeira", "image_metadata", "templates_mensagem", "cliente_duplicata",
+        "cliente_servico_estatistica", "cliente_estatistica", "cliente", "servico");
+
+    private static final Pattern NOME_SCHEMA = Pattern.compile("^[a-z0-9_]{1,64}$");
+
+    // Linha de coluna do SHOW CREATE TABLE: "  `nome` tipo ...," (índices e chaves não começam com crase)
+    private static final Pattern DEFINICAO_COLUNA = Pattern.compile("^\\s*(`([^`]+)`.*?),?$");
+
+    private final DataSource dataSource;
+    private final RoteamentoSchema roteamento;
+    private final TenantRepository tenantRepository;
+    private final BarramentoInvalidacaoService barramento;
+    private final CacheHibernateInvalidacao cacheHibernate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Set<PlanoEnum> planosAutomaticos;
+
+    public ProvisionamentoSchemaService(DataSource dataSource,
+                                        RoteamentoSchema roteamento,
+                                        TenantRepository tenantRepository,
+                                        BarramentoInvalidacaoService barramento,
+                                        CacheHibernateInvalidacao cacheHibernate,
+                                        EntityManagerFactory entityManagerFactory,
+                                        @Value("${app.tenancy.schema-dedicado.planos:}") Set<PlanoEnum> planosAutomaticos)
+    {
+        this.dataSource = dataSource;
+        this.roteamento = roteamento;
+        this.tenantRepository = tenantRepository;
+        this.barramento = barramento;
+        this.cacheHibernate = cacheHibernate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.planosAutomaticos = planosAutomaticos;
+    }
+
+    /**
+     * Carrega os tenants com schema dedicado e alinha a estrutura dos schemas com a do
+     * compartilhado (colunas novas criadas pelo Hibernate, views de tabelas novas).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar()
+    {
+        if (!roteamento.isHabilitado())
+            return;
+
+        barramento.assinar(CACHE_BLOQUEIO, chave -> roteamento.bloquear(Long.valueOf(chave), BLOQUEIO_MAXIMO));
+        barramento.assinar(CACHE_INVALIDACAO, chave -> {
+            roteamento.carregar();
+            roteamento.liberar(Long.valueOf(chave));
+        });
+        roteamento.carregar();
+
+        for (String schema : roteamento.schemasDedicados())
+        {
+            try (Connection conexao = dataSource.getConnection())
+            {
+                sincronizarEstrutura(conexao, schema);
+            }
+            catch (SQLException e)
+            {
+                log.error("[SCHEMA] Falha ao sincronizar estrutura do schema {}: {}", schema, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Chamado na criação do tenant: se o plano estiver em app.tenancy.schema-dedicado.planos
+     * (nenhum por padrão), provisiona depois do commit (o DDL do MySQL confirmaria a transação
+     * da criação no meio do caminho).
+     */
+    public void provisionarSeAplicavel(Tenant tenant)
+    {
+        if (!roteamento.isHabilitado() || !planosAutomaticos.contains(tenant.getPlano()))
+            return;
+
+        Long tenantId = tenant.getId();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    provisionarComLog(tenantId);
+                }
+            });
+        }
+        else
+            provisionarComLog(tenantId);
+    }
+
+    private void provisionarComLog(Long tenantId)
+    {
+        try
+        {
+            provisionar(tenantId);
+        }
+        catch (Exception e)
+        {
+            log.error("[SCHEMA] Falha ao provisionar schema do tenant {}: {}", tenantId, e.getMessage());
+        }
+    }
+
+    /**
+     * Cria o schema dedicado do tenant e move os dados dele para lá.
+     * A troca de schema, a cópia e a remoção do compartilhado são uma transação só, conferida pela
+     * contagem de linhas: qualquer divergência desfaz tudo e o tenant continua no compartilhado.
+     * Escritas do tenant em andamento terminam antes; as que chegam esperam o commit e, se
+     * ainda roteadas para o compartilhado, são recusadas (503) pela barreira no banco.
+     */
+    public void provisionar(Long tenantId)
+    {
+        if (!roteamento.isHabilitado())
+            throw new IllegalStateException("Schema dedicado desabilitado (app.tenancy.schema-dedicado.habilitado)");
+
+        Tenant tenant = tenantRepository.findById(tenantId)
+            .orElseThrow(() -> new IllegalArgumentException("Tenant não encontrado: " + tenantId));
+
+        if (Boolean.TRUE.equals(tenant.getSchemaDedicado()))
+            throw new IllegalArgumentException("Tenant já possui schema dedicado: " + tenant.getDatabaseSchema());
+
+        String schema = tenant.getDatabaseSchema();
+
+        if (schema == null || !NOME_SCHEMA.matcher(schema).matches())
+            throw new IllegalArgumentException("Nome de schema inválido: " + schema);
+
+        long inicio = System.currentTimeMillis();
+        boolean movido = false;
+
+        try (Connection conexao = dataSource.getConnection())
+        {
+            executar(conexao, "CREATE DATABASE IF NOT EXISTS `" + schema + "`");
+            sincronizarEstrutura(conexao, schema);
+
+            // Recusa antecipada aqui e nos demais nós; quem não receber o aviso a tempo é barrado no banco
+            roteamento.bloquear(tenantId, BLOQUEIO_MAXIMO);
+            barramento.publicar(CACHE_BLOQUEIO, tenantId);
+
+            moverDados(conexao, schema, tenantId);
+            movido = true;
+        }
+        catch (SQLException e)
+        {
+            throw new IllegalStateException("Falha ao provisionar schema " + schema + ": " + e.getMessage(), e);
+        }
+        finally
+        {
+            if (movido)
+            {
+                roteamento.registrar(tenantId, schema);
+
+                // A troca foi feita por JDBC: o Tenant em cache ainda diz schemaDedicado = false
+                entityManagerFactory.getCache().evict(Tenant.class);
+                cacheHibernate.publicarRegiao(Tenant.class);
+            }
+
+            // Nos demais nós: recarrega o roteamento e libera as escritas
+            roteamento.liberar(tenantId);
+            barramento.publicar(CACHE_INVALIDACAO, tenantId);
+        }
+
+        log.info("[SCHEMA] Tenant {} movido para o schema {} em {} ms", tenantId, schema, System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Marca o tenant como dedicado, copia as linhas dele e apaga as do compartilhado em uma
+     * transação. A marcação vem primeiro: o UPDATE trava a linha do tenant, espera as transações
+     * de escrita que já a leram (GuardaEscritaSchema) e segura as novas até o commit, que então
+     * enxergam a flag ligada. As linhas ainda são travadas antes da cópia (SELECT ... FOR UPDATE
+     * pelo índice de tenant_id) para escritas que não passam pela barreira (jobs sem tenant).
+     */
+    private void moverDados(Connection conexao, String schema, Long tenantId) throws SQLException
+    {
+        String compartilhado = conexao.getCatalog();
+        Map<String, Long> linhas = new LinkedHashMap<>();
+
+        conexao.setAutoCommit(false);
+
+        try
+        {
+            // A troca vai junto com a cópia: ou o tenant está inteiro em um schema, ou no outro
+            int trocado = executar(conexao, "UPDATE `" + compartilhado + "`.`tenants` SET schema_dedicado = true WHERE id = ? AND (schema_dedicado IS NULL OR schema_dedicado = false)", tenantId);
+            conferir("tenants", "marcadas", 1L, trocado);
+
+            for (String tabela : TABELAS_TENANT)
+                linhas.put(tabela, contar(conexao, "SELECT COUNT(*) FROM `" + compartilhado + "`.`" + tabela + "` WHERE tenant_id = ? FOR UPDATE", tenantId));
+
+            for (String tabela : TABELAS_TENANT)
+            {
+                int copiadas = executar(conexao, "INSERT INTO `" + schema + "`.`" + tabela + "` SELECT * FROM `" + compartilhado + "`.`" + tabela + "` WHERE tenant_id = ?", tenantId);
+                conferir(tabela, "copiadas", linhas.get(tabela), copiadas);
+            }
+
+            for (String tabela : TABELAS_TENANT)
+            {
+                int apagadas = executar(conexao, "DELETE FROM `" + compartilhado + "`.`" + tabela + "` WHERE tenant_id = ?", tenantId);
+                conferir(tabela, "apagadas", linhas.get(tabela), apagadas);
+            }
+
+            conexao.commit();
+            log.info("[SCHEMA] Linhas movidas para {}: {}", schema, linhas);
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            conexao.rollback();
+            throw e;
+        }
+        finally
+        {
+            conexao.setAutoCommit(true);
+        }
+    }
+
+    private void conferir(String tabela, String operacao, long esperadas, int obtidas)
+    {
+        if (obtidas != esperadas)
+            throw new IllegalStateException("Contagem divergente em " + tabela + ": " + esperadas + " esperadas, " + obtidas + " " + operacao);
+    }
+
+    /**
+     * Cria as tabelas do tenant que faltam (mesma estrutura das compartilhadas), adiciona colunas
+     * e índices criados depois pelas migrações do Flyway (que só rodam no compartilhado) e recria
+     * as views das tabelas compartilhadas. Idempotente.
+     */
+    private void sincronizarEstrutura(Connection conexao, String schema) throws SQLException
+    {
+        String compartilhado = conexao.getCatalog();
+        Set<String> existentes = tabelas(conexao, schema);
+
+        for (String tabela : TABELAS_TENANT)
+        {
+            if (!existentes.contains(tabela))
+                executar(conexao, "CREATE TABLE `" + schema + "`.`" + tabela + "` LIKE `" + compartilhado + "`.`" + tabela + "`");
+            else
+            {
+                adicionarColunasNovas(conexao, compartilhado, schema, tabela);
+                adicionarIndicesNovos(conexao, compartilhado, schema, tabela);
+            }
+        }
+
+        for (String tabela : tabelas(conexao, compartilhado))
+        {
+            if (!TABELAS_TENANT.contains(tabela))
+                executar(conexao, "CREATE OR REPLACE VIEW `" + schema + "`.`" + tabela + "` AS SELECT * FROM `" + compartilhado + "`.`" + tabela + "`");
+        }
+    }
+
+    /**
+     * Colunas que existem no compartilhado e faltam no dedicado, com a definição completa do
+     * SHOW CREATE TABLE (tipo, NOT NULL, DEFAULT, ON UPDATE...): o dedicado fica igual ao que as
+     * migrações criaram no compartilhado.
+     */
+    private void adicionarColunasNovas(Connection conexao, String compartilhado, String schema, String tabela) throws SQLException
+    {
+        Set<String> colunasDedicado = definicoesColunas(conexao, schema, tabela).keySet();
+        List<String> alteracoes = new ArrayList<>();
+
+        definicoesColunas(conexao, compartilhado, tabela).forEach((coluna, definicao) -> {
+            if (!colunasDedicado.contains(coluna))
+                alteracoes.add("ADD COLUMN " + definicao);
+        });
+
+        if (!alteracoes.isEmpty())
+        {
+            executar(conexao, "ALTER TABLE `" + schema + "`.`" + tabela + "` " + String.join(", ", alteracoes));
+            log.info("[SCHEMA] {} coluna(s) adicionada(s) em {}.{}: {}", alteracoes.size(), schema, tabela, alteracoes);
+        }
+    }
+
+    /**
+     * Coluna -> definição como aparece no SHOW CREATE TABLE (uma linha por coluna, começando pelo nome entre crases).
+     */
+    private Map<String, String> definicoesColunas(Connection conexao, String schema, String tabela) throws SQLException
+    {
+        Map<String, String> colunas = new LinkedHashMap<>();
+
+        try (Statement st = conexao.createStatement();
+             ResultSet rs = st.executeQuery("SHOW CREATE TABLE `" + schema + "`.`" + tabela + "`"))
+        {
+            if (!rs.next())
+                return colunas;
+
+            for (String linha : rs.getString(2).split("\n"))
+            {
+                Matcher coluna = DEFINICAO_COLUNA.matcher(linha);
+
+                if (coluna.matches())
+                    colunas.put(coluna.group(2), coluna.group(1));
+            }
+        }
+
+        return colunas;
+    }
+
+    private void adicionarIndicesNovos(Connection conexao, String compartilhado, String schema, String tabela) throws SQLException
+    {
+        Map<String, String> indicesDedicado = indices(conexao, schema, tabela);
+
+        for (Map.Entry<String, String> indice : indices(conexao, compartilhado, tabela).entrySet())
+        {
+            if (!indicesDedicado.containsKey(indice.getKey()))
+            {
+                executar(conexao, "ALTER TABLE `" + schema + "`.`" + tabela + "` ADD " + indice.getValue());
+                log.info("[SCHEMA] Índice {} criado em {}.{}", indice.getKey(), schema, tabela);
+            }
+        }
+    }
+
+    /**
+     * Índices secundários da tabela: nome -> definição para o ALTER TABLE ... ADD.
+     */
+    private Map<String, String> indices(Connection conexao, String schema, String tabela) throws SQLException
+    {
+        Map<String, String> tipos = new LinkedHashMap<>();
+        Map<String, List<String>> colunas = new LinkedHashMap<>();
+        String sql = "SELECT index_name, non_unique, column_name FROM information_schema.statistics "
+            + "WHERE table_schema = ? AND table_name = ? AND index_name <> 'PRIMARY' ORDER BY index_name, seq_in_index";
+
+        try (PreparedStatement ps = conexao.prepareStatement(sql))
+        {
+            ps.setString(1, schema);
+            ps.setString(2, tabela);
+
+            try (ResultSet rs = ps.executeQuery())
+            {
+                while (rs.next())
+                {
+                    tipos.putIfAbsent(rs.getString(1), rs.getInt(2) == 0 ? "UNIQUE INDEX" : "INDEX");
+                    colunas.computeIfAbsent(rs.getString(1), i -> new ArrayList<>()).add("`" + rs.getString(3) + "`");
+                }
+            }
+        }
+
+        Map<String, String> indices = new LinkedHashMap<>();
+        colunas.forEach((nome, lista) -> indices.put(nome, tipos.get(nome) + " `" + nome + "` (" + String.join(", ", lista) + ")"));
+
+        return indices;
+    }
+
+    private Set<String> tabelas(Connection conexao, String schema) throws SQLException
+    {
+        Set<String> tabelas = new HashSet<>();
+
+        try (PreparedStatement ps = conexao.prepareStatement(
+            "SELECT table_name FROM information_schema.tables WHERE table_schema = ? AND table_type = 'BASE TABLE'"))
+        {
+            ps.setString(1, schema);
+
+            try (ResultSet rs = ps.executeQuery())
+            {
+                while (rs.next())
+                    tabelas.add(rs.getString(1).toLowerCase());
+            }
+        }
+
+        return tabelas;
+    }
+
+    private void executar(Connection conexao, String sql) throws SQLException
+    {
+        try (Statement st = conexao.createStatement())
+        {
+            st.execute(sql);
+        }
+    }
+
+    private int executar(Connection conexao, String sql, Long tenantId) throws SQLException
+    {
+        try (PreparedStatement ps = conexao.prepareStatement(sql))
+        {
+            ps.setLong(1, tenantId);
+            return ps.executeUpdate();
+        }
+    }
+
+    private long contar(Connection conexao, String sql, Long tenantId) throws SQLException
+    {
+        try (PreparedStatement ps = conexao.prepareStatement(sql))
+        {
+            ps.setLong(1, tenantId);
+
+            try (ResultSet rs = ps.executeQuery())
+            {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.grazy_back.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.model.RefreshToken;
+import com.example.grazy_back.repository.RefreshTokenRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Emissão, rotação e revogação dos refresh tokens.
+ * O token é aleatório (256 bits) e só o SHA-256 dele vai para o banco: renovar custa uma
+ * busca por índice, sem BCrypt. Cada renovação troca o token; reapresentar um token já
+ * trocado revoga a família inteira (todos os tokens daquele login).
+ */
+@Service
+@Slf4j
+public class RefreshTokenService
+{
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MetricasService metricas;
+    private final Duration validade;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               MetricasService metricas,
+                               @Value("${app.jwt.refresh-expiration-ms:2592000000}") long validadeMs)
+    {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.metricas = metricas;
+        this.validade = Duration.ofMillis(validadeMs);
+    }
+
+    /**
+     * Usuário dono do token trocado e o token novo, que substitui o apresentado.
+     */
+    public record Rotacao(Long usuarioId, String token) {}
+
+    /**
+     * Novo token para um login (nova família).
+     */
+    public String emitir(Long usuarioId)
+    {
+        return emitir(usuarioId, UUID.randomUUID().toString(), Instant.now());
+    }
+
+    /**
+     * Troca o token apresentado por um novo da mesma família.
+     * @return vazio se o token não existe, expirou, foi revogado ou já foi usado
+     */
+    public Optional<Rotacao> rotacionar(String token)
+    {
+        if (token == null || token.isBlank())
+            return Optional.empty();
+
+        RefreshToken atual = refreshTokenRepository.findByTokenHash(hash(token)).orElse(null);
+        Instant agora = Instant.now();
+
+        if (atual == null || atual.getRevogadoEm() != null || !atual.getExpiraEm().isAfter(agora))
+        {
+            metricas.incrementar("grazy.auth.refresh", "resultado", "invalido");
+            return Optional.empty();
+        }
+
+        if (atual.getUsadoEm() != null)
+        {
+            // Token já trocado apareceu de novo: alguém além do dono tem uma cópia
+            int revogados = refreshTokenRepository.revogarFamilia(atual.getFamilia(), agora);
+            metricas.incrementar("grazy.auth.refresh", "resultado", "reuso");
+            log.warn("[AUTH] Refresh token reutilizado (usuário {}): {} token(s) da família revogados",
+                atual.getUsuarioId(), revogados);
+            return Optional.empty();
+        }
+
+        // Outra renovação com o mesmo token acabou de ganhar a corrida
+        if (refreshTokenRepository.marcarUsado(atual.getId(), agora) == 0)
+        {
+            metricas.incrementar("grazy.auth.refresh", "resultado", "concorrente");
+            return Optional.empty();
+        }
+
+        metricas.incrementar("grazy.auth.refresh", "resultado", MetricasService.SUCESSO);
+        return Optional.of(new Rotacao(atual.getUsuarioId(), emitir(atual.getUsuarioId(), atual.getFamilia(), agora)));
+    }
+
+    /**
+     * Logout: revoga o token e todos os da mesma família.
+     */
+    public void revogar(String token)
+    {
+        if (token == null || token.isBlank())
+            return;
+
+        refreshTokenRepository.findByTokenHash(hash(token))
+            .ifPresent(r -> refreshTokenRepository.revogarFamilia(r.getFamilia(), Instant.now()));
+    }
+
+    /**
+     * Encerra todas as sessões do usuário (ex: troca de senha).
+     */
+    public void revogarPorUsuario(Long usuarioId)
+    {
+        int revogados = refreshTokenRepository.revogarPorUsuario(usuarioId, Instant.now());
+
+        if (revogados > 0)
+            log.info("[AUTH] {} refresh token(s) do usuário {} revogados", revogados, usuarioId);
+    }
+
+    @Scheduled(cron = "0 43 4 * * *")
+    public void limpar()
+    {
+        int apagados = refreshTokenRepository.removerExpirados(Instant.now());
+
+        if (apagados > 0)
+            log.debug("[AUTH] {} refresh tokens expirados apagados", apagados);
+    }
+
+    private String emitir(Long usuarioId, String familia, Instant agora)
+    {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+            .usuarioId(usuarioId)
+            .tokenHash(hash(token))
+            .familia(familia)
+            .criadoEm(agora)
+            .expiraEm(agora.plus(validade))
+            .build());
+
+        return token;
+    }
+
+    private static String hash(String token)
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.grazy_back.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.grazy_back.GrazyBackApplication;
+import com.example.grazy_back.config.RoteamentoSchema;
+import com.example.grazy_back.dto.EmailRequest;
+import com.example.grazy_back.dto.ResumoAgendamentoItem;
+import com.example.grazy_back.model.ConfiguracaoNotificacao;
+import com.example.grazy_back.model.EmailPendente;
+import com.example.grazy_back.repository.AgendamentoRepository;
+
+/**
+ * Resumo diário de agendamentos, um email por tenant para o admin do próprio tenant.
+ * Os agendamentos do dia são lidos em uma única passada ordenada por tenant; o resumo
+ * de cada tenant é montado incrementalmente e enfileirado quando o tenant muda.
+ * A entrega fica a cargo da fila de emails (EmailFilaService).
+ */
+@Service
+public class ResumoDiarioService
+{
+    private static final Logger log = LoggerFactory.getLogger(ResumoDiarioService.class);
+
+    private final AgendamentoRepository agendamentoRepository;
+    private final ConfiguracaoNotificacaoService configService;
+    private final MessageBuilderService messageBuilder;
+    private final EmailService emailService;
+    private final MetricasService metricas;
+    private final RoteamentoSchema roteamento;
+    private final TransactionTemplate leitura;
+    private final TransactionTemplate escrita;
+
+    @Value("${notificacao.resumo.lote:200}")
+    private int tamanhoLote;
+
+    public ResumoDiarioService(AgendamentoRepository agendamentoRepository,
+                               ConfiguracaoNotificacaoService configService,
+                               MessageBuilderService messageBuilder,
+                               EmailService emailService,
+                               MetricasService metricas,
+                               RoteamentoSchema roteamento,
+                               PlatformTransactionManager transactionManager)
+    {
+        this.agendamentoRepository = agendamentoRepository;
+        this.configService = configService;
+        this.messageBuilder = messageBuilder;
+        this.emailService = emailService;
+        this.metricas = metricas;
+        this.roteamento = roteamento;
+
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+
+        // A leitura mantém o cursor aberto; a fila é gravada em outra conexão/transação
+        this.escrita = new TransactionTemplate(transactionManager);
+        this.escrita.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(cron = "0 0 7 * * *", zone = GrazyBackApplication.FUSO_HORARIO)
+    public void enviarResumoDiario()
+    {
+        ConfiguracaoNotificacao cfg = configService.obter();
+
+        if (cfg == null || !cfg.isResumoAtivo())
+            return;
+
+        metricas.executarJob("resumo-diario", () -> enviarResumo(LocalDate.now(GrazyBackApplication.ZONA)));
+    }
+
+    /**
+     * Enfileira o resumo do dia para cada tenant com agendamentos.
+     * @return quantidade de tenants que receberam resumo
+     */
+    public int enviarResumo(LocalDate dia)
+    {
+        LocalDateTime inicio = dia.atStartOfDay();
+        LocalDateTime fim = inicio.plusDays(1);
+        long comeco = System.currentTimeMillis();
+
+        // Uma passada no schema compartilhado e uma em cada schema dedicado
+        int tenants = roteamento.paraCadaSchema(() -> {
+            Integer quantidade = leitura.execute(status -> {
+                try (Stream<ResumoAgendamentoItem> itens = agendamentoRepository.streamResumoPorTenant(inicio, fim))
+                {
+                    return montarResumos(itens.iterator(), dia);
+                }
+            });
+
+            return quantidade != null ? quantidade : 0;
+        });
+
+        log.info("[RESUMO] Resumo diário de {} enfileirado para {} tenant(s) em {} ms",
+            dia, tenants, System.currentTimeMillis() - comeco);
+
+        return tenants;
+    }
+
+    private int montarResumos(Iterator<ResumoAgendamentoItem> itens, LocalDate dia)
+    {
+        List<ResumoPendente> pendentes = new ArrayList<>(tamanhoLote);
+        StringBuilder linhas = new StringBuilder(4096);
+        int tenants = 0;
+
+        Long tenantAtual = null;
+        String destinoAtual = null;
+        int total = 0;
+
+        while (itens.hasNext())
+        {
+            ResumoAgendamentoItem item = itens.next();
+
+            if (!item.tenantId().equals(tenantAtual))
+            {
+                if (adicionar(pendentes, tenantAtual, destinoAtual, linhas, total, dia))
+                    tenants++;
+
+                if (pendentes.size() >= tamanhoLote)
+                    gravar(pendentes, dia);
+
+                tenantAtual = item.tenantId();
+                destinoAtual = item.emailAdmin();
+                linhas.setLength(0);
+                total = 0;
+            }
+
+            messageBuilder.appendLinhaResumo(linhas, item.dataHora(), item.cliente(), item.servico(), item.status());
+            total++;
+        }
+
+        if (adicionar(pendentes, tenantAtual, destinoAtual, linhas, total, dia))
+            tenants++;
+
+        gravar(pendentes, dia);
+
+        return tenants;
+    }
+
+    private boolean adicionar(List<ResumoPendente> pendentes, Long tenantId, String destino, StringBuilder linhas,
+                              int total, LocalDate dia)
+    {
+        if (tenantId == null || total == 0)
+            return false;
+
+        if (destino == null || destino.isBlank())
+        {
+            log.warn("[RESUMO] Tenant {} sem email de admin - resumo não enviado", tenantId);
+            return false;
+        }
+
+        EmailRequest req = new EmailRequest();
+        req.setTo(List.of(destino));
+        req.setBody(messageBuilder.corpoResumoAgendamentos(linhas, total, dia));
+        req.setHtml(false);
+
+        pendentes.add(new ResumoPendente(tenantId, req));
+        return true;
+    }
+
+    /**
+     * Grava o lote na fila em uma transação própria. O assunto é montado aqui, e não durante a leitura,
+     * porque o template do tenant pode precisar ir ao banco e a conexão da leitura está ocupada pelo cursor.
+     */
+    private void gravar(List<ResumoPendente> pendentes, LocalDate dia)
+    {
+        if (pendentes.isEmpty())
+            return;
+
+        escrita.executeWithoutResult(status -> {
+            List<EmailPendente> lote = new ArrayList<>(pendentes.size());
+
+            for (ResumoPendente p : pendentes)
+            {
+                p.request().setSubject(messageBuilder.assuntoResumoAgendamentos(p.tenantId(), dia));
+                lote.add(emailService.criarPendente(p.request(), p.tenantId()));
+            }
+
+            emailService.enfileirarTodos(lote);
+        });
+
+        pendentes.clear();
+    }
+
+    private record ResumoPendente(Long tenantId, EmailRequest request) {}
+}
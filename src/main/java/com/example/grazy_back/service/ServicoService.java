@@ -1,14 +1,13 @@
 package com.example.grazy_back.service;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
 import org.springframework.data.domain.Sort;
 
+import com.example.grazy_back.config.CacheHibernateInvalidacao;
 import com.example.grazy_back.dto.ServicoRequest;
 import com.example.grazy_back.enums.ServicoDeleteResultado;
 import com.example.grazy_back.model.Servico;
@@ -28,11 +27,15 @@ public class ServicoService
     @Autowired
     private AgendamentoRepository agendamentoRepository;
 
+    @Autowired
+    private CacheHibernateInvalidacao cacheInvalidacao;
+
     public List<Servico> listarServicos() 
     {
         Long tenantId = TenantContext.getCurrentTenantId();
         Sort sort = Sort.by(Sort.Direction.ASC, "ordem", "nome");
         
+        // Mantido: a consulta do tenant vai para o cache de consultas, cuja chave não inclui o valor do filtro
         if (tenantId == null && TenantContext.isSuperAdmin()) 
         {
             return servicoRepository.findByAtivoTrue(sort);
@@ -133,27 +136,18 @@ public class ServicoService
 
     private int proximaOrdem()
     {
-        return servicoRepository.findAll().stream()
-                .map(Servico::getOrdem)
-                .filter(o -> o != null)
-                .max(Integer::compareTo)
-                .map(max -> max + 1)
-                .orElse(0);
+        Integer max = servicoRepository.findMaxOrdemByTenantId(TenantContext.getCurrentTenantId());
+        return max != null ? max + 1 : 0;
     }
 
     public void atualizarOrdenacao(List<Long> idsOrdenados)
     {
-        List<Servico> servicos = servicoRepository.findAllById(idsOrdenados);
-        Map<Long, Servico> porId = servicos.stream().collect(Collectors.toMap(Servico::getId, s -> s));
-
-        for (int i = 0; i < idsOrdenados.size(); i++)
-        {
-            Long id = idsOrdenados.get(i);
-            Servico s = porId.get(id);
-            if (s != null) s.setOrdem(i);
-        }
+        if (idsOrdenados == null || idsOrdenados.isEmpty())
+            return;
 
-        servicoRepository.saveAll(porId.values());
+        // Um UPDATE ... CASE em vez de carregar e salvar serviço por serviço; o filtro restringe ao tenant
+        if (servicoRepository.atualizarOrdem(idsOrdenados) > 0)
+            cacheInvalidacao.publicarRegiao(Servico.class);
     }
 
     public Servico ativarServico(Long id)
@@ -172,6 +166,7 @@ public class ServicoService
         Long tenantId = TenantContext.getCurrentTenantId();
         Sort sort = Sort.by(Sort.Direction.ASC, "ordem", "nome");
         
+        // Mantido pelo mesmo motivo de listarServicos (cache de consultas)
         if (tenantId == null && TenantContext.isSuperAdmin()) 
         {
             return servicoRepository.findAll(sort);
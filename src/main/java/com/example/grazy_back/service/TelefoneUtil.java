@@ -0,0 +1,73 @@
+package com.example.grazy_back.service;
+
+/**
+ * Normalização de telefones brasileiros para comparação e busca.
+ */
+public final class TelefoneUtil
+{
+    private TelefoneUtil() {}
+
+    /**
+     * Só os dígitos do número nacional (DDD + número): sem pontuação, zero de discagem
+     * ou código do país. Ex: "+55 (11) 99999-8888" e "011 99999 8888" viram "11999998888".
+     * @return null se não houver dígitos
+     */
+    public static String normalizar(String telefone)
+    {
+        if (telefone == null)
+            return null;
+
+        String digitos = telefone.replaceAll("[^0-9]", "");
+
+        // Zero de discagem só em números completos; em pedaços ("0001") ele é dígito do número
+        if (digitos.startsWith("0") && digitos.length() >= 11)
+            digitos = digitos.substring(1);
+
+        if (digitos.startsWith("55") && digitos.length() >= 12)
+            digitos = digitos.substring(2);
+
+        return digitos.isEmpty() ? null : digitos;
+    }
+
+    /**
+     * Chave para comparar dois cadastros do mesmo número: o normalizado, com celulares
+     * reduzidos a DDD + 8 dígitos ("11 99999-8888" e o antigo "11 9999-8888" batem).
+     * @return null se não houver dígitos
+     */
+    public static String chave(String telefone)
+    {
+        String normalizado = normalizar(telefone);
+
+        if (normalizado != null && normalizado.length() == 11 && normalizado.charAt(2) == '9')
+            return normalizado.substring(0, 2) + normalizado.substring(3);
+
+        return normalizado;
+    }
+
+    /**
+     * Formato internacional usado no envio pelo WhatsApp: 55 + DDD + número.
+     */
+    public static String internacional(String telefone)
+    {
+        String digitos = normalizar(telefone);
+
+        if (digitos == null)
+            return "";
+
+        if (digitos.length() == 10 || digitos.length() == 11)
+            return "55" + digitos;
+
+        return digitos;
+    }
+
+    /**
+     * Número sem o DDD, quando o normalizado tem DDD (10 ou 11 dígitos).
+     */
+    public static String semDdd(String normalizado)
+    {
+        if (normalizado != null && (normalizado.length() == 10 || normalizado.length() == 11))
+            return normalizado.substring(2);
+
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.grazy_back.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template de mensagem já analisado: texto fixo e variáveis intercalados em arrays.
+ * A análise acontece uma única vez; renderizar é só concatenar os segmentos.
+ * Instâncias são imutáveis e podem ser compartilhadas entre threads.
+ */
+public final class TemplateCompilado 
+{
+    private static final String ABRE = "{{";
+    private static final String FECHA = "}}";
+
+    // Buffers reaproveitados por thread para evitar realocação a cada renderização
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+    private static final int TAMANHO_MAX_BUFFER = 64 * 1024;
+
+    private final String[] literais;   // literais.length == variaveis.length + 1
+    private final String[] variaveis;
+    private final int tamanhoEstimado;
+
+    private TemplateCompilado(String[] literais, String[] variaveis) 
+    {
+        this.literais = literais;
+        this.variaveis = variaveis;
+
+        int tamanho = 0;
+        for (String literal : literais)
+            tamanho += literal.length();
+
+        this.tamanhoEstimado = tamanho + variaveis.length * 16;
+    }
+
+    /**
+     * Analisa o texto. Variáveis fora de {@code permitidas} geram IllegalArgumentException.
+     */
+    public static TemplateCompilado compilar(String texto, Collection<String> permitidas) 
+    {
+        if (texto == null)
+            throw new IllegalArgumentException("Template é obrigatório");
+
+        List<String> literais = new ArrayList<>();
+        List<String> variaveis = new ArrayList<>();
+        int pos = 0;
+
+        while (true) 
+        {
+            int inicio = texto.indexOf(ABRE, pos);
+
+            if (inicio < 0)
+                break;
+
+            int fim = texto.indexOf(FECHA, inicio + ABRE.length());
+
+            if (fim < 0)
+                throw new IllegalArgumentException("Variável não fechada na posição " + inicio);
+
+            String nome = texto.substring(inicio + ABRE.length(), fim).trim();
+
+            if (!permitidas.contains(nome))
+                throw new IllegalArgumentException("Variável desconhecida: {{" + nome + "}}. Permitidas: " + permitidas);
+
+            literais.add(texto.substring(pos, inicio));
+            variaveis.add(nome);
+            pos = fim + FECHA.length();
+        }
+
+        literais.add(texto.substring(pos));
+
+        return new TemplateCompilado(literais.toArray(String[]::new), variaveis.toArray(String[]::new));
+    }
+
+    /**
+     * Monta o mapa de valores a partir de pares chave/valor. Ao contrário de Map.of, aceita valores nulos.
+     */
+    public static Map<String, Object> valores(Object... chavesEValores) 
+    {
+        if (chavesEValores.length % 2 != 0)
+            throw new IllegalArgumentException("Informe pares chave/valor");
+
+        Map<String, Object> valores = new HashMap<>(chavesEValores.length);
+
+        for (int i = 0; i < chavesEValores.length; i += 2)
+            valores.put((String) chavesEValores[i], chavesEValores[i + 1]);
+
+        return valores;
+    }
+
+    /**
+     * Renderiza o template. Variáveis ausentes ou nulas viram texto vazio.
+     */
+    public String renderizar(Map<String, ?> valores) 
+    {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        sb.ensureCapacity(tamanhoEstimado);
+
+        renderizar(valores, sb);
+
+        String resultado = sb.toString();
+
+        // Não mantém buffers gigantes presos à thread
+        if (sb.capacity() > TAMANHO_MAX_BUFFER)
+            BUFFER.remove();
+
+        return resultado;
+    }
+
+    /**
+     * Renderiza acrescentando ao builder informado.
+     */
+    public void renderizar(Map<String, ?> valores, StringBuilder sb) 
+    {
+        sb.append(literais[0]);
+
+        for (int i = 0; i < variaveis.length; i++) 
+        {
+            Object valor = valores.get(variaveis[i]);
+
+            if (valor != null)
+                sb.append(valor);
+
+            sb.append(literais[i + 1]);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.grazy_back.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.grazy_back.dto.TemplateMensagemResponse;
+import com.example.grazy_back.enums.TipoTemplateEnum;
+import com.example.grazy_back.model.TemplateMensagem;
+import com.example.grazy_back.repository.TemplateMensagemRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Templates de mensagem (WhatsApp/email).
+ * Os textos padrão são compilados na inicialização; os personalizados por tenant
+ * são carregados do banco na primeira utilização e ficam em cache até serem alterados
+ * (neste nó ou em outro, via barramento de invalidação, sempre depois do commit).
+ * A expiração do cache cobre uma invalidação perdida.
+ */
+@Service
+@Slf4j
+public class TemplateMensagemService 
+{
+    private static final String PASTA = "mensagens/";
+
+    public static final String CACHE_INVALIDACAO = "templates";
+
+    private final TemplateMensagemRepository templateMensagemRepository;
+    private final BarramentoInvalidacaoService barramentoInvalidacao;
+
+    private final Map<TipoTemplateEnum, String> textosPadrao = new EnumMap<>(TipoTemplateEnum.class);
+    private final Map<TipoTemplateEnum, TemplateCompilado> padroes = new EnumMap<>(TipoTemplateEnum.class);
+
+    // tenantId -> templates personalizados daquele tenant (mapa vazio = nenhum personalizado)
+    private final Cache<Long, Map<TipoTemplateEnum, TemplateCompilado>> cachePorTenant;
+
+    public TemplateMensagemService(TemplateMensagemRepository templateMensagemRepository, BarramentoInvalidacaoService barramentoInvalidacao,
+                                   @Value("${app.templates.cache-minutos:30}") long cacheMinutos) 
+    {
+        this.templateMensagemRepository = templateMensagemRepository;
+        this.barramentoInvalidacao = barramentoInvalidacao;
+        this.cachePorTenant = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(cacheMinutos))
+            .build();
+
+        for (TipoTemplateEnum tipo : TipoTemplateEnum.values()) 
+        {
+            String texto = carregarPadrao(tipo);
+            textosPadrao.put(tipo, texto);
+            padroes.put(tipo, TemplateCompilado.compilar(texto, tipo.getVariaveis()));
+        }
+
+        barramentoInvalidacao.assinar(CACHE_INVALIDACAO, chave -> cachePorTenant.invalidate(Long.valueOf(chave)));
+    }
+
+    /**
+     * Renderiza o template do tenant (ou o padrão, se tenantId for null ou não houver personalização).
+     */
+    public String renderizar(Long tenantId, TipoTemplateEnum tipo, Map<String, ?> valores) 
+    {
+        return obter(tenantId, tipo).renderizar(valores);
+    }
+
+    /**
+     * Template compilado a ser usado pelo tenant.
+     */
+    public TemplateCompilado obter(Long tenantId, TipoTemplateEnum tipo) 
+    {
+        if (tenantId == null || !tipo.isPersonalizavel())
+            return padroes.get(tipo);
+
+        TemplateCompilado personalizado = cachePorTenant
+            .get(tenantId, this::carregarPersonalizados)
+            .get(tipo);
+
+        return personalizado != null ? personalizado : padroes.get(tipo);
+    }
+
+    /**
+     * Lista os templates personalizáveis com o conteúdo em uso pelo tenant.
+     */
+    public List<TemplateMensagemResponse> listar(Long tenantId) 
+    {
+        Map<TipoTemplateEnum, String> personalizados = new EnumMap<>(TipoTemplateEnum.class);
+
+        for (TemplateMensagem t : templateMensagemRepository.findByTenantId(tenantId))
+            personalizados.put(t.getTipo(), t.getConteudo());
+
+        List<TemplateMensagemResponse> lista = new ArrayList<>();
+
+        for (TipoTemplateEnum tipo : TipoTemplateEnum.values()) 
+        {
+            if (!tipo.isPersonalizavel())
+                continue;
+
+            String conteudo = personalizados.get(tipo);
+            lista.add(TemplateMensagemResponse.builder()
+                .tipo(tipo)
+                .descricao(tipo.getDescricao())
+                .variaveis(tipo.getVariaveis())
+                .conteudo(conteudo != null ? conteudo : textosPadrao.get(tipo))
+                .personalizado(conteudo != null)
+                .build());
+        }
+
+        return lista;
+    }
+
+    /**
+     * Salva (ou substitui) o template personalizado do tenant.
+     * O conteúdo é validado antes de gravar: variáveis desconhecidas são rejeitadas.
+     */
+    @Transactional
+    public TemplateMensagemResponse salvar(Long tenantId, TipoTemplateEnum tipo, String conteudo) 
+    {
+        if (!tipo.isPersonalizavel())
+            throw new IllegalArgumentException("Template não pode ser personalizado: " + tipo);
+
+        TemplateCompilado.compilar(conteudo, tipo.getVariaveis());
+
+        TemplateMensagem template = templateMensagemRepository.findByTenantIdAndTipo(tenantId, tipo)
+            .orElseGet(() -> TemplateMensagem.builder().tenantId(tenantId).tipo(tipo).build());
+
+        template.setConteudo(conteudo);
+        template.setAtualizadoEm(Instant.now());
+        templateMensagemRepository.save(template);
+
+        invalidar(tenantId);
+        log.info("[TEMPLATE] Template {} personalizado pelo tenant {}", tipo, tenantId);
+
+        return TemplateMensagemResponse.builder()
+            .tipo(tipo)
+            .descricao(tipo.getDescricao())
+            .variaveis(tipo.getVariaveis())
+            .conteudo(conteudo)
+            .personalizado(true)
+            .build();
+    }
+
+    /**
+     * Remove a personalização e volta a usar o texto padrão.
+     */
+    @Transactional
+    public void restaurarPadrao(Long tenantId, TipoTemplateEnum tipo) 
+    {
+        templateMensagemRepository.findByTenantIdAndTipo(tenantId, tipo)
+            .ifPresent(templateMensagemRepository::delete);
+
+        invalidar(tenantId);
+    }
+
+    /**
+     * Descarta os templates do tenant em cache (recarregados no próximo uso), aqui e nos demais nós.
+     * Dentro de uma transação o descarte local só acontece depois do commit: antes disso, uma
+     * leitura concorrente recarregaria o conteúdo antigo e o deixaria em cache.
+     */
+    public void invalidar(Long tenantId) 
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    cachePorTenant.invalidate(tenantId);
+                }
+            });
+        }
+        else
+            cachePorTenant.invalidate(tenantId);
+
+        // O barramento também só publica depois do commit
+        barramentoInvalidacao.publicar(CACHE_INVALIDACAO, tenantId);
+    }
+
+    /**
+     * Formata um valor monetário com duas casas decimais (equivalente ao antigo "%.2f").
+     */
+    public static String formatarValor(Number valor) 
+    {
+        if (valor == null)
+            return "";
+
+        BigDecimal decimal = valor instanceof BigDecimal b ? b : new BigDecimal(valor.toString());
+        return decimal.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private Map<TipoTemplateEnum, TemplateCompilado> carregarPersonalizados(Long tenantId) 
+    {
+        List<TemplateMensagem> templates = templateMensagemRepository.findByTenantId(tenantId);
+
+        if (templates.isEmpty())
+            return Collections.emptyMap();
+
+        Map<TipoTemplateEnum, TemplateCompilado> compilados = new EnumMap<>(TipoTemplateEnum.class);
+
+        for (TemplateMensagem t : templates) 
+        {
+            try 
+            {
+                compilados.put(t.getTipo(), TemplateCompilado.compilar(t.getConteudo(), t.getTipo().getVariaveis()));
+            } 
+            catch (IllegalArgumentException e) 
+            {
+                // Template salvo antes de uma mudança nas variáveis: usa o padrão
+                log.warn("[TEMPLATE] Template {} do tenant {} inválido, usando padrão: {}", t.getTipo(), tenantId, e.getMessage());
+            }
+        }
+
+        return compilados;
+    }
+
+    private String carregarPadrao(TipoTemplateEnum tipo) 
+    {
+        try (InputStream in = new ClassPathResource(PASTA + tipo.getArquivo()).getInputStream()) 
+        {
+            String texto = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return texto.endsWith("\n") ? texto.substring(0, texto.length() - 1) : texto;
+        } 
+        catch (IOException e) 
+        {
+            throw new IllegalStateException("Template padrão não encontrado: " + tipo.getArquivo(), e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.grazy_back.service;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.grazy_back.GrazyBackApplication;
+import com.example.grazy_back.config.RoteamentoSchema;
+import com.example.grazy_back.dto.ContagemTenantItem;
+import com.example.grazy_back.dto.UsuariosTenantItem;
+import com.example.grazy_back.enums.MetricaUsoEnum;
+import com.example.grazy_back.model.TenantResumoUso;
+import com.example.grazy_back.model.UsoTenant;
+import com.example.grazy_back.repository.ClienteRepository;
+import com.example.grazy_back.repository.TenantResumoUsoRepository;
+import com.example.grazy_back.repository.UsoTenantRepository;
+import com.example.grazy_back.repository.UsuarioRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recalcula o uso de cada tenant (tenant_resumo_uso) para a listagem do super admin, que lê
+ * tudo em uma consulta em vez de contar tenant a tenant. Cada rodada faz poucas consultas
+ * agrupadas por tenant: agendamentos do mês da medição de uso (uso_tenant), clientes em cada
+ * schema, usuários e último login. Só as linhas que mudaram são gravadas.
+ */
+@Service
+@Slf4j
+public class TenantResumoUsoService
+{
+    private final TenantResumoUsoRepository resumoRepository;
+    private final UsoTenantRepository usoRepository;
+    private final ClienteRepository clienteRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final MetricasService metricas;
+    private final RoteamentoSchema roteamento;
+    private final TransactionTemplate novaTransacao;
+
+    @Value("${app.tenants.resumo-uso.habilitado:true}")
+    private boolean habilitado;
+
+    public TenantResumoUsoService(TenantResumoUsoRepository resumoRepository,
+                                  UsoTenantRepository usoRepository,
+                                  ClienteRepository clienteRepository,
+                                  UsuarioRepository usuarioRepository,
+                                  MetricasService metricas,
+                                  RoteamentoSchema roteamento,
+                                  PlatformTransactionManager transactionManager)
+    {
+        this.resumoRepository = resumoRepository;
+        this.usoRepository = usoRepository;
+        this.clienteRepository = clienteRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.metricas = metricas;
+        this.roteamento = roteamento;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tenants.resumo-uso.intervalo-ms:300000}", initialDelay = 90_000)
+    public void atualizar()
+    {
+        if (habilitado)
+            metricas.executarJob("tenants-resumo-uso", this::recalcular);
+    }
+
+    /**
+     * @return quantidade de tenants cujo resumo mudou
+     */
+    int recalcular()
+    {
+        Map<Long, Integer> agendamentos = new HashMap<>();
+        Map<Long, Integer> clientes = new HashMap<>();
+
+        // Cada tenant está em um schema só; somar não mistura nada
+        roteamento.paraCadaSchema(() -> {
+            somar(clientes, clienteRepository.contarPorTenant());
+            return 0;
+        });
+
+        // uso_tenant, usuarios e tenant_resumo_uso ficam no schema compartilhado
+        for (UsoTenant uso : usoRepository.findByPeriodoAndMetrica(UsoTenant.periodo(YearMonth.now(GrazyBackApplication.ZONA)), MetricaUsoEnum.AGENDAMENTOS))
+            agendamentos.merge(uso.getTenantId(), (int) uso.getQuantidade(), Integer::sum);
+
+        Map<Long, UsuariosTenantItem> usuarios = usuarioRepository.resumoPorTenant().stream()
+            .collect(Collectors.toMap(UsuariosTenantItem::tenantId, Function.identity()));
+
+        Integer alterados = novaTransacao.execute(status -> {
+            Map<Long, TenantResumoUso> atuais = resumoRepository.findAll().stream()
+                .collect(Collectors.toMap(TenantResumoUso::getTenantId, Function.identity()));
+
+            Set<Long> tenantIds = new HashSet<>(atuais.keySet());
+            tenantIds.addAll(agendamentos.keySet());
+            tenantIds.addAll(clientes.keySet());
+            tenantIds.addAll(usuarios.keySet());
+
+            Instant agora = Instant.now();
+            List<TenantResumoUso> novos = new ArrayList<>();
+            int mudaram = 0;
+
+            for (Long tenantId : tenantIds)
+            {
+                UsuariosTenantItem u = usuarios.get(tenantId);
+                int qtdAgendamentos = agendamentos.getOrDefault(tenantId, 0);
+                int qtdClientes = clientes.getOrDefault(tenantId, 0);
+                int qtdUsuarios = u != null ? (int) u.usuarios() : 0;
+                Instant ultimoLogin = u != null ? u.ultimoLogin() : null;
+
+                TenantResumoUso resumo = atuais.get(tenantId);
+
+                if (resumo == null)
+                {
+                    resumo = new TenantResumoUso();
+                    resumo.setTenantId(tenantId);
+                    novos.add(resumo);
+                }
+                else if (resumo.getAgendamentosNoMes() == qtdAgendamentos && resumo.getClientes() == qtdClientes
+                    && resumo.getUsuarios() == qtdUsuarios && Objects.equals(resumo.getUltimoLogin(), ultimoLogin))
+                {
+                    continue;
+                }
+
+                resumo.setAgendamentosNoMes(qtdAgendamentos);
+                resumo.setClientes(qtdClientes);
+                resumo.setUsuarios(qtdUsuarios);
+                resumo.setUltimoLogin(ultimoLogin);
+                resumo.setAtualizadoEm(agora);
+                mudaram++;
+            }
+
+            resumoRepository.saveAll(novos);
+            return mudaram;
+        });
+
+        if (alterados != null && alterados > 0)
+            log.debug("[TENANT] Resumo de uso atualizado para {} tenant(s)", alterados);
+
+        return alterados != null ? alterados : 0;
+    }
+
+    private static void somar(Map<Long, Integer> destino, List<ContagemTenantItem> contagens)
+    {
+        for (ContagemTenantItem c : contagens)
+            destino.merge(c.tenantId(), (int) c.quantidade(), Integer::sum);
+    }
+}
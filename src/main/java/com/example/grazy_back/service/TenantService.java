@@ -3,26 +3,36 @@ package com.example.grazy_back.service;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.grazy_back.config.CacheHibernateInvalidacao;
 import com.example.grazy_back.dto.CriarTenantRequest;
 import com.example.grazy_back.dto.ConfiguracaoTenantRequest;
 import com.example.grazy_back.dto.ConfiguracaoTenantResponse;
 import com.example.grazy_back.dto.TenantResponse;
 import com.example.grazy_back.dto.EmailRequest;
+import com.example.grazy_back.dto.Pagina;
+import com.example.grazy_back.dto.TenantListagemItem;
 import com.example.grazy_back.enums.PlanoEnum;
 import com.example.grazy_back.enums.RoleEnum;
 import com.example.grazy_back.enums.StatusTenantEnum;
+import com.example.grazy_back.enums.TipoTemplateEnum;
 import com.example.grazy_back.model.ConfiguracaoTenant;
 import com.example.grazy_back.model.Tenant;
+import com.example.grazy_back.model.TenantResumoUso;
 import com.example.grazy_back.model.Usuario;
 import com.example.grazy_back.repository.ConfiguracaoTenantRepository;
+import com.example.grazy_back.repository.TenantResumoUsoRepository;
 import com.example.grazy_back.repository.TenantRepository;
 import com.example.grazy_back.repository.UsuarioRepository;
 
@@ -37,11 +47,29 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TenantService 
 {
+    private static final int TAMANHO_PADRAO = 50;
+    private static final int TAMANHO_MAXIMO = 200;
+
+    // Ordenações aceitas na listagem -> atributo na consulta (TenantRepository.listar)
+    private static final Map<String, String> ORDENACAO = Map.of(
+        "nome", "t.nomeNegocio",
+        "criado", "t.criadoEm",
+        "plano", "t.plano",
+        "status", "t.status",
+        "agendamentos", "r.agendamentosNoMes",
+        "clientes", "r.clientes",
+        "ultimoLogin", "r.ultimoLogin");
+
     private final TenantRepository tenantRepository;
+    private final TenantResumoUsoRepository resumoUsoRepository;
     private final UsuarioRepository usuarioRepository;
     private final ConfiguracaoTenantRepository configuracaoTenantRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final TemplateMensagemService templateService;
+    private final ProvisionamentoSchemaService provisionamentoSchemaService;
+    private final CacheHibernateInvalidacao cacheInvalidacao;
+    private final MedicaoUsoService medicaoUsoService;
 
     @Value("${app.domain:seusistema.com}")
     private String appDomain;
@@ -115,9 +143,12 @@ public class TenantService
 
         configuracaoTenantRepository.save(config);
 
+        // Planos com isolamento físico ganham schema próprio logo após o commit
+        provisionamentoSchemaService.provisionarSeAplicavel(tenant);
+
         // 4. Enviar email de boas-vindas
         String urlAcesso = String.format("https://%s.%s", request.getSubdominio(), appDomain);
-        enviarEmailBoasVindas(request.getEmailAdmin(), request.getNomeAdmin(), urlAcesso, senhaProvisoria);
+        enviarEmailBoasVindas(tenant.getId(), request.getEmailAdmin(), request.getNomeAdmin(), urlAcesso, senhaProvisoria);
 
         log.info("Tenant provisionado com sucesso: {}", urlAcesso);
 
@@ -141,13 +172,32 @@ public class TenantService
     }
 
     /**
-     * Lista todos os tenants (para Super Admin).
+     * Lista os tenants (para Super Admin), paginado, em uma única consulta; o uso vem do
+     * resumo recalculado pelo TenantResumoUsoService.
+     * @param busca trecho do nome, subdomínio ou email do administrador
+     * @param ordem nome, criado (padrão), plano, status, agendamentos, clientes ou ultimoLogin
+     * @param direcao asc ou desc (padrão)
      */
-    public List<TenantResponse> listarTenants() 
+    @Transactional(readOnly = true)
+    public Pagina<TenantResponse> listarTenants(PlanoEnum plano, StatusTenantEnum status, String busca,
+                                                boolean incluirInativos, String ordem, String direcao,
+                                                Integer pagina, Integer tamanho) 
     {
-        return tenantRepository.findByAtivoTrueOrderByCriadoEmDesc().stream()
-            .map(this::toTenantResponse)
-            .collect(Collectors.toList());
+        String atributo = ORDENACAO.get(ordem == null || ordem.isBlank() ? "criado" : ordem);
+
+        if (atributo == null)
+            throw new IllegalArgumentException("Ordenação inválida: " + ordem + ". Use " + String.join(", ", ORDENACAO.keySet()));
+
+        Sort.Direction sentido = "asc".equalsIgnoreCase(direcao) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        int numero = pagina == null || pagina < 0 ? 0 : pagina;
+        int itens = tamanho == null || tamanho <= 0 ? TAMANHO_PADRAO : Math.min(tamanho, TAMANHO_MAXIMO);
+        String trecho = busca == null || busca.isBlank() ? null : "%" + busca.trim().toLowerCase(Locale.ROOT) + "%";
+
+        Slice<TenantListagemItem> slice = tenantRepository.listar(incluirInativos, plano, status, trecho,
+            PageRequest.of(numero, itens, Sort.by(sentido, atributo).and(Sort.by(sentido, "t.id"))));
+
+        return new Pagina<>(slice.getContent().stream().map(this::toTenantResponse).toList(),
+            numero, itens, slice.hasNext());
     }
 
     /**
@@ -228,6 +278,7 @@ public class TenantService
     /**
      * Busca configurações do tenant (para frontend aplicar white-label).
      */
+    @Transactional(readOnly = true)
     public Optional<ConfiguracaoTenantResponse> buscarConfiguracao(String subdominio) 
     {
         return tenantRepository.findBySubdominio(subdominio.toLowerCase())
@@ -298,31 +349,12 @@ public class TenantService
     }
 
     /**
-     * Incrementa contador de agendamentos do mês.
+     * Registra um agendamento no uso do mês, respeitando o limite do plano (MedicaoUsoService).
+     * @return false se o tenant atingiu o limite
      */
-    @Transactional
     public boolean incrementarAgendamento(long tenantId) 
     {
-        return tenantRepository.findById(tenantId).map(tenant -> {
-            if (tenant.getLimiteAgendamentosMes() == -1) 
-            {
-                // Ilimitado (Enterprise)
-                tenant.setAgendamentosNoMes(tenant.getAgendamentosNoMes() + 1);
-                tenantRepository.save(tenant);
-                return true;
-            }
-
-            if (tenant.getAgendamentosNoMes() >= tenant.getLimiteAgendamentosMes()) 
-            {
-                log.warn("Tenant {} atingiu limite de agendamentos: {}/{}", 
-                    tenant.getSubdominio(), tenant.getAgendamentosNoMes(), tenant.getLimiteAgendamentosMes());
-                return false;
-            }
-
-            tenant.setAgendamentosNoMes(tenant.getAgendamentosNoMes() + 1);
-            tenantRepository.save(tenant);
-            return true;
-        }).orElse(false);
+        return medicaoUsoService.consumirAgendamento(tenantId);
     }
 
     /**
@@ -331,11 +363,12 @@ public class TenantService
     @Transactional
     public void resetarContadoresMensais() 
     {
-        tenantRepository.findByAtivoTrue().forEach(tenant -> {
-            tenant.setAgendamentosNoMes(0);
-            tenantRepository.save(tenant);
-        });
-        log.info("Contadores de agendamento resetados");
+        int zerados = tenantRepository.zerarAgendamentosNoMes();
+
+        if (zerados > 0)
+            cacheInvalidacao.publicarRegiao(Tenant.class);
+
+        log.info("Contadores de agendamento resetados ({} tenants)", zerados);
     }
     
     /**
@@ -382,36 +415,18 @@ public class TenantService
         return sb.toString();
     }
 
-    private void enviarEmailBoasVindas(String email, String nome, String urlAcesso, String senha) 
+    private void enviarEmailBoasVindas(Long tenantId, String email, String nome, String urlAcesso, String senha) 
     {
         try 
         {
-            String subject = "🎉 Bem-vindo ao seu novo sistema de agendamentos!";
-            String body = String.format("""
-                <html>
-                <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                    <h2 style="color: #3B82F6;">Olá, %s!</h2>
-                    
-                    <p>Seu sistema de agendamentos está pronto para uso! 🚀</p>
-                    
-                    <div style="background-color: #F3F4F6; padding: 20px; border-radius: 8px; margin: 20px 0;">
-                        <p><strong>🔗 Acesse seu sistema:</strong></p>
-                        <p><a href="%s" style="color: #3B82F6; font-size: 18px;">%s</a></p>
-                        
-                        <p><strong>📧 Email:</strong> %s</p>
-                        <p><strong>🔑 Senha provisória:</strong> %s</p>
-                    </div>
-                    
-                    <p>⚠️ <strong>Importante:</strong> Troque sua senha no primeiro acesso.</p>
-                    
-                    <p>No primeiro acesso, você será guiado por um passo-a-passo para personalizar seu sistema com as cores da sua marca e sua logo.</p>
-                    
-                    <p>Precisa de ajuda? Responda este email ou entre em contato conosco.</p>
-                    
-                    <p>Sucesso! 💪</p>
-                </body>
-                </html>
-                """, nome, urlAcesso, urlAcesso, email, senha);
+            Map<String, Object> valores = TemplateCompilado.valores(
+                "nome", nome,
+                "url", urlAcesso,
+                "email", email,
+                "senha", senha
+            );
+            String subject = templateService.renderizar(null, TipoTemplateEnum.BOAS_VINDAS_ASSUNTO, valores);
+            String body = templateService.renderizar(null, TipoTemplateEnum.BOAS_VINDAS_CORPO, valores);
 
             EmailRequest emailRequest = new EmailRequest();
             emailRequest.setTo(List.of(email));
@@ -419,8 +434,9 @@ public class TenantService
             emailRequest.setBody(body);
             emailRequest.setHtml(true);
 
-            emailService.send(emailRequest);
-            log.info("Email de boas-vindas enviado para: {}", email);
+            // Enfileirado na mesma transação: só é enviado se o tenant for criado
+            emailService.enfileirar(emailRequest, tenantId);
+            log.info("Email de boas-vindas enfileirado para: {}", email);
         } 
         catch (Exception e) 
         {
@@ -430,11 +446,11 @@ public class TenantService
 
     private TenantResponse toTenantResponse(Tenant tenant) 
     {
-        Usuario admin = usuarioRepository.findByTenant(tenant).stream()
-            .filter(u -> u.getRole() == RoleEnum.TENANT_ADMIN)
-            .findFirst()
+        Usuario admin = usuarioRepository.findFirstByTenantIdAndRoleOrderByIdAsc(tenant.getId(), RoleEnum.TENANT_ADMIN)
             .orElse(null);
 
+        TenantResumoUso uso = resumoUsoRepository.findById(tenant.getId()).orElse(null);
+
         // Buscar configurações do tenant para pegar cores e logo
         ConfiguracaoTenant config = configuracaoTenantRepository.findByTenantId(tenant.getId())
             .orElse(null);
@@ -451,7 +467,7 @@ public class TenantService
             .status(tenant.getStatus())
             .ativo(tenant.isAtivo())
             .onboardingCompleto(tenant.isOnboardingCompleto())
-            .agendamentosNoMes(tenant.getAgendamentosNoMes())
+            .agendamentosNoMes(uso != null ? uso.getAgendamentosNoMes() : tenant.getAgendamentosNoMes())
             .limiteAgendamentosMes(tenant.getLimiteAgendamentosMes())
             .criadoEm(tenant.getCriadoEm())
             .atualizadoEm(tenant.getAtualizadoEm())
@@ -463,6 +479,43 @@ public class TenantService
             .diaPagamento(tenant.getDiaPagamento())
             .enviarCobrancaWhatsapp(tenant.getEnviarCobrancaWhatsapp())
             .enviarCobrancaEmail(tenant.getEnviarCobrancaEmail())
+            .clientes(uso != null ? uso.getClientes() : null)
+            .usuarios(uso != null ? uso.getUsuarios() : null)
+            .ultimoLogin(uso != null ? uso.getUltimoLogin() : null)
+            .usoAtualizadoEm(uso != null ? uso.getAtualizadoEm() : null)
+            .build();
+    }
+
+    private TenantResponse toTenantResponse(TenantListagemItem item) 
+    {
+        return TenantResponse.builder()
+            .id(item.id())
+            .nomeNegocio(item.nomeNegocio())
+            .subdominio(item.subdominio())
+            .dominioCustomizado(item.dominioCustomizado())
+            .emailAdmin(item.emailAdmin())
+            .nomeAdmin(item.nomeAdmin())
+            .telefoneAdmin(item.telefoneAdmin())
+            .plano(item.plano())
+            .status(item.status())
+            .ativo(item.ativo())
+            .onboardingCompleto(item.onboardingCompleto())
+            .agendamentosNoMes(item.agendamentosNoMes())
+            .limiteAgendamentosMes(item.limiteAgendamentosMes())
+            .criadoEm(item.criadoEm())
+            .atualizadoEm(item.atualizadoEm())
+            .suspensaoEm(item.suspensaoEm())
+            .motivoSuspensao(item.motivoSuspensao())
+            .urlAcesso(String.format("https://%s.%s", item.subdominio(), appDomain))
+            .corPrimaria(item.corPrimaria())
+            .logoUrl(item.logoUrl())
+            .diaPagamento(item.diaPagamento())
+            .enviarCobrancaWhatsapp(item.enviarCobrancaWhatsapp())
+            .enviarCobrancaEmail(item.enviarCobrancaEmail())
+            .clientes(item.clientes())
+            .usuarios(item.usuarios())
+            .ultimoLogin(item.ultimoLogin())
+            .usoAtualizadoEm(item.usoAtualizadoEm())
             .build();
     }
 
@@ -18,7 +18,7 @@ import com.example.grazy_back.model.TransacaoFinanceira;
 import com.example.grazy_back.repository.TransacaoFinanceiraRepository;
 import com.example.grazy_back.security.TenantContext;
 
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class TransacaoFinanceiraService 
@@ -47,40 +47,17 @@ public class TransacaoFinanceiraService
         return ResponseEntity.ok(ApiResposta.of(novaTransacao));
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<?> listarTransacoes() 
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
-        
-        List<TransacaoFinanceira> transacoes;
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            transacoes = transacaoRepository.findAll();
-        } 
-        else 
-        {
-            transacoes = transacaoRepository.findByTenantId(tenantId);
-        }
-        
-        return ResponseEntity.ok(ApiResposta.of(transacoes));
+        return ResponseEntity.ok(ApiResposta.of(transacaoRepository.findAll()));
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<?> buscarValores()
     {
-        Long tenantId = TenantContext.getCurrentTenantId();
-        
-        List<TransacaoFinanceira> receitas;
-        List<TransacaoFinanceira> despesas;
-        
-        if (tenantId == null && TenantContext.isSuperAdmin()) 
-        {
-            receitas = transacaoRepository.findByTipo(TipoTransacaoEnum.RECEITA);
-            despesas = transacaoRepository.findByTipo(TipoTransacaoEnum.DESPESA);
-        } 
-        else 
-        {
-            receitas = transacaoRepository.findByTenantIdAndTipo(tenantId, TipoTransacaoEnum.RECEITA);
-            despesas = transacaoRepository.findByTenantIdAndTipo(tenantId, TipoTransacaoEnum.DESPESA);
-        }
+        List<TransacaoFinanceira> receitas = transacaoRepository.findByTipo(TipoTransacaoEnum.RECEITA);
+        List<TransacaoFinanceira> despesas = transacaoRepository.findByTipo(TipoTransacaoEnum.DESPESA);
         
         double receita = receitas.stream()
                 .mapToDouble(TransacaoFinanceira::getValor)
@@ -101,16 +78,11 @@ public class TransacaoFinanceiraService
         if (id == null || transacao == null) 
             return ResponseEntity.badRequest().body(ApiResposta.error("Dados inválidos"));
 
-        Long tenantId = TenantContext.getCurrentTenantId();
-        
+        // Transação de outro tenant não é encontrada (filtro de tenant)
         TransacaoFinanceira existente = transacaoRepository.findById(id).orElse(null);
         
         if (existente == null) 
             return ResponseEntity.notFound().build();
-        
-        // Verifica se a transação pertence ao tenant atual (segurança)
-        if (!TenantContext.isSuperAdmin() && !existente.getTenantId().equals(tenantId)) 
-            return ResponseEntity.status(403).body(ApiResposta.error("Acesso negado"));
 
         existente.setDescricao(transacao.getDescricao());
         existente.setValor(transacao.getValor());
@@ -130,16 +102,11 @@ public class TransacaoFinanceiraService
         if (id == null) 
             return ResponseEntity.badRequest().body(ApiResposta.error("ID inválido"));
 
-        Long tenantId = TenantContext.getCurrentTenantId();
-        
+        // Transação de outro tenant não é encontrada (filtro de tenant)
         TransacaoFinanceira existente = transacaoRepository.findById(id).orElse(null);
         
         if (existente == null) 
             return ResponseEntity.notFound().build();
-        
-        // Verifica se a transação pertence ao tenant atual (segurança)
-        if (!TenantContext.isSuperAdmin() && !existente.getTenantId().equals(tenantId)) 
-            return ResponseEntity.status(403).body(ApiResposta.error("Acesso negado"));
 
         transacaoRepository.delete(existente);
         return ResponseEntity.ok(ApiResposta.of("Transação excluída com sucesso"));
@@ -0,0 +1,27 @@
+package com.example.grazy_back.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Meio pelo qual as invalidações de cache chegam aos outros nós.
+ * Implementações: banco (padrão), redis e local (um único processo, ex: testes).
+ * Escolhido por app.cache.invalidacao.transporte.
+ */
+public interface TransporteInvalidacao 
+{
+    /**
+     * Envia as mensagens para todos os nós (inclusive o próprio; o barramento descarta as suas).
+     */
+    void enviar(List<Mensagem> mensagens);
+
+    /**
+     * Passa a entregar ao receptor as mensagens recebidas.
+     */
+    void iniciar(Consumer<Mensagem> receptor);
+
+    /**
+     * Invalidação da chave "chave" no cache "cache", publicada pelo nó "origem".
+     */
+    record Mensagem(String cache, String chave, String origem) {}
+}
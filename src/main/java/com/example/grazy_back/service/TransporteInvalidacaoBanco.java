@@ -0,0 +1,115 @@
+package com.example.grazy_back.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.grazy_back.model.CacheInvalidacao;
+import com.example.grazy_back.repository.CacheInvalidacaoRepository;
+
+/**
+ * Transporte padrão: cada nó grava as invalidações em cache_invalidacoes e lê as dos outros
+ * periodicamente. A defasagem máxima entre nós é o intervalo de consulta.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidacao.transporte", havingValue = "banco", matchIfMissing = true)
+public class TransporteInvalidacaoBanco implements TransporteInvalidacao
+{
+    private static final Logger log = LoggerFactory.getLogger(TransporteInvalidacaoBanco.class);
+
+    private static final int TAMANHO_LOTE = 500;
+
+    // Um registro com id menor pode ficar visível depois de um maior (commits fora de ordem);
+    // registros mais novos que isso são relidos na próxima consulta
+    private static final Duration MARGEM_COMMIT = Duration.ofSeconds(5);
+    private static final Duration RETENCAO = Duration.ofHours(6);
+
+    private final CacheInvalidacaoRepository cacheInvalidacaoRepository;
+
+    private volatile Consumer<Mensagem> receptor;
+    private Long ultimoId;
+    private final Set<Long> aplicadas = new HashSet<>();
+
+    public TransporteInvalidacaoBanco(CacheInvalidacaoRepository cacheInvalidacaoRepository)
+    {
+        this.cacheInvalidacaoRepository = cacheInvalidacaoRepository;
+    }
+
+    @Override
+    public void enviar(List<Mensagem> mensagens)
+    {
+        Instant agora = Instant.now();
+
+        cacheInvalidacaoRepository.saveAll(mensagens.stream()
+            .map(m -> CacheInvalidacao.builder()
+                .cache(m.cache())
+                .chave(m.chave())
+                .origem(m.origem())
+                .criadoEm(agora)
+                .build())
+            .toList());
+    }
+
+    @Override
+    public void iniciar(Consumer<Mensagem> receptor)
+    {
+        this.receptor = receptor;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidacao.poll-ms:2000}", initialDelay = 5_000)
+    public synchronized void consultar()
+    {
+        if (receptor == null)
+            return;
+
+        // Na subida o cache está vazio: só interessa o que vier daqui para frente
+        if (ultimoId == null)
+        {
+            ultimoId = cacheInvalidacaoRepository.findUltimoId();
+            return;
+        }
+
+        List<CacheInvalidacao> novas = cacheInvalidacaoRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.of(0, TAMANHO_LOTE));
+        Instant limiteConfirmacao = Instant.now().minus(MARGEM_COMMIT);
+        long confirmado = ultimoId;
+        boolean contiguo = true;
+
+        for (CacheInvalidacao c : novas)
+        {
+            if (aplicadas.add(c.getId()))
+                receptor.accept(new Mensagem(c.getCache(), c.getChave(), c.getOrigem()));
+
+            if (contiguo && c.getCriadoEm().isBefore(limiteConfirmacao))
+                confirmado = c.getId();
+            else
+                contiguo = false;
+        }
+
+        // Lote cheio de registros antigos: avança mesmo assim para não ficar preso
+        if (novas.size() == TAMANHO_LOTE && confirmado == ultimoId)
+            confirmado = novas.get(novas.size() - 1).getId();
+
+        final long limite = confirmado;
+        aplicadas.removeIf(id -> id <= limite);
+        ultimoId = confirmado;
+    }
+
+    @Scheduled(cron = "0 17 * * * *")
+    public void limpar()
+    {
+        int apagados = cacheInvalidacaoRepository.apagarAnteriores(Instant.now().minus(RETENCAO));
+
+        if (apagados > 0)
+            log.debug("[CACHE] {} invalidações antigas apagadas", apagados);
+    }
+}
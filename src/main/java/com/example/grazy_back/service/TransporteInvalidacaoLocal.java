@@ -0,0 +1,43 @@
+package com.example.grazy_back.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Transporte em memória: entrega para todos os barramentos do mesmo processo.
+ * Serve para um único nó ou para simular vários nós (vários contextos Spring) em testes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidacao.transporte", havingValue = "local")
+public class TransporteInvalidacaoLocal implements TransporteInvalidacao 
+{
+    private static final List<Consumer<Mensagem>> RECEPTORES = new CopyOnWriteArrayList<>();
+
+    private Consumer<Mensagem> receptor;
+
+    @Override
+    public void enviar(List<Mensagem> mensagens) 
+    {
+        for (Consumer<Mensagem> r : RECEPTORES)
+            mensagens.forEach(r);
+    }
+
+    @Override
+    public void iniciar(Consumer<Mensagem> receptor) 
+    {
+        this.receptor = receptor;
+        RECEPTORES.add(receptor);
+    }
+
+    @PreDestroy
+    public void encerrar() 
+    {
+        RECEPTORES.remove(receptor);
+    }
+}
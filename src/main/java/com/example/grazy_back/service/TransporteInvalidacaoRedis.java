@@ -0,0 +1,86 @@
+package com.example.grazy_back.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Transporte via Redis pub/sub: entrega quase imediata, sem polling no MySQL.
+ * Mensagens publicadas enquanto um nó está desconectado se perdem; o TTL das regiões limita o impacto.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidacao.transporte", havingValue = "redis")
+public class TransporteInvalidacaoRedis implements TransporteInvalidacao
+{
+    private static final Logger log = LoggerFactory.getLogger(TransporteInvalidacaoRedis.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer container;
+    private final ChannelTopic canal;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public TransporteInvalidacaoRedis(
+        RedisConnectionFactory connectionFactory,
+        @Value("${app.cache.invalidacao.redis.canal:grazy:cache:invalidacao}") String canal
+    )
+    {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.canal = new ChannelTopic(canal);
+
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        this.container.afterPropertiesSet();
+    }
+
+    @Override
+    public void enviar(List<Mensagem> mensagens)
+    {
+        for (Mensagem m : mensagens)
+        {
+            try
+            {
+                redisTemplate.convertAndSend(canal.getTopic(), objectMapper.writeValueAsString(m));
+            }
+            catch (Exception e)
+            {
+                log.warn("[CACHE] Falha ao publicar invalidação {} {} no Redis: {}", m.cache(), m.chave(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void iniciar(Consumer<Mensagem> receptor)
+    {
+        container.addMessageListener((message, pattern) -> {
+            try
+            {
+                receptor.accept(objectMapper.readValue(message.getBody(), Mensagem.class));
+            }
+            catch (Exception e)
+            {
+                log.warn("[CACHE] Invalidação inválida recebida do Redis: {}", e.getMessage());
+            }
+        }, canal);
+
+        container.start();
+    }
+
+    @PreDestroy
+    public void encerrar() throws Exception
+    {
+        container.destroy();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.grazy_back.service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.repository.UsuarioRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Acumula o último login de cada usuário em memória e grava tudo de tempos em tempos em um
+ * único UPDATE, em vez de uma escrita por login. Vários logins do mesmo usuário no intervalo
+ * viram uma linha só. Se o nó cair, perde-se no máximo um intervalo de registros.
+ */
+@Service
+@Slf4j
+public class UltimoLoginService
+{
+    private final UsuarioRepository usuarioRepository;
+    private final MetricasService metricas;
+
+    private final Map<Long, Instant> pendentes = new ConcurrentHashMap<>();
+
+    public UltimoLoginService(UsuarioRepository usuarioRepository, MetricasService metricas)
+    {
+        this.usuarioRepository = usuarioRepository;
+        this.metricas = metricas;
+    }
+
+    public void registrar(Long usuarioId, Instant instante)
+    {
+        pendentes.merge(usuarioId, instante, (atual, novo) -> novo.isAfter(atual) ? novo : atual);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.ultimo-login.gravacao-ms:30000}", initialDelay = 30_000)
+    public void gravarPendentes()
+    {
+        if (pendentes.isEmpty())
+            return;
+
+        Map<Long, Instant> lote = new HashMap<>();
+
+        // remove(chave, valor) não descarta um login registrado enquanto o lote era montado
+        pendentes.forEach((id, instante) -> {
+            if (pendentes.remove(id, instante))
+                lote.put(id, instante);
+        });
+
+        try
+        {
+            int gravados = usuarioRepository.atualizarUltimoLogin(lote);
+            metricas.incrementar("grazy.auth.ultimo-login.gravados", gravados);
+            log.debug("[AUTH] Último login gravado para {} usuário(s)", gravados);
+        }
+        catch (Exception e)
+        {
+            // Devolve para a próxima rodada sem sobrescrever logins mais novos
+            lote.forEach(this::registrar);
+            log.warn("[AUTH] Falha ao gravar último login de {} usuário(s): {}", lote.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar()
+    {
+        gravarPendentes();
+    }
+}
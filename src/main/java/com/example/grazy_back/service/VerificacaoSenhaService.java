@@ -0,0 +1,120 @@
+package com.example.grazy_back.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.config.FabricaExecutores;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Verificação e geração de hashes de senha do login em um pool próprio e limitado.
+ * O BCrypt é proposital e caro em CPU: com o pool do tamanho dos núcleos, um pico de logins
+ * não toma todas as threads do Tomcat; com a fila cheia, o login é recusado na hora
+ * (TaskRejectedException, respondido com 503) em vez de esperar indefinidamente.
+ */
+@Service
+public class VerificacaoSenhaService
+{
+    private final PasswordEncoder passwordEncoder;
+    private final MetricasService metricas;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMs;
+
+    public VerificacaoSenhaService(PasswordEncoder passwordEncoder,
+                                   MetricasService metricas,
+                                   FabricaExecutores fabricaExecutores,
+                                   @Value("${app.auth.senha.threads:0}") int threads,
+                                   @Value("${app.auth.senha.fila:200}") int fila,
+                                   @Value("${app.auth.senha.timeout-ms:5000}") long timeoutMs)
+    {
+        this.passwordEncoder = passwordEncoder;
+        this.metricas = metricas;
+        this.timeoutMs = timeoutMs;
+
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = fabricaExecutores.criar("senha-", tamanho, fila);
+    }
+
+    /**
+     * @throws TaskRejectedException quando o pool está saturado
+     */
+    public boolean confere(String senha, String hash)
+    {
+        if (senha == null || hash == null)
+            return false;
+
+        long inicio = System.nanoTime();
+        boolean confere = executar(() -> passwordEncoder.matches(senha, hash));
+        metricas.registrarTempo("grazy.auth.verificacao", System.nanoTime() - inicio,
+            "resultado", confere ? MetricasService.SUCESSO : "senha-invalida");
+
+        return confere;
+    }
+
+    /**
+     * Hash gravado com custo menor que o atual (ou outro formato) e que deve ser refeito.
+     */
+    public boolean precisaAtualizar(String hash)
+    {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    public String gerarHash(String senha)
+    {
+        return executar(() -> passwordEncoder.encode(senha));
+    }
+
+    private <T> T executar(Callable<T> tarefa)
+    {
+        Future<T> futuro;
+
+        try
+        {
+            futuro = executor.submit(tarefa);
+        }
+        catch (TaskRejectedException e)
+        {
+            metricas.incrementar("grazy.auth.verificacao.rejeitadas");
+            throw e;
+        }
+
+        try
+        {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e)
+        {
+            futuro.cancel(true);
+            metricas.incrementar("grazy.auth.verificacao.rejeitadas");
+            throw new TaskRejectedException("Verificação de senha excedeu " + timeoutMs + " ms", e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Verificação de senha interrompida", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException causa)
+                throw causa;
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar()
+    {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.grazy_back.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.example.grazy_back.config.FabricaExecutores;
+import com.example.grazy_back.enums.StatusWebhookEnum;
+import com.example.grazy_back.model.WebhookEvento;
+import com.example.grazy_back.repository.WebhookEventoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Caixa de entrada dos webhooks do Mercado Pago.
+ * O controller apenas persiste a notificação e responde; a sincronização com a API
+ * do Mercado Pago é feita por um pool de workers, com retentativa e backoff.
+ * Notificações repetidas para o mesmo (tipo, dataId) são coalescidas em um único evento.
+ */
+@Service
+public class WebhookInboxService
+{
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxService.class);
+
+    private static final int TAMANHO_LOTE = 100;
+    private static final int TAMANHO_MAX_ERRO = 1000;
+    private static final Duration TIMEOUT_PROCESSANDO = Duration.ofMinutes(5);
+
+    private final WebhookEventoRepository webhookEventoRepository;
+    private final MercadoPagoService mercadoPagoService;
+    private final MetricasService metricas;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${mercadopago.webhook.max-tentativas:8}")
+    private int maxTentativas;
+
+    @Value("${mercadopago.webhook.backoff-inicial-ms:2000}")
+    private long backoffInicialMs;
+
+    public WebhookInboxService(
+        WebhookEventoRepository webhookEventoRepository,
+        MercadoPagoService mercadoPagoService,
+        MetricasService metricas,
+        FabricaExecutores fabricaExecutores,
+        @Value("${mercadopago.webhook.workers:4}") int workers,
+        @Value("${mercadopago.webhook.fila:500}") int capacidadeFila
+    )
+    {
+        this.webhookEventoRepository = webhookEventoRepository;
+        this.mercadoPagoService = mercadoPagoService;
+        this.metricas = metricas;
+
+        // Pool próprio (não exposto como bean para não substituir o executor padrão do Spring)
+        this.executor = fabricaExecutores.criar("mp-webhook-", workers, capacidadeFila);
+
+        metricas.getRegistry().gauge("grazy.webhook.fila.execucao", executor,
+            e -> e.getThreadPoolExecutor().getQueue().size());
+    }
+
+    /**
+     * Registra a notificação na caixa de entrada e agenda o processamento.
+     * Deve ser rápido: não faz nenhuma chamada externa.
+     */
+    public void registrar(String tipo, String dataId)
+    {
+        if (!"payment".equals(tipo))
+        {
+            log.info("[MERCADOPAGO] Webhook ignorado, tipo: {}", tipo);
+            metricas.incrementar("grazy.webhook.recebidos", "resultado", "ignorado");
+            return;
+        }
+
+        if (dataId == null || dataId.isBlank())
+        {
+            log.warn("[MERCADOPAGO] Webhook sem data.id");
+            metricas.incrementar("grazy.webhook.recebidos", "resultado", "ignorado");
+            return;
+        }
+
+        Instant agora = Instant.now();
+
+        if (webhookEventoRepository.reabrir(tipo, dataId, agora) > 0)
+        {
+            log.debug("[MERCADOPAGO] Webhook duplicado coalescido: {} {}", tipo, dataId);
+            metricas.incrementar("grazy.webhook.recebidos", "resultado", "duplicado");
+            webhookEventoRepository.findByTipoAndDataId(tipo, dataId)
+                .filter(e -> !e.getProximaTentativa().isAfter(agora)) // respeita o backoff de eventos em retentativa
+                .ifPresent(e -> agendar(e.getId()));
+            return;
+        }
+
+        WebhookEvento evento = WebhookEvento.builder()
+            .tipo(tipo)
+            .dataId(dataId)
+            .recebidoEm(agora)
+            .atualizadoEm(agora)
+            .proximaTentativa(agora)
+            .build();
+
+        try
+        {
+            evento = webhookEventoRepository.saveAndFlush(evento);
+            metricas.incrementar("grazy.webhook.recebidos", "resultado", "novo");
+            agendar(evento.getId());
+        }
+        catch (DataIntegrityViolationException e)
+        {
+            // Outra requisição inseriu o mesmo evento ao mesmo tempo
+            webhookEventoRepository.reabrir(tipo, dataId, agora);
+            metricas.incrementar("grazy.webhook.recebidos", "resultado", "duplicado");
+        }
+    }
+
+    /**
+     * Varre eventos pendentes que não foram entregues ao pool (fila cheia, reinício da aplicação
+     * ou retentativas agendadas) e devolve para a fila eventos travados em PROCESSANDO.
+     */
+    @Scheduled(fixedDelayString = "${mercadopago.webhook.poll-ms:5000}")
+    public void varrerPendentes()
+    {
+        metricas.executarJob("mp-webhook-varredura", this::varrer);
+    }
+
+    /**
+     * @return quantidade de eventos entregues ao pool
+     */
+    private int varrer()
+    {
+        Instant agora = Instant.now();
+
+        int liberados = webhookEventoRepository.liberarTravados(agora.minus(TIMEOUT_PROCESSANDO), agora);
+
+        if (liberados > 0)
+            log.warn("[MERCADOPAGO] {} webhook(s) travado(s) devolvidos para a fila", liberados);
+
+        List<Long> ids = webhookEventoRepository.findIdsProntos(StatusWebhookEnum.PENDENTE, agora, PageRequest.of(0, TAMANHO_LOTE));
+
+        int agendados = 0;
+
+        for (Long id : ids)
+        {
+            if (!agendar(id))
+                break;
+
+            agendados++;
+        }
+
+        return agendados;
+    }
+
+    /**
+     * Processa um evento. Apenas o worker que conseguir reivindicá-lo executa a sincronização.
+     */
+    void processar(Long id)
+    {
+        Instant agora = Instant.now();
+
+        if (webhookEventoRepository.reivindicar(id, agora) == 0)
+            return;
+
+        WebhookEvento evento = webhookEventoRepository.findById(id).orElse(null);
+
+        if (evento == null)
+            return;
+
+        long inicio = System.nanoTime();
+
+        try
+        {
+            mercadoPagoService.sincronizarPagamento(evento.getDataId());
+            webhookEventoRepository.concluir(id, Instant.now());
+            metricas.registrarTempo("grazy.webhook.processamento", System.nanoTime() - inicio, "resultado", MetricasService.SUCESSO);
+        }
+        catch (Exception e)
+        {
+            int tentativas = evento.getTentativas() + 1;
+            boolean esgotou = tentativas >= maxTentativas;
+            StatusWebhookEnum status = esgotou ? StatusWebhookEnum.ERRO : StatusWebhookEnum.PENDENTE;
+            Instant proxima = Instant.now().plusMillis(backoffInicialMs << Math.min(tentativas - 1, 16));
+
+            webhookEventoRepository.registrarFalha(id, status, proxima, Instant.now(), truncar(e.getMessage()));
+            metricas.registrarTempo("grazy.webhook.processamento", System.nanoTime() - inicio,
+                "resultado", esgotou ? "descartado" : "reagendado");
+
+            if (esgotou)
+                log.error("[MERCADOPAGO] Webhook {} falhou {} vezes, desistindo: {}", evento.getDataId(), tentativas, e.getMessage());
+            else
+                log.warn("[MERCADOPAGO] Falha ao processar webhook {} (tentativa {}): {}", evento.getDataId(), tentativas, e.getMessage());
+        }
+    }
+
+    private boolean agendar(Long id)
+    {
+        try
+        {
+            executor.execute(() -> processar(id));
+            return true;
+        }
+        catch (TaskRejectedException e)
+        {
+            // Fila cheia: o evento já está persistido e será pego pela varredura
+            return false;
+        }
+    }
+
+    private String truncar(String mensagem)
+    {
+        if (mensagem == null)
+            return null;
+
+        return mensagem.length() > TAMANHO_MAX_ERRO ? mensagem.substring(0, TAMANHO_MAX_ERRO) : mensagem;
+    }
+
+    @PreDestroy
+    public void encerrar()
+    {
+        executor.shutdown();
+    }
+}
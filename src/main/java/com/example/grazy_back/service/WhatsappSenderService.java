@@ -23,7 +23,7 @@ public class WhatsappSenderService
     private final boolean enabled;
     private final String apiUrl;
     private final String token;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     private final MessageBuilderService messageBuilder;
 
@@ -31,8 +31,11 @@ public class WhatsappSenderService
             @Value("${whatsapp.enabled:false}") boolean enabled,
             @Value("${whatsapp.api.url:https://graph.facebook.com/v19.0/WHATSAPP_PHONE_ID/messages}") String apiUrl,
             @Value("${whatsapp.api.token:}") String token,
-            MessageBuilderService messageBuilder)
+            MessageBuilderService messageBuilder,
+            MetricasService metricasService)
     {
+        this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(metricasService.interceptorHttp("whatsapp"));
         this.enabled = enabled;
         this.apiUrl = apiUrl;
         this.token = token;
@@ -0,0 +1,83 @@
+-- Objetos criados pelo Hibernate (ddl-auto=update) depois do esquema inicial e antes da adoção do Flyway:
+-- fila de emails, eventos de webhook, templates de mensagem, barramento de invalidação de cache,
+-- schema dedicado por tenant e os índices por tenant declarados nas entidades.
+-- Bancos marcados pelo baseline (versão 1) recebem tudo isto aqui.
+-- Versão 1.1: precisa rodar logo depois do baseline, antes dos índices da V2 (email_fila, webhook_eventos).
+
+create table if not exists email_fila (
+    html bit not null,
+    tentativas integer,
+    atualizado_em datetime(6),
+    criado_em datetime(6) not null,
+    enviado_em datetime(6),
+    id bigint not null auto_increment,
+    proxima_tentativa datetime(6) not null,
+    tenant_id bigint,
+    lote varchar(36),
+    assunto varchar(500) not null,
+    bcc TEXT,
+    cc TEXT,
+    corpo MEDIUMTEXT not null,
+    destinatarios TEXT not null,
+    ultimo_erro TEXT,
+    status enum ('ENVIADO','ENVIANDO','ERRO','PENDENTE') not null,
+    primary key (id),
+    index idx_email_fila_status_proxima (status, proxima_tentativa)
+) engine=InnoDB;
+
+create table if not exists webhook_eventos (
+    duplicatas integer,
+    tentativas integer,
+    atualizado_em datetime(6),
+    id bigint not null auto_increment,
+    processado_em datetime(6),
+    proxima_tentativa datetime(6),
+    recebido_em datetime(6) not null,
+    tipo varchar(50) not null,
+    data_id varchar(100) not null,
+    ultimo_erro TEXT,
+    status enum ('ERRO','PENDENTE','PROCESSADO','PROCESSANDO') not null,
+    primary key (id),
+    constraint uk_webhook_tipo_data_id unique (tipo, data_id)
+) engine=InnoDB;
+
+create table if not exists templates_mensagem (
+    atualizado_em datetime(6),
+    id bigint not null auto_increment,
+    tenant_id bigint not null,
+    conteudo TEXT not null,
+    tipo enum ('AGENDAMENTO_CANCELADO','AGENDAMENTO_CONFIRMADO','BOAS_VINDAS_ASSUNTO','BOAS_VINDAS_CORPO','COBRANCA_EMAIL_ASSUNTO','COBRANCA_EMAIL_CORPO','COBRANCA_WHATSAPP','LEMBRETE_ASSUNTO','LEMBRETE_CORPO','RESUMO_ASSUNTO') not null,
+    primary key (id),
+    constraint uk_template_tenant_tipo unique (tenant_id, tipo)
+) engine=InnoDB;
+
+create table if not exists cache_invalidacoes (
+    criado_em datetime(6) not null,
+    id bigint not null auto_increment,
+    origem varchar(100) not null,
+    cache varchar(150) not null,
+    chave varchar(150) not null,
+    primary key (id),
+    index idx_cache_invalidacao_criado (criado_em)
+) engine=InnoDB;
+
+alter table tenants
+    add column schema_dedicado bit default 0;
+
+create index idx_agendamento_tenant_data
+    on agendamento (tenant_id, data_hora);
+
+create index idx_cliente_tenant
+    on cliente (tenant_id);
+
+create index idx_image_tenant_servico
+    on image_metadata (tenant_id, for_servico);
+
+create index idx_image_stored_filename
+    on image_metadata (stored_filename);
+
+create index idx_servico_tenant_ativo
+    on servico (tenant_id, ativo);
+
+create index idx_transacao_tenant_tipo
+    on transacao_financeira (tenant_id, tipo);
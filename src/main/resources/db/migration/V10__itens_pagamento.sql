@@ -0,0 +1,26 @@
+-- Itens de cada cobrança (FaturamentoService): mensalidade do plano e excedentes do uso
+-- medido no mês anterior (uso_tenant).
+create table pagamento_itens (
+    id bigint not null auto_increment,
+    pagamento_id bigint not null,
+    tipo varchar(20) not null,
+    metrica varchar(30),
+    periodo_uso integer,
+    descricao varchar(255) not null,
+    quantidade bigint not null,
+    valor_unitario decimal(12,2) not null,
+    valor decimal(12,2) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table pagamento_itens
+    add constraint fk_pagamento_itens_pagamento
+    foreign key (pagamento_id)
+    references pagamentos (id);
+
+create index idx_pagamento_itens_pagamento
+    on pagamento_itens (pagamento_id);
+
+-- Cobrança diária: só os tenants com vencimento no dia
+create index idx_tenants_dia_pagamento
+    on tenants (dia_pagamento, status, ativo);
@@ -0,0 +1,4 @@
+-- A movimentação para o schema dedicado trava as linhas do tenant com SELECT ... FOR UPDATE
+-- por tenant_id; sem índice, o InnoDB travaria a tabela inteira (todos os tenants).
+create index idx_cliente_servico_estatistica_tenant
+    on cliente_servico_estatistica (tenant_id);
@@ -0,0 +1,214 @@
+-- Esquema inicial: equivalente ao que o Hibernate (ddl-auto=update) criava antes da adoção do Flyway.
+-- Bancos já existentes são marcados nesta versão pelo baseline do Flyway e não executam este script.
+
+create table agendamento (
+    notificado bit not null,
+    canceled_at datetime(6),
+    created_at datetime(6),
+    data_hora datetime(6),
+    finalized_at datetime(6),
+    id bigint not null auto_increment,
+    notificado_em datetime(6),
+    servico_id bigint not null,
+    tenant_id bigint,
+    usuario_id bigint not null,
+    cancel_reason varchar(255),
+    obs varchar(255),
+    status varchar(20),
+    primary key (id)
+) engine=InnoDB;
+
+create table cliente (
+    id bigint not null auto_increment,
+    tenant_id bigint,
+    email varchar(255),
+    nome varchar(255),
+    obs varchar(255),
+    telefone varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table configuracao_tenants (
+    antecedencia_maxima_dias integer,
+    antecedencia_minima_horas integer,
+    intervalo_agendamento_minutos integer,
+    notificacoes_email_ativas bit not null,
+    notificacoes_whatsapp_ativas bit not null,
+    id bigint not null auto_increment,
+    tenant_id bigint not null,
+    cor_fundo varchar(255),
+    cor_primaria varchar(255),
+    cor_secundaria varchar(255),
+    cor_texto varchar(255),
+    email varchar(255),
+    endereco varchar(255),
+    facebook varchar(255),
+    favicon_url LONGTEXT,
+    horario_funcionamento TEXT,
+    instagram varchar(255),
+    logo_url LONGTEXT,
+    nome_exibicao varchar(255),
+    slogan varchar(255),
+    telefone varchar(255),
+    tiktok varchar(255),
+    webhook_url varchar(255),
+    whatsapp varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table conteudo_sites (
+    id bigint not null auto_increment,
+    tenant_id bigint not null,
+    about_imagem_url varchar(255),
+    about_stats TEXT,
+    about_subtitulo varchar(255),
+    about_texto TEXT,
+    about_titulo varchar(255),
+    hero_imagem_url varchar(255),
+    hero_subtitulo varchar(255),
+    hero_titulo varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table image_metadata (
+    exibir_landing bit,
+    for_servico bit,
+    ordem_landing integer,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    size bigint,
+    tenant_id bigint,
+    categoria varchar(255),
+    content_type varchar(255),
+    descricao varchar(255),
+    original_filename varchar(255),
+    source_url varchar(255),
+    stored_filename varchar(255),
+    titulo varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table pagamentos (
+    ano_referencia integer not null,
+    enviado_email bit,
+    enviado_whatsapp bit,
+    mes_referencia integer not null,
+    valor decimal(38,2) not null,
+    data_criacao datetime(6) not null,
+    data_envio_cobranca datetime(6),
+    data_pagamento datetime(6),
+    data_vencimento datetime(6),
+    id bigint not null auto_increment,
+    tenant_id bigint not null,
+    link_pagamento TEXT,
+    mercado_pago_id varchar(255),
+    mercado_pago_preference_id varchar(255),
+    observacoes TEXT,
+    status enum ('APROVADO','CANCELADO','EM_PROCESSAMENTO','PENDENTE','REEMBOLSADO','REJEITADO') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table servico (
+    ativo bit,
+    custo float(53),
+    duracao_minutos integer,
+    exibir_landing bit,
+    ordem integer,
+    preco float(53),
+    id bigint not null auto_increment,
+    tenant_id bigint,
+    descricao varchar(255),
+    image_stored_filename varchar(255),
+    nome varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table tenants (
+    agendamentos_no_mes integer,
+    ativo bit not null,
+    dia_pagamento integer,
+    enviar_cobranca_email bit,
+    enviar_cobranca_whatsapp bit,
+    limite_agendamentos_mes integer,
+    onboarding_completo bit not null,
+    atualizado_em datetime(6),
+    criado_em datetime(6),
+    id bigint not null auto_increment,
+    suspensao_em datetime(6),
+    cor_primaria varchar(255),
+    cor_secundaria varchar(255),
+    database_schema varchar(255),
+    dominio_customizado varchar(255),
+    email_admin varchar(255) not null,
+    logo_url varchar(255),
+    motivo_suspensao varchar(255),
+    nome_admin varchar(255),
+    nome_negocio varchar(255) not null,
+    subdominio varchar(255) not null,
+    telefone_admin varchar(255),
+    plano enum ('BASICO','ENTERPRISE','GRATUITO','PRO') not null,
+    status enum ('ATIVO','BLOQUEADO','CANCELADO','PENDENTE','SUSPENSO','TRIAL') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table transacao_financeira (
+    valor float(53),
+    data datetime(6),
+    id bigint not null auto_increment,
+    tenant_id bigint,
+    descricao varchar(255),
+    tipo enum ('DESPESA','RECEITA'),
+    primary key (id)
+) engine=InnoDB;
+
+create table usuarios (
+    ativo bit not null,
+    primeiro_acesso bit not null,
+    criado_em datetime(6),
+    id bigint not null auto_increment,
+    tenant_id bigint,
+    token_expiracao datetime(6),
+    ultimo_login datetime(6),
+    email varchar(255) not null,
+    nome varchar(255) not null,
+    senha varchar(255) not null,
+    telefone varchar(255),
+    token_recuperacao_senha varchar(255),
+    role enum ('SUPER_ADMIN','TENANT_ADMIN','TENANT_USER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table configuracao_tenants
+    add constraint UKrxi896oud7208qqen10m9c803 unique (tenant_id);
+
+alter table conteudo_sites
+    add constraint UKlt5cnb27qpft4ihss5u9t5xv0 unique (tenant_id);
+
+alter table tenants
+    add constraint UKhu8t487bwv50rhymw10y3uo53 unique (dominio_customizado);
+
+alter table tenants
+    add constraint UKn23f44iaw5bn6i61tu5vje8j3 unique (subdominio);
+
+alter table usuarios
+    add constraint UKkfsp0s1tflm1cwlj8idhqsad0 unique (email);
+
+alter table agendamento
+    add constraint FK917hu1kyw4thfpcdiwvy2t2ui
+    foreign key (servico_id)
+    references servico (id);
+
+alter table agendamento
+    add constraint FK2axw89fnuew0q4tkk975bu6m3
+    foreign key (usuario_id)
+    references cliente (id);
+
+alter table configuracao_tenants
+    add constraint FK7533u548x4gvhk6ynmen1qqb9
+    foreign key (tenant_id)
+    references tenants (id);
+
+alter table usuarios
+    add constraint FKeq2qjef9kg8q9gfxessikg61x
+    foreign key (tenant_id)
+    references tenants (id);
@@ -0,0 +1,75 @@
+-- Índices para as consultas dos repositórios (métodos derivados e @Query).
+-- Os filtros por tenant começam por tenant_id; os jobs que varrem todos os tenants
+-- começam pela coluna de status/data que eles filtram.
+
+-- AgendamentoRepository
+--   findByTenantIdAndStatusAndDataHoraBetweenOrderByDataHoraAsc
+create index idx_agendamento_tenant_status_data
+    on agendamento (tenant_id, status, data_hora);
+
+--   findByStatusAndNotificadoFalseAndDataHoraBetweenOrderByDataHoraAsc (lembretes)
+create index idx_agendamento_status_notificado_data
+    on agendamento (status, notificado, data_hora);
+
+--   countByDataHoraBetween, findByDataHoraBetween..., findByStatusAndDataHoraBetween..., streamResumoPorTenant
+create index idx_agendamento_data
+    on agendamento (data_hora);
+
+-- ImageMetadataRepository
+--   findByTenantIdAndForServicoFalseAndExibirLandingTrueOrderByOrdemLandingAsc
+create index idx_image_tenant_landing
+    on image_metadata (tenant_id, for_servico, exibir_landing, ordem_landing);
+
+-- PagamentoRepository
+--   findByTenantIdAndMesReferenciaAndAnoReferencia, findByTenantId
+create index idx_pagamento_tenant_referencia
+    on pagamentos (tenant_id, mes_referencia, ano_referencia);
+
+--   findByTenantIdAndStatus
+create index idx_pagamento_tenant_status
+    on pagamentos (tenant_id, status);
+
+--   findByStatusAndDataVencimentoBefore, findParaReconciliar (status in, ordenado por id)
+create index idx_pagamento_status_vencimento
+    on pagamentos (status, data_vencimento);
+
+--   findByStatusAndEnviadoWhatsappFalseAndEnviadoEmailFalse
+create index idx_pagamento_status_envio
+    on pagamentos (status, enviado_whatsapp, enviado_email);
+
+--   findByMercadoPagoId (webhook e reconciliação)
+create index idx_pagamento_mercado_pago
+    on pagamentos (mercado_pago_id);
+
+-- TransacaoFinanceiraRepository
+--   findByTipo (super admin)
+create index idx_transacao_tipo
+    on transacao_financeira (tipo);
+
+-- TenantRepository
+--   findByEmailAdmin, existsByEmailAdmin
+create index idx_tenant_email_admin
+    on tenants (email_admin);
+
+--   findByStatus, findByStatusAndAtivoTrue
+create index idx_tenant_status_ativo
+    on tenants (status, ativo);
+
+-- UsuarioRepository
+--   findByTokenRecuperacaoSenha
+create index idx_usuario_token_recuperacao
+    on usuarios (token_recuperacao_senha);
+
+--   findByRole
+create index idx_usuario_role
+    on usuarios (role);
+
+-- EmailPendenteRepository
+--   findByLoteAndStatus
+create index idx_email_fila_lote_status
+    on email_fila (lote, status);
+
+-- WebhookEventoRepository
+--   findIdsProntos
+create index idx_webhook_status_proxima
+    on webhook_eventos (status, proxima_tentativa);
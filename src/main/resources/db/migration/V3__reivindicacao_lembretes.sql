@@ -0,0 +1,12 @@
+-- Reivindicação dos lembretes de agendamento por worker (NotificacaoAgendadaService):
+-- cada lote é marcado com um UUID antes do envio, para que workers concorrentes não
+-- enviem o mesmo lembrete.
+alter table agendamento
+    add column lote_lembrete varchar(36);
+
+alter table agendamento
+    add column reivindicado_em datetime(6);
+
+-- AgendamentoRepository.findByLoteLembreteAndNotificadoFalse
+create index idx_agendamento_lote_lembrete
+    on agendamento (lote_lembrete);
@@ -0,0 +1,27 @@
+-- Refresh tokens do login (RefreshTokenService): só o SHA-256 do token é gravado
+create table refresh_tokens (
+    id bigint not null auto_increment,
+    usuario_id bigint not null,
+    token_hash varchar(64) not null,
+    familia varchar(36) not null,
+    criado_em datetime(6) not null,
+    expira_em datetime(6) not null,
+    usado_em datetime(6),
+    revogado_em datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table refresh_tokens
+    add constraint uk_refresh_tokens_hash unique (token_hash);
+
+create index idx_refresh_tokens_familia
+    on refresh_tokens (familia);
+
+create index idx_refresh_tokens_usuario
+    on refresh_tokens (usuario_id);
+
+alter table refresh_tokens
+    add constraint fk_refresh_tokens_usuario
+    foreign key (usuario_id)
+    references usuarios (id)
+    on delete cascade;
@@ -0,0 +1,42 @@
+-- Deduplicação de clientes (DeduplicacaoClientesService): chaves de bloqueio normalizadas
+-- e marcação de quais clientes já foram comparados (dedup_em nulo = pendente).
+alter table cliente
+    add column chave_telefone varchar(20);
+
+alter table cliente
+    add column chave_email varchar(255);
+
+alter table cliente
+    add column dedup_em datetime(6);
+
+create index idx_cliente_chave_telefone
+    on cliente (tenant_id, chave_telefone);
+
+create index idx_cliente_chave_email
+    on cliente (tenant_id, chave_email);
+
+create index idx_cliente_dedup_pendente
+    on cliente (dedup_em, id);
+
+-- Pares de clientes que parecem ser a mesma pessoa (cliente_id < duplicado_id)
+create table cliente_duplicata (
+    id bigint not null auto_increment,
+    tenant_id bigint,
+    cliente_id bigint not null,
+    duplicado_id bigint not null,
+    pontuacao float(53) not null,
+    motivo varchar(60),
+    status varchar(20) not null,
+    criado_em datetime(6) not null,
+    resolvido_em datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table cliente_duplicata
+    add constraint uk_cliente_duplicata_par unique (cliente_id, duplicado_id);
+
+create index idx_cliente_duplicata_tenant_status
+    on cliente_duplicata (tenant_id, status);
+
+create index idx_cliente_duplicata_duplicado
+    on cliente_duplicata (duplicado_id);
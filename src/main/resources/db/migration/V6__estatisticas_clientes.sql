@@ -0,0 +1,46 @@
+-- Estatísticas por cliente (EstatisticaClientesService), atualizadas a cada agendamento
+-- finalizado. contabilizado_em marca os agendamentos já somados; os finalizados antes
+-- desta migração são somados aos poucos pelo job.
+alter table agendamento
+    add column contabilizado_em datetime(6);
+
+create index idx_agendamento_contabilizacao
+    on agendamento (status, contabilizado_em, id);
+
+create table cliente_estatistica (
+    cliente_id bigint not null,
+    tenant_id bigint,
+    visitas integer not null,
+    valor_total float(53) not null,
+    primeira_visita datetime(6),
+    ultima_visita datetime(6),
+    cadencia_dias float(53),
+    risco_em datetime(6),
+    primary key (cliente_id)
+) engine=InnoDB;
+
+create index idx_cliente_estatistica_valor
+    on cliente_estatistica (tenant_id, valor_total);
+
+create index idx_cliente_estatistica_visitas
+    on cliente_estatistica (tenant_id, visitas);
+
+create index idx_cliente_estatistica_ultima
+    on cliente_estatistica (tenant_id, ultima_visita);
+
+create index idx_cliente_estatistica_risco
+    on cliente_estatistica (tenant_id, risco_em);
+
+create table cliente_servico_estatistica (
+    id bigint not null auto_increment,
+    tenant_id bigint,
+    cliente_id bigint not null,
+    servico_id bigint not null,
+    visitas integer not null,
+    valor_total float(53) not null,
+    ultima_visita datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table cliente_servico_estatistica
+    add constraint uk_cliente_servico_estatistica unique (cliente_id, servico_id);
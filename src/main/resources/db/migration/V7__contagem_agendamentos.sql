@@ -0,0 +1,44 @@
+-- Contagens de agendamentos por tenant, dia, hora e serviço (EstatisticaAgendamentosService),
+-- somadas a cada mudança de status. As taxas de 7/30/90 dias somam só essas linhas.
+create table agendamento_contagem (
+    id bigint not null auto_increment,
+    tenant_id bigint not null,
+    dia date not null,
+    hora integer not null,
+    servico_id bigint not null,
+    agendados integer not null default 0,
+    finalizados integer not null default 0,
+    cancelados integer not null default 0,
+    cancelados_em_cima integer not null default 0,
+    nao_compareceu integer not null default 0,
+    lembrados integer not null default 0,
+    nao_compareceu_lembrados integer not null default 0,
+    primary key (id)
+) engine=InnoDB;
+
+alter table agendamento_contagem
+    add constraint uk_agendamento_contagem unique (tenant_id, dia, hora, servico_id);
+
+create index idx_agendamento_contagem_dia
+    on agendamento_contagem (dia);
+
+-- Histórico do schema compartilhado. canceled_at é gravado em UTC e data_hora no horário
+-- de Brasília (UTC-3, sem horário de verão desde 2019): cancelado a menos de 24h do horário
+-- equivale a canceled_at >= data_hora - 21h.
+insert into agendamento_contagem
+    (tenant_id, dia, hora, servico_id, agendados, finalizados, cancelados, cancelados_em_cima,
+     nao_compareceu, lembrados, nao_compareceu_lembrados)
+select tenant_id,
+       cast(data_hora as date),
+       hour(data_hora),
+       servico_id,
+       count(*),
+       sum(case when status = 'FINALIZADO' then 1 else 0 end),
+       sum(case when status = 'CANCELADO' then 1 else 0 end),
+       sum(case when status = 'CANCELADO' and canceled_at >= timestampadd(hour, -21, data_hora) then 1 else 0 end),
+       0,
+       sum(case when status = 'FINALIZADO' and notificado = true then 1 else 0 end),
+       0
+  from agendamento
+ where tenant_id is not null and data_hora is not null and servico_id is not null
+ group by tenant_id, cast(data_hora as date), hour(data_hora), servico_id;
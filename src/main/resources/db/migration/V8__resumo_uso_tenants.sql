@@ -0,0 +1,14 @@
+-- Uso de cada tenant para a listagem do super admin (TenantResumoUsoService), recalculado
+-- pelo job em vez de consultado tenant a tenant a cada listagem.
+create table tenant_resumo_uso (
+    tenant_id bigint not null,
+    agendamentos_no_mes integer not null,
+    clientes integer not null,
+    usuarios integer not null,
+    ultimo_login datetime(6),
+    atualizado_em datetime(6) not null,
+    primary key (tenant_id)
+) engine=InnoDB;
+
+create index idx_usuario_tenant_role
+    on usuarios (tenant_id, role);
@@ -0,0 +1,29 @@
+-- Medição de uso por tenant, mês (aaaamm) e métrica (MedicaoUsoService). Os eventos são
+-- acumulados em memória e somados aqui em lote.
+create table uso_tenant (
+    id bigint not null auto_increment,
+    tenant_id bigint not null,
+    periodo integer not null,
+    metrica varchar(30) not null,
+    quantidade bigint not null,
+    atualizado_em datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table uso_tenant
+    add constraint uk_uso_tenant unique (tenant_id, periodo, metrica);
+
+create index idx_uso_tenant_periodo
+    on uso_tenant (periodo, metrica);
+
+-- Agendamentos já criados no mês corrente contam para o limite do plano (schema compartilhado)
+insert into uso_tenant (tenant_id, periodo, metrica, quantidade, atualizado_em)
+select tenant_id,
+       year(current_date) * 100 + month(current_date),
+       'AGENDAMENTOS',
+       count(*),
+       current_timestamp
+  from agendamento
+ where tenant_id is not null
+   and year(created_at) = year(current_date) and month(created_at) = month(current_date)
+ group by tenant_id;
@@ -0,0 +1,202 @@
+package com.example.grazy_back.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.grazy_back.service.MetricasService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Roteamento entre primário e réplica com dois bancos H2 distintos: cada um tem uma tabela
+ * "origem" com o próprio nome, então a leitura diz qual DataSource atendeu a transação.
+ * Monta a mesma pilha do ReplicaLeituraConfig (LazyConnectionDataSourceProxy sobre DataSourceRoteado)
+ * e passa por métodos @Transactional, como os serviços.
+ */
+@SpringJUnitConfig(DataSourceRoteadoTest.Config.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class DataSourceRoteadoTest
+{
+    private static final String CONSULTA = "select nome from origem";
+
+    @Autowired
+    private Origem origem;
+
+    @Configuration
+    @EnableTransactionManagement
+    static class Config
+    {
+        @Bean
+        DataSourceRoteado roteamentoLeitura()
+        {
+            DataSourceRoteado roteado = new DataSourceRoteado(banco("primario"),
+                List.of(new DataSourceRoteado.Replica("replica-1", banco("replica"))),
+                "", 5, 60_000, new MetricasService(new SimpleMeterRegistry(), false));
+            roteado.verificarReplicas();
+
+            return roteado;
+        }
+
+        @Bean
+        DataSource dataSource(DataSourceRoteado roteamentoLeitura)
+        {
+            return new LazyConnectionDataSourceProxy(roteamentoLeitura);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource)
+        {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        Origem origem(DataSource dataSource)
+        {
+            return new Origem(new JdbcTemplate(dataSource));
+        }
+    }
+
+    /**
+     * Serviço de teste: devolve o nome do banco que atendeu cada tipo de transação.
+     */
+    static class Origem
+    {
+        private final JdbcTemplate jdbc;
+
+        Origem(JdbcTemplate jdbc)
+        {
+            this.jdbc = jdbc;
+        }
+
+        @Transactional(readOnly = true)
+        public String ler()
+        {
+            return jdbc.queryForObject(CONSULTA, String.class);
+        }
+
+        @Transactional
+        public String gravar()
+        {
+            jdbc.update("update origem set lido_em = current_timestamp");
+            return jdbc.queryForObject(CONSULTA, String.class);
+        }
+
+        public String semTransacao()
+        {
+            return jdbc.queryForObject(CONSULTA, String.class);
+        }
+    }
+
+    @AfterEach
+    void limpar()
+    {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void transacaoSomenteLeituraVaiParaReplica()
+    {
+        assertThat(origem.ler()).isEqualTo("replica");
+    }
+
+    @Test
+    void transacaoDeEscritaVaiParaPrimario()
+    {
+        assertThat(origem.gravar()).isEqualTo("primario");
+    }
+
+    @Test
+    void semTransacaoVaiParaPrimario()
+    {
+        assertThat(origem.semTransacao()).isEqualTo("primario");
+    }
+
+    @Test
+    void leituraDepoisDeGravarNoMesmoRequestVaiParaPrimario()
+    {
+        requisicao(null);
+
+        assertThat(origem.ler()).isEqualTo("replica");
+
+        origem.gravar();
+
+        assertThat(origem.ler()).isEqualTo("primario");
+    }
+
+    @Test
+    void tenantQueGravouRecentementeLeDoPrimarioEmOutroRequest()
+    {
+        requisicao(1L);
+        origem.gravar();
+
+        requisicao(1L);
+        assertThat(origem.ler()).isEqualTo("primario");
+
+        requisicao(2L);
+        assertThat(origem.ler()).isEqualTo("replica");
+    }
+
+    @Test
+    void semReplicaDisponivelLeituraVaiParaPrimario()
+    {
+        // Réplica começa fora do roteamento até a primeira verificação
+        DataSourceRoteado roteado = new DataSourceRoteado(banco("primario"),
+            List.of(new DataSourceRoteado.Replica("replica-1", banco("replica"))),
+            "", 5, 60_000, new MetricasService(new SimpleMeterRegistry(), false));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(roteado);
+        TransactionTemplate somenteLeitura = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        somenteLeitura.setReadOnly(true);
+
+        String nome = somenteLeitura.execute(status -> new JdbcTemplate(dataSource).queryForObject(CONSULTA, String.class));
+
+        assertThat(nome).isEqualTo("primario");
+    }
+
+    /**
+     * Simula um request novo; tenantId como o TenantFilter deixa no request (host do tenant).
+     */
+    private static void requisicao(Long tenantId)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        if (tenantId != null)
+            request.setAttribute("tenantId", tenantId);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static DataSource banco(String nome)
+    {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("drop table if exists origem");
+        jdbc.execute("create table origem (nome varchar(20), lido_em timestamp)");
+        jdbc.update("insert into origem (nome) values (?)", nome);
+
+        return dataSource;
+    }
+}
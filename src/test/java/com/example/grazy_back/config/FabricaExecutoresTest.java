@@ -0,0 +1,112 @@
+package com.example.grazy_back.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class FabricaExecutoresTest
+{
+    @Test
+    void modoVirtualRodaEmThreadsVirtuais() throws Exception
+    {
+        assertThat(threadDaTarefa(new FabricaExecutores(true)).isVirtual()).isTrue();
+    }
+
+    @Test
+    void modoPadraoRodaEmThreadsDePlataforma() throws Exception
+    {
+        assertThat(threadDaTarefa(new FabricaExecutores(false)).isVirtual()).isFalse();
+    }
+
+    @Test
+    void threadsVirtuaisContinuamLimitadasAoTamanhoDoPool() throws Exception
+    {
+        ThreadPoolTaskExecutor executor = new FabricaExecutores(true).criar("teste-", 2);
+        AtomicInteger emExecucao = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        CountDownLatch fim = new CountDownLatch(20);
+
+        try
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                executor.execute(() -> {
+                    maximo.accumulateAndGet(emExecucao.incrementAndGet(), Math::max);
+
+                    try
+                    {
+                        Thread.sleep(10);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    emExecucao.decrementAndGet();
+                    fim.countDown();
+                });
+            }
+
+            assertThat(fim.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(maximo.get()).isEqualTo(2);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void filaCheiaRecusaATarefa() throws Exception
+    {
+        ThreadPoolTaskExecutor executor = new FabricaExecutores(true).criar("teste-", 1, 1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        try
+        {
+            executor.execute(() -> aguardar(liberar));
+            executor.execute(() -> aguardar(liberar));
+
+            assertThatThrownBy(() -> executor.execute(() -> {}))
+                .isInstanceOf(TaskRejectedException.class);
+        }
+        finally
+        {
+            liberar.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static Thread threadDaTarefa(FabricaExecutores fabrica) throws Exception
+    {
+        ThreadPoolTaskExecutor executor = fabrica.criar("teste-", 1);
+
+        try
+        {
+            return executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
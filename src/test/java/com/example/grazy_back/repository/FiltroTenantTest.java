@@ -0,0 +1,147 @@
+package com.example.grazy_back.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.grazy_back.config.FiltroTenantConfig;
+import com.example.grazy_back.model.ImageMetadata;
+import com.example.grazy_back.model.Servico;
+import com.example.grazy_back.security.FiltroTenant;
+import com.example.grazy_back.security.JwtAuthenticationToken;
+
+/**
+ * O filtro de tenant cobre o que os serviços faziam à mão: consultas derivadas sem tenantId,
+ * findById e os UPDATE em lote (AtualizacaoEmLote). Sem tenant e sem super admin (jobs) fica desligado.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:filtro;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FiltroTenantConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FiltroTenantTest
+{
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private ImageMetadataRepository imageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long servicoTenant1;
+    private long servicoTenant2;
+
+    @BeforeEach
+    void dados()
+    {
+        servicoTenant1 = inserirServico(1L, "Corte");
+        servicoTenant2 = inserirServico(2L, "Barba");
+
+        jdbc.update("insert into image_metadata (tenant_id, stored_filename, for_servico, exibir_landing, ordem_landing) values (1, 'a.jpg', false, true, 0)");
+        jdbc.update("insert into image_metadata (tenant_id, stored_filename, for_servico, exibir_landing, ordem_landing) values (2, 'b.jpg', false, true, 0)");
+    }
+
+    @AfterEach
+    void limpar()
+    {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+        jdbc.update("delete from servico");
+        jdbc.update("delete from image_metadata");
+    }
+
+    @Test
+    void consultaSemTenantIdVeSoOTenantAtual()
+    {
+        requisicaoDoTenant(1L);
+
+        assertThat(servicoRepository.findByAtivoTrue(Sort.by("nome")))
+            .extracting(Servico::getNome)
+            .containsExactly("Corte");
+
+        assertThat(imageRepository.findAllByForServicoFalseAndExibirLandingTrueOrderByOrdemLandingAsc())
+            .extracting(ImageMetadata::getStoredFilename)
+            .containsExactly("a.jpg");
+    }
+
+    @Test
+    void findByIdNaoEnxergaOutroTenant()
+    {
+        requisicaoDoTenant(1L);
+
+        assertThat(servicoRepository.findById(servicoTenant1)).isPresent();
+        assertThat(servicoRepository.findById(servicoTenant2)).isEmpty();
+    }
+
+    @Test
+    void atualizacaoEmLoteSoAlteraOTenantAtual()
+    {
+        requisicaoDoTenant(1L);
+
+        assertThat(servicoRepository.atualizarOrdem(List.of(servicoTenant2, servicoTenant1))).isEqualTo(1);
+        assertThat(imageRepository.atualizarOrdemLanding(List.of("b.jpg", "a.jpg"))).isEqualTo(1);
+
+        assertThat(jdbc.queryForObject("select ordem from servico where id = ?", Integer.class, servicoTenant1)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("select ordem from servico where id = ?", Integer.class, servicoTenant2)).isNull();
+        assertThat(jdbc.queryForObject("select ordem_landing from image_metadata where stored_filename = 'b.jpg'", Integer.class)).isZero();
+    }
+
+    @Test
+    void superAdminVeTodosOsTenants()
+    {
+        SecurityContextHolder.getContext().setAuthentication(
+            new JwtAuthenticationToken("admin", List.of(), "SUPER_ADMIN", null, null));
+
+        assertThat(servicoRepository.findByAtivoTrue(Sort.by("nome")))
+            .extracting(Servico::getNome)
+            .containsExactly("Barba", "Corte");
+    }
+
+    @Test
+    void semTenantNemSuperAdminOFiltroFicaDesligado()
+    {
+        assertThat(FiltroTenant.semEscopo()).isTrue();
+        assertThat(servicoRepository.findByAtivoTrue(Sort.by("nome"))).hasSize(2);
+
+        requisicaoDoTenant(1L);
+        assertThat(FiltroTenant.semEscopo()).isFalse();
+    }
+
+    private long inserirServico(Long tenantId, String nome)
+    {
+        jdbc.update("insert into servico (tenant_id, nome, ativo) values (?, ?, true)", tenantId, nome);
+        return jdbc.queryForObject("select id from servico where nome = ?", Long.class, nome);
+    }
+
+    private static void requisicaoDoTenant(Long tenantId)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("tenantId", tenantId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.grazy_back.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.grazy_back.config.FiltroTenantConfig;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Confere o plano (EXPLAIN) de todo SQL emitido pelos métodos de consulta dos repositórios:
+ * cada tabela filtrada precisa ser lida por um índice, não por varredura completa.
+ * Roda no H2 em modo MySQL com o esquema criado pelas migrações do Flyway; um método novo
+ * sem índice correspondente (ou uma migração que remova um índice usado) quebra o teste.
+ * As consultas rodam com o filtro de tenant habilitado, como numa requisição de tenant.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:indices;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.properties." + AvailableSettings.STATEMENT_INSPECTOR + "=com.example.grazy_back.repository.IndicesConsultasTest$Captura"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FiltroTenantConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IndicesConsultasTest
+{
+    private static final List<String> SQLS = new ArrayList<>();
+
+    /**
+     * Varreduras aceitas, com o motivo. Só entra aqui consulta que lê (quase) a tabela inteira de propósito.
+     */
+    private static final Map<String, String> VARREDURAS_ACEITAS = Map.of(
+        "TenantRepository.findByAtivoTrue", "jobs que percorrem todos os tenants ativos; ativo não é seletivo",
+        "TenantRepository.findByAtivoTrueOrderByCriadoEmDesc", "listagem completa do super admin",
+        "TenantRepository.listar", "listagem paginada do super admin com filtros opcionais sobre toda a tabela tenants"
+    );
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Guarda o SQL que o Hibernate prepara (antes de executar: vale mesmo se o H2 recusar o comando).
+     */
+    public static class Captura implements StatementInspector
+    {
+        @Override
+        public String inspect(String sql)
+        {
+            synchronized (SQLS)
+            {
+                SQLS.add(sql);
+            }
+
+            return sql;
+        }
+    }
+
+    private static class SemExemplo extends RuntimeException
+    {
+        SemExemplo(String message)
+        {
+            super(message);
+        }
+    }
+
+    @BeforeEach
+    void requisicaoDeTenant()
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("tenantId", 1L);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void limpar()
+    {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void todaConsultaDosRepositoriosUsaIndice() throws Exception
+    {
+        Repositories repositories = new Repositories(context);
+        List<String> varreduras = new ArrayList<>();
+        int metodos = 0;
+
+        for (Class<?> dominio : repositories)
+        {
+            Class<?> interfaceRepositorio = repositories.getRequiredRepositoryInformation(dominio).getRepositoryInterface();
+            Object repositorio = repositories.getRepositoryFor(dominio).orElseThrow();
+
+            for (Method metodo : metodosDeConsulta(interfaceRepositorio))
+            {
+                String nome = interfaceRepositorio.getSimpleName() + "." + metodo.getName();
+                metodos++;
+
+                if (VARREDURAS_ACEITAS.containsKey(nome))
+                    continue;
+
+                for (String sql : executar(repositorio, metodo))
+                {
+                    String plano = explicar(sql);
+
+                    if (plano.contains(".tableScan"))
+                        varreduras.add(nome + "\n    " + sql + "\n    " + plano);
+                }
+            }
+        }
+
+        assertThat(metodos).as("métodos de consulta encontrados").isGreaterThan(50);
+        assertThat(varreduras).as("consultas sem índice").isEmpty();
+    }
+
+    /**
+     * Métodos declarados no repositório e nos fragmentos customizados (não os herdados de JpaRepository).
+     */
+    private static List<Method> metodosDeConsulta(Class<?> interfaceRepositorio)
+    {
+        List<Method> metodos = new ArrayList<>();
+        List<Class<?>> tipos = new ArrayList<>();
+        tipos.add(interfaceRepositorio);
+
+        for (Class<?> pai : interfaceRepositorio.getInterfaces())
+            if (pai.getPackage().equals(interfaceRepositorio.getPackage()))
+                tipos.add(pai);
+
+        for (Class<?> tipo : tipos)
+            for (Method metodo : tipo.getDeclaredMethods())
+                if (!Modifier.isStatic(metodo.getModifiers()) && !metodo.isSynthetic())
+                    metodos.add(metodo);
+
+        metodos.sort(Comparator.comparing(Method::getName));
+        return metodos;
+    }
+
+    /**
+     * Chama o método com valores de exemplo em uma transação desfeita no final e devolve o SQL emitido.
+     */
+    private List<String> executar(Object repositorio, Method metodo)
+    {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        synchronized (SQLS)
+        {
+            SQLS.clear();
+        }
+
+        try
+        {
+            transacao.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+
+                try
+                {
+                    Object[] argumentos = new Object[metodo.getParameterCount()];
+
+                    for (int i = 0; i < argumentos.length; i++)
+                        argumentos[i] = exemplo(metodo.getParameterTypes()[i], metodo.getGenericParameterTypes()[i]);
+
+                    Object resultado = metodo.invoke(repositorio, argumentos);
+
+                    if (resultado instanceof Stream<?> stream)
+                    {
+                        try (stream)
+                        {
+                            stream.count();
+                        }
+                    }
+
+                    // Bulk update/delete só vai para o banco no flush
+                    entityManager.flush();
+                }
+                catch (ReflectiveOperationException e)
+                {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        catch (SemExemplo e)
+        {
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            // SQL específico do MySQL que o H2 não executa: o plano ainda é conferido abaixo
+        }
+
+        synchronized (SQLS)
+        {
+            return SQLS.stream()
+                .filter(sql -> !sql.stripLeading().toLowerCase().startsWith("insert"))
+                .distinct()
+                .toList();
+        }
+    }
+
+    private String explicar(String sql) throws Exception
+    {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement("EXPLAIN " + sql))
+        {
+            for (int i = 1; i <= ps.getParameterMetaData().getParameterCount(); i++)
+                ps.setObject(i, null);
+
+            try (ResultSet rs = ps.executeQuery())
+            {
+                StringBuilder plano = new StringBuilder();
+
+                while (rs.next())
+                    plano.append(rs.getString(1));
+
+                return plano.toString();
+            }
+        }
+    }
+
+    private Object exemplo(Class<?> tipo, Type generico)
+    {
+        if (tipo == Long.class || tipo == long.class)
+            return 1L;
+        if (tipo == Integer.class || tipo == int.class)
+            return 1;
+        if (tipo == Double.class || tipo == double.class)
+            return 1.0;
+        if (tipo == Boolean.class || tipo == boolean.class)
+            return true;
+        if (tipo == String.class)
+            return "exemplo";
+        if (tipo == BigDecimal.class)
+            return BigDecimal.ONE;
+        if (tipo == LocalDateTime.class)
+            return LocalDateTime.now();
+        if (tipo == LocalDate.class)
+            return LocalDate.now();
+        if (tipo == Instant.class)
+            return Instant.now();
+        if (tipo == Date.class)
+            return new Date();
+        if (tipo == YearMonth.class)
+            return YearMonth.now();
+        if (tipo.isEnum())
+            return tipo.getEnumConstants()[0];
+        if (tipo == Pageable.class)
+            return PageRequest.of(0, 10);
+        if (tipo == Sort.class)
+            return Sort.unsorted();
+        if (tipo.isAnnotationPresent(Entity.class))
+            return entityManager.getReference(tipo, 1L);
+
+        if (generico instanceof ParameterizedType parametrizado)
+        {
+            Type[] argumentos = parametrizado.getActualTypeArguments();
+
+            if (Map.class.isAssignableFrom(tipo))
+                return Map.of(exemplo((Class<?>) argumentos[0], argumentos[0]), exemplo((Class<?>) argumentos[1], argumentos[1]));
+            if (Set.class.isAssignableFrom(tipo))
+                return Set.of(exemplo((Class<?>) argumentos[0], argumentos[0]));
+            if (Collection.class.isAssignableFrom(tipo))
+                return List.of(exemplo((Class<?>) argumentos[0], argumentos[0]));
+        }
+
+        throw new SemExemplo("Sem valor de exemplo para parâmetros do tipo " + generico
+            + ": inclua o tipo em IndicesConsultasTest.exemplo");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.grazy_back.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TemplateCompiladoTest
+{
+    private static final Set<String> PERMITIDAS = Set.of("nome", "data", "hora");
+
+    @Test
+    void substituiVariaveisEntreOsLiterais()
+    {
+        TemplateCompilado template = TemplateCompilado.compilar("Olá {{nome}}, seu horário é {{data}} às {{ hora }}.", PERMITIDAS);
+
+        String texto = template.renderizar(Map.of("nome", "Ana", "data", "20/10", "hora", "14:00"));
+
+        assertThat(texto).isEqualTo("Olá Ana, seu horário é 20/10 às 14:00.");
+    }
+
+    @Test
+    void variavelRepetidaENoInicioOuFim()
+    {
+        TemplateCompilado template = TemplateCompilado.compilar("{{nome}} e {{nome}}", PERMITIDAS);
+
+        assertThat(template.renderizar(Map.of("nome", "Ana"))).isEqualTo("Ana e Ana");
+    }
+
+    @Test
+    void textoSemVariaveisVoltaIgual()
+    {
+        TemplateCompilado template = TemplateCompilado.compilar("Sem variáveis } { }}", PERMITIDAS);
+
+        assertThat(template.renderizar(Map.of())).isEqualTo("Sem variáveis } { }}");
+    }
+
+    @Test
+    void chaveAusenteOuNulaViraTextoVazio()
+    {
+        TemplateCompilado template = TemplateCompilado.compilar("[{{nome}}][{{data}}]", PERMITIDAS);
+
+        assertThat(template.renderizar(TemplateCompilado.valores("nome", null))).isEqualTo("[][]");
+    }
+
+    @Test
+    void valorNaoStringUsaToString()
+    {
+        TemplateCompilado template = TemplateCompilado.compilar("Total: {{nome}}", PERMITIDAS);
+
+        assertThat(template.renderizar(Map.of("nome", 42))).isEqualTo("Total: 42");
+    }
+
+    @Test
+    void variavelNaoFechadaRecusaOTemplate()
+    {
+        assertThatThrownBy(() -> TemplateCompilado.compilar("Olá {{nome}}, até {{data", PERMITIDAS))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("não fechada na posição 18");
+    }
+
+    @Test
+    void variavelDesconhecidaRecusaOTemplate()
+    {
+        assertThatThrownBy(() -> TemplateCompilado.compilar("Olá {{cpf}}", PERMITIDAS))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("{{cpf}}");
+    }
+
+    @Test
+    void renderizacoesSeguidasNaoMisturamOBufferDaThread()
+    {
+        TemplateCompilado longo = TemplateCompilado.compilar("{{nome}}", PERMITIDAS);
+        TemplateCompilado curto = TemplateCompilado.compilar("Oi {{nome}}", PERMITIDAS);
+
+        String grande = "x".repeat(100_000);
+
+        assertThat(longo.renderizar(Map.of("nome", grande))).isEqualTo(grande);
+        assertThat(curto.renderizar(Map.of("nome", "Ana"))).isEqualTo("Oi Ana");
+    }
+
+    @Test
+    void valoresExigePares()
+    {
+        assertThatThrownBy(() -> TemplateCompilado.valores("nome"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}